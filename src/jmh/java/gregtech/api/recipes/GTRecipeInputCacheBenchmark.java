@@ -0,0 +1,109 @@
+package gregtech.api.recipes;
+
+import gregtech.Bootstrap;
+import gregtech.api.recipes.ingredients.GTRecipeInput;
+import gregtech.api.recipes.ingredients.GTRecipeItemInput;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link GTRecipeInputCache} deduplication, both for inputs equal to already cached instances, which is
+ * the common case during recipe registration, and for inputs which are not cached yet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GTRecipeInputCacheBenchmark {
+
+    /**
+     * Kept below the minimum cache size, so disabling the cache does not write the size to persistent data
+     */
+    private static final int UNIQUE_INPUTS = 2048;
+    private static final int DUPLICATES = 4;
+
+    private final List<Item> items = new ObjectArrayList<>();
+
+    private GTRecipeInput[] duplicates;
+    private GTRecipeInput[] uncached;
+
+    @Setup(Level.Trial)
+    public void setupItems() {
+        Bootstrap.perform();
+        for (Item item : Item.REGISTRY) {
+            if (item != Items.AIR) items.add(item);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupCache() {
+        GTRecipeInputCache.enableCache(UNIQUE_INPUTS * 2);
+        for (int i = 0; i < UNIQUE_INPUTS; i++) {
+            GTRecipeInputCache.deduplicate(createInput(i, 0));
+        }
+
+        // equal to the cached inputs, but distinct instances which are not marked as cached
+        this.duplicates = new GTRecipeInput[UNIQUE_INPUTS * DUPLICATES];
+        for (int i = 0; i < duplicates.length; i++) {
+            duplicates[i] = createInput(i % UNIQUE_INPUTS, 0);
+        }
+
+        // amounts differ from the cached inputs, so none are equal to them
+        this.uncached = new GTRecipeInput[UNIQUE_INPUTS];
+        for (int i = 0; i < uncached.length; i++) {
+            uncached[i] = createInput(i, 64);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownCache() {
+        GTRecipeInputCache.disableCache();
+    }
+
+    private GTRecipeInput createInput(int index, int amountOffset) {
+        Item item = items.get(index % items.size());
+        return new GTRecipeItemInput(new ItemStack(item), 1 + amountOffset + index / items.size());
+    }
+
+    @Benchmark
+    public void deduplicateCached(Blackhole blackhole) {
+        for (GTRecipeInput input : duplicates) {
+            blackhole.consume(GTRecipeInputCache.deduplicate(input));
+        }
+    }
+
+    /**
+     * Only the first invocation of each iteration inserts into the cache, so this is measured as a single shot.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 20)
+    public void deduplicateUncached(Blackhole blackhole) {
+        for (GTRecipeInput input : uncached) {
+            blackhole.consume(GTRecipeInputCache.deduplicate(input));
+        }
+    }
+}
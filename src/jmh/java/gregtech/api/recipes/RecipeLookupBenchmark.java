@@ -0,0 +1,137 @@
+package gregtech.api.recipes;
+
+import gregtech.Bootstrap;
+import gregtech.api.GTValues;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import gregtech.api.unification.material.Material;
+import gregtech.api.unification.material.Materials;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.ItemStackHandler;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks recipe lookup and matching against machine inventories, in a RecipeMap filled with generated recipes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeLookupBenchmark {
+
+    private static final Material[] FLUIDS = { Materials.Water, Materials.Oxygen, Materials.Hydrogen,
+            Materials.Nitrogen, Materials.Naphtha, Materials.Epichlorohydrin, Materials.NitrogenDioxide,
+            Materials.SulfuricAcid };
+
+    private static int mapId;
+
+    /**
+     * If the RecipeMap lookup is compiled before searching, as it is after loading
+     */
+    @Param({ "true", "false" })
+    public boolean frozen;
+
+    @Param({ "4096" })
+    public int recipeCount;
+
+    private RecipeMap<SimpleRecipeBuilder> recipeMap;
+    private Recipe expected;
+
+    private final ItemStackHandler matchingItems = new ItemStackHandler(4);
+    private final FluidTankList matchingFluids = createTanks();
+    private final ItemStackHandler missingItems = new ItemStackHandler(4);
+    private final FluidTankList missingFluids = createTanks();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Bootstrap.perform();
+
+        this.recipeMap = new RecipeMapBuilder<>("benchmark_lookup_" + mapId++, new SimpleRecipeBuilder())
+                .itemInputs(2)
+                .itemOutputs(1)
+                .fluidInputs(1)
+                .build();
+
+        List<Item> items = new ObjectArrayList<>();
+        for (Item item : Item.REGISTRY) {
+            if (item != Items.AIR) items.add(item);
+        }
+
+        // every recipe has a unique combination of two items and a fluid, so none of them collide
+        for (int i = 0; i < recipeCount; i++) {
+            Item first = items.get(i % items.size());
+            Item second = items.get((i / items.size() + 1 + i) % items.size());
+            if (first == second) continue;
+            recipeMap.recipeBuilder()
+                    .inputs(new ItemStack(first), new ItemStack(second))
+                    .fluidInputs(FLUIDS[i % FLUIDS.length].getFluid(100))
+                    .outputs(new ItemStack(Blocks.STONE))
+                    .EUt(GTValues.VA[GTValues.LV]).duration(20)
+                    .buildAndRegister();
+        }
+
+        if (frozen) {
+            recipeMap.freeze();
+        }
+
+        // use the last registered recipe, so the lookup cannot terminate early by chance
+        List<Recipe> recipes = new ObjectArrayList<>(recipeMap.getRecipeList());
+        this.expected = recipes.get(recipes.size() - 1);
+        for (int i = 0; i < expected.getInputs().size(); i++) {
+            ItemStack stack = expected.getInputs().get(i).getInputStacks()[0].copy();
+            stack.setCount(16);
+            matchingItems.setStackInSlot(i, stack);
+        }
+        matchingFluids.getTankAt(0).fill(expected.getFluidInputs().get(0).getInputFluidStack().copy(), true);
+
+        // an item which is used by recipes, together with a fluid which no recipe uses with it
+        missingItems.setStackInSlot(0, matchingItems.getStackInSlot(0).copy());
+        missingFluids.getTankAt(0).fill(Materials.Lava.getFluid(1000), true);
+
+        if (recipeMap.findRecipe(Long.MAX_VALUE, matchingItems, matchingFluids) != expected) {
+            throw new IllegalStateException("Benchmark recipe could not be found");
+        }
+    }
+
+    private static FluidTankList createTanks() {
+        return new FluidTankList(false, new FluidTank(16000), new FluidTank(16000));
+    }
+
+    @Benchmark
+    public Recipe findMatching() {
+        return recipeMap.findRecipe(Long.MAX_VALUE, matchingItems, matchingFluids);
+    }
+
+    @Benchmark
+    public Recipe findMissing() {
+        return recipeMap.findRecipe(Long.MAX_VALUE, missingItems, missingFluids);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return expected.matches(false, matchingItems, matchingFluids);
+    }
+}
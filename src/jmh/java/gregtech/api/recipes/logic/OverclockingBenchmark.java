@@ -0,0 +1,69 @@
+package gregtech.api.recipes.logic;
+
+import gregtech.api.GTValues;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static gregtech.api.recipes.logic.OverclockingLogic.*;
+
+/**
+ * Benchmarks the overclocking algorithms for an LV recipe in machines of increasing tier.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverclockingBenchmark {
+
+    @Param({ "1", "5", "14" })
+    public int machineTier;
+
+    private final OCParams params = new OCParams();
+    private final OCResult result = new OCResult();
+
+    private void initialize() {
+        params.initialize(GTValues.VA[GTValues.LV], 200, machineTier - GTValues.LV);
+        result.reset();
+    }
+
+    @Benchmark
+    public OCResult standard() {
+        initialize();
+        standardOC(params, result, GTValues.V[machineTier], STD_DURATION_FACTOR, STD_VOLTAGE_FACTOR);
+        return result;
+    }
+
+    @Benchmark
+    public OCResult subTickNonParallel() {
+        initialize();
+        subTickNonParallelOC(params, result, GTValues.V[machineTier], STD_DURATION_FACTOR, STD_VOLTAGE_FACTOR);
+        return result;
+    }
+
+    @Benchmark
+    public OCResult subTickParallel() {
+        initialize();
+        subTickParallelOC(params, result, GTValues.V[machineTier], STD_DURATION_FACTOR, STD_VOLTAGE_FACTOR);
+        return result;
+    }
+
+    @Benchmark
+    public OCResult heatingCoil() {
+        initialize();
+        heatingCoilOC(params, result, GTValues.V[machineTier], 5400, 1800);
+        return result;
+    }
+}
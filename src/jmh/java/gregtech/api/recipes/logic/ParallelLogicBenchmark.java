@@ -0,0 +1,109 @@
+package gregtech.api.recipes.logic;
+
+import gregtech.Bootstrap;
+import gregtech.api.GTValues;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.metatileentity.IVoidable;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeBuilder;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.RecipeMapBuilder;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import gregtech.api.unification.material.Materials;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.ItemStackHandler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ParallelLogic#doParallelRecipes} for a recipe with item and fluid inputs and outputs, with
+ * partially filled output inventories.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelLogicBenchmark {
+
+    private static final IVoidable NO_VOIDING = new IVoidable() {
+
+        @Override
+        public boolean canVoidRecipeItemOutputs() {
+            return false;
+        }
+
+        @Override
+        public boolean canVoidRecipeFluidOutputs() {
+            return false;
+        }
+    };
+
+    private static int mapId;
+
+    @Param({ "4", "64", "256" })
+    public int parallelAmount;
+
+    private RecipeMap<SimpleRecipeBuilder> recipeMap;
+    private Recipe recipe;
+
+    private final ItemStackHandler importItems = new ItemStackHandler(4);
+    private final FluidTankList importFluids = new FluidTankList(false, new FluidTank(64000), new FluidTank(64000));
+    private final ItemStackHandler exportItems = new ItemStackHandler(4);
+    private final FluidTankList exportFluids = new FluidTankList(false, new FluidTank(64000), new FluidTank(64000));
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Bootstrap.perform();
+
+        this.recipeMap = new RecipeMapBuilder<>("benchmark_parallel_" + mapId++, new SimpleRecipeBuilder())
+                .itemInputs(2)
+                .itemOutputs(2)
+                .fluidInputs(2)
+                .fluidOutputs(2)
+                .build();
+
+        this.recipe = recipeMap.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE), new ItemStack(Blocks.SAND, 2))
+                .fluidInputs(Materials.Water.getFluid(100))
+                .outputs(new ItemStack(Blocks.STONE), new ItemStack(Blocks.GLASS))
+                .fluidOutputs(Materials.Steam.getFluid(160))
+                .EUt(GTValues.VA[GTValues.LV]).duration(20)
+                .build().getResult();
+
+        // enough inputs for every parallel, spread over several slots
+        importItems.setStackInSlot(0, new ItemStack(Blocks.COBBLESTONE, 64));
+        importItems.setStackInSlot(1, new ItemStack(Blocks.COBBLESTONE, 64));
+        importItems.setStackInSlot(2, new ItemStack(Blocks.SAND, 64));
+        importItems.setStackInSlot(3, new ItemStack(Blocks.SAND, 64));
+        importFluids.getTankAt(0).fill(Materials.Water.getFluid(64000), true);
+
+        // partially filled outputs, so merging has to be simulated against existing stacks
+        exportItems.setStackInSlot(0, new ItemStack(Blocks.STONE, 32));
+        exportItems.setStackInSlot(1, new ItemStack(Blocks.GLASS, 48));
+        exportFluids.getTankAt(0).fill(Materials.Steam.getFluid(16000), true);
+    }
+
+    @Benchmark
+    public RecipeBuilder<?> doParallelRecipes() {
+        return ParallelLogic.doParallelRecipes(recipe, recipeMap, importItems, importFluids, exportItems,
+                exportFluids, parallelAmount, GTValues.V[GTValues.UV], NO_VOIDING);
+    }
+}
@@ -447,6 +447,7 @@ public class BlockMachine extends BlockCustomParticle implements ITileEntityProv
             if (facing != null) gregTechTile.onNeighborChanged(facing);
             MetaTileEntity metaTileEntity = gregTechTile.getMetaTileEntity();
             if (metaTileEntity != null) {
+                metaTileEntity.wakeUp();
                 metaTileEntity.updateInputRedstoneSignals();
                 metaTileEntity.onNeighborChanged();
             }
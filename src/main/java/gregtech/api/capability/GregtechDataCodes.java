@@ -2,6 +2,8 @@ package gregtech.api.capability;
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import org.apache.commons.lang3.ArrayUtils;
 
 import java.lang.reflect.Field;
@@ -10,11 +12,32 @@ import java.lang.reflect.Modifier;
 public class GregtechDataCodes {
 
     private static int nextId = 0;
+    private static final IntSet LAST_WRITE_WINS = new IntOpenHashSet();
 
     public static int assignId() {
         return nextId++;
     }
 
+    /**
+     * Assign an id for data which replaces all data sent with the id before, such as the working state of a machine.
+     * Data which is superseded before it is sent to clients is dropped.
+     *
+     * @return the id
+     */
+    public static int assignLastWriteWinsId() {
+        int id = assignId();
+        LAST_WRITE_WINS.add(id);
+        return id;
+    }
+
+    /**
+     * @param id the id of the data
+     * @return if data with the id replaces all data sent with the id before
+     */
+    public static boolean isLastWriteWins(int id) {
+        return LAST_WRITE_WINS.contains(id);
+    }
+
     // MTE implementation update codes
     public static final int INITIALIZE_MTE = assignId();
     public static final int UPDATE_FRONT_FACING = assignId();
@@ -40,8 +63,8 @@ public class GregtechDataCodes {
     public static final int NEEDS_VENTING = assignId();
     public static final int VENTING_SIDE = assignId();
     public static final int VENTING_STUCK = assignId();
-    public static final int BOILER_HEAT = assignId();
-    public static final int BOILER_LAST_TICK_STEAM = assignId();
+    public static final int BOILER_HEAT = assignLastWriteWinsId();
+    public static final int BOILER_LAST_TICK_STEAM = assignLastWriteWinsId();
 
     // Misc TEs (Transformer, World Accelerator)
     public static final int SYNC_TILE_MODE = assignId();
@@ -59,7 +82,7 @@ public class GregtechDataCodes {
     public static final int PUMP_HEAD_LEVEL = assignId();
 
     // Item Collector, Magic Energy Absorber, Large Boiler, Steam Oven
-    public static final int IS_WORKING = assignId();
+    public static final int IS_WORKING = assignLastWriteWinsId();
 
     // Adjustable Transformer, Adjustable Energy Hatch, Diode
     public static final int AMP_INDEX = assignId();
@@ -80,7 +103,7 @@ public class GregtechDataCodes {
     public static final int COVER_REMOVED_PIPE = assignId();
     public static final int PIPE_OPTICAL_ACTIVE = assignId();
     public static final int PIPE_LASER_ACTIVE = assignId();
-    public static final int CABLE_TEMPERATURE = assignId();
+    public static final int CABLE_TEMPERATURE = assignLastWriteWinsId();
 
     // Multiblock implementation update codes
     public static final int SYNC_CONTROLLER = assignId();
@@ -142,14 +165,14 @@ public class GregtechDataCodes {
     public static final int LOAD_PHANTOM_FLUID_STACK_FROM_NBT = assignId();
 
     // Recipe Logic
-    public static final int WORKABLE_ACTIVE = assignId();
-    public static final int WORKING_ENABLED = assignId();
+    public static final int WORKABLE_ACTIVE = assignLastWriteWinsId();
+    public static final int WORKING_ENABLED = assignLastWriteWinsId();
 
     // Creative Energy
     public static final int UPDATE_IO_SPEED = assignId();
 
     // Quantum Chest/Tank
-    public static final int UPDATE_ITEM_COUNT = assignId();
+    public static final int UPDATE_ITEM_COUNT = assignLastWriteWinsId();
     public static final int UPDATE_FLUID_AMOUNT = assignId();
 
     // Quantum Storage Controller
@@ -31,4 +31,10 @@ public interface IQuantumController extends ICapabilityProvider {
     long getTypeEnergy(IQuantumStorage<?> storage);
 
     void onHandlerUpdate();
+
+    /**
+     * Called when the type of the contents of a connected storage changes, for example when an empty chest receives
+     * an item
+     */
+    default void onStorageContentsChanged(IQuantumStorage<?> storage) {}
 }
@@ -4,6 +4,7 @@ import gregtech.api.capability.impl.AbstractRecipeLogic;
 import gregtech.api.cover.CoverHolder;
 import gregtech.api.items.toolitem.ItemGTToolbelt;
 import gregtech.api.metatileentity.multiblock.IMaintenance;
+import gregtech.api.worldgen.generator.ChunkOreCensus;
 import gregtech.api.worldgen.generator.GTWorldGenCapability;
 import gregtech.common.metatileentities.converter.ConverterTrait;
 
@@ -55,5 +56,6 @@ public class SimpleCapabilityManager {
         // internal capabilities
         CapabilityManager.INSTANCE.register(GTWorldGenCapability.class, GTWorldGenCapability.STORAGE,
                 GTWorldGenCapability.FACTORY);
+        CapabilityManager.INSTANCE.register(ChunkOreCensus.class, ChunkOreCensus.STORAGE, ChunkOreCensus.FACTORY);
     }
 }
@@ -19,6 +19,7 @@ import gregtech.api.recipes.RecipeMap;
 import gregtech.api.recipes.logic.IParallelableRecipeLogic;
 import gregtech.api.recipes.logic.OCParams;
 import gregtech.api.recipes.logic.OCResult;
+import gregtech.api.recipes.logic.RecipeSearchCache;
 import gregtech.api.recipes.properties.RecipePropertyStorage;
 import gregtech.api.recipes.properties.impl.CleanroomProperty;
 import gregtech.api.recipes.properties.impl.DimensionProperty;
@@ -54,6 +55,9 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
     private static final String ALLOW_OVERCLOCKING = "AllowOverclocking";
     private static final String OVERCLOCK_VOLTAGE = "OverclockVoltage";
 
+    /** The amount of times the same recipe must be started in a row before its completions are batched */
+    private static final int BATCH_THRESHOLD = 8;
+
     private final RecipeMap<?> recipeMap;
 
     private double euDiscount = -1;
@@ -62,9 +66,12 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
     protected Recipe previousRecipe;
     private boolean allowOverclocking = true;
     protected int parallelRecipesPerformed;
+    /** The amount of times the previous recipe was started again in a row */
+    private int repeatedRecipeStarts;
     private long overclockVoltage;
     private final OCParams ocParams = new OCParams();
     private final OCResult ocResult = new OCResult();
+    private final RecipeSearchCache recipeSearchCache = new RecipeSearchCache();
 
     protected boolean canRecipeProgress = true;
 
@@ -236,6 +243,16 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
         }
     }
 
+    @Override
+    public int getSleepTicks() {
+        // only an idle logic waiting for its inputs or outputs to change, or for being enabled, can sleep
+        if (progressTime > 0 || isActive || wasActiveAndNeedsUpdate) return 0;
+        if (!workingEnabled) return Integer.MAX_VALUE;
+        if (invalidInputsForRecipes && !hasNotifiedInputs()) return Integer.MAX_VALUE;
+        if (isOutputsFull && !hasNotifiedOutputs()) return Integer.MAX_VALUE;
+        return 0;
+    }
+
     /**
      * DO NOT use the recipeMap field directly, EVER
      * <p>
@@ -397,6 +414,7 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
      */
     public void forceRecipeRecheck() {
         this.previousRecipe = null;
+        this.recipeSearchCache.clear();
         trySearchNewRecipe();
     }
 
@@ -410,11 +428,12 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
         IMultipleTankHandler importFluids = getInputTank();
 
         // see if the last recipe we used still works
-        if (checkPreviousRecipe()) {
+        boolean repeated = checkPreviousRecipe();
+        if (repeated) {
             currentRecipe = this.previousRecipe;
             // If there is no active recipe, then we need to find one.
         } else {
-            currentRecipe = findRecipe(maxVoltage, importInventory, importFluids);
+            currentRecipe = findRecipeCached(maxVoltage, importInventory, importFluids);
         }
         // If a recipe was found, then inputs were valid. Cache found recipe.
         if (currentRecipe != null) {
@@ -424,7 +443,12 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
 
         // proceed if we have a usable recipe.
         if (currentRecipe != null && checkRecipe(currentRecipe)) {
-            prepareRecipe(currentRecipe);
+            this.repeatedRecipeStarts = repeated ? this.repeatedRecipeStarts + 1 : 0;
+            if (!prepareRecipe(currentRecipe)) {
+                this.repeatedRecipeStarts = 0;
+            }
+        } else {
+            this.repeatedRecipeStarts = 0;
         }
     }
 
@@ -657,6 +681,57 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
         return map.findRecipe(maxVoltage, inputs, fluidInputs);
     }
 
+    /**
+     * Find a recipe using inputs, remembering the result for the current contents of the inputs.
+     * <p>
+     * If the same inputs were already searched without finding a recipe, the search is skipped entirely.
+     *
+     * @param maxVoltage  the maximum voltage the recipe can have
+     * @param inputs      the item inputs used to search for the recipe
+     * @param fluidInputs the fluid inputs used to search for the recipe
+     * @return the recipe if found, otherwise null
+     */
+    @Nullable
+    protected Recipe findRecipeCached(long maxVoltage, IItemHandlerModifiable inputs,
+                                      IMultipleTankHandler fluidInputs) {
+        RecipeMap<?> map = getRecipeMap();
+        if (map == null || !canCacheRecipeSearch() || !RecipeSearchCache.isCacheable(map)) {
+            return findRecipe(maxVoltage, inputs, fluidInputs);
+        }
+
+        long fingerprint = recipeSearchCache.getFingerprint(metaTileEntity, inputs, fluidInputs);
+        long kindFingerprint = recipeSearchCache.getKindFingerprint();
+        if (recipeSearchCache.contains(fingerprint, kindFingerprint, maxVoltage, map)) {
+            Recipe recipe = recipeSearchCache.get(fingerprint, kindFingerprint, maxVoltage, map);
+            // fingerprints may collide and amounts may differ, so remembered recipes are verified before use
+            if (recipe == null || recipe.matches(false, inputs, fluidInputs)) {
+                return recipe;
+            }
+        }
+
+        Recipe recipe = findRecipe(maxVoltage, inputs, fluidInputs);
+        recipeSearchCache.put(fingerprint, kindFingerprint, maxVoltage, map, recipe);
+        return recipe;
+    }
+
+    /**
+     * Override this to return false if the result of {@link #findRecipe(long, IItemHandlerModifiable,
+     * IMultipleTankHandler)} depends on anything other than the inputs, voltage and recipe map.
+     *
+     * @return if recipe search results can be remembered
+     */
+    protected boolean canCacheRecipeSearch() {
+        return true;
+    }
+
+    /**
+     * Forget all remembered recipe search results.
+     * Should be called when something other than the inputs changes the result of a recipe search.
+     */
+    protected void invalidateRecipeSearchCache() {
+        this.recipeSearchCache.clear();
+    }
+
     /**
      * @param recipeMap the recipemap to check
      * @return true if the recipemap is valid for recipe search
@@ -714,6 +789,14 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
 
         modifyOverclockPost(ocResult, recipe.propertyStorage());
 
+        // the EU/t available to each tick of a batch
+        long batchEUt = batchCompletions(importInventory, importFluids) ? ocResult.parallelEUt() : 0;
+        if (batchEUt > 0) {
+            int batchTicks = ConfigHolder.machines.recipeBatchTicks;
+            ocResult.setParallel(GTUtility.safeCastLongToInt((long) Math.max(1, ocResult.parallel()) * batchTicks));
+            ocResult.setParallelEUt(batchEUt * batchTicks);
+        }
+
         if (ocResult.parallel() > 1) {
             recipe = subTickOC(ocResult, recipe, importInventory, importFluids);
             if (recipe == null) {
@@ -722,6 +805,18 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
             }
         }
 
+        if (batchEUt > 0 && ocResult.eut() > batchEUt) {
+            // spread the completions over as many ticks as they would have taken without batching
+            int ticks = (int) ((ocResult.eut() + batchEUt - 1) / batchEUt);
+            long eut = (ocResult.eut() + ticks - 1) / ticks;
+            Recipe batched = new RecipeBuilder<>(recipe, getRecipeMap()).EUt(eut).build().getResult();
+            if (batched != null) {
+                recipe = batched;
+                ocResult.setEut(eut);
+                ocResult.setDuration(ocResult.duration() * ticks);
+            }
+        }
+
         if (!hasEnoughPower(ocResult.eut(), ocResult.duration())) {
             ocResult.reset();
             return null;
@@ -738,6 +833,22 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
         return null;
     }
 
+    /**
+     * Determines if the completions of the next ticks should be performed at once, which is the case when a recipe
+     * overclocked to 1 tick was started repeatedly from the same inputs.
+     *
+     * @param importInventory the input item inventory
+     * @param importFluids    the input fluid inventory
+     * @return if the completions should be batched
+     */
+    protected boolean batchCompletions(@NotNull IItemHandlerModifiable importInventory,
+                                       @NotNull IMultipleTankHandler importFluids) {
+        return ConfigHolder.machines.recipeBatchTicks > 1 && repeatedRecipeStarts >= BATCH_THRESHOLD &&
+                ocResult.duration() == 1 && ocResult.eut() > 0 && getRecipeMap() != null &&
+                importInventory == getInputInventory() && importFluids == getInputTank() &&
+                ocResult.parallelEUt() <= Long.MAX_VALUE / ConfigHolder.machines.recipeBatchTicks;
+    }
+
     /**
      * @param recipe          the recipe to check
      * @param exportInventory the inventory to output to
@@ -1139,6 +1250,7 @@ public abstract class AbstractRecipeLogic extends MTETrait implements IWorkable,
     @MustBeInvokedByOverriders
     public void invalidate() {
         previousRecipe = null;
+        repeatedRecipeStarts = 0;
         progressTime = 0;
         maxProgressTime = 0;
         recipeEUt = 0;
@@ -32,6 +32,7 @@ public class EnergyContainerBatteryBuffer extends EnergyContainerHandler {
 
     @Override
     public long acceptEnergyFromNetwork(EnumFacing side, long voltage, long amperage) {
+        catchUp();
         if (amperage <= 0 || voltage <= 0)
             return 0;
 
@@ -79,16 +80,10 @@ public class EnergyContainerBatteryBuffer extends EnergyContainerHandler {
 
     @Override
     public void update() {
-        amps = 0;
         if (metaTileEntity.getWorld().isRemote) {
             return;
         }
-        if (metaTileEntity.getOffsetTimer() % 20 == 0) {
-            lastEnergyInputPerSec = energyInputPerSec;
-            lastEnergyOutputPerSec = energyOutputPerSec;
-            energyInputPerSec = 0;
-            energyOutputPerSec = 0;
-        }
+        catchUp();
 
         EnumFacing outFacing = metaTileEntity.getFrontFacing();
         TileEntity tileEntity = metaTileEntity.getNeighbor(outFacing);
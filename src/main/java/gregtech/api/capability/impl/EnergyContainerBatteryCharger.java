@@ -30,6 +30,7 @@ public class EnergyContainerBatteryCharger extends EnergyContainerHandler {
 
     @Override
     public long acceptEnergyFromNetwork(EnumFacing side, long voltage, long amperage) {
+        catchUp();
         if (amperage <= 0 || voltage <= 0)
             return 0;
 
@@ -76,14 +77,10 @@ public class EnergyContainerBatteryCharger extends EnergyContainerHandler {
 
     @Override
     public void update() {
-        amps = 0;
         if (metaTileEntity.getWorld().isRemote) {
             return;
         }
-        if (metaTileEntity.getOffsetTimer() % 20 == 0) {
-            lastEnergyInputPerSec = energyInputPerSec;
-            energyInputPerSec = 0;
-        }
+        catchUp();
     }
 
     private long getInternalStorage() {
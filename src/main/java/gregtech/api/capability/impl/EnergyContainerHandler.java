@@ -11,6 +11,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.energy.CapabilityEnergy;
 import net.minecraftforge.energy.IEnergyStorage;
@@ -41,6 +42,13 @@ public class EnergyContainerHandler extends MTETrait implements IEnergyContainer
 
     protected long amps = 0;
 
+    /**
+     * The world time {@link #amps} was counted in and the second the per-second counters belong to. Kept in world
+     * time rather than the holder's timer so the bookkeeping stays correct while the machine is asleep.
+     */
+    private long ampsTime = -1;
+    private long perSecWindow = -1;
+
     public EnergyContainerHandler(MetaTileEntity tileEntity, long maxCapacity, long maxInputVoltage,
                                   long maxInputAmperage, long maxOutputVoltage, long maxOutputAmperage) {
         super(tileEntity);
@@ -71,11 +79,13 @@ public class EnergyContainerHandler extends MTETrait implements IEnergyContainer
 
     @Override
     public long getInputPerSec() {
+        catchUp();
         return lastEnergyInputPerSec;
     }
 
     @Override
     public long getOutputPerSec() {
+        catchUp();
         return lastEnergyOutputPerSec;
     }
 
@@ -113,6 +123,7 @@ public class EnergyContainerHandler extends MTETrait implements IEnergyContainer
     }
 
     public void setEnergyStored(long energyStored) {
+        catchUp();
         if (energyStored > this.energyStored) {
             energyInputPerSec += energyStored - this.energyStored;
         } else {
@@ -186,17 +197,17 @@ public class EnergyContainerHandler extends MTETrait implements IEnergyContainer
         return false;
     }
 
+    @Override
+    public int getSleepTicks() {
+        // energy is only received passively, while outputting requires an update every tick
+        return getOutputVoltage() > 0 && getOutputAmperage() > 0 ? 0 : Integer.MAX_VALUE;
+    }
+
     @Override
     public void update() {
-        amps = 0;
         if (getMetaTileEntity().getWorld().isRemote)
             return;
-        if (metaTileEntity.getOffsetTimer() % 20 == 0) {
-            lastEnergyOutputPerSec = energyOutputPerSec;
-            lastEnergyInputPerSec = energyInputPerSec;
-            energyOutputPerSec = 0;
-            energyInputPerSec = 0;
-        }
+        catchUp();
         if (getEnergyStored() >= getOutputVoltage() && getOutputVoltage() > 0 && getOutputAmperage() > 0) {
             long outputVoltage = getOutputVoltage();
             long outputAmperes = Math.min(getEnergyStored() / outputVoltage, getOutputAmperage());
@@ -222,8 +233,32 @@ public class EnergyContainerHandler extends MTETrait implements IEnergyContainer
         }
     }
 
+    /**
+     * Resets the amperage counter on a new tick and rolls the per-second counters over on a new second. Called from
+     * every entry point instead of relying on {@link #update()}, which does not run while the machine sleeps.
+     */
+    protected void catchUp() {
+        World world = metaTileEntity.getWorld();
+        if (world == null || world.isRemote) return;
+        long time = world.getTotalWorldTime();
+        if (time == ampsTime) return;
+        ampsTime = time;
+        amps = 0;
+        long window = time / 20;
+        if (window != perSecWindow) {
+            // a skipped second means nothing was transferred during the last full one
+            boolean consecutive = window == perSecWindow + 1;
+            lastEnergyInputPerSec = consecutive ? energyInputPerSec : 0;
+            lastEnergyOutputPerSec = consecutive ? energyOutputPerSec : 0;
+            energyInputPerSec = 0;
+            energyOutputPerSec = 0;
+            perSecWindow = window;
+        }
+    }
+
     @Override
     public long acceptEnergyFromNetwork(EnumFacing side, long voltage, long amperage) {
+        catchUp();
         if (amps >= getInputAmperage()) return 0;
         long canAccept = getEnergyCapacity() - getEnergyStored();
         if (voltage > 0L && (side == null || inputsEnergy(side))) {
@@ -36,15 +36,9 @@ public class LaserContainerHandler extends EnergyContainerHandler implements ILa
 
     @Override
     public void update() {
-        amps = 0;
         if (getMetaTileEntity().getWorld().isRemote)
             return;
-        if (metaTileEntity.getOffsetTimer() % 20 == 0) {
-            lastEnergyOutputPerSec = energyOutputPerSec;
-            lastEnergyInputPerSec = energyInputPerSec;
-            energyOutputPerSec = 0;
-            energyInputPerSec = 0;
-        }
+        catchUp();
         if (getEnergyStored() >= getOutputVoltage() && getOutputVoltage() > 0 && getOutputAmperage() > 0) {
             long outputVoltage = getOutputVoltage();
             long outputAmperes = Math.min(getEnergyStored() / outputVoltage, getOutputAmperage());
@@ -26,27 +26,37 @@ import net.minecraft.util.NonNullList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import codechicken.lib.render.CCRenderState;
 import codechicken.lib.render.pipeline.IVertexOperation;
 import codechicken.lib.vec.Matrix4;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class MinerLogic {
 
-    private static final short MAX_SPEED = Short.MAX_VALUE;
-    private static final byte POWER = 5;
-    private static final byte TICK_TOLERANCE = 20;
-    private static final double DIVIDEND = MAX_SPEED * Math.pow(TICK_TOLERANCE, POWER);
+    /**
+     * The time in nanoseconds a single scan for blocks to mine may take
+     */
+    private static final long SCAN_TIME_BUDGET = 500_000L;
+
+    /**
+     * The block state ids which have been checked for being an ore, and those which are ores
+     */
+    private static final BitSet CHECKED_STATES = new BitSet();
+    private static final BitSet ORE_STATES = new BitSet();
+    /** The ore dictionary generation the checked states are valid for */
+    private static int oreStatesGeneration = -1;
 
     protected final MetaTileEntity metaTileEntity;
     protected final IMiner miner;
@@ -57,7 +67,7 @@ public class MinerLogic {
 
     private final ICubeRenderer PIPE_TEXTURE;
 
-    private final LinkedList<BlockPos> blocksToMine = new LinkedList<>();
+    private final LongArrayFIFOQueue blocksToMine = new LongArrayFIFOQueue();
 
     private final AtomicInteger x = new AtomicInteger(Integer.MAX_VALUE);
     private final AtomicInteger y = new AtomicInteger(Integer.MAX_VALUE);
@@ -73,6 +83,7 @@ public class MinerLogic {
     private int pipeLength = 0;
     private int currentRadius;
     private boolean isDone;
+    private boolean scanInterrupted;
     private boolean isActive = false;
     private boolean isWorkingEnabled = true;
     protected boolean wasActiveAndNeedsUpdate;
@@ -171,35 +182,40 @@ public class MinerLogic {
         // if there are blocks to mine and the correct amount of time has passed, do the mining
         if (metaTileEntity.getOffsetTimer() % this.speed == 0 && !blocksToMine.isEmpty()) {
             NonNullList<ItemStack> blockDrops = NonNullList.create();
-            IBlockState blockState = metaTileEntity.getWorld().getBlockState(blocksToMine.getFirst());
+            BlockPos blockPos = BlockPos.fromLong(blocksToMine.firstLong());
+            IBlockState blockState = world.getBlockState(blockPos);
 
             // check to make sure the ore is still there,
-            while (!GTUtility.isOre(GTUtility.toItem(blockState))) {
-                blocksToMine.removeFirst();
+            while (!isOre(blockState)) {
+                blocksToMine.dequeueLong();
                 if (blocksToMine.isEmpty()) break;
-                blockState = metaTileEntity.getWorld().getBlockState(blocksToMine.getFirst());
+                blockPos = BlockPos.fromLong(blocksToMine.firstLong());
+                blockState = world.getBlockState(blockPos);
             }
             // When we are here we have an ore to mine! I'm glad we aren't threaded
-            if (!blocksToMine.isEmpty() && GTUtility.isOre(GTUtility.toItem(blockState))) {
+            if (!blocksToMine.isEmpty() && isOre(blockState)) {
                 // get the small ore drops, if a small ore
-                getSmallOreBlockDrops(blockDrops, world, blocksToMine.getFirst(), blockState);
+                getSmallOreBlockDrops(blockDrops, world, blockPos, blockState);
                 // get the block's drops.
-                getRegularBlockDrops(blockDrops, world, blocksToMine.getFirst(), blockState);
+                getRegularBlockDrops(blockDrops, world, blockPos, blockState);
                 // try to insert them
-                mineAndInsertItems(blockDrops, world);
+                mineAndInsertItems(blockDrops, world, blockPos);
             }
 
         }
 
         if (blocksToMine.isEmpty()) {
-            // there were no blocks to mine, so the current position is the previous position
-            x.set(mineX.get());
-            y.set(mineY.get());
-            z.set(mineZ.get());
+            // there were no blocks to mine, so the current position is the previous position,
+            // unless the last scan ran out of time before reaching the end of the area
+            if (!scanInterrupted) {
+                x.set(mineX.get());
+                y.set(mineY.get());
+                z.set(mineZ.get());
+            }
 
             // attempt to get more blocks to mine, if there are none, the miner is done mining
-            blocksToMine.addAll(getBlocksToMine());
-            if (blocksToMine.isEmpty()) {
+            scanBlocksToMine();
+            if (blocksToMine.isEmpty() && !scanInterrupted) {
                 this.isDone = true;
                 this.wasActiveAndNeedsUpdate = true;
                 this.setActive(false);
@@ -277,20 +293,21 @@ public class MinerLogic {
      * called in order to insert the mined items into the inventory and actually remove the block in world
      * marks the inventory as full if the items cannot fit, and not full if it previously was full and items could fit
      *
-     * @param blockDrops the List of items to insert
-     * @param world      the {@link WorldServer} the miner is in
+     * @param blockDrops  the List of items to insert
+     * @param world       the {@link WorldServer} the miner is in
+     * @param blockToMine the {@link BlockPos} of the block being mined
      */
-    private void mineAndInsertItems(List<ItemStack> blockDrops, WorldServer world) {
+    private void mineAndInsertItems(List<ItemStack> blockDrops, WorldServer world, BlockPos blockToMine) {
         // If the block's drops can fit in the inventory, move the previously mined position to the block
         // replace the ore block with cobblestone instead of breaking it to prevent mob spawning
         // remove the ore block's position from the mining queue
         if (GTTransferUtils.addItemsToItemHandler(metaTileEntity.getExportItems(), true, blockDrops)) {
             GTTransferUtils.addItemsToItemHandler(metaTileEntity.getExportItems(), false, blockDrops);
-            world.setBlockState(blocksToMine.getFirst(), oreReplacementBlock);
-            mineX.set(blocksToMine.getFirst().getX());
-            mineZ.set(blocksToMine.getFirst().getZ());
-            mineY.set(blocksToMine.getFirst().getY());
-            blocksToMine.removeFirst();
+            world.setBlockState(blockToMine, oreReplacementBlock);
+            mineX.set(blockToMine.getX());
+            mineZ.set(blockToMine.getZ());
+            mineY.set(blockToMine.getY());
+            blocksToMine.dequeueLong();
             onMineOperation();
 
             // if the inventory was previously considered full, mark it as not since an item was able to fit
@@ -339,7 +356,7 @@ public class MinerLogic {
      */
     public void checkBlocksToMine() {
         if (blocksToMine.isEmpty())
-            blocksToMine.addAll(getBlocksToMine());
+            scanBlocksToMine();
     }
 
     /**
@@ -349,91 +366,96 @@ public class MinerLogic {
         initPos(metaTileEntity.getPos(), currentRadius);
         if (this.isDone) this.setWorkingEnabled(false);
         this.isDone = false;
+        this.scanInterrupted = false;
         blocksToMine.clear();
         checkBlocksToMine();
         resetPipeLength();
     }
 
     /**
-     * Gets the blocks to mine
-     *
-     * @return a {@link LinkedList} of {@link BlockPos} for each ore to mine
-     */
-    private LinkedList<BlockPos> getBlocksToMine() {
-        LinkedList<BlockPos> blocks = new LinkedList<>();
-
-        // determine how many blocks to retrieve this time
-        double quotient = getQuotient(getMeanTickTime(metaTileEntity.getWorld()));
-        int calcAmount = quotient < 1 ? 1 : (int) (Math.min(quotient, Short.MAX_VALUE));
-        int calculated = 0;
-
-        // keep getting blocks until the target amount is reached
-        while (calculated < calcAmount) {
-            // moving down the y-axis
-            if (y.get() > 0) {
-                // moving across the z-axis
-                if (z.get() <= startZ.get() + currentRadius * 2) {
-                    // check every block along the x-axis
-                    if (x.get() <= startX.get() + currentRadius * 2) {
-                        BlockPos blockPos = new BlockPos(x.get(), y.get(), z.get());
-                        IBlockState state = metaTileEntity.getWorld().getBlockState(blockPos);
-                        if (state.getBlock().blockHardness >= 0 &&
-                                metaTileEntity.getWorld().getTileEntity(blockPos) == null &&
-                                GTUtility.isOre(GTUtility.toItem(state))) {
-                            blocks.addLast(blockPos);
+     * Scans the mining area for ores from the current position, and queues them to be mined.
+     * <p>
+     * Blocks are read from the storage of each chunk section directly, skipping sections without any blocks. The scan
+     * stops once its time budget is exhausted, and continues from where it stopped on the next call.
+     */
+    private void scanBlocksToMine() {
+        scanBlocksToMine(SCAN_TIME_BUDGET);
+    }
+
+    /**
+     * @param timeBudget the time in nanoseconds the scan may take, at least one row is always scanned
+     * @see #scanBlocksToMine()
+     */
+    void scanBlocksToMine(long timeBudget) {
+        World world = metaTileEntity.getWorld();
+        long deadline = System.nanoTime() + timeBudget;
+
+        int minX = startX.get();
+        int maxX = minX + currentRadius * 2;
+        int minZ = startZ.get();
+        int maxZ = minZ + currentRadius * 2;
+        int posX = x.get();
+        int posY = y.get();
+        int posZ = z.get();
+
+        // moving down the y-axis
+        while (posY > 0) {
+            if (posZ > maxZ) {
+                // reset z and move to the next y layer
+                posZ = minZ;
+                posY--;
+            } else if (posX > maxX) {
+                // reset x and move to the next z layer
+                posX = minX;
+                posZ++;
+            } else {
+                // check the blocks along the x-axis until the edge of the chunk
+                int endX = Math.min(maxX, posX | 15);
+                ExtendedBlockStorage storage = world.getChunk(posX >> 4, posZ >> 4)
+                        .getBlockStorageArray()[posY >> 4];
+                if (storage != Chunk.NULL_BLOCK_STORAGE && !storage.isEmpty()) {
+                    for (int blockX = posX; blockX <= endX; blockX++) {
+                        IBlockState state = storage.get(blockX & 15, posY & 15, posZ & 15);
+                        if (isOre(state) && state.getBlock().blockHardness >= 0) {
+                            BlockPos blockPos = new BlockPos(blockX, posY, posZ);
+                            if (world.getTileEntity(blockPos) == null) {
+                                blocksToMine.enqueue(blockPos.toLong());
+                            }
                         }
-                        // move to the next x position
-                        x.incrementAndGet();
-                    } else {
-                        // reset x and move to the next z layer
-                        x.set(startX.get());
-                        z.incrementAndGet();
                     }
-                } else {
-                    // reset z and move to the next y layer
-                    z.set(startZ.get());
-                    y.decrementAndGet();
                 }
-            } else
-                return blocks;
+                posX = endX + 1;
 
-            // only count iterations where blocks were found
-            if (!blocks.isEmpty())
-                calculated++;
+                if (System.nanoTime() >= deadline) break;
+            }
         }
-        return blocks;
-    }
-
-    /**
-     * @param values to find the mean of
-     * @return the mean value
-     */
-    private static long mean(@NotNull long[] values) {
-        if (values.length == 0L)
-            return 0L;
-
-        long sum = 0L;
-        for (long v : values)
-            sum += v;
-        return sum / values.length;
-    }
 
-    /**
-     * @param world the {@link World} to get the average tick time of
-     * @return the mean tick time
-     */
-    private static double getMeanTickTime(@NotNull World world) {
-        return mean(Objects.requireNonNull(world.getMinecraftServer()).tickTimeArray) * 1.0E-6D;
+        x.set(posX);
+        y.set(posY);
+        z.set(posZ);
+        this.scanInterrupted = posY > 0;
     }
 
     /**
-     * gets the quotient for determining the amount of blocks to mine
-     *
-     * @param base is a value used for calculation, intended to be the mean tick time of the world the miner is in
-     * @return the quotient
+     * @param state the block state to check
+     * @return if the block state is an ore
      */
-    private static double getQuotient(double base) {
-        return DIVIDEND / Math.pow(base, POWER);
+    private static boolean isOre(@NotNull IBlockState state) {
+        int generation = OreDictUnifier.getRegistrationGeneration();
+        if (generation != oreStatesGeneration) {
+            // ore dictionary entries were added since the states were checked
+            CHECKED_STATES.clear();
+            ORE_STATES.clear();
+            oreStatesGeneration = generation;
+        }
+        int id = Block.getStateId(state);
+        if (!CHECKED_STATES.get(id)) {
+            CHECKED_STATES.set(id);
+            if (GTUtility.isOre(GTUtility.toItem(state))) {
+                ORE_STATES.set(id);
+            }
+        }
+        return ORE_STATES.get(id);
     }
 
     /**
@@ -687,6 +709,21 @@ public class MinerLogic {
         return this.isDone;
     }
 
+    /**
+     * @return if the last scan ran out of time before reaching the end of the area
+     */
+    boolean isScanInterrupted() {
+        return this.scanInterrupted;
+    }
+
+    /**
+     * @return the packed positions of the ores queued to be mined
+     */
+    @NotNull
+    LongArrayFIFOQueue getBlocksToMine() {
+        return this.blocksToMine;
+    }
+
     /**
      * @return true if the miner is active
      */
@@ -1,6 +1,7 @@
 package gregtech.api.cover;
 
 import gregtech.api.util.GTUtility;
+import gregtech.api.util.profiler.TickProfiler;
 import gregtech.client.utils.RenderUtil;
 
 import net.minecraft.block.Block;
@@ -83,10 +84,16 @@ public interface CoverHolder extends CoverableView {
      * Updates all covers. Should be called every tick.
      */
     default void updateCovers() {
+        boolean profiling = !getWorld().isRemote && TickProfiler.isProfiling();
         for (EnumFacing facing : EnumFacing.VALUES) {
             Cover cover = getCoverAtSide(facing);
             if (cover instanceof ITickable tickable) {
+                long time = profiling ? System.nanoTime() : 0;
                 tickable.update();
+                if (profiling) {
+                    TickProfiler.record(TickProfiler.Category.COVER, cover.getDefinition(), getWorld(), getPos(),
+                            System.nanoTime() - time, 0);
+                }
             }
         }
     }
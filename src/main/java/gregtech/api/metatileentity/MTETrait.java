@@ -69,6 +69,15 @@ public abstract class MTETrait implements ISyncedTileEntity {
 
     public void update() {}
 
+    /**
+     * @return the amount of ticks this trait can go without being updated, while it waits for a change of its
+     *         MetaTileEntity. 0 if it must be updated every tick.
+     * @see MetaTileEntity#getSleepTicks()
+     */
+    public int getSleepTicks() {
+        return 0;
+    }
+
     @NotNull
     public NBTTagCompound serializeNBT() {
         return new NBTTagCompound();
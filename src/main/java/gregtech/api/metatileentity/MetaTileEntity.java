@@ -32,6 +32,7 @@ import gregtech.api.util.GTLog;
 import gregtech.api.util.GTTransferUtils;
 import gregtech.api.util.GTUtility;
 import gregtech.api.util.Mods;
+import gregtech.api.util.profiler.TickProfiler;
 import gregtech.client.renderer.texture.Textures;
 import gregtech.client.utils.BloomEffectUtil;
 import gregtech.client.utils.RenderUtil;
@@ -60,6 +61,7 @@ import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.EnumActionResult;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumHand;
+import net.minecraft.util.ITickable;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.SoundEvent;
@@ -159,6 +161,7 @@ public abstract class MetaTileEntity implements ISyncedTileEntity, CoverHolder,
     protected List<IItemHandlerModifiable> notifiedItemInputList = new ArrayList<>();
     protected List<IFluidHandler> notifiedFluidInputList = new ArrayList<>();
     protected List<IFluidHandler> notifiedFluidOutputList = new ArrayList<>();
+    private int notifiedInputRevision;
 
     protected boolean muffled = false;
 
@@ -394,6 +397,8 @@ public abstract class MetaTileEntity implements ISyncedTileEntity, CoverHolder,
     }
 
     public void addNotifiedInput(Object input) {
+        this.notifiedInputRevision++;
+        wakeUp();
         if (input instanceof IItemHandlerModifiable) {
             if (!notifiedItemInputList.contains(input)) {
                 this.notifiedItemInputList.add((IItemHandlerModifiable) input);
@@ -407,6 +412,7 @@ public abstract class MetaTileEntity implements ISyncedTileEntity, CoverHolder,
     }
 
     public void addNotifiedOutput(Object output) {
+        wakeUp();
         if (output instanceof IItemHandlerModifiable) {
             if (!notifiedItemOutputList.contains(output)) {
                 this.notifiedItemOutputList.add((IItemHandlerModifiable) output);
@@ -856,9 +862,15 @@ public abstract class MetaTileEntity implements ISyncedTileEntity, CoverHolder,
             lastTick = currentTick;
         }
 
+        boolean profiling = !getWorld().isRemote && TickProfiler.isProfiling();
         for (MTETrait mteTrait : this.mteTraits.values()) {
             if (shouldUpdate(mteTrait)) {
+                long time = profiling ? System.nanoTime() : 0;
                 mteTrait.update();
+                if (profiling) {
+                    TickProfiler.record(TickProfiler.Category.TRAIT, mteTrait.getName(), getWorld(), getPos(),
+                            System.nanoTime() - time, 0);
+                }
             }
         }
 
@@ -885,6 +897,46 @@ public abstract class MetaTileEntity implements ISyncedTileEntity, CoverHolder,
         return true;
     }
 
+    /**
+     * Determines how long this MetaTileEntity can stop being updated while it only waits for a change. A sleeping
+     * MetaTileEntity is woken up early when it is marked dirty, its inventories are notified, a neighbor block changes
+     * or a cover is placed or removed.
+     * <p>
+     * MetaTileEntities overriding this must account for everything they do in {@link #update()}.
+     *
+     * @return the amount of ticks to sleep for, or 0 to keep being updated every tick
+     * @see #getTraitSleepTicks()
+     */
+    public int getSleepTicks() {
+        return 0;
+    }
+
+    /**
+     * @return the amount of ticks every trait and cover of this MetaTileEntity can sleep for
+     */
+    protected final int getTraitSleepTicks() {
+        int ticks = Integer.MAX_VALUE;
+        for (MTETrait mteTrait : this.mteTraits.values()) {
+            ticks = Math.min(ticks, mteTrait.getSleepTicks());
+            if (ticks <= 0) return 0;
+        }
+        for (Cover cover : this.covers.values()) {
+            if (cover instanceof ITickable) return 0;
+        }
+        return ticks;
+    }
+
+    /**
+     * Wakes this MetaTileEntity up, if it is sleeping
+     *
+     * @see #getSleepTicks()
+     */
+    public final void wakeUp() {
+        if (holder != null) {
+            holder.wakeUp();
+        }
+    }
+
     @SideOnly(Side.CLIENT)
     private void updateSound() {
         if (!ConfigHolder.machines.machineSounds || isMuffled()) {
@@ -1047,11 +1099,17 @@ public abstract class MetaTileEntity implements ISyncedTileEntity, CoverHolder,
     }
 
     public void writeTraitData(MTETrait trait, int internalId, Consumer<PacketBuffer> dataWriter) {
-        writeCustomData(SYNC_MTE_TRAITS, buffer -> {
+        Consumer<PacketBuffer> traitDataWriter = buffer -> {
             buffer.writeVarInt(trait.getNetworkID());
             buffer.writeVarInt(internalId);
             dataWriter.accept(buffer);
-        });
+        };
+        if (holder != null && GregtechDataCodes.isLastWriteWins(internalId)) {
+            // trait data is only replaced by data of the same trait
+            holder.writeCoalescedData(SYNC_MTE_TRAITS, trait.getNetworkID() << 16 | internalId, traitDataWriter);
+        } else {
+            writeCustomData(SYNC_MTE_TRAITS, traitDataWriter);
+        }
     }
 
     @Override
@@ -1480,6 +1538,16 @@ public abstract class MetaTileEntity implements ISyncedTileEntity, CoverHolder,
         return exportFluids;
     }
 
+    /**
+     * The revision changes every time an input notifies this MetaTileEntity of a change, even when the input is
+     * already present in the notified input lists.
+     *
+     * @return the current revision of the notified inputs
+     */
+    public int getNotifiedInputRevision() {
+        return notifiedInputRevision;
+    }
+
     public List<IItemHandlerModifiable> getNotifiedItemOutputList() {
         return notifiedItemOutputList;
     }
@@ -6,10 +6,12 @@ import gregtech.api.capability.GregtechDataCodes;
 import gregtech.api.cover.Cover;
 import gregtech.api.gui.IUIHolder;
 import gregtech.api.metatileentity.interfaces.IGregTechTileEntity;
+import gregtech.api.metatileentity.multiblock.MultiblockStructureIndex;
 import gregtech.api.metatileentity.registry.MTERegistry;
 import gregtech.api.util.GTLog;
 import gregtech.api.util.Mods;
 import gregtech.api.util.TextFormattingUtil;
+import gregtech.api.util.profiler.TickProfiler;
 import gregtech.client.particle.GTNameTagParticle;
 import gregtech.client.particle.GTParticleManager;
 import gregtech.common.ConfigHolder;
@@ -127,6 +129,8 @@ public class MetaTileEntityHolder extends TickableTileEntityBase implements IGre
     @Override
     public void notifyBlockUpdate() {
         getWorld().notifyNeighborsOfStateChange(pos, getBlockType(), false);
+        // state kept by the machine, like its facing, can be part of a multiblock structure
+        MultiblockStructureIndex.onBlockChanged(getWorld(), pos);
     }
 
     @Override
@@ -178,6 +182,7 @@ public class MetaTileEntityHolder extends TickableTileEntityBase implements IGre
             metaTileEntity.invalidate();
         }
         super.invalidate();
+        MetaTileEntitySleepScheduler.remove(this);
         if (Mods.AppliedEnergistics2.isModLoaded()) {
             invalidateAE();
         }
@@ -199,6 +204,8 @@ public class MetaTileEntityHolder extends TickableTileEntityBase implements IGre
 
     @Override
     public void update() {
+        boolean profiling = !world.isRemote && TickProfiler.isProfiling();
+        long allocated = profiling ? TickProfiler.getAllocatedBytes() : 0;
         long tickTime = System.nanoTime();
         if (metaTileEntity != null) {
             metaTileEntity.update();
@@ -215,8 +222,19 @@ public class MetaTileEntityHolder extends TickableTileEntityBase implements IGre
             this.needToUpdateLightning = false;
         }
 
+        if (!world.isRemote && metaTileEntity != null && ConfigHolder.machines.sleepIdleMachines) {
+            int sleepTicks = metaTileEntity.getSleepTicks();
+            if (sleepTicks > 1) {
+                MetaTileEntitySleepScheduler.sleep(this, sleepTicks);
+            }
+        }
+
         if (!world.isRemote && metaTileEntity != null && getMetaTileEntity().isValid()) {
             tickTime = System.nanoTime() - tickTime;
+            if (profiling) {
+                TickProfiler.record(TickProfiler.Category.META_TILE_ENTITY, getMetaTileEntity().getClass(), world,
+                        getPos(), tickTime, TickProfiler.getAllocatedBytes() - allocated);
+            }
             if (timeStatistics.length > 0) {
                 timeStatistics[timeStatisticsIndex] = (int) tickTime;
                 timeStatisticsIndex = (timeStatisticsIndex + 1) % timeStatistics.length;
@@ -372,6 +390,14 @@ public class MetaTileEntityHolder extends TickableTileEntityBase implements IGre
     public void markAsDirty() {
         if (getWorld() != null && getPos() != null) {
             getWorld().markChunkDirty(getPos(), this);
+            wakeUp();
+        }
+    }
+
+    @Override
+    public void wakeUp() {
+        if (getWorld() != null && !getWorld().isRemote) {
+            MetaTileEntitySleepScheduler.wakeUp(this);
         }
     }
 
@@ -386,6 +412,7 @@ public class MetaTileEntityHolder extends TickableTileEntityBase implements IGre
     @Override
     public void onChunkUnload() {
         super.onChunkUnload();
+        MetaTileEntitySleepScheduler.remove(this);
         if (metaTileEntity != null) {
             metaTileEntity.onUnload();
         }
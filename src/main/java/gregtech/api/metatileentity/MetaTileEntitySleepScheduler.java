@@ -0,0 +1,151 @@
+package gregtech.api.metatileentity;
+
+import gregtech.api.GTValues;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes sleeping {@link MetaTileEntityHolder}s from the ticking tile entities of their world, until they are woken
+ * up or their sleep time has passed.
+ * <p>
+ * The ticking list of the world is only modified at the end of the world tick, after every tile entity was updated.
+ * A holder requesting to sleep is woken up again if it is woken up during the same tick.
+ *
+ * @see MetaTileEntity#getSleepTicks()
+ */
+@ApiStatus.Internal
+@EventBusSubscriber(modid = GTValues.MODID)
+public final class MetaTileEntitySleepScheduler {
+
+    private static final Map<World, MetaTileEntitySleepScheduler> SCHEDULERS = new Reference2ObjectOpenHashMap<>();
+
+    private final World world;
+    /** The holders to put to sleep at the end of the tick, with the amount of ticks to sleep for */
+    private final Reference2IntLinkedOpenHashMap<MetaTileEntityHolder> toSleep = new Reference2IntLinkedOpenHashMap<>();
+    private final Set<MetaTileEntityHolder> toWake = new ReferenceLinkedOpenHashSet<>();
+    /** The sleeping holders, with the tick to wake them up at */
+    private final Reference2LongOpenHashMap<MetaTileEntityHolder> sleeping = new Reference2LongOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<List<MetaTileEntityHolder>> wakeups = new Long2ObjectOpenHashMap<>();
+
+    private MetaTileEntitySleepScheduler(@NotNull World world) {
+        this.world = world;
+        this.sleeping.defaultReturnValue(-1);
+    }
+
+    /**
+     * Put a holder to sleep at the end of the current tick
+     *
+     * @param holder the holder
+     * @param ticks  the amount of ticks to sleep for, or {@link Integer#MAX_VALUE} to sleep until woken up
+     */
+    static void sleep(@NotNull MetaTileEntityHolder holder, int ticks) {
+        World world = holder.getWorld();
+        if (world == null || world.isRemote) return;
+        SCHEDULERS.computeIfAbsent(world, MetaTileEntitySleepScheduler::new).toSleep.put(holder, ticks);
+    }
+
+    /**
+     * Wake a holder up at the end of the current tick, if it is sleeping
+     *
+     * @param holder the holder
+     */
+    static void wakeUp(@NotNull MetaTileEntityHolder holder) {
+        MetaTileEntitySleepScheduler scheduler = SCHEDULERS.get(holder.getWorld());
+        if (scheduler == null) return;
+        scheduler.toSleep.removeInt(holder);
+        if (scheduler.sleeping.containsKey(holder)) {
+            scheduler.toWake.add(holder);
+        }
+    }
+
+    /**
+     * Forget a holder which is invalidated or unloaded
+     *
+     * @param holder the holder
+     */
+    static void remove(@NotNull MetaTileEntityHolder holder) {
+        MetaTileEntitySleepScheduler scheduler = SCHEDULERS.get(holder.getWorld());
+        if (scheduler == null) return;
+        scheduler.toSleep.removeInt(holder);
+        scheduler.toWake.remove(holder);
+        scheduler.sleeping.removeLong(holder);
+    }
+
+    private void tick() {
+        long time = world.getTotalWorldTime();
+        List<MetaTileEntityHolder> due = wakeups.remove(time);
+        if (due != null) {
+            for (MetaTileEntityHolder holder : due) {
+                // the holder may have been woken up and put to sleep again since
+                if (sleeping.getLong(holder) == time) {
+                    toWake.add(holder);
+                }
+            }
+        }
+
+        if (!toWake.isEmpty()) {
+            for (MetaTileEntityHolder holder : toWake) {
+                if (sleeping.removeLong(holder) != -1 && !holder.isInvalid()) {
+                    world.tickableTileEntities.add(holder);
+                }
+            }
+            toWake.clear();
+        }
+
+        if (!toSleep.isEmpty()) {
+            Set<TileEntity> removed = new ReferenceOpenHashSet<>(toSleep.size());
+            for (Reference2IntLinkedOpenHashMap.Entry<MetaTileEntityHolder> entry : toSleep
+                    .reference2IntEntrySet()) {
+                MetaTileEntityHolder holder = entry.getKey();
+                if (holder.isInvalid() || sleeping.containsKey(holder)) continue;
+
+                int ticks = entry.getIntValue();
+                long wakeTime = ticks == Integer.MAX_VALUE ? Long.MAX_VALUE : time + ticks;
+                sleeping.put(holder, wakeTime);
+                if (wakeTime != Long.MAX_VALUE) {
+                    wakeups.computeIfAbsent(wakeTime, k -> new ArrayList<>()).add(holder);
+                }
+                removed.add(holder);
+            }
+            toSleep.clear();
+            // a single pass over the ticking list, instead of one per holder
+            world.tickableTileEntities.removeAll(removed);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (!event.world.isRemote && event.phase == TickEvent.Phase.END) {
+            MetaTileEntitySleepScheduler scheduler = SCHEDULERS.get(event.world);
+            if (scheduler != null) {
+                scheduler.tick();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (!event.getWorld().isRemote) {
+            SCHEDULERS.remove(event.getWorld());
+        }
+    }
+}
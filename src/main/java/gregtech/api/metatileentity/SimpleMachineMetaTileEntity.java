@@ -4,6 +4,7 @@ import gregtech.api.GTValues;
 import gregtech.api.capability.GregtechTileCapabilities;
 import gregtech.api.capability.IActiveOutputSide;
 import gregtech.api.capability.IGhostSlotConfigurable;
+import gregtech.api.capability.IMultipleTankHandler;
 import gregtech.api.capability.impl.EnergyContainerHandler;
 import gregtech.api.capability.impl.FluidHandlerProxy;
 import gregtech.api.capability.impl.FluidTankList;
@@ -28,6 +29,7 @@ import gregtech.client.particle.IMachineParticleEffect;
 import gregtech.client.renderer.ICubeRenderer;
 import gregtech.client.renderer.texture.Textures;
 import gregtech.client.utils.RenderUtil;
+import gregtech.common.ConfigHolder;
 
 import net.minecraft.client.resources.I18n;
 import net.minecraft.entity.player.EntityPlayer;
@@ -218,6 +220,33 @@ public class SimpleMachineMetaTileEntity extends WorkableTieredMetaTileEntity
         }
     }
 
+    @Override
+    public int getSleepTicks() {
+        // charging, pushing outputs and terrain explosions are done while updating
+        if (!chargerInventory.getStackInSlot(0).isEmpty()) return 0;
+        if (isAutoOutputItems() && !isEmpty(exportItems)) return 0;
+        if (isAutoOutputFluids() && !isEmpty(exportFluids)) return 0;
+        if (ConfigHolder.machines.doTerrainExplosion && !getIsWeatherOrTerrainResistant() &&
+                energyContainer.getEnergyStored() != 0) {
+            return 0;
+        }
+        return getTraitSleepTicks();
+    }
+
+    private static boolean isEmpty(@NotNull IItemHandler handler) {
+        for (int i = 0; i < handler.getSlots(); i++) {
+            if (!handler.getStackInSlot(i).isEmpty()) return false;
+        }
+        return true;
+    }
+
+    private static boolean isEmpty(@NotNull IMultipleTankHandler handler) {
+        for (IMultipleTankHandler.ITankEntry tank : handler.getFluidTanks()) {
+            if (tank.getFluidAmount() > 0) return false;
+        }
+        return true;
+    }
+
     @SideOnly(Side.CLIENT)
     @Override
     public void randomDisplayTick() {
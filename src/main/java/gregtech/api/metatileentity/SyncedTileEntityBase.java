@@ -1,6 +1,7 @@
 package gregtech.api.metatileentity;
 
 import gregtech.api.block.BlockStateTileEntity;
+import gregtech.api.capability.GregtechDataCodes;
 import gregtech.api.metatileentity.interfaces.ISyncedTileEntity;
 import gregtech.api.network.PacketDataList;
 
@@ -18,6 +19,7 @@ import net.minecraftforge.common.util.Constants;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -28,6 +30,8 @@ public abstract class SyncedTileEntityBase extends BlockStateTileEntity implemen
 
     public static final int SIZE_THRESHOLD = 10;
     private final PacketDataList updates = new PacketDataList();
+    /** The data to send with the batch of the current tick, if batching is enabled */
+    private SyncedTileEntityBatcher.PendingData pendingData;
 
     public @Nullable TileEntity getNeighbor(EnumFacing facing) {
         if (world == null || pos == null) return null;
@@ -36,6 +40,32 @@ public abstract class SyncedTileEntityBase extends BlockStateTileEntity implemen
 
     @Override
     public final void writeCustomData(int discriminator, @NotNull Consumer<@NotNull PacketBuffer> dataWriter) {
+        writeCustomData(discriminator,
+                GregtechDataCodes.isLastWriteWins(discriminator) ? 0 : SyncedTileEntityBatcher.NO_KEY, dataWriter);
+    }
+
+    /**
+     * Like {@link #writeCustomData(int, Consumer)}, but replaces the data with the same discriminator and key written
+     * earlier in the same tick. Only used if tile entity data is batched.
+     *
+     * @param discriminator the discriminator of the data
+     * @param key           the key of the data within its discriminator, must not be negative
+     * @param dataWriter    the writer of the data
+     */
+    public final void writeCoalescedData(int discriminator, int key,
+                                         @NotNull Consumer<@NotNull PacketBuffer> dataWriter) {
+        writeCustomData(discriminator, key, dataWriter);
+    }
+
+    private void writeCustomData(int discriminator, int key, @NotNull Consumer<@NotNull PacketBuffer> dataWriter) {
+        if (SyncedTileEntityBatcher.isBatching(world)) {
+            if (pendingData == null) {
+                pendingData = new SyncedTileEntityBatcher.PendingData();
+                SyncedTileEntityBatcher.schedule(this);
+            }
+            pendingData.add(discriminator, key, dataWriter);
+            return;
+        }
         ByteBuf backedBuffer = Unpooled.buffer();
         dataWriter.accept(new PacketBuffer(backedBuffer));
         byte[] updateData = Arrays.copyOfRange(backedBuffer.array(), 0, backedBuffer.writerIndex());
@@ -49,13 +79,65 @@ public abstract class SyncedTileEntityBase extends BlockStateTileEntity implemen
      * @param syncedTileEntityBase other synced tile entity
      */
     public void addPacketsFrom(SyncedTileEntityBase syncedTileEntityBase) {
-        if (this == syncedTileEntityBase || syncedTileEntityBase.updates.isEmpty()) return;
+        if (this == syncedTileEntityBase) return;
+        SyncedTileEntityBatcher.PendingData otherData = syncedTileEntityBase.takePendingData();
+        if (otherData != null) {
+            if (pendingData == null) {
+                pendingData = otherData;
+                SyncedTileEntityBatcher.schedule(this);
+            } else {
+                pendingData.addAll(otherData);
+                otherData.release();
+            }
+        }
+        if (syncedTileEntityBase.updates.isEmpty()) return;
         boolean wasEmpty = this.updates.isEmpty();
         this.updates.addAll(syncedTileEntityBase.updates);
         syncedTileEntityBase.updates.clear();
         if (wasEmpty) notifyWorld(); // if the data is not empty we already notified the world
     }
 
+    /**
+     * @return the data to send with the batch of the current tick, which is no longer held by this tile entity
+     */
+    @Nullable
+    SyncedTileEntityBatcher.PendingData takePendingData() {
+        SyncedTileEntityBatcher.PendingData data = this.pendingData;
+        this.pendingData = null;
+        return data;
+    }
+
+    /**
+     * Receive the data of this tile entity from a batch
+     *
+     * @param buf the buffer of the batch
+     */
+    @ApiStatus.Internal
+    public final void receiveBatchedData(@NotNull PacketBuffer buf) {
+        int count = buf.readVarInt();
+        for (int i = 0; i < count; i++) {
+            int dataId = buf.readVarInt();
+            PacketBuffer dataBuffer = new PacketBuffer(buf.readSlice(buf.readVarInt()));
+            ISyncedTileEntity.addCode(dataId, this);
+            receiveCustomData(dataId, dataBuffer);
+            ISyncedTileEntity.checkData(dataBuffer);
+        }
+    }
+
+    /**
+     * Skip the data of a tile entity in a batch, which cannot be received
+     *
+     * @param buf the buffer of the batch
+     */
+    @ApiStatus.Internal
+    public static void skipBatchedData(@NotNull PacketBuffer buf) {
+        int count = buf.readVarInt();
+        for (int i = 0; i < count; i++) {
+            buf.readVarInt();
+            buf.skipBytes(buf.readVarInt());
+        }
+    }
+
     private void notifyWorld() {
         @SuppressWarnings("deprecation")
         IBlockState blockState = getBlockType().getStateFromMeta(getBlockMetadata());
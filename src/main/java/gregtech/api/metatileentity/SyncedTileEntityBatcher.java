@@ -0,0 +1,235 @@
+package gregtech.api.metatileentity;
+
+import gregtech.api.GTValues;
+import gregtech.api.GregTechAPI;
+import gregtech.common.ConfigHolder;
+import gregtech.core.network.packets.PacketSyncedTileEntityData;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Collects the custom data written by {@link SyncedTileEntityBase}s during a tick, and sends it at the end of the tick
+ * with a single {@link PacketSyncedTileEntityData} per chunk to the players watching the chunk.
+ * <p>
+ * Data is written into pooled buffers, and discriminators are written as varints instead of nbt keys. Data replacing
+ * earlier data of the same tile entity, such as its working state, is dropped once it is superseded.
+ *
+ * @see gregtech.api.capability.GregtechDataCodes#assignLastWriteWinsId()
+ */
+@ApiStatus.Internal
+@EventBusSubscriber(modid = GTValues.MODID)
+public final class SyncedTileEntityBatcher {
+
+    /** The key of data which is never replaced */
+    static final int NO_KEY = -1;
+
+    private static final Map<World, Long2ObjectMap<List<SyncedTileEntityBase>>> DIRTY_CHUNKS =
+            new Reference2ObjectOpenHashMap<>();
+
+    private SyncedTileEntityBatcher() {}
+
+    /**
+     * @param world the world of the tile entity
+     * @return if data written in the world should be batched
+     */
+    static boolean isBatching(World world) {
+        return ConfigHolder.misc.batchedTileEntitySync && world instanceof WorldServer;
+    }
+
+    /**
+     * Send the data of a tile entity at the end of the tick
+     *
+     * @param tileEntity the tile entity, which must not be scheduled yet
+     */
+    static void schedule(@NotNull SyncedTileEntityBase tileEntity) {
+        Long2ObjectMap<List<SyncedTileEntityBase>> chunks = DIRTY_CHUNKS.get(tileEntity.getWorld());
+        if (chunks == null) {
+            chunks = new Long2ObjectOpenHashMap<>();
+            DIRTY_CHUNKS.put(tileEntity.getWorld(), chunks);
+        }
+        BlockPos pos = tileEntity.getPos();
+        long chunk = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        List<SyncedTileEntityBase> tileEntities = chunks.get(chunk);
+        if (tileEntities == null) {
+            tileEntities = new ArrayList<>();
+            chunks.put(chunk, tileEntities);
+        }
+        tileEntities.add(tileEntity);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || DIRTY_CHUNKS.isEmpty()) return;
+        for (Map.Entry<World, Long2ObjectMap<List<SyncedTileEntityBase>>> entry : DIRTY_CHUNKS.entrySet()) {
+            WorldServer world = (WorldServer) entry.getKey();
+            for (Long2ObjectMap.Entry<List<SyncedTileEntityBase>> chunk : entry.getValue().long2ObjectEntrySet()) {
+                long key = chunk.getLongKey();
+                // the chunk coordinates are packed like ChunkPos#asLong
+                sendChunk(world, (int) key, (int) (key >> 32), chunk.getValue());
+            }
+        }
+        DIRTY_CHUNKS.clear();
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        Long2ObjectMap<List<SyncedTileEntityBase>> chunks = DIRTY_CHUNKS.remove(event.getWorld());
+        if (chunks != null) {
+            for (List<SyncedTileEntityBase> tileEntities : chunks.values()) {
+                for (SyncedTileEntityBase tileEntity : tileEntities) {
+                    PendingData pendingData = tileEntity.takePendingData();
+                    if (pendingData != null) pendingData.release();
+                }
+            }
+        }
+    }
+
+    private static void sendChunk(@NotNull WorldServer world, int chunkX, int chunkZ,
+                                  @NotNull List<SyncedTileEntityBase> tileEntities) {
+        List<EntityPlayerMP> players = getWatchingPlayers(world, chunkX, chunkZ);
+        List<PendingData> data = new ArrayList<>(tileEntities.size());
+        int valid = 0;
+        for (SyncedTileEntityBase tileEntity : tileEntities) {
+            // the data may have been moved to another tile entity
+            PendingData pendingData = tileEntity.takePendingData();
+            if (pendingData != null && (tileEntity.isInvalid() || players.isEmpty())) {
+                pendingData.release();
+                pendingData = null;
+            }
+            data.add(pendingData);
+            if (pendingData != null) valid++;
+        }
+        if (valid == 0) return;
+
+        ByteBuf batch = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            PacketBuffer buf = new PacketBuffer(batch);
+            buf.writeVarInt(valid);
+            for (int i = 0; i < tileEntities.size(); i++) {
+                PendingData pendingData = data.get(i);
+                if (pendingData == null) continue;
+                buf.writeBlockPos(tileEntities.get(i).getPos());
+                pendingData.writeTo(buf);
+                pendingData.release();
+            }
+            // copied once per chunk, as the packet is encoded for every player
+            byte[] bytes = new byte[batch.readableBytes()];
+            batch.readBytes(bytes);
+            PacketSyncedTileEntityData packet = new PacketSyncedTileEntityData(bytes);
+            for (EntityPlayerMP player : players) {
+                GregTechAPI.networkHandler.sendTo(packet, player);
+            }
+        } finally {
+            batch.release();
+        }
+    }
+
+    private static @NotNull List<EntityPlayerMP> getWatchingPlayers(@NotNull WorldServer world, int chunkX,
+                                                                    int chunkZ) {
+        PlayerChunkMapEntry entry = world.getPlayerChunkMap().getEntry(chunkX, chunkZ);
+        // players the chunk was not sent to yet receive the current state with the chunk
+        if (entry == null || !entry.isSentToPlayers()) return new ArrayList<>();
+
+        List<EntityPlayerMP> players = new ArrayList<>();
+        for (EntityPlayer player : world.playerEntities) {
+            if (player instanceof EntityPlayerMP playerMP && entry.containsPlayer(playerMP)) {
+                players.add(playerMP);
+            }
+        }
+        return players;
+    }
+
+    /**
+     * The data written by a tile entity which was not sent yet
+     */
+    static final class PendingData {
+
+        private final ByteBuf data = PooledByteBufAllocator.DEFAULT.buffer();
+        /** The discriminator, key, start and length of each written data, with a length of -1 once replaced */
+        private final IntArrayList entries = new IntArrayList();
+
+        /**
+         * @param discriminator the discriminator of the data
+         * @param key           the key of the data within its discriminator, or {@link #NO_KEY} if the data is never
+         *                      replaced
+         * @param dataWriter    the writer of the data
+         */
+        void add(int discriminator, int key, @NotNull Consumer<@NotNull PacketBuffer> dataWriter) {
+            if (key != NO_KEY) {
+                for (int i = 0; i < entries.size(); i += 4) {
+                    if (entries.getInt(i) == discriminator && entries.getInt(i + 1) == key &&
+                            entries.getInt(i + 3) != -1) {
+                        entries.set(i + 3, -1);
+                        // only a single entry of a key is ever kept
+                        break;
+                    }
+                }
+            }
+            int start = data.writerIndex();
+            dataWriter.accept(new PacketBuffer(data));
+            entries.add(discriminator);
+            entries.add(key);
+            entries.add(start);
+            entries.add(data.writerIndex() - start);
+        }
+
+        /**
+         * Add all data of another tile entity, replacing data with the same keys
+         *
+         * @param other the data of the other tile entity
+         */
+        void addAll(@NotNull PendingData other) {
+            for (int i = 0; i < other.entries.size(); i += 4) {
+                int start = other.entries.getInt(i + 2);
+                int length = other.entries.getInt(i + 3);
+                if (length == -1) continue;
+                add(other.entries.getInt(i), other.entries.getInt(i + 1),
+                        buf -> buf.writeBytes(other.data, start, length));
+            }
+        }
+
+        void writeTo(@NotNull PacketBuffer buf) {
+            int count = 0;
+            for (int i = 0; i < entries.size(); i += 4) {
+                if (entries.getInt(i + 3) != -1) count++;
+            }
+            buf.writeVarInt(count);
+            for (int i = 0; i < entries.size(); i += 4) {
+                int length = entries.getInt(i + 3);
+                if (length == -1) continue;
+                buf.writeVarInt(entries.getInt(i));
+                buf.writeVarInt(length);
+                buf.writeBytes(data, entries.getInt(i + 2), length);
+            }
+        }
+
+        void release() {
+            data.release();
+        }
+    }
+}
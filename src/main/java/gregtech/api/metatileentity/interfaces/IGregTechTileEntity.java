@@ -4,10 +4,13 @@ import gregtech.api.gui.IUIHolder;
 import gregtech.api.metatileentity.MetaTileEntity;
 
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.Consumer;
+
 /**
  * A simple compound Interface for all my TileEntities.
  * <p/>
@@ -28,4 +31,23 @@ public interface IGregTechTileEntity extends IHasWorldObjectAndCoords, INeighbor
 
     @Deprecated
     boolean isFirstTick();
+
+    /**
+     * Resume updating the MetaTileEntity, if it is sleeping
+     *
+     * @see MetaTileEntity#getSleepTicks()
+     */
+    default void wakeUp() {}
+
+    /**
+     * Like {@link #writeCustomData(int, Consumer)}, but replaces the data with the same discriminator and key which was
+     * not sent yet
+     *
+     * @param discriminator the discriminator of the data
+     * @param key           the key of the data within its discriminator, must not be negative
+     * @param dataWriter    the writer of the data
+     */
+    default void writeCoalescedData(int discriminator, int key, @NotNull Consumer<@NotNull PacketBuffer> dataWriter) {
+        writeCustomData(discriminator, dataWriter);
+    }
 }
@@ -24,6 +24,7 @@ import gregtech.client.renderer.ICubeRenderer;
 import gregtech.client.renderer.handler.MultiblockPreviewRenderer;
 import gregtech.client.renderer.texture.Textures;
 import gregtech.client.renderer.texture.cube.SimpleOrientedCubeRenderer;
+import gregtech.common.ConfigHolder;
 import gregtech.common.blocks.MetaBlocks;
 
 import net.minecraft.block.Block;
@@ -83,6 +84,9 @@ public abstract class MultiblockControllerBase extends MetaTileEntity implements
     private final Map<MultiblockAbility<Object>, AbilityInstances> multiblockAbilities = new HashMap<>();
     private final List<IMultiblockPart> multiblockParts = new ArrayList<>();
     private boolean structureFormed;
+    // indexed structures are only checked after a block of them changed
+    private boolean structureIndexed;
+    private boolean structureChanged;
 
     protected EnumFacing upwardsFacing = EnumFacing.NORTH;
     protected boolean isFlipped;
@@ -105,7 +109,7 @@ public abstract class MultiblockControllerBase extends MetaTileEntity implements
     public void update() {
         super.update();
         if (!getWorld().isRemote) {
-            if (getOffsetTimer() % 20 == 0 || isFirstTick()) {
+            if (shouldCheckStructure()) {
                 checkStructurePattern();
             }
             // DummyWorld is the world for the JEI preview. We do not want to update the Multi in this world,
@@ -116,6 +120,38 @@ public abstract class MultiblockControllerBase extends MetaTileEntity implements
         }
     }
 
+    private boolean shouldCheckStructure() {
+        if (isFirstTick()) return true;
+        if (structureIndexed && ConfigHolder.machines.eventDrivenStructureChecks) return structureChanged;
+        return getOffsetTimer() % 20 == 0;
+    }
+
+    /**
+     * Called by the {@link MultiblockStructureIndex} when a block of the formed structure changed
+     */
+    void onStructureChanged() {
+        this.structureChanged = true;
+    }
+
+    private void indexStructure() {
+        // formStructure may have invalidated the structure again
+        if (!structureFormed || !ConfigHolder.machines.eventDrivenStructureChecks || structurePattern == null) return;
+        MultiblockStructureIndex index = MultiblockStructureIndex.get(getWorld());
+        if (index != null) {
+            index.add(this, structurePattern.cache.keySet());
+            this.structureIndexed = true;
+        }
+    }
+
+    private void unindexStructure() {
+        if (!structureIndexed) return;
+        MultiblockStructureIndex index = MultiblockStructureIndex.get(getWorld());
+        if (index != null) {
+            index.remove(this);
+        }
+        this.structureIndexed = false;
+    }
+
     /**
      * Called when the multiblock is formed and validation predicate is matched
      */
@@ -342,6 +378,7 @@ public abstract class MultiblockControllerBase extends MetaTileEntity implements
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public void checkStructurePattern() {
         if (structurePattern == null) return;
+        this.structureChanged = false;
         PatternMatchContext context = structurePattern.checkPatternFastAt(getWorld(), getPos(),
                 getFrontFacing().getOpposite(), getUpwardsFacing(), allowsFlip());
         if (context != null && !structureFormed) {
@@ -376,6 +413,7 @@ public abstract class MultiblockControllerBase extends MetaTileEntity implements
             this.structureFormed = true;
             writeCustomData(STRUCTURE_FORMED, buf -> buf.writeBoolean(true));
             formStructure(context);
+            indexStructure();
         } else if (context == null && structureFormed) {
             invalidateStructure();
         } else if (context != null) {
@@ -383,6 +421,8 @@ public abstract class MultiblockControllerBase extends MetaTileEntity implements
             if (context.neededFlip() != isFlipped()) {
                 setFlipped(context.neededFlip());
             }
+            // the structure may have been matched again at different positions
+            indexStructure();
         }
     }
 
@@ -403,9 +443,16 @@ public abstract class MultiblockControllerBase extends MetaTileEntity implements
         this.multiblockParts.clear();
         this.structureFormed = false;
         this.setFlipped(false);
+        unindexStructure();
         writeCustomData(STRUCTURE_FORMED, buf -> buf.writeBoolean(false));
     }
 
+    @Override
+    public void onUnload() {
+        super.onUnload();
+        unindexStructure();
+    }
+
     @Override
     public void onRemoval() {
         super.onRemoval();
@@ -0,0 +1,211 @@
+package gregtech.api.metatileentity.multiblock;
+
+import gregtech.api.GTValues;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.SoundCategory;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorldEventListener;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An index from block positions to the formed multiblock controllers whose structure contains them, kept for every
+ * server world.
+ * <p>
+ * Controllers in the index are notified when a block of their structure changes, or when a chunk holding part of
+ * their structure is unloaded, so their structure is only checked when it may actually have changed.
+ */
+@EventBusSubscriber(modid = GTValues.MODID)
+public final class MultiblockStructureIndex implements IWorldEventListener {
+
+    private static final Map<World, MultiblockStructureIndex> INDICES = new WeakHashMap<>();
+
+    private final Long2ObjectOpenHashMap<List<MultiblockControllerBase>> controllersByPos =
+            new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<List<MultiblockControllerBase>> controllersByChunk =
+            new Long2ObjectOpenHashMap<>();
+    private final Map<MultiblockControllerBase, long[]> positionsByController = new Reference2ObjectOpenHashMap<>();
+    private final Map<MultiblockControllerBase, long[]> chunksByController = new Reference2ObjectOpenHashMap<>();
+
+    private MultiblockStructureIndex() {}
+
+    /**
+     * @param world the world
+     * @return the index of the world, or null if the world is not indexed
+     */
+    public static @Nullable MultiblockStructureIndex get(@NotNull World world) {
+        return INDICES.get(world);
+    }
+
+    /**
+     * Notify the controllers owning a position that a block changed, without the block state changing.
+     * For example when the facing of a machine changes.
+     *
+     * @param world the world of the block
+     * @param pos   the position of the block
+     */
+    public static void onBlockChanged(@NotNull World world, @NotNull BlockPos pos) {
+        MultiblockStructureIndex index = INDICES.get(world);
+        if (index != null) {
+            index.markChanged(index.controllersByPos.get(pos.toLong()));
+        }
+    }
+
+    /**
+     * Add the structure of a controller to the index, replacing the structure it was added with before.
+     *
+     * @param controller the controller
+     * @param positions  the positions of the blocks in the structure, packed with {@link BlockPos#toLong()}
+     */
+    public void add(@NotNull MultiblockControllerBase controller, @NotNull LongCollection positions) {
+        remove(controller);
+        long[] packed = positions.toLongArray();
+        LongSet chunks = new LongOpenHashSet();
+        for (long pos : packed) {
+            addTo(controllersByPos, pos, controller);
+            BlockPos blockPos = BlockPos.fromLong(pos);
+            chunks.add(ChunkPos.asLong(blockPos.getX() >> 4, blockPos.getZ() >> 4));
+        }
+        long[] packedChunks = chunks.toLongArray();
+        for (long chunk : packedChunks) {
+            addTo(controllersByChunk, chunk, controller);
+        }
+        positionsByController.put(controller, packed);
+        chunksByController.put(controller, packedChunks);
+    }
+
+    /**
+     * Remove the structure of a controller from the index
+     *
+     * @param controller the controller
+     */
+    public void remove(@NotNull MultiblockControllerBase controller) {
+        long[] positions = positionsByController.remove(controller);
+        if (positions == null) return;
+        for (long pos : positions) {
+            removeFrom(controllersByPos, pos, controller);
+        }
+        for (long chunk : chunksByController.remove(controller)) {
+            removeFrom(controllersByChunk, chunk, controller);
+        }
+    }
+
+    private static void addTo(@NotNull Long2ObjectOpenHashMap<List<MultiblockControllerBase>> map, long key,
+                              @NotNull MultiblockControllerBase controller) {
+        List<MultiblockControllerBase> controllers = map.get(key);
+        if (controllers == null) {
+            // positions are rarely shared between structures
+            controllers = new ObjectArrayList<>(1);
+            map.put(key, controllers);
+        }
+        controllers.add(controller);
+    }
+
+    private static void removeFrom(@NotNull Long2ObjectOpenHashMap<List<MultiblockControllerBase>> map, long key,
+                                   @NotNull MultiblockControllerBase controller) {
+        List<MultiblockControllerBase> controllers = map.get(key);
+        if (controllers == null) return;
+        controllers.remove(controller);
+        if (controllers.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    private void markChanged(@Nullable List<MultiblockControllerBase> controllers) {
+        if (controllers == null) return;
+        for (int i = 0; i < controllers.size(); i++) {
+            controllers.get(i).onStructureChanged();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldLoad(WorldEvent.Load event) {
+        World world = event.getWorld();
+        if (world.isRemote) return;
+        MultiblockStructureIndex index = new MultiblockStructureIndex();
+        INDICES.put(world, index);
+        world.addEventListener(index);
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        World world = event.getWorld();
+        MultiblockStructureIndex index = INDICES.remove(world);
+        if (index != null) {
+            world.removeEventListener(index);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        MultiblockStructureIndex index = INDICES.get(event.getWorld());
+        if (index != null) {
+            ChunkPos chunkPos = event.getChunk().getPos();
+            index.markChanged(index.controllersByChunk.get(ChunkPos.asLong(chunkPos.x, chunkPos.z)));
+        }
+    }
+
+    @Override
+    public void notifyBlockUpdate(@NotNull World world, @NotNull BlockPos pos, @NotNull IBlockState oldState,
+                                  @NotNull IBlockState newState, int flags) {
+        markChanged(controllersByPos.get(pos.toLong()));
+    }
+
+    @Override
+    public void notifyLightSet(@NotNull BlockPos pos) {}
+
+    @Override
+    public void markBlockRangeForRenderUpdate(int x1, int y1, int z1, int x2, int y2, int z2) {}
+
+    @Override
+    public void playSoundToAllNearExcept(@Nullable EntityPlayer player, @NotNull SoundEvent sound,
+                                         @NotNull SoundCategory category, double x, double y, double z, float volume,
+                                         float pitch) {}
+
+    @Override
+    public void playRecord(@NotNull SoundEvent sound, @NotNull BlockPos pos) {}
+
+    @Override
+    public void spawnParticle(int particleID, boolean ignoreRange, double x, double y, double z, double xSpeed,
+                              double ySpeed, double zSpeed, int @NotNull... parameters) {}
+
+    @Override
+    public void spawnParticle(int id, boolean ignoreRange, boolean minimiseParticleLevel, double x, double y,
+                              double z, double xSpeed, double ySpeed, double zSpeed, int @NotNull... parameters) {}
+
+    @Override
+    public void onEntityAdded(@NotNull Entity entity) {}
+
+    @Override
+    public void onEntityRemoved(@NotNull Entity entity) {}
+
+    @Override
+    public void broadcastSound(int soundID, @NotNull BlockPos pos, int data) {}
+
+    @Override
+    public void playEvent(@Nullable EntityPlayer player, int type, @NotNull BlockPos pos, int data) {}
+
+    @Override
+    public void sendBlockBreakProgress(int breakerId, @NotNull BlockPos pos, int progress) {}
+}
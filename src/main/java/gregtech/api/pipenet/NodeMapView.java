@@ -0,0 +1,87 @@
+package gregtech.api.pipenet;
+
+import net.minecraft.util.math.BlockPos;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An unmodifiable view of nodes keyed by packed positions, as a map keyed by {@link BlockPos}.
+ * <p>
+ * Lookups do not allocate. Iterating creates a {@link BlockPos} for every entry, so hot paths should iterate with
+ * {@link PipeNet#forEachNode(PipeNet.NodeConsumer)} instead.
+ */
+final class NodeMapView<NodeDataType> extends AbstractMap<BlockPos, Node<NodeDataType>> {
+
+    private final Long2ObjectOpenHashMap<Node<NodeDataType>> nodes;
+    private final Set<Entry<BlockPos, Node<NodeDataType>>> entrySet = new AbstractSet<>() {
+
+        @Override
+        public @NotNull Iterator<Entry<BlockPos, Node<NodeDataType>>> iterator() {
+            ObjectIterator<Long2ObjectMap.Entry<Node<NodeDataType>>> iterator = nodes.long2ObjectEntrySet()
+                    .iterator();
+            return new Iterator<>() {
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Entry<BlockPos, Node<NodeDataType>> next() {
+                    Long2ObjectMap.Entry<Node<NodeDataType>> entry = iterator.next();
+                    return new SimpleImmutableEntry<>(BlockPos.fromLong(entry.getLongKey()), entry.getValue());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return nodes.size();
+        }
+    };
+
+    NodeMapView(@NotNull Long2ObjectOpenHashMap<Node<NodeDataType>> nodes) {
+        this.nodes = nodes;
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof BlockPos pos && nodes.containsKey(pos.toLong());
+    }
+
+    @Override
+    public Node<NodeDataType> get(Object key) {
+        return key instanceof BlockPos pos ? nodes.get(pos.toLong()) : null;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super BlockPos, ? super Node<NodeDataType>> action) {
+        for (Long2ObjectMap.Entry<Node<NodeDataType>> entry : nodes.long2ObjectEntrySet()) {
+            action.accept(BlockPos.fromLong(entry.getLongKey()), entry.getValue());
+        }
+    }
+
+    @Override
+    public @NotNull Set<Entry<BlockPos, Node<NodeDataType>>> entrySet() {
+        return entrySet;
+    }
+}
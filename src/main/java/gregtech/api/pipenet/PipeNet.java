@@ -1,7 +1,10 @@
 package gregtech.api.pipenet;
 
+import gregtech.api.util.GTLog;
+
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
+import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockPos.MutableBlockPos;
@@ -10,27 +13,44 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.util.Constants.NBT;
 import net.minecraftforge.common.util.INBTSerializable;
 
+import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCompound> {
 
+    private static final int PACKED_NODES_VERSION = 1;
+
     protected final WorldPipeNet<NodeDataType, PipeNet<NodeDataType>> worldData;
-    private final Map<BlockPos, Node<NodeDataType>> nodeByBlockPos = new HashMap<>();
-    private final Map<BlockPos, Node<NodeDataType>> unmodifiableNodeByBlockPos = Collections
-            .unmodifiableMap(nodeByBlockPos);
-    private final Map<ChunkPos, Integer> ownedChunks = new HashMap<>();
+    // nodes and chunk counts are keyed by packed positions, as nets can contain a very large amount of nodes
+    private final Long2ObjectOpenHashMap<Node<NodeDataType>> nodeByBlockPos = new Long2ObjectOpenHashMap<>();
+    private final Map<BlockPos, Node<NodeDataType>> unmodifiableNodeByBlockPos = new NodeMapView<>(nodeByBlockPos);
+    private final Long2IntOpenHashMap ownedChunks = new Long2IntOpenHashMap();
     private long lastUpdate;
+    private PipeNetTopology<NodeDataType> topology;
+    private CompletableFuture<PipeNetTopology<NodeDataType>> pendingTopology;
+    private int topologyRevision;
+    // nodes saved in a format this version can't read, written back unchanged so they aren't lost
+    private NBTTagCompound unreadableNodes;
     boolean isValid = false;
 
     public PipeNet(WorldPipeNet<NodeDataType, ? extends PipeNet<NodeDataType>> world) {
@@ -39,7 +59,11 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
     }
 
     public Set<ChunkPos> getContainedChunks() {
-        return Collections.unmodifiableSet(ownedChunks.keySet());
+        Set<ChunkPos> chunks = new ObjectOpenHashSet<>(ownedChunks.size());
+        for (long chunk : ownedChunks.keySet()) {
+            chunks.add(new ChunkPos((int) chunk, (int) (chunk >> 32)));
+        }
+        return Collections.unmodifiableSet(chunks);
     }
 
     public World getWorldData() {
@@ -59,6 +83,79 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
      */
     protected void onNodeConnectionsUpdate() {
         this.lastUpdate = System.currentTimeMillis();
+        invalidateTopology();
+    }
+
+    private void invalidateTopology() {
+        this.topology = null;
+        this.pendingTopology = null;
+        this.topologyRevision++;
+    }
+
+    /**
+     * @return the compressed topology of this net, built lazily and discarded when nodes or connections change
+     */
+    public PipeNetTopology<NodeDataType> getTopology() {
+        if (topology == null) {
+            topology = PipeNetTopology.build(this, unmodifiableNodeByBlockPos, topologyRevision);
+            pendingTopology = null;
+        }
+        return topology;
+    }
+
+    /**
+     * Get the topology of this net, building it from a snapshot of the nodes with the
+     * {@link PipeNetRouteService route service} if it is not built yet. Must be called from the server thread.
+     *
+     * @return the future topology
+     */
+    public CompletableFuture<PipeNetTopology<NodeDataType>> getTopologyAsync() {
+        if (topology == null && pendingTopology != null && pendingTopology.isDone() &&
+                !pendingTopology.isCompletedExceptionally()) {
+            // topologies pending while the net changes are discarded, so this one is still current
+            topology = pendingTopology.join();
+            pendingTopology = null;
+        }
+        if (topology != null) {
+            return CompletableFuture.completedFuture(topology);
+        }
+        if (pendingTopology == null) {
+            Map<BlockPos, Node<NodeDataType>> snapshot = new HashMap<>(nodeByBlockPos.size());
+            unmodifiableNodeByBlockPos.forEach((pos, node) -> snapshot.put(pos,
+                    new Node<>(node.data, node.openConnections, node.mark, node.isActive)));
+            int revision = topologyRevision;
+            pendingTopology = CompletableFuture.supplyAsync(() -> PipeNetTopology.build(this, snapshot, revision),
+                    PipeNetRouteService.getExecutor());
+        }
+        return pendingTopology;
+    }
+
+    /**
+     * @param topology the topology to check
+     * @return if the topology was built from the current nodes and connections of this net
+     */
+    public boolean isTopologyCurrent(PipeNetTopology<?> topology) {
+        return topology.getRevision() == topologyRevision;
+    }
+
+    /**
+     * Used for the edges of the {@link PipeNetTopology}, for example the loss of a cable.
+     *
+     * @param nodeData the data of a node
+     * @return the cost of passing through the node, summed along paths
+     */
+    protected long getNodeCost(NodeDataType nodeData) {
+        return 0;
+    }
+
+    /**
+     * Used for the edges of the {@link PipeNetTopology}, for example the max voltage of a cable.
+     *
+     * @param nodeData the data of a node
+     * @return the capacity of the node, the minimum of which is used along paths
+     */
+    protected long getNodeCapacity(NodeDataType nodeData) {
+        return Long.MAX_VALUE;
     }
 
     /**
@@ -73,20 +170,58 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
      */
     public void onChunkUnload() {}
 
+    /**
+     * Is called when any Pipe TE in the PipeNet is unloaded
+     *
+     * @param pipePos the position of the unloaded pipe
+     */
+    public void onChunkUnload(BlockPos pipePos) {
+        onChunkUnload();
+    }
+
     public Map<BlockPos, Node<NodeDataType>> getAllNodes() {
         return unmodifiableNodeByBlockPos;
     }
 
+    /**
+     * Visit every node by its packed position, without creating a {@link BlockPos} for each node like iterating
+     * {@link #getAllNodes()} does.
+     *
+     * @param consumer the consumer of the nodes
+     */
+    public void forEachNode(NodeConsumer<NodeDataType> consumer) {
+        ObjectIterator<Long2ObjectMap.Entry<Node<NodeDataType>>> iterator = nodeByBlockPos.long2ObjectEntrySet()
+                .fastIterator();
+        while (iterator.hasNext()) {
+            Long2ObjectMap.Entry<Node<NodeDataType>> entry = iterator.next();
+            consumer.accept(entry.getLongKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Set a mutable position to a packed position, without creating a {@link BlockPos} like
+     * {@link BlockPos#fromLong(long)} does.
+     *
+     * @param pos    the position to set
+     * @param packed the packed position, see {@link BlockPos#toLong()}
+     * @return the position
+     */
+    public static MutableBlockPos setPos(MutableBlockPos pos, long packed) {
+        // the inverse of BlockPos#toLong, with 26 bits for x and z and 12 bits for y
+        return pos.setPos((int) (packed >> 38), (int) (packed << 26 >> 52), (int) (packed << 38 >> 38));
+    }
+
     public Node<NodeDataType> getNodeAt(BlockPos blockPos) {
-        return nodeByBlockPos.get(blockPos);
+        return nodeByBlockPos.get(blockPos.toLong());
     }
 
     public boolean containsNode(BlockPos blockPos) {
-        return nodeByBlockPos.containsKey(blockPos);
+        return nodeByBlockPos.containsKey(blockPos.toLong());
     }
 
     protected void addNodeSilently(BlockPos nodePos, Node<NodeDataType> node) {
-        this.nodeByBlockPos.put(nodePos, node);
+        this.nodeByBlockPos.put(nodePos.toLong(), node);
+        invalidateTopology();
         checkAddedInChunk(nodePos);
     }
 
@@ -97,35 +232,38 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
     }
 
     protected Node<NodeDataType> removeNodeWithoutRebuilding(BlockPos nodePos) {
-        Node<NodeDataType> removedNode = this.nodeByBlockPos.remove(nodePos);
+        Node<NodeDataType> removedNode = this.nodeByBlockPos.remove(nodePos.toLong());
+        invalidateTopology();
         ensureRemovedFromChunk(nodePos);
         worldData.markDirty();
         return removedNode;
     }
 
     protected void removeNode(BlockPos nodePos) {
-        if (nodeByBlockPos.containsKey(nodePos)) {
+        if (containsNode(nodePos)) {
             Node<NodeDataType> selfNode = removeNodeWithoutRebuilding(nodePos);
             rebuildNetworkOnNodeRemoval(nodePos, selfNode);
         }
     }
 
     protected void checkAddedInChunk(BlockPos nodePos) {
-        ChunkPos chunkPos = new ChunkPos(nodePos);
-        int newValue = this.ownedChunks.compute(chunkPos, (pos, old) -> (old == null ? 0 : old) + 1);
-        if (newValue == 1 && isValid()) {
-            this.worldData.addPipeNetToChunk(chunkPos, this);
+        long chunk = ChunkPos.asLong(nodePos.getX() >> 4, nodePos.getZ() >> 4);
+        int oldValue = this.ownedChunks.addTo(chunk, 1);
+        if (oldValue == 0 && isValid()) {
+            this.worldData.addPipeNetToChunk(new ChunkPos(nodePos), this);
         }
     }
 
     protected void ensureRemovedFromChunk(BlockPos nodePos) {
-        ChunkPos chunkPos = new ChunkPos(nodePos);
-        int newValue = this.ownedChunks.compute(chunkPos, (pos, old) -> old == null ? 0 : old - 1);
-        if (newValue == 0) {
-            this.ownedChunks.remove(chunkPos);
+        long chunk = ChunkPos.asLong(nodePos.getX() >> 4, nodePos.getZ() >> 4);
+        int oldValue = this.ownedChunks.get(chunk);
+        if (oldValue <= 1) {
+            this.ownedChunks.remove(chunk);
             if (isValid()) {
-                this.worldData.removePipeNetFromChunk(chunkPos, this);
+                this.worldData.removePipeNetFromChunk(new ChunkPos(nodePos), this);
             }
+        } else {
+            this.ownedChunks.put(chunk, oldValue - 1);
         }
     }
 
@@ -193,6 +331,7 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
         Node<NodeDataType> selfNode = getNodeAt(nodePos);
         int oldMark = selfNode.mark;
         selfNode.mark = newMark;
+        invalidateTopology();
         for (EnumFacing facing : EnumFacing.VALUES) {
             BlockPos offsetPos = nodePos.offset(facing);
             PipeNet<NodeDataType> otherPipeNet = worldData.getNetFromPos(offsetPos);
@@ -237,6 +376,7 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
     }
 
     private void setBlocked(Node<NodeDataType> selfNode, EnumFacing facing, boolean isBlocked) {
+        invalidateTopology();
         if (!isBlocked) {
             selfNode.openConnections |= 1 << facing.getIndex();
         } else {
@@ -392,7 +532,7 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
     @Override
     public NBTTagCompound serializeNBT() {
         NBTTagCompound compound = new NBTTagCompound();
-        compound.setTag("Nodes", serializeAllNodeList(nodeByBlockPos));
+        compound.setTag("Nodes", unreadableNodes != null ? unreadableNodes.copy() : serializePackedNodeList());
         return compound;
     }
 
@@ -400,9 +540,97 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
     public void deserializeNBT(NBTTagCompound nbt) {
         this.nodeByBlockPos.clear();
         this.ownedChunks.clear();
-        deserializeAllNodeList(nbt.getCompoundTag("Nodes"));
+        this.unreadableNodes = null;
+        NBTTagCompound nodes = nbt.getCompoundTag("Nodes");
+        if (nodes.hasKey("Version", NBT.TAG_INT)) {
+            deserializePackedNodeList(nodes);
+        } else {
+            // saved before the packed format, so make sure it is written in the packed format on the next save
+            deserializeAllNodeList(nodes);
+            worldData.markDirty();
+        }
     }
 
+    /**
+     * Serializes all nodes in the packed format. Node data is interned into a palette, and the nodes are sorted by
+     * position and written to a single byte array as:
+     * <ul>
+     * <li>the difference to the previous position as a var long</li>
+     * <li>the index of the node data in the palette as a var int</li>
+     * <li>a byte of the open connections, with the active flag in bit 6</li>
+     * <li>the mark as a var int</li>
+     * </ul>
+     */
+    protected NBTTagCompound serializePackedNodeList() {
+        long[] positions = nodeByBlockPos.keySet().toLongArray();
+        Arrays.sort(positions);
+
+        Object2IntMap<NodeDataType> palette = new Object2IntOpenHashMap<>(10, 0.5f);
+        palette.defaultReturnValue(-1);
+        NBTTagList paletteList = new NBTTagList();
+        PacketBuffer buf = new PacketBuffer(Unpooled.buffer(positions.length * 4));
+        long previous = 0;
+        for (long pos : positions) {
+            Node<NodeDataType> node = nodeByBlockPos.get(pos);
+            int index = palette.getInt(node.data);
+            if (index == -1) {
+                index = paletteList.tagCount();
+                palette.put(node.data, index);
+                NBTTagCompound dataTag = new NBTTagCompound();
+                writeNodeData(node.data, dataTag);
+                paletteList.appendTag(dataTag);
+            }
+
+            buf.writeVarLong(pos - previous);
+            buf.writeVarInt(index);
+            buf.writeByte((node.openConnections & 0x3F) | (node.isActive ? 0x40 : 0));
+            buf.writeVarInt(node.mark);
+            previous = pos;
+        }
+
+        byte[] data = new byte[buf.readableBytes()];
+        buf.readBytes(data);
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger("Version", PACKED_NODES_VERSION);
+        compound.setInteger("Count", positions.length);
+        compound.setTag("Palette", paletteList);
+        compound.setByteArray("Data", data);
+        return compound;
+    }
+
+    /**
+     * Deserializes nodes written by {@link #serializePackedNodeList()}
+     */
+    protected void deserializePackedNodeList(NBTTagCompound compound) {
+        int version = compound.getInteger("Version");
+        if (version > PACKED_NODES_VERSION) {
+            GTLog.logger.error("Could not read pipe net nodes saved with unknown version {}, keeping them unchanged",
+                    version);
+            this.unreadableNodes = compound.copy();
+            return;
+        }
+
+        NBTTagList paletteList = compound.getTagList("Palette", NBT.TAG_COMPOUND);
+        List<NodeDataType> palette = new ArrayList<>(paletteList.tagCount());
+        for (int i = 0; i < paletteList.tagCount(); i++) {
+            palette.add(readNodeData(paletteList.getCompoundTagAt(i)));
+        }
+
+        int count = compound.getInteger("Count");
+        PacketBuffer buf = new PacketBuffer(Unpooled.wrappedBuffer(compound.getByteArray("Data")));
+        long pos = 0;
+        for (int i = 0; i < count; i++) {
+            pos += buf.readVarLong();
+            NodeDataType nodeData = palette.get(buf.readVarInt());
+            int flags = buf.readUnsignedByte();
+            int mark = buf.readVarInt();
+            addNodeSilently(BlockPos.fromLong(pos), new Node<>(nodeData, flags & 0x3F, mark, (flags & 0x40) != 0));
+        }
+    }
+
+    /**
+     * Deserializes nodes written in the format used before {@link #serializePackedNodeList()}, with a compound per node
+     */
     protected void deserializeAllNodeList(NBTTagCompound compound) {
         NBTTagList allNodesList = compound.getTagList("NodeIndexes", NBT.TAG_COMPOUND);
         NBTTagList wirePropertiesList = compound.getTagList("WireProperties", NBT.TAG_COMPOUND);
@@ -430,6 +658,9 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
         }
     }
 
+    /**
+     * Serializes nodes in the format used before {@link #serializePackedNodeList()}, with a compound per node
+     */
     protected NBTTagCompound serializeAllNodeList(Map<BlockPos, Node<NodeDataType>> allNodes) {
         NBTTagCompound compound = new NBTTagCompound();
         NBTTagList allNodesList = new NBTTagList();
@@ -475,4 +706,14 @@ public abstract class PipeNet<NodeDataType> implements INBTSerializable<NBTTagCo
         compound.setTag("WireProperties", wirePropertiesList);
         return compound;
     }
+
+    @FunctionalInterface
+    public interface NodeConsumer<NodeDataType> {
+
+        /**
+         * @param pos  the packed position of the node, see {@link BlockPos#toLong()}
+         * @param node the node
+         */
+        void accept(long pos, Node<NodeDataType> node);
+    }
 }
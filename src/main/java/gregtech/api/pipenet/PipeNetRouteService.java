@@ -0,0 +1,46 @@
+package gregtech.api.pipenet;
+
+import gregtech.common.ConfigHolder;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs route computations for pipe nets off the server thread. Long distance pipe networks are built here as well, see
+ * {@link gregtech.api.pipenet.longdist.NetworkBuildScheduler}.
+ * <p>
+ * Work submitted here must only use snapshots of the net, such as a {@link PipeNetTopology} built by
+ * {@link PipeNet#getTopologyAsync()}, and never access the world. Results have to be checked with
+ * {@link PipeNet#isTopologyCurrent(PipeNetTopology)} before they are published on the server thread.
+ */
+public final class PipeNetRouteService {
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)), runnable -> {
+                Thread thread = new Thread(runnable, "GregTech Pipe Route Worker #" + THREAD_ID.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+
+    private PipeNetRouteService() {}
+
+    /**
+     * @return if routes should be computed off the server thread
+     */
+    public static boolean isEnabled() {
+        return ConfigHolder.machines.asyncPipeRoutes;
+    }
+
+    /**
+     * @return the executor running route computations
+     */
+    public static @NotNull Executor getExecutor() {
+        return EXECUTOR;
+    }
+}
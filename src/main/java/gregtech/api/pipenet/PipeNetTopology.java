@@ -0,0 +1,409 @@
+package gregtech.api.pipenet;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compressed, immutable view of the topology of a {@link PipeNet}.
+ * <p>
+ * Chains of nodes which connect to exactly two other nodes, and have no other open sides, are collapsed into single
+ * weighted edges between the remaining nodes, called vertices. Vertices are junctions, dead ends, and every node
+ * which can have a neighbour outside the net, so every endpoint of the net is next to a vertex.
+ * <p>
+ * Each edge stores the length of its chain, the summed {@link PipeNet#getNodeCost(Object) cost} and the minimum
+ * {@link PipeNet#getNodeCapacity(Object) capacity} of its nodes, so paths can be searched without visiting every
+ * node. The topology is built lazily by {@link PipeNet#getTopology()}, and discarded when nodes or connections change.
+ */
+public final class PipeNetTopology<NodeDataType> {
+
+    private static final int SEED_SOURCE = -1;
+    private static final int SEED_FORWARD = -2;
+    private static final int SEED_BACKWARD = -3;
+
+    private final PipeNet<NodeDataType> net;
+    private final Map<BlockPos, Node<NodeDataType>> nodes;
+    private final int revision;
+
+    private final Long2IntOpenHashMap vertexIds;
+    private final long[] vertexPositions;
+    private final int[] connectedSides;
+
+    // the edges leaving vertex i are stored from edgeOffsets[i] up to edgeOffsets[i + 1]
+    private final int[] edgeOffsets;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final long[][] edgePaths;
+    private final long[] edgeCosts;
+    private final long[] edgeCapacities;
+
+    // the edge each chain node is part of, and its index in the path of the edge, packed into a long
+    private final Long2LongOpenHashMap chainNodes;
+
+    private PipeNetTopology(@NotNull PipeNet<NodeDataType> net, @NotNull Map<BlockPos, Node<NodeDataType>> nodes,
+                            int revision, @NotNull Long2IntOpenHashMap vertexIds,
+                            long @NotNull [] vertexPositions, int @NotNull [] connectedSides,
+                            int @NotNull [] edgeOffsets, int @NotNull [] edgeSources, int @NotNull [] edgeTargets,
+                            long @NotNull [][] edgePaths, long @NotNull [] edgeCosts,
+                            long @NotNull [] edgeCapacities, @NotNull Long2LongOpenHashMap chainNodes) {
+        this.net = net;
+        this.nodes = nodes;
+        this.revision = revision;
+        this.vertexIds = vertexIds;
+        this.vertexPositions = vertexPositions;
+        this.connectedSides = connectedSides;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.edgePaths = edgePaths;
+        this.edgeCosts = edgeCosts;
+        this.edgeCapacities = edgeCapacities;
+        this.chainNodes = chainNodes;
+    }
+
+    /**
+     * Build the topology of a net. The nodes must not be modified while the topology is built or used, so a snapshot
+     * has to be used when building off the server thread.
+     *
+     * @param net      the net
+     * @param nodes    the nodes of the net
+     * @param revision the revision of the net the nodes are from
+     * @return the topology
+     */
+    static <NodeDataType> @NotNull PipeNetTopology<NodeDataType> build(@NotNull PipeNet<NodeDataType> net,
+                                                                       @NotNull Map<BlockPos, Node<NodeDataType>> nodes,
+                                                                       int revision) {
+
+        // find the sides each node is connected to another node on
+        Long2IntOpenHashMap sidesByPos = new Long2IntOpenHashMap(nodes.size());
+        for (Map.Entry<BlockPos, Node<NodeDataType>> entry : nodes.entrySet()) {
+            BlockPos pos = entry.getKey();
+            Node<NodeDataType> node = entry.getValue();
+            int sides = 0;
+            for (EnumFacing facing : EnumFacing.VALUES) {
+                Node<NodeDataType> other = nodes.get(pos.offset(facing));
+                if (other != null && net.canNodesConnect(node, facing, other, net) &&
+                        net.canNodesConnect(other, facing.getOpposite(), node, net)) {
+                    sides |= 1 << facing.getIndex();
+                }
+            }
+            sidesByPos.put(pos.toLong(), sides);
+        }
+
+        Long2IntOpenHashMap vertexIds = new Long2IntOpenHashMap();
+        vertexIds.defaultReturnValue(-1);
+        LongArrayList vertexPositions = new LongArrayList();
+        IntArrayList connectedSides = new IntArrayList();
+        for (Map.Entry<BlockPos, Node<NodeDataType>> entry : nodes.entrySet()) {
+            long pos = entry.getKey().toLong();
+            int sides = sidesByPos.get(pos);
+            // open sides without a connected node may have an endpoint next to them
+            if (Integer.bitCount(sides) != 2 || (entry.getValue().openConnections & 0x3F & ~sides) != 0) {
+                vertexIds.put(pos, vertexPositions.size());
+                vertexPositions.add(pos);
+                connectedSides.add(sides);
+            }
+        }
+
+        int[] edgeOffsets = new int[vertexPositions.size() + 1];
+        IntArrayList edgeSources = new IntArrayList();
+        IntArrayList edgeTargets = new IntArrayList();
+        List<long[]> edgePaths = new ObjectArrayList<>();
+        LongArrayList edgeCosts = new LongArrayList();
+        LongArrayList edgeCapacities = new LongArrayList();
+        Long2LongOpenHashMap chainNodes = new Long2LongOpenHashMap();
+        chainNodes.defaultReturnValue(-1);
+
+        LongArrayList path = new LongArrayList();
+        for (int vertex = 0; vertex < vertexPositions.size(); vertex++) {
+            edgeOffsets[vertex] = edgeSources.size();
+            BlockPos vertexPos = BlockPos.fromLong(vertexPositions.getLong(vertex));
+            for (EnumFacing facing : EnumFacing.VALUES) {
+                if ((connectedSides.getInt(vertex) & 1 << facing.getIndex()) == 0) continue;
+
+                path.clear();
+                long cost = 0;
+                long capacity = Long.MAX_VALUE;
+                BlockPos pos = vertexPos.offset(facing);
+                EnumFacing from = facing.getOpposite();
+                int target;
+                while (true) {
+                    NodeDataType data = nodes.get(pos).data;
+                    path.add(pos.toLong());
+                    cost += net.getNodeCost(data);
+                    capacity = Math.min(capacity, net.getNodeCapacity(data));
+
+                    target = vertexIds.get(pos.toLong());
+                    // a chain without any vertex is a closed loop, which can never be reached from a vertex
+                    if (target != -1 || path.size() > nodes.size()) break;
+
+                    // chain nodes have exactly two connected sides, so continue through the other one
+                    int next = sidesByPos.get(pos.toLong()) & ~(1 << from.getIndex());
+                    EnumFacing nextFacing = EnumFacing.byIndex(Integer.numberOfTrailingZeros(next));
+                    pos = pos.offset(nextFacing);
+                    from = nextFacing.getOpposite();
+                }
+                if (target == -1) continue;
+
+                int edge = edgeSources.size();
+                long[] edgePath = path.toLongArray();
+                for (int i = 0; i < edgePath.length - 1; i++) {
+                    chainNodes.put(edgePath[i], ((long) edge << 32) | i);
+                }
+                edgeSources.add(vertex);
+                edgeTargets.add(target);
+                edgePaths.add(edgePath);
+                edgeCosts.add(cost);
+                edgeCapacities.add(capacity);
+            }
+        }
+        edgeOffsets[vertexPositions.size()] = edgeSources.size();
+
+        return new PipeNetTopology<>(net, nodes, revision, vertexIds, vertexPositions.toLongArray(),
+                connectedSides.toIntArray(), edgeOffsets, edgeSources.toIntArray(), edgeTargets.toIntArray(),
+                edgePaths.toArray(new long[0][]), edgeCosts.toLongArray(), edgeCapacities.toLongArray(), chainNodes);
+    }
+
+    /**
+     * @return the revision of the net this topology was built from
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * @return the amount of vertices
+     */
+    public int getVertexCount() {
+        return vertexPositions.length;
+    }
+
+    /**
+     * @return the amount of directed edges. Every chain between two vertices is stored once in each direction.
+     */
+    public int getEdgeCount() {
+        return edgeSources.length;
+    }
+
+    /**
+     * @param pos the position of a node
+     * @return the id of the vertex at the position, or -1 if there is none
+     */
+    public int getVertexId(@NotNull BlockPos pos) {
+        return vertexIds.get(pos.toLong());
+    }
+
+    /**
+     * @param vertex the id of the vertex
+     * @return the position of the vertex, packed with {@link BlockPos#toLong()}
+     */
+    public long getVertexPos(int vertex) {
+        return vertexPositions[vertex];
+    }
+
+    /**
+     * @param vertex the id of the vertex
+     * @param facing the side of the vertex
+     * @return if the vertex is connected to another node of the net on the side
+     */
+    public boolean isConnected(int vertex, @NotNull EnumFacing facing) {
+        return (connectedSides[vertex] & 1 << facing.getIndex()) != 0;
+    }
+
+    /**
+     * Finds the shortest paths from a node to every vertex of the net. The length of a path is the amount of nodes in
+     * it, including the source and the vertex.
+     *
+     * @param source the position of the node to start from
+     * @return the paths, or null if the node is not part of the topology
+     */
+    public @Nullable Paths findPaths(@NotNull BlockPos source) {
+        Paths paths = new Paths(source.toLong(), vertexPositions.length);
+        LongHeapPriorityQueue queue = new LongHeapPriorityQueue();
+
+        int sourceVertex = vertexIds.get(source.toLong());
+        if (sourceVertex != -1) {
+            Node<NodeDataType> node = nodes.get(source);
+            paths.reach(sourceVertex, 1, net.getNodeCost(node.data), net.getNodeCapacity(node.data), SEED_SOURCE);
+            queue.enqueue(((long) 1 << 32) | sourceVertex);
+        } else {
+            long chain = chainNodes.get(source.toLong());
+            if (chain == -1) return null;
+
+            int edge = (int) (chain >>> 32);
+            int index = (int) chain;
+            long[] path = edgePaths[edge];
+            paths.seedEdge = edge;
+            paths.seedIndex = index;
+
+            // towards the target of the edge, through the rest of the path
+            long cost = 0;
+            long capacity = Long.MAX_VALUE;
+            for (int i = index; i < path.length; i++) {
+                NodeDataType data = nodes.get(BlockPos.fromLong(path[i])).data;
+                cost += net.getNodeCost(data);
+                capacity = Math.min(capacity, net.getNodeCapacity(data));
+            }
+            int target = edgeTargets[edge];
+            paths.reach(target, path.length - index, cost, capacity, SEED_FORWARD);
+
+            // towards the source of the edge, back through the start of the path
+            cost = 0;
+            capacity = Long.MAX_VALUE;
+            for (int i = index; i >= 0; i--) {
+                NodeDataType data = nodes.get(BlockPos.fromLong(path[i])).data;
+                cost += net.getNodeCost(data);
+                capacity = Math.min(capacity, net.getNodeCapacity(data));
+            }
+            int start = edgeSources[edge];
+            NodeDataType data = nodes.get(BlockPos.fromLong(vertexPositions[start])).data;
+            cost += net.getNodeCost(data);
+            capacity = Math.min(capacity, net.getNodeCapacity(data));
+            if (index + 2 < paths.distances[start]) {
+                paths.reach(start, index + 2, cost, capacity, SEED_BACKWARD);
+            }
+
+            queue.enqueue(((long) paths.distances[target] << 32) | target);
+            if (start != target) {
+                queue.enqueue(((long) paths.distances[start] << 32) | start);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            long entry = queue.dequeueLong();
+            int vertex = (int) entry;
+            int distance = (int) (entry >>> 32);
+            // skip stale entries of vertices which were reached by a shorter path since
+            if (distance != paths.distances[vertex]) continue;
+
+            for (int edge = edgeOffsets[vertex]; edge < edgeOffsets[vertex + 1]; edge++) {
+                int target = edgeTargets[edge];
+                int targetDistance = distance + edgePaths[edge].length;
+                if (targetDistance < paths.distances[target]) {
+                    paths.reach(target, targetDistance, paths.costs[vertex] + edgeCosts[edge],
+                            Math.min(paths.capacities[vertex], edgeCapacities[edge]), edge);
+                    queue.enqueue(((long) targetDistance << 32) | target);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * The shortest paths from a single node to the vertices of a {@link PipeNetTopology}
+     */
+    public final class Paths {
+
+        private final long source;
+        private final int[] distances;
+        private final long[] costs;
+        private final long[] capacities;
+        private final int[] previous;
+        private int seedEdge;
+        private int seedIndex;
+
+        private Paths(long source, int vertexCount) {
+            this.source = source;
+            this.distances = new int[vertexCount];
+            this.costs = new long[vertexCount];
+            this.capacities = new long[vertexCount];
+            this.previous = new int[vertexCount];
+            Arrays.fill(this.distances, Integer.MAX_VALUE);
+        }
+
+        private void reach(int vertex, int distance, long cost, long capacity, int previous) {
+            this.distances[vertex] = distance;
+            this.costs[vertex] = cost;
+            this.capacities[vertex] = capacity;
+            this.previous[vertex] = previous;
+        }
+
+        /**
+         * @return the topology the paths were found in
+         */
+        public @NotNull PipeNetTopology<NodeDataType> getTopology() {
+            return PipeNetTopology.this;
+        }
+
+        /**
+         * @param vertex the id of the vertex
+         * @return if the vertex can be reached from the source
+         */
+        public boolean isReached(int vertex) {
+            return distances[vertex] != Integer.MAX_VALUE;
+        }
+
+        /**
+         * @param vertex the id of the vertex
+         * @return the amount of nodes in the path to the vertex, including the source and the vertex
+         */
+        public int getDistance(int vertex) {
+            return distances[vertex];
+        }
+
+        /**
+         * @param vertex the id of the vertex
+         * @return the summed cost of the nodes in the path to the vertex
+         */
+        public long getCost(int vertex) {
+            return costs[vertex];
+        }
+
+        /**
+         * @param vertex the id of the vertex
+         * @return the minimum capacity of the nodes in the path to the vertex
+         */
+        public long getCapacity(int vertex) {
+            return capacities[vertex];
+        }
+
+        /**
+         * @param vertex the id of a reached vertex
+         * @return the positions of the nodes in the path to the vertex, ordered from the source to the vertex
+         */
+        public long @NotNull [] getPath(int vertex) {
+            long[] path = new long[distances[vertex]];
+            int index = path.length;
+            int current = vertex;
+            while (true) {
+                int edge = previous[current];
+                if (edge == SEED_SOURCE) {
+                    path[--index] = source;
+                    break;
+                } else if (edge == SEED_FORWARD) {
+                    long[] edgePath = edgePaths[seedEdge];
+                    for (int i = edgePath.length - 1; i >= seedIndex; i--) {
+                        path[--index] = edgePath[i];
+                    }
+                    break;
+                } else if (edge == SEED_BACKWARD) {
+                    path[--index] = vertexPositions[current];
+                    long[] edgePath = edgePaths[seedEdge];
+                    for (int i = 0; i <= seedIndex; i++) {
+                        path[--index] = edgePath[i];
+                    }
+                    break;
+                }
+
+                long[] edgePath = edgePaths[edge];
+                for (int i = edgePath.length - 1; i >= 0; i--) {
+                    path[--index] = edgePath[i];
+                }
+                current = edgeSources[edge];
+            }
+            return path;
+        }
+    }
+}
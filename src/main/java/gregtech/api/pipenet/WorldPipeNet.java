@@ -11,20 +11,20 @@ import net.minecraft.world.World;
 import net.minecraft.world.storage.WorldSavedData;
 import net.minecraftforge.common.util.Constants.NBT;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public abstract class WorldPipeNet<NodeDataType, T extends PipeNet<NodeDataType>> extends WorldSavedData {
 
     private WeakReference<World> worldRef = new WeakReference<>(null);
     protected List<T> pipeNets = new ArrayList<>();
-    protected final Map<ChunkPos, List<T>> pipeNetsByChunk = new HashMap<>();
+    // the nets with nodes in each chunk, by packed chunk position, see getPipeNetsInChunk
+    private final Long2ObjectOpenHashMap<List<T>> pipeNetsByChunk = new Long2ObjectOpenHashMap<>();
 
     public WorldPipeNet(String name) {
         super(name);
@@ -86,19 +86,34 @@ public abstract class WorldPipeNet<NodeDataType, T extends PipeNet<NodeDataType>
     }
 
     protected void addPipeNetToChunk(ChunkPos chunkPos, T pipeNet) {
-        this.pipeNetsByChunk.computeIfAbsent(chunkPos, any -> new ArrayList<>()).add(pipeNet);
+        long chunk = ChunkPos.asLong(chunkPos.x, chunkPos.z);
+        List<T> list = this.pipeNetsByChunk.get(chunk);
+        if (list == null) {
+            list = new ArrayList<>();
+            this.pipeNetsByChunk.put(chunk, list);
+        }
+        list.add(pipeNet);
     }
 
     protected void removePipeNetFromChunk(ChunkPos chunkPos, T pipeNet) {
-        List<T> list = this.pipeNetsByChunk.get(chunkPos);
+        long chunk = ChunkPos.asLong(chunkPos.x, chunkPos.z);
+        List<T> list = this.pipeNetsByChunk.get(chunk);
         if (list != null) {
             list.remove(pipeNet);
             if (list.isEmpty()) {
-                this.pipeNetsByChunk.remove(chunkPos);
+                this.pipeNetsByChunk.remove(chunk);
             }
         }
     }
 
+    /**
+     * @param chunkPos the position of the chunk
+     * @return the nets with nodes in the chunk
+     */
+    protected @Nullable List<T> getPipeNetsInChunk(ChunkPos chunkPos) {
+        return this.pipeNetsByChunk.get(ChunkPos.asLong(chunkPos.x, chunkPos.z));
+    }
+
     public void removeNode(BlockPos nodePos) {
         T pipeNet = getNetFromPos(nodePos);
         if (pipeNet != null) {
@@ -122,10 +137,15 @@ public abstract class WorldPipeNet<NodeDataType, T extends PipeNet<NodeDataType>
     }
 
     public T getNetFromPos(BlockPos blockPos) {
-        List<T> pipeNetsInChunk = pipeNetsByChunk.getOrDefault(new ChunkPos(blockPos), Collections.emptyList());
-        for (T pipeNet : pipeNetsInChunk) {
-            if (pipeNet.containsNode(blockPos))
+        List<T> pipeNetsInChunk = this.pipeNetsByChunk.get(ChunkPos.asLong(blockPos.getX() >> 4,
+                blockPos.getZ() >> 4));
+        if (pipeNetsInChunk == null) return null;
+        // noinspection ForLoopReplaceableByForEach
+        for (int i = 0; i < pipeNetsInChunk.size(); i++) {
+            T pipeNet = pipeNetsInChunk.get(i);
+            if (pipeNet.containsNode(blockPos)) {
                 return pipeNet;
+            }
         }
         return null;
     }
@@ -151,6 +171,7 @@ public abstract class WorldPipeNet<NodeDataType, T extends PipeNet<NodeDataType>
     @Override
     public void readFromNBT(NBTTagCompound nbt) {
         this.pipeNets = new ArrayList<>();
+        this.pipeNetsByChunk.clear();
         NBTTagList allEnergyNets = nbt.getTagList("PipeNets", NBT.TAG_COMPOUND);
         for (int i = 0; i < allEnergyNets.tagCount(); i++) {
             NBTTagCompound pNetTag = allEnergyNets.getCompoundTagAt(i);
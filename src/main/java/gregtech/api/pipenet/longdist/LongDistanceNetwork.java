@@ -52,12 +52,12 @@ public class LongDistanceNetwork {
 
     /**
      * Calculates one or more networks based on the given starting points.
-     * For this it will start a new thread to keep the main thread free.
+     * For this it will schedule a {@link NetworkBuilder} to keep the main thread free.
      */
     protected void recalculateNetwork(Collection<BlockPos> starts) {
         invalidateNetwork(true);
-        // start a new thread where all given starting points are being walked
-        new NetworkBuilder(world, this, starts).start();
+        // all given starting points are walked on a worker thread, together with other recalculations of this tick
+        NetworkBuildScheduler.schedule(world, this, starts);
     }
 
     /**
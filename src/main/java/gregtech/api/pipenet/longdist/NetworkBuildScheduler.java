@@ -0,0 +1,119 @@
+package gregtech.api.pipenet.longdist;
+
+import gregtech.api.GTValues;
+import gregtech.api.pipenet.PipeNetRouteService;
+import gregtech.api.util.GTLog;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Runs the {@link NetworkBuilder}s of a world on the workers of {@link PipeNetRouteService}.
+ * <p>
+ * Only one builder runs per world at a time. Recalculations requested until it is started are collected into a single
+ * builder per pipe type, so changing many pipes at once only walks the affected pipes once.
+ * <p>
+ * At the end of each world tick, the server thread provides the sections the running builder waits for and applies
+ * the builder once it is finished. The server thread never waits for the builder; a builder handing back control
+ * after the queue was checked is picked up on the next tick.
+ */
+@ApiStatus.Internal
+@EventBusSubscriber(modid = GTValues.MODID)
+public final class NetworkBuildScheduler {
+
+    private static final Map<World, NetworkBuildScheduler> SCHEDULERS = new Reference2ObjectOpenHashMap<>();
+
+    private final LongDistanceNetwork.WorldData worldData;
+    /** Builders handed back by the workers, which are either finished or waiting for sections */
+    private final Queue<NetworkBuilder> returned = new ConcurrentLinkedQueue<>();
+    /** Builders collecting recalculations until they are started, by pipe type */
+    private final Reference2ObjectLinkedOpenHashMap<LongDistancePipeType, NetworkBuilder> pending =
+            new Reference2ObjectLinkedOpenHashMap<>();
+    @Nullable
+    private NetworkBuilder running;
+
+    private NetworkBuildScheduler(@NotNull LongDistanceNetwork.WorldData worldData) {
+        this.worldData = worldData;
+    }
+
+    /**
+     * Recalculate a network at the end of the current tick
+     *
+     * @param worldData the world data of the network
+     * @param network   the network to recalculate
+     * @param starts    the starting points to walk from
+     */
+    static void schedule(@NotNull LongDistanceNetwork.WorldData worldData, @NotNull LongDistanceNetwork network,
+                         @NotNull Collection<BlockPos> starts) {
+        World world = worldData.getWorld();
+        if (world == null || world.isRemote) return;
+        NetworkBuildScheduler scheduler = SCHEDULERS.computeIfAbsent(world, w -> new NetworkBuildScheduler(worldData));
+        NetworkBuilder builder = scheduler.pending.get(network.getPipeType());
+        if (builder == null) {
+            builder = new NetworkBuilder(worldData, network.getPipeType(), scheduler.returned);
+            scheduler.pending.put(network.getPipeType(), builder);
+        }
+        builder.addStarts(network, starts);
+    }
+
+    private void tick() {
+        while (this.running != null) {
+            NetworkBuilder builder = this.returned.poll();
+            if (builder == null) break;
+
+            if (builder.isFinished()) {
+                RuntimeException error = builder.getError();
+                if (error == null) {
+                    builder.apply();
+                } else {
+                    GTLog.logger.error("Failed to build long distance pipe network", error);
+                    builder.unloadChunks();
+                }
+                this.running = null;
+            } else {
+                builder.provideSections();
+                PipeNetRouteService.getExecutor().execute(builder);
+            }
+        }
+
+        if (this.running == null && !this.pending.isEmpty()) {
+            Iterator<NetworkBuilder> it = this.pending.values().iterator();
+            this.running = it.next();
+            it.remove();
+            PipeNetRouteService.getExecutor().execute(this.running);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (!event.world.isRemote && event.phase == TickEvent.Phase.END) {
+            NetworkBuildScheduler scheduler = SCHEDULERS.get(event.world);
+            if (scheduler != null) {
+                scheduler.tick();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (!event.getWorld().isRemote) {
+            SCHEDULERS.remove(event.getWorld());
+        }
+    }
+}
@@ -1,135 +1,367 @@
 package gregtech.api.pipenet.longdist;
 
-import net.minecraft.block.state.IBlockState;
-import net.minecraft.init.Blocks;
+import gregtech.api.metatileentity.interfaces.IGregTechTileEntity;
+
+import net.minecraft.block.Block;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraft.world.gen.ChunkProviderServer;
 
-import it.unimi.dsi.fastutil.objects.ObjectArrayList;
-import it.unimi.dsi.fastutil.objects.ObjectList;
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Queue;
 
 /**
  * This bad boy is responsible for building the network
+ * <p>
+ * The network is walked on a worker thread, which never accesses the world. Blocks are read from snapshots of the
+ * chunk sections the walk enters, which are taken on the server thread once the worker asked for them. The walk is
+ * paused until then, see {@link NetworkBuildScheduler}. The walked networks are applied on the server thread as well.
+ * <p>
+ * Positions are stored packed like {@link BlockPos#toLong()}.
  */
-public class NetworkBuilder extends Thread {
+public class NetworkBuilder implements Runnable {
 
-    private final ObjectList<BlockPos> starts = new ObjectArrayList<>();
     private final LongDistanceNetwork.WorldData worldData;
-    private final LongDistanceNetwork originalNetwork;
-    private LongDistanceNetwork network;
-    private final World world;
-    private final ObjectList<BlockPos> currentPoints = new ObjectArrayList<>();
-    private final ObjectOpenHashSet<BlockPos> walked = new ObjectOpenHashSet<>();
-    private final List<BlockPos> pipes = new ArrayList<>();
-    private final List<ILDEndpoint> endpoints = new ArrayList<>();
-    private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
-    private final ObjectOpenHashSet<Chunk> loadedChunks = new ObjectOpenHashSet<>();
-
-    public NetworkBuilder(LongDistanceNetwork.WorldData worldData, LongDistanceNetwork network,
-                          Collection<BlockPos> starts) {
-        this.worldData = Objects.requireNonNull(worldData);
-        this.originalNetwork = Objects.requireNonNull(network);
-        this.network = network;
-        this.world = worldData.getWorld();
-        this.starts.addAll(starts);
+    private final LongDistancePipeType pipeType;
+    private final Queue<NetworkBuilder> returnQueue;
+
+    // the networks requesting the build, which are reused for the walked networks
+    private final List<LongDistanceNetwork> networks = new ArrayList<>();
+    private final LongArrayList starts = new LongArrayList();
+    private int startIndex;
+
+    private final Long2ObjectOpenHashMap<SectionSnapshot> sections = new Long2ObjectOpenHashMap<>();
+    // sections the walk needs, which are provided by the server thread
+    private final LongOpenHashSet requestedSections = new LongOpenHashSet();
+    private final LongOpenHashSet loadedChunks = new LongOpenHashSet();
+
+    private boolean walking;
+    private final LongArrayFIFOQueue currentPoints = new LongArrayFIFOQueue();
+    // points whose neighbours are in sections which were not provided yet
+    private final LongArrayList deferredPoints = new LongArrayList();
+    private final LongOpenHashSet walked = new LongOpenHashSet();
+    // parts of every walked network, so starting points caught by a previous walk are skipped
+    private final LongOpenHashSet claimed = new LongOpenHashSet();
+    private LongArrayList pipes = new LongArrayList();
+    private LongArrayList endpoints = new LongArrayList();
+    private final List<LongArrayList[]> walkedNetworks = new ArrayList<>();
+
+    private volatile boolean finished;
+    @Nullable
+    private volatile RuntimeException error;
+
+    NetworkBuilder(@NotNull LongDistanceNetwork.WorldData worldData, @NotNull LongDistancePipeType pipeType,
+                   @NotNull Queue<NetworkBuilder> returnQueue) {
+        this.worldData = worldData;
+        this.pipeType = pipeType;
+        this.returnQueue = returnQueue;
+    }
+
+    /**
+     * Add starting points to walk from. Must be called before the builder is started.
+     *
+     * @param network the network to recalculate
+     * @param starts  the starting points
+     */
+    void addStarts(@NotNull LongDistanceNetwork network, @NotNull Collection<BlockPos> starts) {
+        if (!this.networks.contains(network)) {
+            this.networks.add(network);
+        }
+        for (BlockPos pos : starts) {
+            this.starts.add(pos.toLong());
+        }
+    }
+
+    boolean isFinished() {
+        return this.finished;
+    }
+
+    @Nullable
+    RuntimeException getError() {
+        return this.error;
     }
 
     @Override
     public void run() {
-        if (this.starts.isEmpty()) return;
-        BlockPos start = this.starts.remove(0);
-        checkNetwork(start);
-        // iterate over each given starting point and try to build a network
-        while (!this.starts.isEmpty()) {
-            start = this.starts.remove(0);
-            LongDistanceNetwork ldn = this.worldData.getNetwork(start);
-            if (ldn == this.originalNetwork) {
-                // this starting point was caught during a previous iteration, so we don't need to create another
-                // network here
-                continue;
-            }
-            // create a new network, since the current was already calculated
-            this.network = this.network.getPipeType().createNetwork(this.worldData);
-            this.currentPoints.clear();
-            this.walked.clear();
-            this.pipes.clear();
-            this.endpoints.clear();
-            checkNetwork(start);
-        }
-        IChunkProvider chunkProvider = this.world.getChunkProvider();
-        if (chunkProvider instanceof ChunkProviderServer chunkProviderServer) {
-            this.loadedChunks.forEach(chunkProviderServer::queueUnload);
+        try {
+            walk();
+        } catch (RuntimeException e) {
+            this.error = e;
+            this.finished = true;
+        } finally {
+            // hand the builder back to the server thread
+            this.returnQueue.add(this);
         }
     }
 
-    private void checkNetwork(BlockPos start) {
-        // current points stores all current branches of the network
-        checkPos(this.world.getBlockState(start), start);
-        while (!this.currentPoints.isEmpty()) {
-            // get and remove the first stored branch
-            BlockPos current = this.currentPoints.remove(0);
-            for (EnumFacing facing : EnumFacing.VALUES) {
-                this.pos.setPos(current).move(facing);
-                if (this.walked.contains(this.pos)) {
-                    continue;
+    private void walk() {
+        // resume the points which were waiting for sections
+        for (int i = 0; i < this.deferredPoints.size(); i++) {
+            this.currentPoints.enqueue(this.deferredPoints.getLong(i));
+        }
+        this.deferredPoints.clear();
+
+        while (true) {
+            if (!this.walking) {
+                // iterate over each given starting point and try to build a network
+                if (this.startIndex >= this.starts.size()) {
+                    this.finished = true;
+                    return;
                 }
-                IBlockState blockState = getBlockState(this.pos);
-                if (blockState.getBlock().isAir(blockState, this.world, this.pos)) {
+                long start = this.starts.getLong(this.startIndex);
+                if (this.claimed.contains(start)) {
+                    // this starting point was caught during a previous walk, so we don't need to create another
+                    // network here
+                    this.startIndex++;
                     continue;
                 }
-                checkPos(blockState, this.pos);
+                SectionSnapshot section = getSection(start);
+                if (section == null) return;
+                this.startIndex++;
+                this.walking = true;
+                checkPos(start, section);
             }
+
+            // current points stores all current branches of the network
+            while (!this.currentPoints.isEmpty()) {
+                long current = this.currentPoints.dequeueLong();
+                if (!checkNeighbours(current)) {
+                    this.deferredPoints.add(current);
+                }
+            }
+            if (!this.requestedSections.isEmpty()) return;
+
+            // the whole net was checked
+            this.walkedNetworks.add(new LongArrayList[] { this.pipes, this.endpoints });
+            this.pipes = new LongArrayList();
+            this.endpoints = new LongArrayList();
+            this.walked.clear();
+            this.walking = false;
+        }
+    }
+
+    /**
+     * @return if every neighbour was checked, or false if a section still needs to be provided
+     */
+    private boolean checkNeighbours(long current) {
+        int x = unpackX(current), y = unpackY(current), z = unpackZ(current);
+        boolean checked = true;
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            int offsetY = y + facing.getYOffset();
+            // outside the build height is considered air
+            if (offsetY < 0 || offsetY >= 256) continue;
+            long pos = pack(x + facing.getXOffset(), offsetY, z + facing.getZOffset());
+            if (this.walked.contains(pos)) {
+                continue;
+            }
+            SectionSnapshot section = getSection(pos);
+            if (section == null) {
+                checked = false;
+                continue;
+            }
+            checkPos(pos, section);
         }
-        // the whole net was checked
-        // now send the data to the given network
-        this.network.setData(this.pipes, this.endpoints);
+        return checked;
     }
 
     /**
      * Checks a pos for a pipe or a endpoint
      */
-    private void checkPos(IBlockState blockState, BlockPos pos) {
-        LongDistanceNetwork network = LongDistanceNetwork.get(this.world, pos);
-        if (network != null && network != this.network) {
-            network.invalidateNetwork(true);
+    private void checkPos(long pos, @NotNull SectionSnapshot section) {
+        this.walked.add(pos);
+        int index = SectionSnapshot.indexOf(pos);
+        if (section.isPart(index)) {
+            this.pipes.add(pos);
+            this.claimed.add(pos);
+            if (section.isEndpoint(index)) this.endpoints.add(pos);
+            else this.currentPoints.enqueue(pos);
         }
-        BlockPos bp = pos.toImmutable();
-        this.walked.add(bp);
-        ILDNetworkPart part = ILDNetworkPart.tryGet(this.world, pos, blockState);
-        if (part != null) {
-            this.pipes.add(bp);
-            if (part instanceof ILDEndpoint endpoint) this.endpoints.add(endpoint);
-            else this.currentPoints.add(bp);
+    }
+
+    @Nullable
+    private SectionSnapshot getSection(long pos) {
+        long key = pack(unpackX(pos) >> 4, unpackY(pos) >> 4, unpackZ(pos) >> 4);
+        SectionSnapshot section = this.sections.get(key);
+        if (section == null) {
+            this.requestedSections.add(key);
         }
+        return section;
     }
 
     /**
-     * Special method which can get block state which are far away. It temporarily loads the chunk for that.
+     * Take snapshots of the sections the walk needs. Must be called on the server thread, while the builder is not
+     * running.
      */
-    private IBlockState getBlockState(BlockPos pos) {
-        if (this.world.isOutsideBuildHeight(pos)) return Blocks.AIR.getDefaultState();
-        IChunkProvider chunkProvider = this.world.getChunkProvider();
-        Chunk chunk = chunkProvider.getLoadedChunk(pos.getX() >> 4, pos.getZ() >> 4);
+    void provideSections() {
+        World world = this.worldData.getWorld();
+        LongIterator it = this.requestedSections.iterator();
+        while (it.hasNext()) {
+            long key = it.nextLong();
+            SectionSnapshot section = world == null ? SectionSnapshot.EMPTY :
+                    takeSnapshot(world, unpackX(key), unpackY(key), unpackZ(key));
+            this.sections.put(key, section);
+        }
+        this.requestedSections.clear();
+    }
+
+    private @NotNull SectionSnapshot takeSnapshot(@NotNull World world, int chunkX, int sectionY, int chunkZ) {
+        if (sectionY < 0 || sectionY >= 16) return SectionSnapshot.EMPTY;
+        IChunkProvider chunkProvider = world.getChunkProvider();
+        Chunk chunk = chunkProvider.getLoadedChunk(chunkX, chunkZ);
         // chunk is not loaded, try to load it
         if (chunk == null) {
             // don't force generate a chunk
-            if (!chunkProvider.isChunkGeneratedAt(pos.getX() >> 4, pos.getZ() >> 4)) {
-                return Blocks.AIR.getDefaultState();
+            if (!chunkProvider.isChunkGeneratedAt(chunkX, chunkZ)) {
+                return SectionSnapshot.EMPTY;
             }
-            chunk = chunkProvider.provideChunk(pos.getX() >> 4, pos.getZ() >> 4);
-            // add loaded chunk to list to unload it later
-            this.loadedChunks.add(chunk);
+            chunk = chunkProvider.provideChunk(chunkX, chunkZ);
+            // remember the loaded chunk to unload it later
+            this.loadedChunks.add(ChunkPos.asLong(chunkX, chunkZ));
+        }
+
+        long[] parts = null;
+        ExtendedBlockStorage storage = chunk.getBlockStorageArray()[sectionY];
+        if (storage != Chunk.NULL_BLOCK_STORAGE && !storage.isEmpty()) {
+            for (int index = 0; index < 4096; index++) {
+                Block block = storage.get(index & 15, index >> 8, index >> 4 & 15).getBlock();
+                if (block instanceof ILDNetworkPart part && this.pipeType.isValidPart(part)) {
+                    if (parts == null) parts = new long[64];
+                    parts[index >> 6] |= 1L << index;
+                }
+            }
+        }
+
+        long[] endpoints = null;
+        for (Map.Entry<BlockPos, TileEntity> entry : chunk.getTileEntityMap().entrySet()) {
+            BlockPos pos = entry.getKey();
+            if (pos.getY() >> 4 != sectionY) continue;
+            // read the tile directly, looking it up through the world may create tiles while iterating the map
+            if (entry.getValue() instanceof IGregTechTileEntity gte &&
+                    gte.getMetaTileEntity() instanceof ILDEndpoint endpoint && this.pipeType.isValidPart(endpoint)) {
+                int index = SectionSnapshot.indexOf(pos.getX(), pos.getY(), pos.getZ());
+                if (parts == null) parts = new long[64];
+                if (endpoints == null) endpoints = new long[64];
+                parts[index >> 6] |= 1L << index;
+                endpoints[index >> 6] |= 1L << index;
+            }
+        }
+        return parts == null ? SectionSnapshot.EMPTY : new SectionSnapshot(parts, endpoints);
+    }
+
+    /**
+     * Send the walked networks to the world. Must be called on the server thread, once the builder is finished.
+     */
+    void apply() {
+        World world = this.worldData.getWorld();
+        if (world == null) return;
+        for (int i = 0; i < this.walkedNetworks.size(); i++) {
+            LongArrayList[] walkedNetwork = this.walkedNetworks.get(i);
+            // reuse the recalculated networks, and create new networks for every further walk
+            LongDistanceNetwork network = i < this.networks.size() ? this.networks.get(i) :
+                    this.pipeType.createNetwork(this.worldData);
+
+            List<BlockPos> pipes = new ArrayList<>(walkedNetwork[0].size());
+            for (int j = 0; j < walkedNetwork[0].size(); j++) {
+                BlockPos pos = BlockPos.fromLong(walkedNetwork[0].getLong(j));
+                LongDistanceNetwork other = this.worldData.getNetwork(pos);
+                if (other != null && other != network) {
+                    other.invalidateNetwork(true);
+                }
+                pipes.add(pos);
+            }
+            List<ILDEndpoint> endpoints = new ArrayList<>(walkedNetwork[1].size());
+            for (int j = 0; j < walkedNetwork[1].size(); j++) {
+                ILDEndpoint endpoint = ILDEndpoint.tryGet(world, BlockPos.fromLong(walkedNetwork[1].getLong(j)));
+                if (endpoint != null) endpoints.add(endpoint);
+            }
+            // now send the data to the given network
+            network.setData(pipes, endpoints);
+        }
+        unloadChunks();
+    }
+
+    /**
+     * Unload the chunks the builder loaded. Must be called on the server thread.
+     */
+    void unloadChunks() {
+        World world = this.worldData.getWorld();
+        if (world != null && world.getChunkProvider() instanceof ChunkProviderServer chunkProviderServer) {
+            LongIterator it = this.loadedChunks.iterator();
+            while (it.hasNext()) {
+                long key = it.nextLong();
+                // the chunk coordinates are packed like ChunkPos#asLong
+                Chunk chunk = chunkProviderServer.getLoadedChunk((int) key, (int) (key >> 32));
+                if (chunk != null) chunkProviderServer.queueUnload(chunk);
+            }
+        }
+        this.loadedChunks.clear();
+    }
+
+    // same layout as BlockPos#toLong and BlockPos#fromLong
+
+    private static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) y & 0xFFFL) << 26 | (long) z & 0x3FFFFFFL;
+    }
+
+    private static int unpackX(long pos) {
+        return (int) (pos >> 38);
+    }
+
+    private static int unpackY(long pos) {
+        return (int) (pos << 26 >> 52);
+    }
+
+    private static int unpackZ(long pos) {
+        return (int) (pos << 38 >> 38);
+    }
+
+    /**
+     * The network parts within a 16x16x16 section of a chunk
+     */
+    private static final class SectionSnapshot {
+
+        private static final SectionSnapshot EMPTY = new SectionSnapshot(new long[64], null);
+
+        private final long[] parts;
+        @Nullable
+        private final long[] endpoints;
+
+        private SectionSnapshot(long[] parts, @Nullable long[] endpoints) {
+            this.parts = parts;
+            this.endpoints = endpoints;
+        }
+
+        static int indexOf(long pos) {
+            return indexOf(unpackX(pos), unpackY(pos), unpackZ(pos));
+        }
+
+        static int indexOf(int x, int y, int z) {
+            return (y & 15) << 8 | (z & 15) << 4 | x & 15;
+        }
+
+        boolean isPart(int index) {
+            return (this.parts[index >> 6] & 1L << index) != 0;
+        }
+
+        boolean isEndpoint(int index) {
+            return this.endpoints != null && (this.endpoints[index >> 6] & 1L << index) != 0;
         }
-        return chunk.getBlockState(pos);
     }
 }
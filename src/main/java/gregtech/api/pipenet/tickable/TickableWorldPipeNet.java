@@ -2,6 +2,7 @@ package gregtech.api.pipenet.tickable;
 
 import gregtech.api.pipenet.PipeNet;
 import gregtech.api.pipenet.WorldPipeNet;
+import gregtech.api.util.profiler.TickProfiler;
 
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.ChunkPos;
@@ -34,7 +35,18 @@ public abstract class TickableWorldPipeNet<NodeDataType, T extends PipeNet<NodeD
 
     public void update() {
         if (getWorld().getTotalWorldTime() % getUpdateRate() == 0L) {
-            tickingPipeNets.forEach(ITickable::update);
+            if (TickProfiler.isProfiling()) {
+                for (T pipeNet : tickingPipeNets) {
+                    long allocated = TickProfiler.getAllocatedBytes();
+                    long time = System.nanoTime();
+                    pipeNet.update();
+                    // pipe nets can span many chunks, so they are only attributed to their dimension
+                    TickProfiler.record(TickProfiler.Category.PIPE, pipeNet.getClass(), getWorld(), null,
+                            System.nanoTime() - time, TickProfiler.getAllocatedBytes() - allocated);
+                }
+            } else {
+                tickingPipeNets.forEach(ITickable::update);
+            }
         }
         if (removeLater.size() > 0) {
             removeLater.forEach(tickingPipeNets::remove);
@@ -44,7 +56,7 @@ public abstract class TickableWorldPipeNet<NodeDataType, T extends PipeNet<NodeD
 
     public void onChunkLoaded(Chunk chunk) {
         ChunkPos chunkPos = chunk.getPos();
-        List<T> pipeNetsInThisChunk = this.pipeNetsByChunk.get(chunkPos);
+        List<T> pipeNetsInThisChunk = getPipeNetsInChunk(chunkPos);
         if (pipeNetsInThisChunk == null) return;
         for (T pipeNet : pipeNetsInThisChunk) {
             List<ChunkPos> loadedChunks = getOrCreateChunkListForPipeNet(pipeNet);
@@ -57,7 +69,7 @@ public abstract class TickableWorldPipeNet<NodeDataType, T extends PipeNet<NodeD
 
     public void onChunkUnloaded(Chunk chunk) {
         ChunkPos chunkPos = chunk.getPos();
-        List<T> pipeNetsInThisChunk = this.pipeNetsByChunk.get(chunkPos);
+        List<T> pipeNetsInThisChunk = getPipeNetsInChunk(chunkPos);
         if (pipeNetsInThisChunk == null) return;
         for (T pipeNet : pipeNetsInThisChunk) {
             List<ChunkPos> loadedChunks = this.loadedChunksByPipeNet.get(pipeNet);
@@ -6,6 +6,7 @@ import net.minecraft.world.World;
 import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent.WorldTickEvent;
 
 import java.util.ArrayList;
@@ -29,7 +30,8 @@ public class TickableWorldPipeNetEventHandler {
     @SubscribeEvent
     public static void onWorldTick(WorldTickEvent event) {
         World world = event.world;
-        if (world.isRemote)
+        // the event is fired at the start and the end of each tick
+        if (world.isRemote || event.phase != TickEvent.Phase.END)
             return;
         getPipeNetsForWorld(world).forEach(TickableWorldPipeNet::update);
     }
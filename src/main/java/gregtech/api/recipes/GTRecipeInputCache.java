@@ -13,6 +13,7 @@ import it.unimi.dsi.fastutil.Hash;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -45,7 +46,18 @@ public final class GTRecipeInputCache {
     @ApiStatus.Internal
     public static void enableCache() {
         if (!isCacheEnabled()) {
-            int size = calculateOptimalExpectedSize();
+            enableCache(calculateOptimalExpectedSize());
+        }
+    }
+
+    /**
+     * Enable the cache without reading the expected size from persistent data.
+     *
+     * @param size the expected amount of unique instances
+     */
+    @VisibleForTesting
+    static void enableCache(int size) {
+        if (!isCacheEnabled()) {
             instances = new ObjectOpenHashSet<>(size);
 
             if (ConfigHolder.misc.debug || GTValues.isDeobfEnvironment()) {
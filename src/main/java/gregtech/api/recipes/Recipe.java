@@ -8,9 +8,11 @@ import gregtech.api.recipes.chance.output.ChancedOutputLogic;
 import gregtech.api.recipes.chance.output.impl.ChancedFluidOutput;
 import gregtech.api.recipes.chance.output.impl.ChancedItemOutput;
 import gregtech.api.recipes.ingredients.GTRecipeInput;
+import gregtech.api.recipes.map.RecipeLookupBuffer;
 import gregtech.api.recipes.properties.RecipeProperty;
 import gregtech.api.recipes.properties.RecipePropertyStorage;
 import gregtech.api.recipes.properties.RecipePropertyStorageImpl;
+import gregtech.api.util.GTHashMaps;
 import gregtech.api.util.GTUtility;
 import gregtech.api.util.ItemStackHashStrategy;
 import gregtech.integration.groovy.GroovyScriptModule;
@@ -22,6 +24,8 @@ import net.minecraftforge.items.ItemHandlerHelper;
 import net.minecraftforge.oredict.OreDictionary;
 
 import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.tuple.Pair;
@@ -103,6 +107,13 @@ public class Recipe {
 
     private final int hashCode;
 
+    /**
+     * The amount of times the consumable inputs are consumed when matching
+     */
+    private final int inputMultiplier;
+
+    private Object2IntMap<ItemStack> itemOutputMap;
+
     public Recipe(@NotNull List<GTRecipeInput> inputs,
                   List<ItemStack> outputs,
                   @NotNull ChancedOutputList<ItemStack, ChancedItemOutput> chancedOutputs,
@@ -133,6 +144,34 @@ public class Recipe {
         this.isCTRecipe = isCTRecipe;
         this.hashCode = makeHashCode();
         this.groovyRecipe = GroovyScriptModule.isCurrentlyRunning();
+        this.inputMultiplier = 1;
+    }
+
+    /**
+     * Create a recipe sharing the ingredients of another recipe, which consumes the consumable inputs a number of
+     * times when matching.
+     *
+     * @param recipe          the recipe to share the ingredients of
+     * @param inputMultiplier the amount of times to consume the inputs
+     * @param EUt             the EU/t of the recipe
+     * @param duration        the duration of the recipe
+     */
+    Recipe(@NotNull Recipe recipe, int inputMultiplier, long EUt, int duration) {
+        this.recipePropertyStorage = recipe.recipePropertyStorage;
+        this.inputs = recipe.inputs;
+        this.outputs = recipe.outputs;
+        this.chancedOutputs = recipe.chancedOutputs;
+        this.chancedFluidOutputs = recipe.chancedFluidOutputs;
+        this.fluidInputs = recipe.fluidInputs;
+        this.fluidOutputs = recipe.fluidOutputs;
+        this.duration = duration;
+        this.EUt = EUt;
+        this.hidden = recipe.hidden;
+        this.recipeCategory = recipe.recipeCategory;
+        this.isCTRecipe = recipe.isCTRecipe;
+        this.hashCode = recipe.hashCode;
+        this.groovyRecipe = recipe.groovyRecipe;
+        this.inputMultiplier = recipe.inputMultiplier * inputMultiplier;
     }
 
     @NotNull
@@ -186,30 +225,36 @@ public class Recipe {
 
     public final boolean matches(boolean consumeIfSuccessful, IItemHandlerModifiable inputs,
                                  IMultipleTankHandler fluidInputs) {
-        Pair<Boolean, int[]> fluids = null;
-        Pair<Boolean, int[]> items = null;
-
-        if (fluidInputs.getFluidTanks().size() > 0) {
-            fluids = matchesFluid(GTUtility.fluidHandlerToList(fluidInputs));
-            if (!fluids.getKey()) {
-                return false;
+        RecipeLookupBuffer buffer = RecipeLookupBuffer.acquireHandlers(inputs, fluidInputs);
+        try {
+            List<FluidStack> fluidList = buffer.getHandlerFluids();
+            List<ItemStack> itemList = buffer.getHandlerItems();
+
+            // amounts are only needed after matching when consuming, so otherwise shared scratch space is used
+            int[] fluidAmountInTank = consumeIfSuccessful ? new int[fluidList.size()] :
+                    RecipeLookupBuffer.amounts(fluidList.size(), 0);
+            int[] itemAmountInSlot = consumeIfSuccessful ? new int[itemList.size()] :
+                    RecipeLookupBuffer.amounts(itemList.size(), 1);
+            int fluidsIndexed = 0;
+            int itemsIndexed = 0;
+
+            if (fluidInputs.getTanks() > 0) {
+                fluidsIndexed = matchesFluid(fluidList, fluidAmountInTank);
+                if (fluidsIndexed == -1) {
+                    return false;
+                }
             }
-        }
 
-        if (inputs.getSlots() > 0) {
-            items = matchesItems(GTUtility.itemHandlerToList(inputs));
-            if (!items.getKey()) {
-                return false;
+            if (inputs.getSlots() > 0) {
+                itemsIndexed = matchesItems(itemList, itemAmountInSlot);
+                if (itemsIndexed == -1) {
+                    return false;
+                }
             }
-        }
-
-        if (consumeIfSuccessful) {
-            if (fluids != null) {
-                int[] fluidAmountInTank = fluids.getValue();
-                var backedList = fluidInputs.getFluidTanks();
 
-                for (int i = 0; i < fluidAmountInTank.length; i++) {
-                    var tank = backedList.get(i);
+            if (consumeIfSuccessful) {
+                for (int i = 0; i < fluidsIndexed; i++) {
+                    var tank = fluidInputs.getTankAt(i);
                     FluidStack fluidStack = tank.getFluid();
                     int fluidAmount = fluidAmountInTank[i];
 
@@ -218,10 +263,7 @@ public class Recipe {
                     }
                     tank.drain(Math.abs(fluidAmount - fluidStack.amount), true);
                 }
-            }
-            if (items != null) {
-                int[] itemAmountInSlot = items.getValue();
-                for (int i = 0; i < itemAmountInSlot.length; i++) {
+                for (int i = 0; i < itemsIndexed; i++) {
                     ItemStack itemInSlot = inputs.getStackInSlot(i);
                     int itemAmount = itemAmountInSlot[i];
 
@@ -231,9 +273,11 @@ public class Recipe {
                     inputs.extractItem(i, Math.abs(itemAmount - itemInSlot.getCount()), false);
                 }
             }
-        }
 
-        return true;
+            return true;
+        } finally {
+            buffer.releaseHandlers();
+        }
     }
 
     /**
@@ -248,20 +292,23 @@ public class Recipe {
         if (inputs.size() == 0 && fluidInputs.size() == 0)
             return false;
 
-        Pair<Boolean, int[]> fluids = matchesFluid(fluidInputs);
-        if (!fluids.getKey()) {
+        // amounts are only needed after matching when consuming, so otherwise shared scratch space is used
+        int[] fluidAmountInTank = consumeIfSuccessful ? new int[fluidInputs.size()] :
+                RecipeLookupBuffer.amounts(fluidInputs.size(), 0);
+        int fluidsIndexed = matchesFluid(fluidInputs, fluidAmountInTank);
+        if (fluidsIndexed == -1) {
             return false;
         }
 
-        Pair<Boolean, int[]> items = matchesItems(inputs);
-        if (!items.getKey()) {
+        int[] itemAmountInSlot = consumeIfSuccessful ? new int[inputs.size()] :
+                RecipeLookupBuffer.amounts(inputs.size(), 1);
+        int itemsIndexed = matchesItems(inputs, itemAmountInSlot);
+        if (itemsIndexed == -1) {
             return false;
         }
 
         if (consumeIfSuccessful) {
-            int[] fluidAmountInTank = fluids.getValue();
-
-            for (int i = 0; i < fluidAmountInTank.length; i++) {
+            for (int i = 0; i < fluidsIndexed; i++) {
                 FluidStack fluidStack = fluidInputs.get(i);
                 int fluidAmount = fluidAmountInTank[i];
                 if (fluidStack == null || fluidStack.amount == fluidAmount)
@@ -271,9 +318,7 @@ public class Recipe {
                     fluidInputs.set(i, null);
             }
 
-            int[] itemAmountInSlot = items.getValue();
-
-            for (int i = 0; i < itemAmountInSlot.length; i++) {
+            for (int i = 0; i < itemsIndexed; i++) {
                 ItemStack itemInSlot = inputs.get(i);
                 int itemAmount = itemAmountInSlot[i];
                 if (itemInSlot.isEmpty() || itemInSlot.getCount() == itemAmount)
@@ -285,13 +330,23 @@ public class Recipe {
         return true;
     }
 
-    private Pair<Boolean, int[]> matchesItems(List<ItemStack> inputs) {
-        int[] itemAmountInSlot = new int[inputs.size()];
+    private boolean matchesItems(List<ItemStack> inputs) {
+        return matchesItems(inputs, new int[inputs.size()]) != -1;
+    }
+
+    /**
+     * @param inputs           the items to match against
+     * @param itemAmountInSlot the array to fill with the remaining amount in each slot, at least as long as the inputs
+     * @return the amount of slots filled in, or -1 if the items do not match
+     */
+    private int matchesItems(List<ItemStack> inputs, int[] itemAmountInSlot) {
         int indexed = 0;
 
         List<GTRecipeInput> gtRecipeInputs = this.inputs;
-        for (GTRecipeInput ingredient : gtRecipeInputs) {
-            int ingredientAmount = ingredient.getAmount();
+        // noinspection ForLoopReplaceableByForEach
+        for (int i = 0; i < gtRecipeInputs.size(); i++) {
+            GTRecipeInput ingredient = gtRecipeInputs.get(i);
+            int ingredientAmount = getMatchedAmount(ingredient);
             for (int j = 0; j < inputs.size(); j++) {
                 ItemStack inputStack = inputs.get(j);
 
@@ -308,21 +363,28 @@ public class Recipe {
                 if (ingredientAmount == 0) break;
             }
             if (ingredientAmount > 0)
-                return Pair.of(false, itemAmountInSlot);
+                return -1;
         }
-        int[] retItemAmountInSlot = new int[indexed];
-        System.arraycopy(itemAmountInSlot, 0, retItemAmountInSlot, 0, indexed);
+        return indexed;
+    }
 
-        return Pair.of(true, retItemAmountInSlot);
+    private boolean matchesFluid(List<FluidStack> fluidInputs) {
+        return matchesFluid(fluidInputs, new int[fluidInputs.size()]) != -1;
     }
 
-    private Pair<Boolean, int[]> matchesFluid(List<FluidStack> fluidInputs) {
-        int[] fluidAmountInTank = new int[fluidInputs.size()];
+    /**
+     * @param fluidInputs       the fluids to match against
+     * @param fluidAmountInTank the array to fill with the remaining amount in each tank, at least as long as the inputs
+     * @return the amount of tanks filled in, or -1 if the fluids do not match
+     */
+    private int matchesFluid(List<FluidStack> fluidInputs, int[] fluidAmountInTank) {
         int indexed = 0;
 
         List<GTRecipeInput> gtRecipeInputs = this.fluidInputs;
-        for (GTRecipeInput fluid : gtRecipeInputs) {
-            int fluidAmount = fluid.getAmount();
+        // noinspection ForLoopReplaceableByForEach
+        for (int i = 0; i < gtRecipeInputs.size(); i++) {
+            GTRecipeInput fluid = gtRecipeInputs.get(i);
+            int fluidAmount = getMatchedAmount(fluid);
             for (int j = 0; j < fluidInputs.size(); j++) {
                 FluidStack tankFluid = fluidInputs.get(j);
 
@@ -339,12 +401,13 @@ public class Recipe {
                 if (fluidAmount == 0) break;
             }
             if (fluidAmount > 0)
-                return Pair.of(false, fluidAmountInTank);
+                return -1;
         }
-        int[] retfluidAmountInTank = new int[indexed];
-        System.arraycopy(fluidAmountInTank, 0, retfluidAmountInTank, 0, indexed);
+        return indexed;
+    }
 
-        return Pair.of(true, retfluidAmountInTank);
+    private int getMatchedAmount(@NotNull GTRecipeInput input) {
+        return input.isNonConsumable() ? input.getAmount() : input.getAmount() * inputMultiplier;
     }
 
     @Override
@@ -385,7 +448,7 @@ public class Recipe {
         for (GTRecipeInput otherInputs : otherRecipe.inputs) {
             otherStackList.addAll(Arrays.asList(otherInputs.getInputStacks()));
         }
-        if (!this.matchesItems(otherStackList).getLeft()) {
+        if (!this.matchesItems(otherStackList)) {
             return false;
         }
 
@@ -393,7 +456,7 @@ public class Recipe {
         for (GTRecipeInput thisInputs : this.inputs) {
             thisStackList.addAll(Arrays.asList(thisInputs.getInputStacks()));
         }
-        return otherRecipe.matchesItems(thisStackList).getLeft();
+        return otherRecipe.matchesItems(thisStackList);
     }
 
     public static int hashFluidList(@NotNull List<GTRecipeInput> fluids) {
@@ -410,7 +473,7 @@ public class Recipe {
             FluidStack fluidStack = otherInputs.getInputFluidStack();
             otherFluidList.add(fluidStack);
         }
-        if (!this.matchesFluid(otherFluidList).getLeft()) {
+        if (!this.matchesFluid(otherFluidList)) {
             return false;
         }
 
@@ -419,7 +482,7 @@ public class Recipe {
             FluidStack fluidStack = thisFluidInputs.getInputFluidStack();
             thisFluidsList.add(fluidStack);
         }
-        return otherRecipe.matchesFluid(thisFluidsList).getLeft();
+        return otherRecipe.matchesFluid(thisFluidsList);
     }
 
     @Override
@@ -549,15 +612,28 @@ public class Recipe {
      * @return A List of ItemStack outputs from the recipe, including all chanced outputs
      */
     public List<ItemStack> getAllItemOutputs() {
-        List<ItemStack> recipeOutputs = new ArrayList<>(this.outputs);
+        List<ItemStack> recipeOutputs = new ArrayList<>(getOutputs());
 
-        for (ChancedItemOutput entry : this.chancedOutputs.getChancedEntries()) {
+        for (ChancedItemOutput entry : getChancedOutputs().getChancedEntries()) {
             recipeOutputs.add(entry.getIngredient().copy());
         }
 
         return recipeOutputs;
     }
 
+    /**
+     * Returns the combined amount of every possible ItemStack output from a recipe, including all possible chanced
+     * outputs. The map is computed once and shared, so it must not be modified.
+     *
+     * @return an unmodifiable map of the outputs from {@link #getAllItemOutputs()} to their combined amount
+     */
+    public @NotNull Object2IntMap<ItemStack> getAllItemOutputMap() {
+        if (itemOutputMap == null) {
+            itemOutputMap = Object2IntMaps.unmodifiable(GTHashMaps.fromItemStackCollection(getAllItemOutputs()));
+        }
+        return itemOutputMap;
+    }
+
     public ChancedOutputList<ItemStack, ChancedItemOutput> getChancedOutputs() {
         return chancedOutputs;
     }
@@ -638,9 +714,9 @@ public class Recipe {
      * @return A List of FluidStack outputs from the recipe, including all chanced outputs
      */
     public List<FluidStack> getAllFluidOutputs() {
-        List<FluidStack> recipeOutputs = new ArrayList<>(this.fluidOutputs);
+        List<FluidStack> recipeOutputs = new ArrayList<>(getFluidOutputs());
 
-        for (ChancedFluidOutput entry : this.chancedFluidOutputs.getChancedEntries()) {
+        for (ChancedFluidOutput entry : getChancedFluidOutputs().getChancedEntries()) {
             recipeOutputs.add(entry.getIngredient().copy());
         }
 
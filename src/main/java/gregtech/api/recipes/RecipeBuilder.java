@@ -898,6 +898,15 @@ public class RecipeBuilder<R extends RecipeBuilder<R>> {
         return parallel;
     }
 
+    /**
+     * @param parallel the amount of parallel recipes this builder represents
+     * @return this builder
+     */
+    public R parallel(int parallel) {
+        this.parallel = parallel;
+        return (R) this;
+    }
+
     protected static ItemStack copyItemStackWithCount(ItemStack itemStack, int count) {
         ItemStack itemCopy = itemStack.copy();
         itemCopy.setCount(count);
@@ -0,0 +1,193 @@
+package gregtech.api.recipes;
+
+import gregtech.api.GTValues;
+import gregtech.api.recipes.ingredients.GTRecipeInput;
+import gregtech.api.util.GTLog;
+import gregtech.common.ConfigHolder;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.ModContainer;
+import net.minecraftforge.oredict.OreDictionary;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The compiled recipe lookups of RecipeMaps stored on disk, so they can be restored instead of compiled when the
+ * game is started again with the same recipes.
+ * <p>
+ * Each snapshot is stored with a key computed from the mod list and the inputs of every recipe of its RecipeMap, in
+ * registration order. A snapshot is only restored if the key is unchanged.
+ */
+@ApiStatus.Internal
+final class RecipeLookupSnapshots {
+
+    private static final int VERSION = 1;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Path path;
+    private final NBTTagCompound snapshots;
+    private final long modListKey;
+    private boolean modified;
+
+    private RecipeLookupSnapshots(@NotNull Path path, @NotNull NBTTagCompound snapshots, long modListKey) {
+        this.path = path;
+        this.snapshots = snapshots;
+        this.modListKey = modListKey;
+    }
+
+    /**
+     * @return if recipe lookups should be stored on disk
+     */
+    static boolean isEnabled() {
+        return ConfigHolder.misc.recipeLookupSnapshots;
+    }
+
+    /**
+     * @return the snapshots stored on disk
+     */
+    static @NotNull RecipeLookupSnapshots read() {
+        Path path = Loader.instance().getConfigDir().toPath()
+                .resolve(GTValues.MODID)
+                .resolve("recipe_lookups.dat");
+
+        long modListKey = FNV_OFFSET;
+        for (ModContainer container : Loader.instance().getActiveModList()) {
+            modListKey = hash(modListKey, container.getModId());
+            modListKey = hash(modListKey, container.getVersion());
+        }
+
+        NBTTagCompound snapshots = new NBTTagCompound();
+        if (Files.exists(path)) {
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                NBTTagCompound tag = CompressedStreamTools.readCompressed(inputStream);
+                if (tag.getInteger("Version") == VERSION) {
+                    snapshots = tag.getCompoundTag("Maps");
+                }
+            } catch (IOException e) {
+                GTLog.logger.error("Failed to read recipe lookup snapshots", e);
+            }
+        }
+        return new RecipeLookupSnapshots(path, snapshots, modListKey);
+    }
+
+    /**
+     * @param recipeMap the RecipeMap
+     * @return the stored snapshot of the RecipeMap, or null if there is none
+     */
+    @Nullable
+    NBTTagCompound get(@NotNull RecipeMap<?> recipeMap) {
+        String name = recipeMap.getUnlocalizedName();
+        return snapshots.hasKey(name) ? snapshots.getCompoundTag(name) : null;
+    }
+
+    /**
+     * @param recipeMap the RecipeMap
+     * @param snapshot  the snapshot to store
+     */
+    void put(@NotNull RecipeMap<?> recipeMap, @NotNull NBTTagCompound snapshot) {
+        snapshots.setTag(recipeMap.getUnlocalizedName(), snapshot);
+        modified = true;
+    }
+
+    /**
+     * Compute the key of the recipes of a RecipeMap. Only the inputs of recipes are part of the key, as they are the
+     * only part of a recipe determining the lookup.
+     *
+     * @param recipeMap the RecipeMap
+     * @param recipes   the recipes, in the order they are compiled
+     * @return the key
+     */
+    long computeKey(@NotNull RecipeMap<?> recipeMap, @NotNull List<Recipe> recipes) {
+        long key = hash(modListKey, VERSION);
+        key = hash(key, recipeMap.getUnlocalizedName());
+        key = hash(key, recipes.size());
+        for (Recipe recipe : recipes) {
+            key = hash(key, recipe.getInputs().size());
+            for (GTRecipeInput input : recipe.getInputs()) {
+                key = hashInput(key, input);
+                if (input.isOreDict()) {
+                    key = hash(key, OreDictionary.getOreName(input.getOreDict()));
+                } else {
+                    ItemStack[] stacks = input.getInputStacks();
+                    key = hash(key, stacks.length);
+                    for (ItemStack stack : stacks) {
+                        key = hash(key, String.valueOf(stack.getItem().getRegistryName()));
+                        key = hash(key, stack.getMetadata());
+                        key = hash(key, String.valueOf(stack.getTagCompound()));
+                    }
+                }
+            }
+            key = hash(key, recipe.getFluidInputs().size());
+            for (GTRecipeInput input : recipe.getFluidInputs()) {
+                key = hashInput(key, input);
+                FluidStack fluid = input.getInputFluidStack();
+                key = hash(key, fluid == null ? "" : fluid.getFluid().getName());
+                key = hash(key, fluid == null ? "" : String.valueOf(fluid.tag));
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Write the snapshots to disk, if any were changed
+     */
+    void save() {
+        if (!modified) return;
+        modified = false;
+
+        NBTTagCompound tag = new NBTTagCompound();
+        tag.setInteger("Version", VERSION);
+        tag.setTag("Maps", snapshots);
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream outputStream = Files.newOutputStream(path)) {
+                CompressedStreamTools.writeCompressed(tag, outputStream);
+            }
+        } catch (IOException e) {
+            GTLog.logger.error("Failed to write recipe lookup snapshots", e);
+        }
+    }
+
+    private static long hashInput(long key, @NotNull GTRecipeInput input) {
+        key = hash(key, input.getClass().getName());
+        key = hash(key, input.getAmount());
+        key = hash(key, input.isNonConsumable() ? 1 : 0);
+        if (input.hasNBTMatchingCondition()) {
+            // lambda matchers have no stable name, and can only change along with the version of their mod
+            Class<?> matcher = input.getNBTMatcher().getClass();
+            key = hash(key, matcher.isSynthetic() ? "" : matcher.getName());
+            key = hash(key, String.valueOf(input.getNBTMatchingCondition()));
+        }
+        return key;
+    }
+
+    private static long hash(long key, int value) {
+        for (int i = 0; i < 4; i++) {
+            key = (key ^ (value & 0xFF)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return key;
+    }
+
+    private static long hash(long key, @NotNull String value) {
+        key = hash(key, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            key = (key ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return key;
+    }
+}
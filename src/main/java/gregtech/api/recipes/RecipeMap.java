@@ -19,13 +19,14 @@ import gregtech.api.recipes.map.MapItemStackIngredient;
 import gregtech.api.recipes.map.MapItemStackNBTIngredient;
 import gregtech.api.recipes.map.MapOreDictIngredient;
 import gregtech.api.recipes.map.MapOreDictNBTIngredient;
+import gregtech.api.recipes.map.RecipeLookupBuffer;
+import gregtech.api.recipes.map.RecipeLookupIndex;
 import gregtech.api.recipes.ui.RecipeMapUI;
 import gregtech.api.recipes.ui.RecipeMapUIFunction;
 import gregtech.api.unification.material.Material;
 import gregtech.api.unification.ore.OrePrefix;
 import gregtech.api.util.EnumValidationResult;
 import gregtech.api.util.GTLog;
-import gregtech.api.util.GTUtility;
 import gregtech.api.util.LocalizationUtils;
 import gregtech.api.util.Mods;
 import gregtech.api.util.ValidationResult;
@@ -53,10 +54,12 @@ import crafttweaker.annotations.ZenRegister;
 import crafttweaker.api.item.IItemStack;
 import crafttweaker.api.liquid.ILiquidStack;
 import crafttweaker.api.minecraft.CraftTweakerMC;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ReferenceOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -77,9 +80,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.DoubleSupplier;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @ZenClass("mods.gregtech.recipe.RecipeMap")
 @ZenRegister
@@ -119,6 +124,10 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
 
     private final Object grsVirtualizedRecipeMap;
     private final Branch lookup = new Branch();
+    private @Nullable RecipeLookupIndex compiledLookup;
+    /** The recipes to add to the ingredient tree before it is used, when the lookup was restored from a snapshot */
+    private @Nullable List<Recipe> unbuiltRecipes;
+    private int lookupRevision;
     private boolean hasOreDictedInputs = false;
     private boolean hasNBTMatcherInputs = false;
     private static final WeakHashMap<AbstractMapIngredient, WeakReference<AbstractMapIngredient>> ingredientRoot = new WeakHashMap<>();
@@ -129,6 +138,7 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
     private final Map<ResourceLocation, RecipeBuildAction<R>> recipeBuildActions = new Object2ObjectOpenHashMap<>();
     protected @Nullable SoundEvent sound;
     private @Nullable RecipeMap<?> smallRecipeMap;
+    private @Nullable BiConsumer<Recipe, Recipe> conflictListener;
 
     /**
      * Create and register new instance of RecipeMap with specified properties.
@@ -178,6 +188,24 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
         return chanceFunction;
     }
 
+    /**
+     * Compiles the lookup of every registered RecipeMap.
+     *
+     * @see #freeze()
+     */
+    @ApiStatus.Internal
+    public static void freezeAll() {
+        long start = System.nanoTime();
+        RecipeLookupBuffer.invalidateOreDictCache();
+        for (RecipeMap<?> recipeMap : RECIPE_MAP_REGISTRY.values()) {
+            recipeMap.freeze();
+        }
+        if (ConfigHolder.misc.debug || GTValues.isDeobfEnvironment()) {
+            GTLog.logger.info("Compiled recipe lookups of {} RecipeMaps in {}ms", RECIPE_MAP_REGISTRY.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
     public static boolean isFoundInvalidRecipe() {
         return foundInvalidRecipe;
     }
@@ -298,7 +326,8 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
      * Internal usage <strong>only</strong>, use {@link RecipeBuilder#buildAndRegister()}
      *
      * @param validationResult the validation result from building the recipe
-     * @return if adding the recipe was successful
+     * @return if adding the recipe was successful. Recipes queued by the {@link RecipeRegistrationPipeline} are
+     *         always successful.
      */
     public boolean addRecipe(@NotNull ValidationResult<Recipe> validationResult) {
         validationResult = postValidateRecipe(validationResult);
@@ -316,6 +345,9 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
         if (recipe.isGroovyRecipe()) {
             this.getGroovyScriptRecipeMap().addScripted(recipe);
         }
+        if (RecipeRegistrationPipeline.enqueue(this, recipe)) {
+            return true;
+        }
         return compileRecipe(recipe);
     }
 
@@ -329,24 +361,40 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
         if (recipe == null) {
             return false;
         }
+        flushPendingRecipes();
+        buildLookupTree();
         List<List<AbstractMapIngredient>> items = fromRecipe(recipe);
+        // the tree may be modified even when the addition fails, so the compiled lookup is always discarded
+        onLookupModified();
         if (recurseIngredientTreeAdd(recipe, items, lookup, 0, 0)) {
-            recipeByCategory.compute(recipe.getRecipeCategory(), (k, v) -> {
-                if (v == null) v = new ArrayList<>();
-                v.add(recipe);
-                return v;
-            });
+            onRecipeCompiled(recipe);
             return true;
         }
         return false;
     }
 
+    /**
+     * Called when a recipe was added to this RecipeMap, either by compiling it or by restoring a lookup snapshot
+     *
+     * @param recipe the added recipe
+     */
+    protected void onRecipeCompiled(@NotNull Recipe recipe) {
+        recipeByCategory.compute(recipe.getRecipeCategory(), (k, v) -> {
+            if (v == null) v = new ArrayList<>();
+            v.add(recipe);
+            return v;
+        });
+    }
+
     /**
      * @param recipe the recipe to remove
      * @return if removal was successful
      */
     public boolean removeRecipe(@NotNull Recipe recipe) {
+        flushPendingRecipes();
+        buildLookupTree();
         List<List<AbstractMapIngredient>> items = fromRecipe(recipe);
+        onLookupModified();
         if (recurseIngredientTreeRemove(recipe, items, lookup, 0) != null) {
             if (GroovyScriptModule.isCurrentlyRunning()) {
                 this.getGroovyScriptRecipeMap().addBackup(recipe);
@@ -367,12 +415,83 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
      */
     @ApiStatus.Internal
     protected void removeAllRecipes() {
+        flushPendingRecipes();
+        buildLookupTree();
         if (GroovyScriptModule.isCurrentlyRunning()) {
             this.lookup.getRecipes(false).forEach(this.getGroovyScriptRecipeMap()::addBackup);
         }
         this.lookup.getNodes().clear();
         this.lookup.getSpecialNodes().clear();
         this.recipeByCategory.clear();
+        onLookupModified();
+    }
+
+    /**
+     * Compiles the recipes of this RecipeMap still queued by the {@link RecipeRegistrationPipeline}, so the ingredient
+     * tree can be read or modified.
+     */
+    private void flushPendingRecipes() {
+        RecipeRegistrationPipeline.flush(this);
+    }
+
+    /**
+     * Adds the recipes of a restored lookup snapshot to the ingredient tree, so the tree can be read or modified.
+     */
+    private void buildLookupTree() {
+        List<Recipe> recipes = this.unbuiltRecipes;
+        if (recipes == null) return;
+        this.unbuiltRecipes = null;
+
+        // conflicts were already reported when the snapshot was restored
+        BiConsumer<Recipe, Recipe> listener = this.conflictListener;
+        this.conflictListener = (recipe, existing) -> {};
+        try {
+            for (Recipe recipe : recipes) {
+                recurseIngredientTreeAdd(recipe, fromRecipe(recipe), lookup, 0, 0);
+            }
+        } finally {
+            this.conflictListener = listener;
+        }
+    }
+
+    /**
+     * Called whenever the ingredient tree may have been modified.
+     */
+    private void onLookupModified() {
+        this.compiledLookup = null;
+        this.lookupRevision++;
+    }
+
+    /**
+     * The revision changes whenever recipes are added to or removed from this RecipeMap. It can be used to tell if
+     * cached lookup results are still valid.
+     *
+     * @return the current revision of the lookup
+     */
+    public int getLookupRevision() {
+        return this.lookupRevision;
+    }
+
+    /**
+     * Compiles the ingredient tree into an immutable {@link RecipeLookupIndex}, which is used for recipe lookup
+     * until this RecipeMap is modified again.
+     * <p>
+     * Adding or removing recipes discards the compiled index, and lookup falls back to the ingredient tree until this
+     * is called again. Does nothing if the index is already compiled.
+     */
+    public void freeze() {
+        flushPendingRecipes();
+        if (this.compiledLookup == null) {
+            buildLookupTree();
+            this.compiledLookup = RecipeLookupIndex.compile(lookup);
+        }
+    }
+
+    /**
+     * @return if the lookup of this RecipeMap is currently compiled
+     */
+    public boolean isFrozen() {
+        return this.compiledLookup != null;
     }
 
     /**
@@ -463,7 +582,14 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
 
     @Nullable
     public Recipe findRecipe(long voltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs) {
-        return this.findRecipe(voltage, GTUtility.itemHandlerToList(inputs), GTUtility.fluidHandlerToList(fluidInputs));
+        // read the handlers into reused lists instead of copying them
+        RecipeLookupBuffer buffer = RecipeLookupBuffer.acquireInputs();
+        try {
+            buffer.collectInputs(inputs, fluidInputs);
+            return this.findRecipe(voltage, buffer.getInputItems(), buffer.getInputFluids());
+        } finally {
+            buffer.releaseInputs();
+        }
     }
 
     /**
@@ -491,21 +617,14 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
     @Nullable
     public Recipe findRecipe(long voltage, final List<ItemStack> inputs, final List<FluidStack> fluidInputs,
                              boolean exactVoltage) {
-        final List<ItemStack> items = inputs.stream().filter(s -> !s.isEmpty()).collect(Collectors.toList());
-        final List<FluidStack> fluids = fluidInputs.stream().filter(f -> f != null && f.amount != 0)
-                .collect(Collectors.toList());
-
-        return find(items, fluids, recipe -> {
-            if (exactVoltage && recipe.getEUt() != voltage) {
-                // if exact voltage is required, the recipe is not considered valid
-                return false;
-            }
-            if (recipe.getEUt() > voltage) {
-                // there is not enough voltage to consider the recipe valid
-                return false;
-            }
-            return recipe.matches(false, inputs, fluidInputs);
-        });
+        RecipeLookupBuffer buffer = RecipeLookupBuffer.acquireSearch();
+        try {
+            List<ItemStack> items = buffer.filterItems(inputs);
+            List<FluidStack> fluids = buffer.filterFluids(fluidInputs);
+            return find(items, fluids, buffer.matcher(voltage, exactVoltage, inputs, fluidInputs), buffer);
+        } finally {
+            buffer.releaseSearch();
+        }
     }
 
     /**
@@ -547,10 +666,44 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
     @Nullable
     public Recipe find(@NotNull Collection<ItemStack> items, @NotNull Collection<FluidStack> fluids,
                        @NotNull Predicate<Recipe> canHandle) {
-        List<List<AbstractMapIngredient>> list = prepareRecipeFind(items, fluids);
+        RecipeLookupBuffer buffer = RecipeLookupBuffer.acquireSearch();
+        try {
+            return find(items, fluids, canHandle, buffer);
+        } finally {
+            buffer.releaseSearch();
+        }
+    }
+
+    /**
+     * Finds a recipe using Items and Fluids, building the lookup ingredients in a buffer when the lookup is frozen.
+     *
+     * @param items     a collection of items
+     * @param fluids    a collection of fluids
+     * @param canHandle a predicate for determining if a recipe is valid
+     * @param buffer    the buffer with its search section acquired
+     * @return the recipe found
+     */
+    @Nullable
+    private Recipe find(@NotNull Collection<ItemStack> items, @NotNull Collection<FluidStack> fluids,
+                        @NotNull Predicate<Recipe> canHandle, @NotNull RecipeLookupBuffer buffer) {
+        flushPendingRecipes();
+        RecipeLookupIndex compiled = this.compiledLookup;
+        if (compiled == null) {
+            buildLookupTree();
+            List<List<AbstractMapIngredient>> list = prepareRecipeFind(items, fluids);
+            // couldn't build any inputs to use for search, so no recipe could be found
+            if (list == null) return null;
+            return recurseIngredientTreeFindRecipe(list, lookup, canHandle);
+        }
+
+        if (items.size() == Integer.MAX_VALUE || fluids.size() == Integer.MAX_VALUE) {
+            return null;
+        }
+        List<List<AbstractMapIngredient>> list = buffer.prepareIngredients(items, fluids, hasOreDictedInputs,
+                hasNBTMatcherInputs);
         // couldn't build any inputs to use for search, so no recipe could be found
-        if (list == null) return null;
-        return recurseIngredientTreeFindRecipe(list, lookup, canHandle);
+        if (list.isEmpty()) return null;
+        return compiled.find(list, canHandle, buffer);
     }
 
     /**
@@ -724,6 +877,8 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
      */
     @Nullable
     public Set<Recipe> findRecipeCollisions(Collection<ItemStack> items, Collection<FluidStack> fluids) {
+        flushPendingRecipes();
+        buildLookupTree();
         List<List<AbstractMapIngredient>> list = prepareRecipeFind(items, fluids);
         if (list == null) return null;
         Set<Recipe> collidingRecipes = new ObjectOpenHashSet<>();
@@ -950,48 +1105,7 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
                         // handle the existing branch
                         if (!v.left().isPresent() || v.left().get() != recipe) {
                             // the recipe already there was not the one being added, so there is a conflict
-                            if (recipe.getIsCTRecipe()) {
-                                CraftTweakerAPI.logError(String.format(
-                                        "Recipe duplicate or conflict found in RecipeMap %s and was not added. See next lines for details.",
-                                        this.unlocalizedName));
-
-                                CraftTweakerAPI.logError(String.format("Attempted to add Recipe: %s",
-                                        CTRecipeHelper.getRecipeAddLine(this, recipe)));
-
-                                if (v.left().isPresent()) {
-                                    CraftTweakerAPI.logError(String.format("Which conflicts with: %s",
-                                            CTRecipeHelper.getRecipeAddLine(this, v.left().get())));
-                                } else {
-                                    CraftTweakerAPI.logError("Could not identify exact duplicate/conflict.");
-                                }
-                            }
-                            if (recipe.isGroovyRecipe()) {
-                                GroovyLog log = GroovyLog.get();
-                                log.warn(
-                                        "Recipe duplicate or conflict found in RecipeMap {} and was not added. See next lines for details",
-                                        this.unlocalizedName);
-
-                                log.warn("Attempted to add Recipe: {}", recipe.toString());
-
-                                if (v.left().isPresent()) {
-                                    log.warn("Which conflicts with: {}", v.left().get().toString());
-                                } else {
-                                    log.warn("Could not find exact duplicate/conflict.");
-                                }
-                            }
-                            if (ConfigHolder.misc.debug || GTValues.isDeobfEnvironment()) {
-                                GTLog.logger.warn(
-                                        "Recipe duplicate or conflict found in RecipeMap {} and was not added. See next lines for details",
-                                        this.unlocalizedName);
-
-                                GTLog.logger.warn("Attempted to add Recipe: {}", recipe.toString());
-
-                                if (v.left().isPresent()) {
-                                    GTLog.logger.warn("Which conflicts with: {}", v.left().get().toString());
-                                } else {
-                                    GTLog.logger.warn("Could not find exact duplicate/conflict.");
-                                }
-                            }
+                            onRecipeConflict(recipe, v.left().orElse(null));
                         }
                         // Return the existing recipe, even on conflicts.
                         // If there was no conflict but a recipe was still present, it was added on an earlier recurse,
@@ -1051,6 +1165,217 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
         return true;
     }
 
+    /**
+     * @param recipe   the recipe which was not added
+     * @param existing the recipe it conflicts with, or null if it could not be identified
+     */
+    private void onRecipeConflict(@NotNull Recipe recipe, @Nullable Recipe existing) {
+        if (conflictListener != null) {
+            conflictListener.accept(recipe, existing);
+        } else {
+            reportRecipeConflict(recipe, existing);
+        }
+    }
+
+    /**
+     * Reports a recipe which was not added because of a conflict
+     *
+     * @param recipe   the recipe which was not added
+     * @param existing the recipe it conflicts with, or null if it could not be identified
+     */
+    void reportRecipeConflict(@NotNull Recipe recipe, @Nullable Recipe existing) {
+        if (recipe.getIsCTRecipe()) {
+            CraftTweakerAPI.logError(String.format(
+                    "Recipe duplicate or conflict found in RecipeMap %s and was not added. See next lines for details.",
+                    this.unlocalizedName));
+
+            CraftTweakerAPI.logError(String.format("Attempted to add Recipe: %s",
+                    CTRecipeHelper.getRecipeAddLine(this, recipe)));
+
+            if (existing != null) {
+                CraftTweakerAPI.logError(String.format("Which conflicts with: %s",
+                        CTRecipeHelper.getRecipeAddLine(this, existing)));
+            } else {
+                CraftTweakerAPI.logError("Could not identify exact duplicate/conflict.");
+            }
+        }
+        if (recipe.isGroovyRecipe()) {
+            GroovyLog log = GroovyLog.get();
+            log.warn(
+                    "Recipe duplicate or conflict found in RecipeMap {} and was not added. See next lines for details",
+                    this.unlocalizedName);
+
+            log.warn("Attempted to add Recipe: {}", recipe.toString());
+
+            if (existing != null) {
+                log.warn("Which conflicts with: {}", existing.toString());
+            } else {
+                log.warn("Could not find exact duplicate/conflict.");
+            }
+        }
+        if (ConfigHolder.misc.debug || GTValues.isDeobfEnvironment()) {
+            GTLog.logger.warn(
+                    "Recipe duplicate or conflict found in RecipeMap {} and was not added. See next lines for details",
+                    this.unlocalizedName);
+
+            GTLog.logger.warn("Attempted to add Recipe: {}", recipe.toString());
+
+            if (existing != null) {
+                GTLog.logger.warn("Which conflicts with: {}", existing.toString());
+            } else {
+                GTLog.logger.warn("Could not find exact duplicate/conflict.");
+            }
+        }
+    }
+
+    /**
+     * Sets the listener receiving recipe conflicts instead of them being reported immediately
+     *
+     * @param conflictListener the listener, or null to report conflicts immediately
+     */
+    void setConflictListener(@Nullable BiConsumer<Recipe, Recipe> conflictListener) {
+        this.conflictListener = conflictListener;
+    }
+
+    /**
+     * @return if this RecipeMap has no recipes in its ingredient tree
+     */
+    boolean isLookupEmpty() {
+        return this.unbuiltRecipes == null && this.lookup.isEmptyBranch();
+    }
+
+    /**
+     * @return if the lookup of this RecipeMap can be stored in a snapshot, which is not the case when subclasses
+     *         change how recipes are compiled
+     */
+    boolean canSnapshotLookup() {
+        try {
+            return getClass().getMethod("compileRecipe", Recipe.class).getDeclaringClass() == RecipeMap.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write a snapshot of the compiled lookup. Ingredients and recipes are written as references to the recipes they
+     * were built from, so the snapshot can only be restored with the same recipes.
+     *
+     * @param recipes every recipe added to this RecipeMap, in the order they were compiled
+     * @return the snapshot, or null if the lookup could not be written
+     */
+    @Nullable
+    NBTTagCompound writeLookupSnapshot(@NotNull List<Recipe> recipes) {
+        freeze();
+        RecipeLookupIndex index = this.compiledLookup;
+        if (index == null) return null;
+
+        Reference2IntOpenHashMap<AbstractMapIngredient> ingredientIds = new Reference2IntOpenHashMap<>(
+                index.getIngredientCount());
+        ingredientIds.defaultReturnValue(-1);
+        for (int i = 0; i < index.getIngredientCount(); i++) {
+            ingredientIds.put(index.getIngredient(i), i);
+        }
+
+        // locate the first recipe building each ingredient, which is the instance stored in the tree
+        int[] ingredientRecipes = new int[index.getIngredientCount()];
+        int[] ingredientPositions = new int[index.getIngredientCount()];
+        Arrays.fill(ingredientRecipes, -1);
+        int found = 0;
+        for (int r = 0; r < recipes.size() && found < ingredientRecipes.length; r++) {
+            List<List<AbstractMapIngredient>> ingredients = fromRecipe(recipes.get(r));
+            for (int i = 0; i < ingredients.size() && i <= 0xFFFF; i++) {
+                List<AbstractMapIngredient> alternatives = ingredients.get(i);
+                for (int j = 0; j < alternatives.size() && j <= 0xFFFF; j++) {
+                    int id = ingredientIds.getInt(alternatives.get(j));
+                    if (id != -1 && ingredientRecipes[id] == -1) {
+                        ingredientRecipes[id] = r;
+                        ingredientPositions[id] = i << 16 | j;
+                        found++;
+                    }
+                }
+            }
+        }
+        if (found != ingredientRecipes.length) return null;
+
+        Reference2IntOpenHashMap<Recipe> recipeIds = new Reference2IntOpenHashMap<>(recipes.size());
+        recipeIds.defaultReturnValue(-1);
+        for (int r = recipes.size() - 1; r >= 0; r--) {
+            recipeIds.put(recipes.get(r), r);
+        }
+        int[] indexRecipes = new int[index.getRecipeCount()];
+        for (int i = 0; i < indexRecipes.length; i++) {
+            indexRecipes[i] = recipeIds.getInt(index.getRecipe(i));
+            if (indexRecipes[i] == -1) return null;
+        }
+
+        NBTTagCompound tag = new NBTTagCompound();
+        tag.setIntArray("IngredientRecipes", ingredientRecipes);
+        tag.setIntArray("IngredientPositions", ingredientPositions);
+        tag.setIntArray("Recipes", indexRecipes);
+        tag.setBoolean("HasOreDict", hasOreDictedInputs);
+        tag.setBoolean("HasNBT", hasNBTMatcherInputs);
+        index.writeStructure(tag);
+        return tag;
+    }
+
+    /**
+     * Restore a snapshot written by {@link #writeLookupSnapshot(List)} into this empty RecipeMap. The ingredient
+     * tree is only built once it is needed.
+     *
+     * @param recipes  every recipe to add to this RecipeMap, in the order they were compiled
+     * @param accepted the indices of the recipes which were successfully compiled, in order
+     * @param tag      the snapshot
+     * @throws IllegalArgumentException if the snapshot does not fit the recipes
+     */
+    void restoreLookupSnapshot(@NotNull List<Recipe> recipes, int @NotNull [] accepted,
+                               @NotNull NBTTagCompound tag) {
+        int[] ingredientRecipes = tag.getIntArray("IngredientRecipes");
+        int[] ingredientPositions = tag.getIntArray("IngredientPositions");
+        if (ingredientRecipes.length != ingredientPositions.length) {
+            throw new IllegalArgumentException("Invalid ingredients");
+        }
+
+        Int2ObjectOpenHashMap<List<List<AbstractMapIngredient>>> built = new Int2ObjectOpenHashMap<>();
+        AbstractMapIngredient[] ingredients = new AbstractMapIngredient[ingredientRecipes.length];
+        for (int i = 0; i < ingredients.length; i++) {
+            int r = ingredientRecipes[i];
+            if (r < 0 || r >= recipes.size()) throw new IllegalArgumentException("Invalid ingredient " + i);
+            List<List<AbstractMapIngredient>> recipeIngredients = built.get(r);
+            if (recipeIngredients == null) {
+                recipeIngredients = fromRecipe(recipes.get(r));
+                built.put(r, recipeIngredients);
+            }
+            int position = ingredientPositions[i] >>> 16;
+            int alternative = ingredientPositions[i] & 0xFFFF;
+            if (position >= recipeIngredients.size() || alternative >= recipeIngredients.get(position).size()) {
+                throw new IllegalArgumentException("Invalid ingredient " + i);
+            }
+            ingredients[i] = recipeIngredients.get(position).get(alternative);
+        }
+
+        int[] recipeIds = tag.getIntArray("Recipes");
+        Recipe[] indexRecipes = new Recipe[recipeIds.length];
+        for (int i = 0; i < recipeIds.length; i++) {
+            if (recipeIds[i] < 0 || recipeIds[i] >= recipes.size()) {
+                throw new IllegalArgumentException("Invalid recipe " + i);
+            }
+            indexRecipes[i] = recipes.get(recipeIds[i]);
+        }
+        for (int id : accepted) {
+            if (id < 0 || id >= recipes.size()) throw new IllegalArgumentException("Invalid recipe " + id);
+        }
+        RecipeLookupIndex index = RecipeLookupIndex.restore(ingredients, indexRecipes, tag);
+
+        if (tag.getBoolean("HasOreDict")) this.hasOreDictedInputs = true;
+        if (tag.getBoolean("HasNBT")) this.hasNBTMatcherInputs = true;
+        onLookupModified();
+        this.compiledLookup = index;
+        this.unbuiltRecipes = new ArrayList<>(recipes);
+        for (int id : accepted) {
+            onRecipeCompiled(recipes.get(id));
+        }
+    }
+
     /**
      * Determine the correct root nodes for an ingredient
      *
@@ -1089,12 +1414,16 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
     protected static void retrieveCachedIngredient(@NotNull List<List<AbstractMapIngredient>> list,
                                                    @NotNull AbstractMapIngredient defaultIngredient,
                                                    @NotNull WeakHashMap<AbstractMapIngredient, WeakReference<AbstractMapIngredient>> cache) {
-        WeakReference<AbstractMapIngredient> cached = cache.get(defaultIngredient);
-        if (cached != null && cached.get() != null) {
-            list.add(Collections.singletonList(cached.get()));
-        } else {
-            cache.put(defaultIngredient, new WeakReference<>(defaultIngredient));
-            list.add(Collections.singletonList(defaultIngredient));
+        // the item ingredient cache is shared by every RecipeMap, which may compile on different threads
+        synchronized (cache) {
+            WeakReference<AbstractMapIngredient> cached = cache.get(defaultIngredient);
+            AbstractMapIngredient ingredient = cached == null ? null : cached.get();
+            if (ingredient != null) {
+                list.add(Collections.singletonList(ingredient));
+            } else {
+                cache.put(defaultIngredient, new WeakReference<>(defaultIngredient));
+                list.add(Collections.singletonList(defaultIngredient));
+            }
         }
     }
 
@@ -1162,14 +1491,17 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
                     ingredients = MapItemStackIngredient.from(r);
                 }
 
-                for (int i = 0; i < ingredients.size(); i++) {
-                    AbstractMapIngredient mappedIngredient = ingredients.get(i);
-                    // attempt to use the cached value if possible, otherwise cache for the next time
-                    WeakReference<AbstractMapIngredient> cached = ingredientRoot.get(mappedIngredient);
-                    if (cached != null && cached.get() != null) {
-                        ingredients.set(i, cached.get());
-                    } else {
-                        ingredientRoot.put(mappedIngredient, new WeakReference<>(mappedIngredient));
+                synchronized (ingredientRoot) {
+                    for (int i = 0; i < ingredients.size(); i++) {
+                        AbstractMapIngredient mappedIngredient = ingredients.get(i);
+                        // attempt to use the cached value if possible, otherwise cache for the next time
+                        WeakReference<AbstractMapIngredient> cached = ingredientRoot.get(mappedIngredient);
+                        AbstractMapIngredient cachedIngredient = cached == null ? null : cached.get();
+                        if (cachedIngredient != null) {
+                            ingredients.set(i, cachedIngredient);
+                        } else {
+                            ingredientRoot.put(mappedIngredient, new WeakReference<>(mappedIngredient));
+                        }
                     }
                 }
                 list.add(ingredients);
@@ -1237,6 +1569,13 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
     }
 
     public Collection<Recipe> getRecipeList() {
+        flushPendingRecipes();
+        RecipeLookupIndex compiled = this.compiledLookup;
+        if (this.unbuiltRecipes != null && compiled != null) {
+            // the recipes of a compiled index are distinct
+            return IntStream.range(0, compiled.getRecipeCount()).mapToObj(compiled::getRecipe)
+                    .sorted(RECIPE_DURATION_THEN_EU).collect(Collectors.toList());
+        }
         ObjectOpenHashSet<Recipe> recipes = new ObjectOpenHashSet<>();
         return lookup.getRecipes(true).filter(recipes::add).sorted(RECIPE_DURATION_THEN_EU)
                 .collect(Collectors.toList());
@@ -1422,6 +1761,7 @@ public class RecipeMap<R extends RecipeBuilder<R>> {
      */
     @NotNull
     public Map<GTRecipeCategory, List<Recipe>> getRecipesByCategory() {
+        flushPendingRecipes();
         return Collections.unmodifiableMap(recipeByCategory);
     }
 
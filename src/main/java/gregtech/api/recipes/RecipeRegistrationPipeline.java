@@ -0,0 +1,347 @@
+package gregtech.api.recipes;
+
+import gregtech.api.GTValues;
+import gregtech.api.util.GTLog;
+import gregtech.common.ConfigHolder;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Defers adding registered recipes to the ingredient trees of their RecipeMaps, so the trees of every RecipeMap can
+ * be built in parallel once registration is finished.
+ * <p>
+ * While a registration session is open, validated recipes are queued by their RecipeMap instead of being compiled.
+ * Each RecipeMap is only compiled by one thread, in the order its recipes were registered, so the resulting trees are
+ * the same as with sequential registration. Conflicts found while compiling in parallel are reported in the order
+ * their recipes were registered, after every RecipeMap is compiled.
+ * <p>
+ * A RecipeMap compiles its queued recipes on the calling thread as soon as its recipes are read or removed, so code
+ * running during the session observes the same recipes as without the pipeline.
+ * <p>
+ * If {@link RecipeLookupSnapshots} are enabled, the lookup of a RecipeMap which was empty before the session is
+ * restored from its snapshot instead, when its recipes are unchanged. Otherwise, a snapshot of it is stored after it
+ * is compiled.
+ */
+@ApiStatus.Internal
+public final class RecipeRegistrationPipeline {
+
+    private static final Reference2ObjectLinkedOpenHashMap<RecipeMap<?>, Batch> BATCHES =
+            new Reference2ObjectLinkedOpenHashMap<>();
+
+    private static boolean open;
+    private static int sequence;
+
+    private RecipeRegistrationPipeline() {}
+
+    /**
+     * @return if recipes should be compiled in parallel during registration
+     */
+    public static boolean isEnabled() {
+        return ConfigHolder.misc.parallelRecipeRegistration;
+    }
+
+    /**
+     * Opens a registration session, if the pipeline or lookup snapshots are enabled
+     */
+    public static void begin() {
+        if (isEnabled() || RecipeLookupSnapshots.isEnabled()) {
+            open = true;
+        }
+    }
+
+    /**
+     * Closes the registration session, compiling every queued recipe
+     */
+    public static void finish() {
+        if (!open) return;
+        open = false;
+        if (BATCHES.isEmpty()) return;
+
+        long start = System.nanoTime();
+        int recipeCount = 0;
+        for (Batch batch : BATCHES.values()) {
+            recipeCount += batch.recipes.size();
+        }
+        List<RecipeMap<?>> recipeMaps = new ArrayList<>(BATCHES.keySet());
+        List<Batch> batches = new ArrayList<>(BATCHES.values());
+        BATCHES.clear();
+
+        RecipeLookupSnapshots snapshots = RecipeLookupSnapshots.isEnabled() ? RecipeLookupSnapshots.read() : null;
+        int threads = 1;
+        if (isEnabled()) {
+            threads = Math.max(1, Math.min(batches.size(), Runtime.getRuntime().availableProcessors()));
+            compileParallel(recipeMaps, batches, snapshots, threads);
+        } else {
+            for (int i = 0; i < batches.size(); i++) {
+                batches.get(i).process(recipeMaps.get(i), snapshots);
+            }
+        }
+
+        int restored = 0;
+        if (snapshots != null) {
+            for (int i = 0; i < batches.size(); i++) {
+                Batch batch = batches.get(i);
+                if (batch.restored) {
+                    restored++;
+                } else if (batch.snapshot != null) {
+                    snapshots.put(recipeMaps.get(i), batch.snapshot);
+                }
+            }
+            snapshots.save();
+        }
+
+        reportConflicts(recipeMaps, batches);
+
+        if (ConfigHolder.misc.debug || GTValues.isDeobfEnvironment()) {
+            GTLog.logger.info("Compiled {} recipes of {} RecipeMaps on {} threads in {}ms, {} restored from snapshots",
+                    recipeCount, batches.size(), threads, (System.nanoTime() - start) / 1_000_000, restored);
+        }
+        sequence = 0;
+    }
+
+    private static void compileParallel(@NotNull List<RecipeMap<?>> recipeMaps, @NotNull List<Batch> batches,
+                                        @Nullable RecipeLookupSnapshots snapshots, int threads) {
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "GregTech Recipe Compiler #" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(batches.size());
+            for (int i = 0; i < batches.size(); i++) {
+                RecipeMap<?> recipeMap = recipeMaps.get(i);
+                Batch batch = batches.get(i);
+                futures.add(executor.submit(() -> batch.process(recipeMap, snapshots)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while compiling recipes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Queue a recipe, if a registration session is open
+     *
+     * @param recipeMap the RecipeMap to add the recipe to
+     * @param recipe    the validated recipe
+     * @return if the recipe was queued, otherwise it must be compiled immediately
+     */
+    static boolean enqueue(@NotNull RecipeMap<?> recipeMap, @NotNull Recipe recipe) {
+        if (!open) return false;
+        Batch batch = BATCHES.get(recipeMap);
+        if (batch == null) {
+            // only the lookup of a RecipeMap with no other recipes can be restored from its recipes in the batch
+            batch = new Batch(recipeMap.isLookupEmpty() && recipeMap.canSnapshotLookup());
+            BATCHES.put(recipeMap, batch);
+        }
+        batch.add(sequence++, recipe);
+        return true;
+    }
+
+    /**
+     * Compile the queued recipes of a RecipeMap on the calling thread
+     *
+     * @param recipeMap the RecipeMap
+     */
+    static void flush(@NotNull RecipeMap<?> recipeMap) {
+        // the batches are never modified while the pipeline compiles in parallel
+        if (BATCHES.isEmpty()) return;
+        Batch batch = BATCHES.remove(recipeMap);
+        if (batch != null) {
+            batch.compile(recipeMap, false);
+        }
+    }
+
+    private static void reportConflicts(@NotNull List<RecipeMap<?>> recipeMaps, @NotNull List<Batch> batches) {
+        int count = 0;
+        for (Batch batch : batches) {
+            count += batch.conflictSequences.size();
+        }
+        if (count == 0) return;
+
+        // sort by registration order, with the index of the conflict packed into the lower bits
+        long[] conflicts = new long[count];
+        int[] batchIndices = new int[count];
+        int[] conflictIndices = new int[count];
+        int c = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            IntArrayList sequences = batches.get(i).conflictSequences;
+            for (int j = 0; j < sequences.size(); j++) {
+                batchIndices[c] = i;
+                conflictIndices[c] = j;
+                conflicts[c] = (long) sequences.getInt(j) << 32 | c;
+                c++;
+            }
+        }
+        Arrays.sort(conflicts);
+
+        for (long conflict : conflicts) {
+            int index = (int) conflict;
+            Batch batch = batches.get(batchIndices[index]);
+            int j = conflictIndices[index];
+            recipeMaps.get(batchIndices[index]).reportRecipeConflict(batch.conflictRecipes.get(j),
+                    batch.conflictExisting.get(j));
+        }
+    }
+
+    private static final class Batch {
+
+        /** If the batch contains every recipe of its RecipeMap */
+        private final boolean complete;
+        private final IntArrayList sequences = new IntArrayList();
+        private final List<Recipe> recipes = new ArrayList<>();
+        private final BitSet accepted = new BitSet();
+
+        private final IntArrayList conflictSequences = new IntArrayList();
+        private final IntArrayList conflictIndices = new IntArrayList();
+        private final List<Recipe> conflictRecipes = new ArrayList<>();
+        private final List<Recipe> conflictExisting = new ArrayList<>();
+        private int current;
+
+        /** The snapshot to store, or the restored snapshot */
+        private @Nullable NBTTagCompound snapshot;
+        private boolean restored;
+
+        private Batch(boolean complete) {
+            this.complete = complete;
+        }
+
+        private void add(int sequence, @NotNull Recipe recipe) {
+            sequences.add(sequence);
+            recipes.add(recipe);
+        }
+
+        /**
+         * Restore the lookup of the RecipeMap from its snapshot, or compile the recipes with conflicts deferred
+         *
+         * @param recipeMap the RecipeMap to compile the recipes into
+         * @param snapshots the stored snapshots, or null if they are disabled
+         */
+        private void process(@NotNull RecipeMap<?> recipeMap, @Nullable RecipeLookupSnapshots snapshots) {
+            if (snapshots == null || !complete) {
+                compile(recipeMap, true);
+                return;
+            }
+
+            long key = snapshots.computeKey(recipeMap, recipes);
+            NBTTagCompound stored = snapshots.get(recipeMap);
+            if (stored != null && stored.getLong("Key") == key) {
+                try {
+                    restore(recipeMap, stored);
+                    this.snapshot = stored;
+                    this.restored = true;
+                    return;
+                } catch (IllegalArgumentException e) {
+                    GTLog.logger.warn("Discarding invalid recipe lookup snapshot of RecipeMap {}",
+                            recipeMap.getUnlocalizedName(), e);
+                }
+            }
+
+            compile(recipeMap, true);
+            this.snapshot = write(recipeMap, key);
+        }
+
+        /**
+         * @param recipeMap      the RecipeMap to compile the recipes into
+         * @param deferConflicts if conflicts should be collected instead of reported immediately
+         */
+        private void compile(@NotNull RecipeMap<?> recipeMap, boolean deferConflicts) {
+            if (deferConflicts) recipeMap.setConflictListener(this::addConflict);
+            try {
+                for (int i = 0; i < recipes.size(); i++) {
+                    current = i;
+                    if (recipeMap.compileRecipe(recipes.get(i))) {
+                        accepted.set(i);
+                    }
+                }
+            } finally {
+                if (deferConflicts) recipeMap.setConflictListener(null);
+            }
+        }
+
+        private void addConflict(@NotNull Recipe recipe, @Nullable Recipe existing) {
+            conflictSequences.add(sequences.getInt(current));
+            conflictIndices.add(current);
+            conflictRecipes.add(recipe);
+            conflictExisting.add(existing);
+        }
+
+        /**
+         * @return the snapshot of the compiled lookup, or null if it could not be written
+         */
+        @Nullable
+        private NBTTagCompound write(@NotNull RecipeMap<?> recipeMap, long key) {
+            NBTTagCompound tag = recipeMap.writeLookupSnapshot(recipes);
+            if (tag == null) return null;
+
+            Reference2IntOpenHashMap<Recipe> recipeIds = new Reference2IntOpenHashMap<>(recipes.size());
+            recipeIds.defaultReturnValue(-1);
+            for (int i = recipes.size() - 1; i >= 0; i--) {
+                recipeIds.put(recipes.get(i), i);
+            }
+            // pairs of the conflicting recipe, and the recipe it conflicts with or -1
+            int[] conflicts = new int[conflictIndices.size() * 2];
+            for (int i = 0; i < conflictIndices.size(); i++) {
+                Recipe existing = conflictExisting.get(i);
+                conflicts[i * 2] = conflictIndices.getInt(i);
+                conflicts[i * 2 + 1] = existing == null ? -1 : recipeIds.getInt(existing);
+                if (existing != null && conflicts[i * 2 + 1] == -1) return null;
+            }
+
+            tag.setLong("Key", key);
+            tag.setIntArray("Accepted", accepted.stream().toArray());
+            tag.setIntArray("Conflicts", conflicts);
+            return tag;
+        }
+
+        private void restore(@NotNull RecipeMap<?> recipeMap, @NotNull NBTTagCompound tag) {
+            int[] conflicts = tag.getIntArray("Conflicts");
+            if (conflicts.length % 2 != 0) throw new IllegalArgumentException("Invalid conflicts");
+            for (int i = 0; i < conflicts.length; i++) {
+                int recipe = conflicts[i];
+                if (recipe >= recipes.size() || recipe < (i % 2 == 0 ? 0 : -1)) {
+                    throw new IllegalArgumentException("Invalid conflict " + i / 2);
+                }
+            }
+            int[] acceptedIds = tag.getIntArray("Accepted");
+            recipeMap.restoreLookupSnapshot(recipes, acceptedIds, tag);
+
+            for (int id : acceptedIds) {
+                accepted.set(id);
+            }
+            for (int i = 0; i < conflicts.length; i += 2) {
+                conflictSequences.add(sequences.getInt(conflicts[i]));
+                conflictIndices.add(conflicts[i]);
+                conflictRecipes.add(recipes.get(conflicts[i]));
+                conflictExisting.add(conflicts[i + 1] == -1 ? null : recipes.get(conflicts[i + 1]));
+            }
+        }
+    }
+}
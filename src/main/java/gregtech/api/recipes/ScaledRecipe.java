@@ -0,0 +1,169 @@
+package gregtech.api.recipes;
+
+import gregtech.api.recipes.chance.output.ChancedOutputList;
+import gregtech.api.recipes.chance.output.ChancedOutputLogic;
+import gregtech.api.recipes.chance.output.impl.ChancedFluidOutput;
+import gregtech.api.recipes.chance.output.impl.ChancedItemOutput;
+import gregtech.api.recipes.ingredients.GTRecipeInput;
+
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A view of a {@link Recipe} performed multiple times in parallel.
+ * <p>
+ * The view shares the ingredients of the recipe it scales. Matching and consuming inputs scales the consumable
+ * amounts on the fly, and the multiplied input and output lists are only created when they are requested. Every
+ * chanced output is rolled once per operation, like a recipe built with
+ * {@link RecipeBuilder#append(Recipe, int, boolean)}.
+ */
+public final class ScaledRecipe extends Recipe {
+
+    private final Recipe recipe;
+    private final int multiplier;
+
+    private List<GTRecipeInput> inputs;
+    private List<GTRecipeInput> fluidInputs;
+    private List<ItemStack> outputs;
+    private List<FluidStack> fluidOutputs;
+    private ChancedOutputList<ItemStack, ChancedItemOutput> chancedOutputs;
+    private ChancedOutputList<FluidStack, ChancedFluidOutput> chancedFluidOutputs;
+
+    /**
+     * @param recipe     the recipe to scale
+     * @param multiplier the amount of times the recipe is performed
+     * @param EUt        the EU/t of the scaled recipe
+     * @param duration   the duration of the scaled recipe
+     */
+    public ScaledRecipe(@NotNull Recipe recipe, int multiplier, long EUt, int duration) {
+        super(recipe, multiplier, EUt, duration);
+        this.recipe = recipe;
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * @return the recipe which is scaled
+     */
+    public @NotNull Recipe getRecipe() {
+        return recipe;
+    }
+
+    /**
+     * @return the amount of times the recipe is performed
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    @Override
+    public @NotNull Recipe copy() {
+        return new Recipe(getInputs(), getOutputs(), getChancedOutputs(), getFluidInputs(), getFluidOutputs(),
+                getChancedFluidOutputs(), getDuration(), getEUt(), isHidden(), getIsCTRecipe(), propertyStorage(),
+                getRecipeCategory());
+    }
+
+    @Override
+    public List<GTRecipeInput> getInputs() {
+        if (inputs == null) {
+            inputs = scaleInputs(recipe.getInputs(), multiplier);
+        }
+        return inputs;
+    }
+
+    @Override
+    public List<GTRecipeInput> getFluidInputs() {
+        if (fluidInputs == null) {
+            fluidInputs = scaleInputs(recipe.getFluidInputs(), multiplier);
+        }
+        return fluidInputs;
+    }
+
+    @Override
+    public List<ItemStack> getOutputs() {
+        if (outputs == null) {
+            List<ItemStack> recipeOutputs = recipe.getOutputs();
+            if (recipeOutputs.isEmpty()) {
+                outputs = Collections.emptyList();
+            } else {
+                outputs = new ArrayList<>(recipeOutputs.size());
+                for (ItemStack stack : recipeOutputs) {
+                    ItemStack copy = stack.copy();
+                    copy.setCount(stack.getCount() * multiplier);
+                    outputs.add(copy);
+                }
+            }
+        }
+        return outputs;
+    }
+
+    @Override
+    public List<FluidStack> getFluidOutputs() {
+        if (fluidOutputs == null) {
+            List<FluidStack> recipeOutputs = recipe.getFluidOutputs();
+            if (recipeOutputs.isEmpty()) {
+                fluidOutputs = Collections.emptyList();
+            } else {
+                fluidOutputs = new ArrayList<>(recipeOutputs.size());
+                for (FluidStack stack : recipeOutputs) {
+                    fluidOutputs.add(new FluidStack(stack, stack.amount * multiplier));
+                }
+            }
+        }
+        return fluidOutputs;
+    }
+
+    @Override
+    public ChancedOutputList<ItemStack, ChancedItemOutput> getChancedOutputs() {
+        if (chancedOutputs == null) {
+            chancedOutputs = new ChancedOutputList<>(ChancedOutputLogic.OR,
+                    repeat(recipe.getChancedOutputs().getChancedEntries(), multiplier));
+        }
+        return chancedOutputs;
+    }
+
+    @Override
+    public ChancedOutputList<FluidStack, ChancedFluidOutput> getChancedFluidOutputs() {
+        if (chancedFluidOutputs == null) {
+            chancedFluidOutputs = new ChancedOutputList<>(ChancedOutputLogic.OR,
+                    repeat(recipe.getChancedFluidOutputs().getChancedEntries(), multiplier));
+        }
+        return chancedFluidOutputs;
+    }
+
+    private static @NotNull List<GTRecipeInput> scaleInputs(@NotNull List<GTRecipeInput> inputs, int multiplier) {
+        if (inputs.isEmpty()) return Collections.emptyList();
+        List<GTRecipeInput> scaled = new ArrayList<>(inputs.size());
+        for (GTRecipeInput input : inputs) {
+            scaled.add(input.isNonConsumable() ? input : input.copyWithAmount(input.getAmount() * multiplier));
+        }
+        return scaled;
+    }
+
+    /**
+     * @param list  the list to repeat
+     * @param times the amount of times to repeat each element
+     * @return an unmodifiable view of the list, with each element repeated in place
+     */
+    private static <T> @NotNull List<T> repeat(@NotNull List<T> list, int times) {
+        if (list.isEmpty()) return Collections.emptyList();
+        return new AbstractList<>() {
+
+            @Override
+            public T get(int index) {
+                return list.get(index / times);
+            }
+
+            @Override
+            public int size() {
+                return list.size() * times;
+            }
+        };
+    }
+}
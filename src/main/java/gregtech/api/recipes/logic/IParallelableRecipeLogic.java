@@ -7,6 +7,7 @@ import gregtech.api.metatileentity.multiblock.ParallelLogicType;
 import gregtech.api.recipes.Recipe;
 import gregtech.api.recipes.RecipeBuilder;
 import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.ScaledRecipe;
 
 import net.minecraftforge.items.IItemHandlerModifiable;
 
@@ -89,12 +90,19 @@ public interface IParallelableRecipeLogic {
                                       @NotNull IItemHandlerModifiable outputs,
                                       @NotNull IMultipleTankHandler fluidOutputs, long maxVoltage, int parallelLimit) {
         if (parallelLimit > 1 && getRecipeMap() != null) {
-            RecipeBuilder<?> parallelBuilder = switch (getParallelLogicType()) {
-                case MULTIPLY -> findMultipliedParallelRecipe(getRecipeMap(), currentRecipe, inputs, fluidInputs,
+            RecipeBuilder<?> parallelBuilder;
+            if (getParallelLogicType() == ParallelLogicType.MULTIPLY) {
+                // logics overriding how multiplied recipes are found still get to build them
+                if (!ParallelLogic.hasCustomMultipliedParallelRecipe(this)) {
+                    return findScaledParallelRecipe(getRecipeMap(), currentRecipe, inputs, fluidInputs, outputs,
+                            fluidOutputs, maxVoltage, parallelLimit);
+                }
+                parallelBuilder = findMultipliedParallelRecipe(getRecipeMap(), currentRecipe, inputs, fluidInputs,
                         outputs, fluidOutputs, parallelLimit, maxVoltage, getMetaTileEntity());
-                case APPEND_ITEMS -> findAppendedParallelItemRecipe(getRecipeMap(), inputs, outputs, parallelLimit,
+            } else {
+                parallelBuilder = findAppendedParallelItemRecipe(getRecipeMap(), inputs, outputs, parallelLimit,
                         maxVoltage, getMetaTileEntity());
-            };
+            }
 
             // if the builder returned is null, no recipe was found.
             if (parallelBuilder == null) {
@@ -116,6 +124,49 @@ public interface IParallelableRecipeLogic {
         return currentRecipe;
     }
 
+    /**
+     * Method which multiplies a recipe by the parallelization factor as a {@link ScaledRecipe}, which shares the
+     * ingredients of the recipe instead of building a multiplied copy of it. Only used when
+     * {@link #findMultipliedParallelRecipe} is not overridden.
+     *
+     * @param recipeMap     the recipe map
+     * @param currentRecipe recipe to be parallelized, already trimmed
+     * @param inputs        input item handler
+     * @param fluidInputs   input fluid handler
+     * @param outputs       output item handler
+     * @param fluidOutputs  output fluid handler
+     * @param maxVoltage    the voltage limit on the number of parallel recipes to be performed
+     * @param parallelLimit the maximum number of parallel recipes to be performed
+     * @return the parallelized recipe, or null if the recipe can't fit
+     */
+    default @Nullable Recipe findScaledParallelRecipe(@NotNull RecipeMap<?> recipeMap, @NotNull Recipe currentRecipe,
+                                                      @NotNull IItemHandlerModifiable inputs,
+                                                      @NotNull IMultipleTankHandler fluidInputs,
+                                                      @NotNull IItemHandlerModifiable outputs,
+                                                      @NotNull IMultipleTankHandler fluidOutputs, long maxVoltage,
+                                                      int parallelLimit) {
+        int multiplier = ParallelLogic.getParallelMultiplier(currentRecipe, inputs, fluidInputs, outputs,
+                fluidOutputs, parallelLimit, maxVoltage, getMetaTileEntity());
+        if (multiplier == -1) {
+            invalidateInputs();
+            return null;
+        }
+        // if the recipe can not be performed at all, its outputs are full
+        if (multiplier == 0) {
+            invalidateOutputs();
+            return null;
+        }
+        setParallelRecipesPerformed(multiplier);
+
+        // bonuses are applied to the EU/t and duration only, so they do not need the multiplied ingredients
+        RecipeBuilder<?> bonusBuilder = recipeMap.recipeBuilder()
+                .EUt(currentRecipe.getEUt() * multiplier)
+                .duration(currentRecipe.getDuration())
+                .parallel(multiplier);
+        applyParallelBonus(bonusBuilder);
+        return new ScaledRecipe(currentRecipe, multiplier, bonusBuilder.getEUt(), bonusBuilder.getDuration());
+    }
+
     @NotNull
     MetaTileEntity getMetaTileEntity();
 
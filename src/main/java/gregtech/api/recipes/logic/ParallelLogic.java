@@ -24,6 +24,7 @@ import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,31 @@ import java.util.Set;
 
 public abstract class ParallelLogic {
 
+    /**
+     * If a logic class overrides {@link IParallelableRecipeLogic#findMultipliedParallelRecipe}, in which case its
+     * multiplied recipes can not be replaced with scaled recipes
+     */
+    private static final ClassValue<Boolean> CUSTOM_MULTIPLIED_RECIPES = new ClassValue<Boolean>() {
+
+        @Override
+        protected Boolean computeValue(@NotNull Class<?> type) {
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    if ("findMultipliedParallelRecipe".equals(method.getName())) return true;
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @param logic the logic
+     * @return if the logic overrides how multiplied parallel recipes are found
+     */
+    public static boolean hasCustomMultipliedParallelRecipe(@NotNull IParallelableRecipeLogic logic) {
+        return CUSTOM_MULTIPLIED_RECIPES.get(logic.getClass());
+    }
+
     /**
      * @param recipe         The recipe
      * @param inputs         The item inputs
@@ -125,12 +151,13 @@ public abstract class ParallelLogic {
      */
     public static int limitParallelByItems(@NotNull Recipe recipe, @NotNull OverlayedItemHandler overlayedItemHandler,
                                            int multiplier) {
-        int minMultiplier = 0;
-        int maxMultiplier = multiplier;
+        // the search state is updated in place, holding the minimum, current and maximum multiplier
+        int[] bin = { 0, multiplier, multiplier };
 
-        Object2IntMap<ItemStack> recipeOutputs = GTHashMaps.fromItemStackCollection(recipe.getAllItemOutputs());
+        Object2IntMap<ItemStack> recipeOutputs = recipe.getAllItemOutputMap();
 
-        while (minMultiplier != maxMultiplier) {
+        while (bin[0] != bin[2]) {
+            multiplier = bin[1];
             overlayedItemHandler.reset();
 
             int returnedAmount = 0;
@@ -149,13 +176,9 @@ public abstract class ParallelLogic {
                 }
             }
 
-            int[] bin = adjustMultiplier(returnedAmount == 0, minMultiplier, multiplier, maxMultiplier);
-            minMultiplier = bin[0];
-            multiplier = bin[1];
-            maxMultiplier = bin[2];
-
+            adjustMultiplier(returnedAmount == 0, bin);
         }
-        return multiplier;
+        return bin[1];
     }
 
     /**
@@ -173,9 +196,7 @@ public abstract class ParallelLogic {
                                                       @NotNull List<ItemStack> outputsToAppend,
                                                       @NotNull OverlayedItemHandler overlayedItemHandler,
                                                       final int multiplier) {
-        int minMultiplier = 0;
-        int currentMultiplier = multiplier;
-        int maxMultiplier = multiplier;
+        int[] bin = { 0, multiplier, multiplier };
         int previousMultiplier = multiplier;
 
         Object2IntMap<ItemStack> recipeOutputs = GTHashMaps.fromItemStackCollection(recipeOutputList);
@@ -186,7 +207,8 @@ public abstract class ParallelLogic {
         recipeOutputsToAppend
                 .forEach((stackKey, amt) -> appendedResultMap.merge(stackKey, amt * multiplier, Integer::sum));
 
-        while (minMultiplier != maxMultiplier) {
+        while (bin[0] != bin[2]) {
+            int currentMultiplier = bin[1];
             overlayedItemHandler.reset();
 
             if (currentMultiplier != previousMultiplier) {
@@ -207,13 +229,9 @@ public abstract class ParallelLogic {
                 }
             }
 
-            int[] bin = adjustMultiplier(returnedAmount == 0, minMultiplier, currentMultiplier, maxMultiplier);
-            minMultiplier = bin[0];
-            currentMultiplier = bin[1];
-            maxMultiplier = bin[2];
-
+            adjustMultiplier(returnedAmount == 0, bin);
         }
-        return currentMultiplier;
+        return bin[1];
     }
 
     /**
@@ -234,6 +252,22 @@ public abstract class ParallelLogic {
      */
     public static int @NotNull [] adjustMultiplier(boolean mergedAll, int minMultiplier, int multiplier,
                                                    int maxMultiplier) {
+        int[] bin = { minMultiplier, multiplier, maxMultiplier };
+        adjustMultiplier(mergedAll, bin);
+        return bin;
+    }
+
+    /**
+     * Performs a step of {@link #adjustMultiplier(boolean, int, int, int)} in place, without allocating.
+     *
+     * @param mergedAll if the merge was successful
+     * @param bin       an array consisting of the last known multiplier, the current multiplier and the last known
+     *                  multiplier that resulted in failure, updated in place
+     */
+    private static void adjustMultiplier(boolean mergedAll, int @NotNull [] bin) {
+        int minMultiplier = bin[0];
+        int multiplier = bin[1];
+        int maxMultiplier = bin[2];
         if (mergedAll) {
             minMultiplier = multiplier;
             int remainder = (maxMultiplier - multiplier) % 2;
@@ -245,7 +279,9 @@ public abstract class ParallelLogic {
         if (maxMultiplier - minMultiplier <= 1) {
             multiplier = maxMultiplier = minMultiplier;
         }
-        return new int[] { minMultiplier, multiplier, maxMultiplier };
+        bin[0] = minMultiplier;
+        bin[1] = multiplier;
+        bin[2] = maxMultiplier;
     }
 
     /**
@@ -258,10 +294,10 @@ public abstract class ParallelLogic {
      */
     public static int limitParallelByFluids(@NotNull Recipe recipe,
                                             @NotNull OverlayedFluidHandler overlayedFluidHandler, int multiplier) {
-        int minMultiplier = 0;
-        int maxMultiplier = multiplier;
+        int[] bin = { 0, multiplier, multiplier };
 
-        while (minMultiplier != maxMultiplier) {
+        while (bin[0] != bin[2]) {
+            multiplier = bin[1];
             overlayedFluidHandler.reset();
 
             int amountLeft = 0;
@@ -283,13 +319,9 @@ public abstract class ParallelLogic {
                 }
             }
 
-            int[] bin = adjustMultiplier(amountLeft == 0, minMultiplier, multiplier, maxMultiplier);
-            minMultiplier = bin[0];
-            multiplier = bin[1];
-            maxMultiplier = bin[2];
-
+            adjustMultiplier(amountLeft == 0, bin);
         }
-        return multiplier;
+        return bin[1];
     }
 
     /**
@@ -477,9 +509,9 @@ public abstract class ParallelLogic {
                                                      @NotNull IItemHandlerModifiable exportInventory,
                                                      @NotNull IMultipleTankHandler exportFluids, int parallelAmount,
                                                      long maxVoltage, @NotNull IVoidable voidable) {
-        // First check if we are limited by recipe inputs. This can short circuit a lot of consecutive checking
-        int multiplierByInputs = getMaxRecipeMultiplier(currentRecipe, importInventory, importFluids, parallelAmount);
-        if (multiplierByInputs == 0) {
+        int multiplier = getParallelMultiplier(currentRecipe, importInventory, importFluids, exportInventory,
+                exportFluids, parallelAmount, maxVoltage, voidable);
+        if (multiplier == -1) {
             return null;
         }
         // Make a copy of the recipe builder and zero the EUt, since we append
@@ -488,29 +520,56 @@ public abstract class ParallelLogic {
         // recipe builder already has a cost applied. Don't also zero the
         // duration as it doesn't get multiplied.
         RecipeBuilder<?> recipeBuilder = recipeMap.recipeBuilder().EUt(0);
+        if (multiplier > 0) {
+            recipeBuilder.append(currentRecipe, multiplier, false);
+        }
+        return recipeBuilder;
+    }
+
+    /**
+     * Finds the amount of times a recipe can be performed in parallel, limited by the inputs, the space for the
+     * outputs and the voltage.
+     *
+     * @param currentRecipe   the recipe to perform in parallel, already trimmed
+     * @param importInventory the item input inventory
+     * @param importFluids    the fluid input tanks
+     * @param exportInventory the item output inventory
+     * @param exportFluids    the fluid output tanks
+     * @param parallelAmount  the maximum amount of recipes that can be performed at one time
+     * @param maxVoltage      the maximum voltage of the machine
+     * @param voidable        the MetaTileEntity performing the parallel recipe
+     * @return the amount of parallel recipes, 0 if the outputs or voltage do not allow any, or -1 if the inputs do not
+     *         allow any
+     */
+    public static int getParallelMultiplier(@NotNull Recipe currentRecipe,
+                                            @NotNull IItemHandlerModifiable importInventory,
+                                            @NotNull IMultipleTankHandler importFluids,
+                                            @NotNull IItemHandlerModifiable exportInventory,
+                                            @NotNull IMultipleTankHandler exportFluids, int parallelAmount,
+                                            long maxVoltage, @NotNull IVoidable voidable) {
+        // First check if we are limited by recipe inputs. This can short circuit a lot of consecutive checking
+        int multiplierByInputs = getMaxRecipeMultiplier(currentRecipe, importInventory, importFluids, parallelAmount);
+        if (multiplierByInputs == 0) {
+            return -1;
+        }
 
         boolean voidItems = voidable.canVoidRecipeItemOutputs();
         boolean voidFluids = voidable.canVoidRecipeFluidOutputs();
 
         // Simulate the merging of the maximum amount of recipes that can be run with these items
         // and limit by the amount we can successfully merge
-        int limitByOutput;
-        limitByOutput = ParallelLogic.limitByOutputMerging(currentRecipe, exportInventory, exportFluids,
+        int limitByOutput = ParallelLogic.limitByOutputMerging(currentRecipe, exportInventory, exportFluids,
                 multiplierByInputs, voidItems, voidFluids);
 
         long recipeEUt = currentRecipe.getEUt();
         if (recipeEUt != 0) {
             int limitByVoltage = GTUtility.safeCastLongToInt(Math.abs(maxVoltage / recipeEUt));
             int parallelizable = Math.min(limitByVoltage, limitByOutput);
-            if (parallelizable != 0)
-                // Use the minimum between the amount of recipes we can run with available inputs and amount of recipe
-                // outputs that can fit
-                recipeBuilder.append(currentRecipe, Math.min(parallelizable, multiplierByInputs), false);
-        } else if (limitByOutput > 0) {
-            recipeBuilder.append(currentRecipe, limitByOutput, false);
+            // Use the minimum between the amount of recipes we can run with available inputs and amount of recipe
+            // outputs that can fit
+            return parallelizable == 0 ? 0 : Math.min(parallelizable, multiplierByInputs);
         }
-
-        return recipeBuilder;
+        return Math.max(limitByOutput, 0);
     }
 
     /**
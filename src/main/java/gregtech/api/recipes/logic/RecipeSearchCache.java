@@ -0,0 +1,242 @@
+package gregtech.api.recipes.logic;
+
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.items.IItemHandler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * A small per-machine memo of recipe search results, keyed by a fingerprint of the machine's inputs.
+ * <p>
+ * The fingerprint is only recomputed when the owning {@link MetaTileEntity} has been notified of an input change
+ * since it was last computed, or when different inputs are used, so repeated searches against unchanged inputs cost a
+ * single comparison.
+ * <p>
+ * Found recipes are also remembered by the kinds of the inputs, ignoring their amounts, so a recipe is found again
+ * without a search when the amounts of its inputs changed. Searches which found nothing are only remembered for the
+ * exact inputs, as more of an input can make a recipe match.
+ * <p>
+ * Results are only valid for the {@link RecipeMap} revision and voltage they were found with. Remembered recipes are
+ * candidates, and must still be checked against the inputs before being used. Maps with their own recipe search, such
+ * as maps creating recipes from the inputs, are not cacheable, see {@link #isCacheable(RecipeMap)}.
+ */
+public final class RecipeSearchCache {
+
+    private static final int SIZE = 4;
+
+    /**
+     * Marker for a search which did not find a recipe.
+     */
+    private static final Object NO_RECIPE = new Object();
+
+    /**
+     * If a map class uses the default recipe search of {@link RecipeMap}
+     */
+    private static final ClassValue<Boolean> CACHEABLE_MAPS = new ClassValue<Boolean>() {
+
+        @Override
+        protected Boolean computeValue(@NotNull Class<?> type) {
+            for (Class<?> c = type; c != RecipeMap.class && c != null; c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    if ("findRecipe".equals(method.getName())) return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    private final long[] fingerprints = new long[SIZE];
+    private final long[] kindFingerprints = new long[SIZE];
+    private final long[] voltages = new long[SIZE];
+    private final Object[] results = new Object[SIZE];
+    private int next;
+
+    private @Nullable RecipeMap<?> recipeMap;
+    private int recipeMapRevision;
+
+    private @Nullable IItemHandler items;
+    private @Nullable IMultipleTankHandler fluids;
+    private long fingerprint;
+    private long kindFingerprint;
+    private int inputRevision;
+
+    /**
+     * @param recipeMap the recipe map
+     * @return if the results of searching the map only depend on the inputs and voltage, and can be remembered
+     */
+    public static boolean isCacheable(@NotNull RecipeMap<?> recipeMap) {
+        return CACHEABLE_MAPS.get(recipeMap.getClass());
+    }
+
+    /**
+     * Get the fingerprint of the inputs, recomputing it only if the inputs were notified of a change.
+     *
+     * @param metaTileEntity the owner of the inputs
+     * @param items          the item inputs
+     * @param fluids         the fluid inputs
+     * @return the fingerprint
+     */
+    public long getFingerprint(@NotNull MetaTileEntity metaTileEntity, @NotNull IItemHandler items,
+                               @NotNull IMultipleTankHandler fluids) {
+        int revision = metaTileEntity.getNotifiedInputRevision();
+        if (this.items != items || this.fluids != fluids || revision != inputRevision) {
+            this.fingerprint = computeFingerprint(items, fluids, true);
+            this.kindFingerprint = computeFingerprint(items, fluids, false);
+            this.inputRevision = revision;
+            this.items = items;
+            this.fluids = fluids;
+        }
+        return this.fingerprint;
+    }
+
+    /**
+     * Must be called after {@link #getFingerprint(MetaTileEntity, IItemHandler, IMultipleTankHandler)}.
+     *
+     * @return the fingerprint of the kinds of the last inputs, ignoring their amounts
+     */
+    public long getKindFingerprint() {
+        return this.kindFingerprint;
+    }
+
+    /**
+     * @param fingerprint     the fingerprint of the inputs
+     * @param kindFingerprint the fingerprint of the kinds of the inputs
+     * @param voltage         the voltage used for the search
+     * @param recipeMap       the recipe map searched
+     * @return if a result is remembered for the search
+     */
+    public boolean contains(long fingerprint, long kindFingerprint, long voltage, @NotNull RecipeMap<?> recipeMap) {
+        return indexOf(fingerprint, kindFingerprint, voltage, recipeMap) != -1;
+    }
+
+    /**
+     * @param fingerprint     the fingerprint of the inputs
+     * @param kindFingerprint the fingerprint of the kinds of the inputs
+     * @param voltage         the voltage used for the search
+     * @param recipeMap       the recipe map searched
+     * @return the remembered recipe, or null if none was found or nothing is remembered
+     */
+    public @Nullable Recipe get(long fingerprint, long kindFingerprint, long voltage,
+                                @NotNull RecipeMap<?> recipeMap) {
+        int index = indexOf(fingerprint, kindFingerprint, voltage, recipeMap);
+        if (index == -1) return null;
+        Object result = results[index];
+        return result == NO_RECIPE ? null : (Recipe) result;
+    }
+
+    /**
+     * Remember the result of a search
+     *
+     * @param fingerprint     the fingerprint of the inputs
+     * @param kindFingerprint the fingerprint of the kinds of the inputs
+     * @param voltage         the voltage used for the search
+     * @param recipeMap       the recipe map searched
+     * @param recipe          the recipe found, or null if none was found
+     */
+    public void put(long fingerprint, long kindFingerprint, long voltage, @NotNull RecipeMap<?> recipeMap,
+                    @Nullable Recipe recipe) {
+        validate(recipeMap);
+        // results remembered by the kinds of the inputs are kept, they may still match other amounts
+        int index = -1;
+        for (int i = 0; i < SIZE; i++) {
+            if (results[i] != null && fingerprints[i] == fingerprint && voltages[i] == voltage) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            index = next;
+            next = (next + 1) % SIZE;
+        }
+        fingerprints[index] = fingerprint;
+        kindFingerprints[index] = kindFingerprint;
+        voltages[index] = voltage;
+        results[index] = recipe == null ? NO_RECIPE : recipe;
+    }
+
+    /**
+     * Forget all remembered results
+     */
+    public void clear() {
+        Arrays.fill(results, null);
+        this.next = 0;
+        this.recipeMap = null;
+        this.items = null;
+        this.fluids = null;
+    }
+
+    private int indexOf(long fingerprint, long kindFingerprint, long voltage, @NotNull RecipeMap<?> recipeMap) {
+        validate(recipeMap);
+        int kindIndex = -1;
+        for (int i = 0; i < SIZE; i++) {
+            if (results[i] == null || voltages[i] != voltage) continue;
+            if (fingerprints[i] == fingerprint) return i;
+            // found recipes are also remembered for other amounts of the same inputs
+            if (kindIndex == -1 && results[i] != NO_RECIPE && kindFingerprints[i] == kindFingerprint) {
+                kindIndex = i;
+            }
+        }
+        return kindIndex;
+    }
+
+    /**
+     * Forget all results if the recipe map was changed, or had recipes added or removed.
+     */
+    private void validate(@NotNull RecipeMap<?> recipeMap) {
+        if (this.recipeMap != recipeMap || this.recipeMapRevision != recipeMap.getLookupRevision()) {
+            Arrays.fill(results, null);
+            this.next = 0;
+            this.recipeMap = recipeMap;
+            this.recipeMapRevision = recipeMap.getLookupRevision();
+        }
+    }
+
+    /**
+     * @param items   the item inputs
+     * @param fluids  the fluid inputs
+     * @param amounts if the amounts of the inputs are part of the fingerprint
+     * @return a fingerprint of the contents, and optionally the amounts, of the inputs
+     */
+    public static long computeFingerprint(@NotNull IItemHandler items, @NotNull IMultipleTankHandler fluids,
+                                          boolean amounts) {
+        long hash = 1;
+        for (int i = 0; i < items.getSlots(); i++) {
+            ItemStack stack = items.getStackInSlot(i);
+            if (stack.isEmpty()) continue;
+
+            long slotHash = stack.getItem().hashCode();
+            slotHash = slotHash * 31 + stack.getMetadata();
+            if (amounts) slotHash = slotHash * 31 + stack.getCount();
+            NBTTagCompound tag = stack.getTagCompound();
+            if (tag != null) slotHash = slotHash * 31 + tag.hashCode();
+            hash = mix(hash, i, slotHash);
+        }
+        for (int i = 0; i < fluids.getTanks(); i++) {
+            FluidStack stack = fluids.getTankAt(i).getFluid();
+            if (stack == null || stack.amount <= 0) continue;
+
+            long tankHash = stack.getFluid().getName().hashCode();
+            if (amounts) tankHash = tankHash * 31 + stack.amount;
+            if (stack.tag != null) tankHash = tankHash * 31 + stack.tag.hashCode();
+            // offset tank indices so they cannot be confused with slot indices
+            hash = mix(hash, ~i, tankHash);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int index, long value) {
+        long h = (value ^ ((long) index << 32)) * 0x9E3779B97F4A7C15L;
+        return (hash ^ (h ^ (h >>> 29))) * 0xBF58476D1CE4E5B9L;
+    }
+}
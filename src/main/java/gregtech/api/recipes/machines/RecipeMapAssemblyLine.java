@@ -30,15 +30,14 @@ public class RecipeMapAssemblyLine<R extends RecipeBuilder<R>> extends RecipeMap
     }
 
     @Override
-    public boolean compileRecipe(Recipe recipe) {
-        if (!super.compileRecipe(recipe)) return false;
+    protected void onRecipeCompiled(@NotNull Recipe recipe) {
+        super.onRecipeCompiled(recipe);
         ResearchPropertyData data = recipe.getProperty(ResearchProperty.getInstance(), null);
         if (data != null) {
             for (ResearchPropertyData.ResearchEntry entry : data) {
                 addDataStickEntry(entry.researchId(), recipe);
             }
         }
-        return true;
     }
 
     @Override
@@ -5,7 +5,7 @@ public abstract class AbstractMapIngredient {
     protected final Class<? extends AbstractMapIngredient> objClass;
 
     private int hash;
-    private boolean hashed = false;
+    private boolean hashIsZero = false;
 
     protected AbstractMapIngredient() {
         this.objClass = getClass();
@@ -15,15 +15,22 @@ public abstract class AbstractMapIngredient {
 
     @Override
     public final int hashCode() {
-        if (!hashed) {
-            hash = hash();
-            hashed = true;
+        // only read the cached hash once, so ingredients shared between threads never observe a partial update
+        int h = hash;
+        if (h == 0 && !hashIsZero) {
+            h = hash();
+            if (h == 0) {
+                hashIsZero = true;
+            } else {
+                hash = h;
+            }
         }
-        return hash;
+        return h;
     }
 
     protected final void invalidate() {
-        this.hashed = false;
+        this.hash = 0;
+        this.hashIsZero = false;
     }
 
     @Override
@@ -10,8 +10,8 @@ import java.util.Objects;
 
 public class MapFluidIngredient extends AbstractMapIngredient {
 
-    public final Fluid fluid;
-    public final NBTTagCompound tag;
+    private Fluid fluid;
+    private NBTTagCompound tag;
 
     public MapFluidIngredient(GTRecipeInput fluidInput) {
         FluidStack fluidStack = fluidInput.getInputFluidStack();
@@ -24,6 +24,25 @@ public class MapFluidIngredient extends AbstractMapIngredient {
         this.tag = fluidStack.tag;
     }
 
+    /**
+     * Reuse this ingredient for a different fluid
+     *
+     * @param fluidStack the fluid
+     */
+    void set(FluidStack fluidStack) {
+        this.fluid = fluidStack.getFluid();
+        this.tag = fluidStack.tag;
+        invalidate();
+    }
+
+    public Fluid getFluid() {
+        return fluid;
+    }
+
+    public NBTTagCompound getTag() {
+        return tag;
+    }
+
     @Override
     protected int hash() {
         // the Fluid registered to the fluidName on game load might not be the same Fluid after loading the world, but
@@ -30,6 +30,20 @@ public class MapItemStackIngredient extends AbstractMapIngredient {
         this.gtRecipeInput = gtRecipeInput;
     }
 
+    /**
+     * Reuse this ingredient for a different stack
+     *
+     * @param stack the stack
+     * @param meta  the metadata of the stack
+     * @param tag   the tag of the stack
+     */
+    void set(ItemStack stack, int meta, NBTTagCompound tag) {
+        this.stack = stack;
+        this.meta = meta;
+        this.tag = tag;
+        invalidate();
+    }
+
     @NotNull
     public static List<AbstractMapIngredient> from(@NotNull GTRecipeInput r) {
         ObjectArrayList<AbstractMapIngredient> list = new ObjectArrayList<>();
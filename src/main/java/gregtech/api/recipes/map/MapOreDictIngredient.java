@@ -2,12 +2,26 @@ package gregtech.api.recipes.map;
 
 public class MapOreDictIngredient extends AbstractMapIngredient {
 
-    int ore;
+    private int ore;
 
     public MapOreDictIngredient(int ore) {
         this.ore = ore;
     }
 
+    /**
+     * Reuse this ingredient for a different ore dictionary entry
+     *
+     * @param ore the ore dictionary id
+     */
+    void set(int ore) {
+        this.ore = ore;
+        invalidate();
+    }
+
+    public int getOre() {
+        return ore;
+    }
+
     @Override
     protected int hash() {
         return ore;
@@ -27,6 +27,17 @@ public class MapOreDictNBTIngredient extends MapOreDictIngredient {
         this.nbtTagCompound = nbtTagCompound;
     }
 
+    /**
+     * Reuse this ingredient for a different ore dictionary entry and tag
+     *
+     * @param ore            the ore dictionary id
+     * @param nbtTagCompound the tag to match against
+     */
+    void set(int ore, @Nullable NBTTagCompound nbtTagCompound) {
+        set(ore);
+        this.nbtTagCompound = nbtTagCompound;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -44,7 +55,7 @@ public class MapOreDictNBTIngredient extends MapOreDictIngredient {
                     return false;
                 }
             }
-            if (ore == other.ore) {
+            if (getOre() == other.getOre()) {
                 return other.matcher.evaluate(this.nbtTagCompound, other.condition);
             }
         }
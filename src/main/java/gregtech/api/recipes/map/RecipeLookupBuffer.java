@@ -0,0 +1,449 @@
+package gregtech.api.recipes.map;
+
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.util.ItemStackHashStrategy;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.oredict.OreDictionary;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenCustomHashSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Reusable, thread-confined scratch space for recipe lookup.
+ * <p>
+ * A buffer is split into three independent sections: the <em>inputs</em> section, which holds the non-empty contents
+ * of item and fluid handlers, the <em>search</em> section, which holds the prepared lookup ingredients, and the
+ * <em>handlers</em> section, which holds slot-indexed views of item and fluid handlers. Each section is acquired and
+ * released separately, so a lookup reading from handlers can pass its inputs to a search on the same
+ * thread. If a section is already in use, for example by a nested lookup, a new buffer is created instead.
+ * <p>
+ * Nothing in a buffer may be retained after it has been released.
+ */
+public final class RecipeLookupBuffer {
+
+    private static final ThreadLocal<RecipeLookupBuffer> BUFFERS = ThreadLocal.withInitial(RecipeLookupBuffer::new);
+    private static final ThreadLocal<int[][]> AMOUNTS = ThreadLocal.withInitial(() -> new int[2][16]);
+
+    private static volatile int oreDictGeneration;
+
+    // inputs section
+    private boolean inputsInUse;
+    private final ObjectArrayList<ItemStack> inputItems = new ObjectArrayList<>();
+    private final ObjectArrayList<FluidStack> inputFluids = new ObjectArrayList<>();
+
+    // search section
+    private boolean searchInUse;
+    private final ObjectArrayList<ItemStack> items = new ObjectArrayList<>();
+    private final ObjectArrayList<FluidStack> fluids = new ObjectArrayList<>();
+    private final ObjectOpenCustomHashSet<ItemStack> uniqueItems = new ObjectOpenCustomHashSet<>(
+            ItemStackHashStrategy.comparingAllButCount());
+    private final ObjectArrayList<List<AbstractMapIngredient>> ingredients = new ObjectArrayList<>();
+    private final ObjectArrayList<ObjectArrayList<AbstractMapIngredient>> alternativesPool = new ObjectArrayList<>();
+    private final ObjectArrayList<MapItemStackIngredient> itemPool = new ObjectArrayList<>();
+    private final ObjectArrayList<MapItemStackNBTIngredient> itemNBTPool = new ObjectArrayList<>();
+    private final ObjectArrayList<MapOreDictIngredient> oreDictPool = new ObjectArrayList<>();
+    private final ObjectArrayList<MapOreDictNBTIngredient> oreDictNBTPool = new ObjectArrayList<>();
+    private final ObjectArrayList<MapFluidIngredient> fluidPool = new ObjectArrayList<>();
+    private int alternativesUsed;
+    private int itemsUsed;
+    private int itemNBTUsed;
+    private int oreDictUsed;
+    private int oreDictNBTUsed;
+    private int fluidsUsed;
+    private final InputMatcher matcher = new InputMatcher();
+    // OreDictionary#getOreIDs allocates, so the ids are cached by item and metadata
+    private final Long2ObjectOpenHashMap<int[]> oreIds = new Long2ObjectOpenHashMap<>();
+    private int cachedOreDictGeneration;
+
+    // handlers section
+    private boolean handlersInUse;
+    private final ItemHandlerView handlerItems = new ItemHandlerView();
+    private final TankHandlerView handlerFluids = new TankHandlerView();
+
+    // candidate ingredient ids for each input, used by RecipeLookupIndex
+    int[] candidateIds = new int[32];
+    int[] candidateOffsets = new int[9];
+
+    private RecipeLookupBuffer() {}
+
+    /**
+     * @return a buffer with its inputs section acquired
+     */
+    public static @NotNull RecipeLookupBuffer acquireInputs() {
+        RecipeLookupBuffer buffer = BUFFERS.get();
+        if (buffer.inputsInUse) {
+            buffer = new RecipeLookupBuffer();
+        }
+        buffer.inputsInUse = true;
+        return buffer;
+    }
+
+    /**
+     * @return a buffer with its search section acquired
+     */
+    public static @NotNull RecipeLookupBuffer acquireSearch() {
+        RecipeLookupBuffer buffer = BUFFERS.get();
+        if (buffer.searchInUse) {
+            buffer = new RecipeLookupBuffer();
+        }
+        buffer.searchInUse = true;
+        return buffer;
+    }
+
+    /**
+     * @param itemHandler the items to view
+     * @param tankHandler the fluids to view
+     * @return a buffer with its handlers section acquired, viewing the handlers
+     */
+    public static @NotNull RecipeLookupBuffer acquireHandlers(@NotNull IItemHandler itemHandler,
+                                                              @NotNull IMultipleTankHandler tankHandler) {
+        RecipeLookupBuffer buffer = BUFFERS.get();
+        if (buffer.handlersInUse) {
+            buffer = new RecipeLookupBuffer();
+        }
+        buffer.handlersInUse = true;
+        buffer.handlerItems.handler = itemHandler;
+        buffer.handlerFluids.handler = tankHandler;
+        return buffer;
+    }
+
+    /**
+     * Discard the cached ore dictionary ids of every buffer.
+     * Must be called when ore dictionary entries may have been added after they were cached.
+     */
+    public static void invalidateOreDictCache() {
+        oreDictGeneration++;
+    }
+
+    /**
+     * Get scratch space for counting the amounts of matched inputs.
+     * The returned arrays are shared by every caller on the thread, and must not be used across calls.
+     *
+     * @param size the minimum size of the array
+     * @param slot which of the two arrays to use, either 0 or 1
+     * @return an array of at least the requested size
+     */
+    public static int @NotNull [] amounts(int size, int slot) {
+        int[][] amounts = AMOUNTS.get();
+        if (amounts[slot].length < size) {
+            amounts[slot] = new int[Math.max(size, amounts[slot].length * 2)];
+        }
+        return amounts[slot];
+    }
+
+    /**
+     * Collect the non-empty stacks of the handlers into the inputs section.
+     *
+     * @param itemHandler the items to collect
+     * @param tankHandler the fluids to collect
+     */
+    public void collectInputs(@NotNull IItemHandler itemHandler, @NotNull IMultipleTankHandler tankHandler) {
+        inputItems.clear();
+        inputFluids.clear();
+        for (int i = 0; i < itemHandler.getSlots(); i++) {
+            ItemStack stack = itemHandler.getStackInSlot(i);
+            if (!stack.isEmpty()) inputItems.add(stack);
+        }
+        for (int i = 0; i < tankHandler.getTanks(); i++) {
+            FluidStack stack = tankHandler.getTankAt(i).getFluid();
+            if (stack != null && stack.amount != 0) inputFluids.add(stack);
+        }
+    }
+
+    /**
+     * @return the non-empty stacks collected by {@link #collectInputs(IItemHandler, IMultipleTankHandler)}
+     */
+    public @NotNull List<ItemStack> getInputItems() {
+        return inputItems;
+    }
+
+    /**
+     * @return the non-empty fluids collected by {@link #collectInputs(IItemHandler, IMultipleTankHandler)}
+     */
+    public @NotNull List<FluidStack> getInputFluids() {
+        return inputFluids;
+    }
+
+    /**
+     * @return a read-only view of the slots of the item handler passed to
+     *         {@link #acquireHandlers(IItemHandler, IMultipleTankHandler)}, including empty slots
+     */
+    public @NotNull List<ItemStack> getHandlerItems() {
+        return handlerItems;
+    }
+
+    /**
+     * @return a read-only view of the tanks of the fluid handler passed to
+     *         {@link #acquireHandlers(IItemHandler, IMultipleTankHandler)}, including empty tanks
+     */
+    public @NotNull List<FluidStack> getHandlerFluids() {
+        return handlerFluids;
+    }
+
+    public void releaseHandlers() {
+        handlerItems.handler = null;
+        handlerFluids.handler = null;
+        this.handlersInUse = false;
+    }
+
+    public void releaseInputs() {
+        inputItems.clear();
+        inputFluids.clear();
+        this.inputsInUse = false;
+    }
+
+    /**
+     * Filter out empty stacks into the search section.
+     *
+     * @param inputs the items to filter
+     * @return the non-empty items
+     */
+    public @NotNull List<ItemStack> filterItems(@NotNull List<ItemStack> inputs) {
+        items.clear();
+        for (int i = 0; i < inputs.size(); i++) {
+            ItemStack stack = inputs.get(i);
+            if (!stack.isEmpty()) items.add(stack);
+        }
+        return items;
+    }
+
+    /**
+     * Filter out empty fluids into the search section.
+     *
+     * @param inputs the fluids to filter
+     * @return the non-empty fluids
+     */
+    public @NotNull List<FluidStack> filterFluids(@NotNull List<FluidStack> inputs) {
+        fluids.clear();
+        for (int i = 0; i < inputs.size(); i++) {
+            FluidStack stack = inputs.get(i);
+            if (stack != null && stack.amount != 0) fluids.add(stack);
+        }
+        return fluids;
+    }
+
+    /**
+     * Get a reusable predicate matching recipes against inputs without consuming them.
+     *
+     * @param voltage      the maximum voltage of the recipe
+     * @param exactVoltage if the recipe must have exactly the voltage
+     * @param inputs       the items to match against
+     * @param fluidInputs  the fluids to match against
+     * @return the predicate, valid until the search section is released
+     */
+    public @NotNull Predicate<Recipe> matcher(long voltage, boolean exactVoltage, @NotNull List<ItemStack> inputs,
+                                              @NotNull List<FluidStack> fluidInputs) {
+        matcher.voltage = voltage;
+        matcher.exactVoltage = exactVoltage;
+        matcher.inputs = inputs;
+        matcher.fluidInputs = fluidInputs;
+        return matcher;
+    }
+
+    /**
+     * Build the lookup ingredients for the inputs, equivalent to the ingredients built by the RecipeMap from stacks.
+     *
+     * @param inputs             the items to use
+     * @param fluidInputs        the fluids to use
+     * @param hasOreDictedInputs if ore dictionary ingredients should be built
+     * @param hasNBTInputs       if ingredients with NBT matching should be built
+     * @return the ingredients, valid until the search section is released
+     */
+    public @NotNull List<List<AbstractMapIngredient>> prepareIngredients(@NotNull Collection<ItemStack> inputs,
+                                                                         @NotNull Collection<FluidStack> fluidInputs,
+                                                                         boolean hasOreDictedInputs,
+                                                                         boolean hasNBTInputs) {
+        ingredients.clear();
+        uniqueItems.clear();
+        for (ItemStack stack : inputs) {
+            // pack identical stacks into one
+            if (stack.isEmpty() || !uniqueItems.add(stack)) continue;
+
+            int meta = stack.getMetadata();
+            NBTTagCompound nbt = stack.getTagCompound();
+            ObjectArrayList<AbstractMapIngredient> alternatives = nextAlternatives();
+            alternatives.add(nextItem(stack, meta, nbt));
+
+            if (hasOreDictedInputs) {
+                for (int ore : getOreIds(stack, meta)) {
+                    alternatives.add(nextOreDict(ore));
+                    if (hasNBTInputs) {
+                        alternatives.add(nextOreDictNBT(ore, nbt));
+                    }
+                }
+            }
+            if (hasNBTInputs) {
+                alternatives.add(nextItemNBT(stack, meta, nbt));
+            }
+            ingredients.add(alternatives);
+        }
+        for (FluidStack stack : fluidInputs) {
+            ObjectArrayList<AbstractMapIngredient> alternatives = nextAlternatives();
+            alternatives.add(nextFluid(stack));
+            ingredients.add(alternatives);
+        }
+        return ingredients;
+    }
+
+    public void releaseSearch() {
+        items.clear();
+        fluids.clear();
+        uniqueItems.clear();
+        ingredients.clear();
+        for (int i = 0; i < alternativesUsed; i++) {
+            alternativesPool.get(i).clear();
+        }
+        // drop references to stacks, so they are not kept alive by the pool
+        for (int i = 0; i < itemsUsed; i++) {
+            itemPool.get(i).set(ItemStack.EMPTY, 0, null);
+        }
+        for (int i = 0; i < itemNBTUsed; i++) {
+            itemNBTPool.get(i).set(ItemStack.EMPTY, 0, null);
+        }
+        for (int i = 0; i < oreDictNBTUsed; i++) {
+            oreDictNBTPool.get(i).set(0, null);
+        }
+        this.alternativesUsed = 0;
+        this.itemsUsed = 0;
+        this.itemNBTUsed = 0;
+        this.oreDictUsed = 0;
+        this.oreDictNBTUsed = 0;
+        this.fluidsUsed = 0;
+        matcher.inputs = null;
+        matcher.fluidInputs = null;
+        this.searchInUse = false;
+    }
+
+    private int @NotNull [] getOreIds(@NotNull ItemStack stack, int meta) {
+        if (cachedOreDictGeneration != oreDictGeneration) {
+            oreIds.clear();
+            this.cachedOreDictGeneration = oreDictGeneration;
+        }
+        long key = ((long) Item.getIdFromItem(stack.getItem()) << 32) | (meta & 0xFFFFFFFFL);
+        int[] ids = oreIds.get(key);
+        if (ids == null) {
+            ids = OreDictionary.getOreIDs(stack);
+            oreIds.put(key, ids);
+        }
+        return ids;
+    }
+
+    private @NotNull ObjectArrayList<AbstractMapIngredient> nextAlternatives() {
+        if (alternativesUsed == alternativesPool.size()) {
+            alternativesPool.add(new ObjectArrayList<>(4));
+        }
+        return alternativesPool.get(alternativesUsed++);
+    }
+
+    private @NotNull MapItemStackIngredient nextItem(@NotNull ItemStack stack, int meta, NBTTagCompound nbt) {
+        if (itemsUsed == itemPool.size()) {
+            itemPool.add(new MapItemStackIngredient(stack, meta, nbt));
+        }
+        MapItemStackIngredient ingredient = itemPool.get(itemsUsed++);
+        ingredient.set(stack, meta, nbt);
+        return ingredient;
+    }
+
+    private @NotNull MapItemStackNBTIngredient nextItemNBT(@NotNull ItemStack stack, int meta, NBTTagCompound nbt) {
+        if (itemNBTUsed == itemNBTPool.size()) {
+            itemNBTPool.add(new MapItemStackNBTIngredient(stack, meta, nbt));
+        }
+        MapItemStackNBTIngredient ingredient = itemNBTPool.get(itemNBTUsed++);
+        ingredient.set(stack, meta, nbt);
+        return ingredient;
+    }
+
+    private @NotNull MapOreDictIngredient nextOreDict(int ore) {
+        if (oreDictUsed == oreDictPool.size()) {
+            oreDictPool.add(new MapOreDictIngredient(ore));
+        }
+        MapOreDictIngredient ingredient = oreDictPool.get(oreDictUsed++);
+        ingredient.set(ore);
+        return ingredient;
+    }
+
+    private @NotNull MapOreDictNBTIngredient nextOreDictNBT(int ore, NBTTagCompound nbt) {
+        if (oreDictNBTUsed == oreDictNBTPool.size()) {
+            oreDictNBTPool.add(new MapOreDictNBTIngredient(ore, nbt));
+        }
+        MapOreDictNBTIngredient ingredient = oreDictNBTPool.get(oreDictNBTUsed++);
+        ingredient.set(ore, nbt);
+        return ingredient;
+    }
+
+    private @NotNull MapFluidIngredient nextFluid(@NotNull FluidStack stack) {
+        if (fluidsUsed == fluidPool.size()) {
+            fluidPool.add(new MapFluidIngredient(stack));
+        }
+        MapFluidIngredient ingredient = fluidPool.get(fluidsUsed++);
+        ingredient.set(stack);
+        return ingredient;
+    }
+
+    private static final class ItemHandlerView extends AbstractList<ItemStack> {
+
+        private IItemHandler handler;
+
+        @Override
+        public ItemStack get(int index) {
+            return handler.getStackInSlot(index);
+        }
+
+        @Override
+        public int size() {
+            return handler.getSlots();
+        }
+    }
+
+    private static final class TankHandlerView extends AbstractList<FluidStack> {
+
+        private IMultipleTankHandler handler;
+
+        @Override
+        public FluidStack get(int index) {
+            return handler.getTankAt(index).getFluid();
+        }
+
+        @Override
+        public int size() {
+            return handler.getTanks();
+        }
+    }
+
+    /**
+     * Matches recipes against inputs without consuming them, with a voltage limit.
+     */
+    private static final class InputMatcher implements Predicate<Recipe> {
+
+        private long voltage;
+        private boolean exactVoltage;
+        private List<ItemStack> inputs;
+        private List<FluidStack> fluidInputs;
+
+        @Override
+        public boolean test(Recipe recipe) {
+            if (exactVoltage && recipe.getEUt() != voltage) {
+                // if exact voltage is required, the recipe is not considered valid
+                return false;
+            }
+            if (recipe.getEUt() > voltage) {
+                // there is not enough voltage to consider the recipe valid
+                return false;
+            }
+            return recipe.matches(false, inputs, fluidInputs);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package gregtech.api.recipes.map;
+
+import gregtech.api.recipes.Recipe;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, array-backed snapshot of a {@link Branch} ingredient tree.
+ * <p>
+ * Every distinct {@link AbstractMapIngredient} in the tree is interned to an integer id, and every branch is
+ * flattened to a sorted range of {@code (ingredient id, target)} edges. A target is either the index of another
+ * node, or the bitwise complement of a recipe index.
+ * <p>
+ * The normal and special nodes of a branch share one edge range. Keys are only ever put into the nodes matching their
+ * {@link AbstractMapIngredient#isSpecialIngredient()}, so a query is only matched against keys of the same kind,
+ * just like {@code RecipeMap#determineRootNodes} only looks a query up in the nodes of its kind.
+ * <p>
+ * Lookups binary search the edge ranges instead of walking boxed hash maps, and do not allocate {@link Either}
+ * instances or lambdas. The index does not observe changes to the tree it was compiled from, so it must be
+ * discarded whenever the owning RecipeMap is modified.
+ */
+public final class RecipeLookupIndex {
+
+    private final AbstractMapIngredient[] ingredients;
+    /** If the ingredient with the id is a special ingredient, and so was a key in the special nodes */
+    private final boolean[] special;
+    private final Int2ObjectOpenHashMap<int[]> idsByHash;
+    private final Recipe[] recipes;
+
+    private final int[] nodeOffsets;
+    private final int[] edgeKeys;
+    private final int[] edgeTargets;
+
+    private RecipeLookupIndex(@NotNull AbstractMapIngredient[] ingredients,
+                              @NotNull Int2ObjectOpenHashMap<int[]> idsByHash, @NotNull Recipe[] recipes,
+                              int @NotNull [] nodeOffsets, int @NotNull [] edgeKeys, int @NotNull [] edgeTargets) {
+        this.ingredients = ingredients;
+        this.special = new boolean[ingredients.length];
+        for (int i = 0; i < ingredients.length; i++) {
+            this.special[i] = ingredients[i].isSpecialIngredient();
+        }
+        this.idsByHash = idsByHash;
+        this.recipes = recipes;
+        this.nodeOffsets = nodeOffsets;
+        this.edgeKeys = edgeKeys;
+        this.edgeTargets = edgeTargets;
+    }
+
+    /**
+     * Compile an ingredient tree into a lookup index.
+     *
+     * @param root the root branch of the tree
+     * @return the compiled index
+     */
+    public static @NotNull RecipeLookupIndex compile(@NotNull Branch root) {
+        // ingredients are interned by identity, as equality between tree keys is not always symmetric
+        Reference2IntOpenHashMap<AbstractMapIngredient> ingredientIds = new Reference2IntOpenHashMap<>();
+        ingredientIds.defaultReturnValue(-1);
+        List<AbstractMapIngredient> ingredients = new ObjectArrayList<>();
+
+        Reference2IntOpenHashMap<Recipe> recipeIds = new Reference2IntOpenHashMap<>();
+        recipeIds.defaultReturnValue(-1);
+        List<Recipe> recipes = new ObjectArrayList<>();
+
+        // branches may be shared between multiple keys, so each is only assigned a node once
+        Reference2IntOpenHashMap<Branch> nodeIds = new Reference2IntOpenHashMap<>();
+        nodeIds.defaultReturnValue(-1);
+        List<Branch> nodes = new ObjectArrayList<>();
+        Deque<Branch> queue = new ArrayDeque<>();
+
+        nodeIds.put(root, 0);
+        nodes.add(root);
+        queue.add(root);
+
+        IntArrayList nodeOffsets = new IntArrayList();
+        IntArrayList edgeKeys = new IntArrayList();
+        IntArrayList edgeTargets = new IntArrayList();
+        List<long[]> nodeEdges = new ObjectArrayList<>();
+
+        while (!queue.isEmpty()) {
+            Branch branch = queue.poll();
+            List<Map.Entry<AbstractMapIngredient, Either<Recipe, Branch>>> entries = new ObjectArrayList<>();
+            if (!branch.isEmptyBranch()) {
+                entries.addAll(branch.getNodes().entrySet());
+                entries.addAll(branch.getSpecialNodes().entrySet());
+            }
+
+            // pack each edge into a long so the edges can be sorted by key without boxing
+            long[] edges = new long[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                Map.Entry<AbstractMapIngredient, Either<Recipe, Branch>> entry = entries.get(i);
+                int key = ingredientIds.getInt(entry.getKey());
+                if (key == -1) {
+                    key = ingredients.size();
+                    ingredientIds.put(entry.getKey(), key);
+                    ingredients.add(entry.getKey());
+                }
+
+                int target;
+                Either<Recipe, Branch> value = entry.getValue();
+                if (value.left().isPresent()) {
+                    Recipe recipe = value.left().get();
+                    int recipeId = recipeIds.getInt(recipe);
+                    if (recipeId == -1) {
+                        recipeId = recipes.size();
+                        recipeIds.put(recipe, recipeId);
+                        recipes.add(recipe);
+                    }
+                    target = ~recipeId;
+                } else {
+                    Branch child = value.right().get();
+                    target = nodeIds.getInt(child);
+                    if (target == -1) {
+                        target = nodes.size();
+                        nodeIds.put(child, target);
+                        nodes.add(child);
+                        queue.add(child);
+                    }
+                }
+                edges[i] = ((long) key << 32) | (target & 0xFFFFFFFFL);
+            }
+            Arrays.sort(edges);
+            nodeEdges.add(edges);
+        }
+
+        // nodes are numbered in the order they were dequeued, so the edge ranges can be laid out sequentially
+        for (long[] edges : nodeEdges) {
+            nodeOffsets.add(edgeKeys.size());
+            for (long edge : edges) {
+                edgeKeys.add((int) (edge >>> 32));
+                edgeTargets.add((int) edge);
+            }
+        }
+        nodeOffsets.add(edgeKeys.size());
+
+        AbstractMapIngredient[] ingredientArray = ingredients.toArray(new AbstractMapIngredient[0]);
+        return new RecipeLookupIndex(ingredientArray, hashIngredients(ingredientArray),
+                recipes.toArray(new Recipe[0]), nodeOffsets.toIntArray(), edgeKeys.toIntArray(),
+                edgeTargets.toIntArray());
+    }
+
+    /**
+     * Restore an index written by {@link #writeStructure(NBTTagCompound)}.
+     *
+     * @param ingredients the ingredients of the index, in the order of {@link #getIngredient(int)}
+     * @param recipes     the recipes of the index, in the order of {@link #getRecipe(int)}
+     * @param tag         the tag the structure was written to
+     * @return the restored index
+     * @throws IllegalArgumentException if the structure does not fit the ingredients and recipes
+     */
+    public static @NotNull RecipeLookupIndex restore(@NotNull AbstractMapIngredient @NotNull [] ingredients,
+                                                     @NotNull Recipe @NotNull [] recipes,
+                                                     @NotNull NBTTagCompound tag) {
+        int[] nodeOffsets = tag.getIntArray("NodeOffsets");
+        int[] edgeKeys = tag.getIntArray("EdgeKeys");
+        int[] edgeTargets = tag.getIntArray("EdgeTargets");
+
+        // validate the structure, so a lookup can never index out of bounds
+        if (nodeOffsets.length == 0 || nodeOffsets[0] != 0 || edgeKeys.length != edgeTargets.length ||
+                nodeOffsets[nodeOffsets.length - 1] != edgeKeys.length) {
+            throw new IllegalArgumentException("Invalid node offsets");
+        }
+        for (int i = 1; i < nodeOffsets.length; i++) {
+            if (nodeOffsets[i] < nodeOffsets[i - 1]) throw new IllegalArgumentException("Invalid node offsets");
+        }
+        int nodes = nodeOffsets.length - 1;
+        for (int i = 0; i < edgeKeys.length; i++) {
+            int target = edgeTargets[i];
+            if (edgeKeys[i] < 0 || edgeKeys[i] >= ingredients.length ||
+                    (target < 0 ? ~target >= recipes.length : target >= nodes)) {
+                throw new IllegalArgumentException("Invalid edge " + i);
+            }
+        }
+        return new RecipeLookupIndex(ingredients, hashIngredients(ingredients), recipes, nodeOffsets, edgeKeys,
+                edgeTargets);
+    }
+
+    private static @NotNull Int2ObjectOpenHashMap<int[]> hashIngredients(@NotNull AbstractMapIngredient[] ingredients) {
+        Int2ObjectOpenHashMap<int[]> idsByHash = new Int2ObjectOpenHashMap<>(ingredients.length);
+        for (int i = 0; i < ingredients.length; i++) {
+            int hash = ingredients[i].hashCode();
+            int[] existing = idsByHash.get(hash);
+            if (existing == null) {
+                idsByHash.put(hash, new int[] { i });
+            } else {
+                int[] ids = Arrays.copyOf(existing, existing.length + 1);
+                ids[existing.length] = i;
+                idsByHash.put(hash, ids);
+            }
+        }
+        idsByHash.trim();
+        return idsByHash;
+    }
+
+    /**
+     * Write the structure of this index. Ingredients and recipes are not written, and have to be supplied in the
+     * same order when the index is {@link #restore(AbstractMapIngredient[], Recipe[], NBTTagCompound) restored}.
+     *
+     * @param tag the tag to write to
+     */
+    public void writeStructure(@NotNull NBTTagCompound tag) {
+        tag.setIntArray("NodeOffsets", nodeOffsets);
+        tag.setIntArray("EdgeKeys", edgeKeys);
+        tag.setIntArray("EdgeTargets", edgeTargets);
+    }
+
+    /**
+     * Finds a recipe using prepared ingredients.
+     *
+     * @param ingredients the ingredients to search with, one list of alternatives per input
+     * @param canHandle   a predicate for determining if a recipe is valid
+     * @param buffer      the buffer holding the search, used as scratch space
+     * @return the recipe found
+     */
+    public @Nullable Recipe find(@NotNull List<List<AbstractMapIngredient>> ingredients,
+                                 @NotNull Predicate<Recipe> canHandle, @NotNull RecipeLookupBuffer buffer) {
+        int size = ingredients.size();
+        if (size == 0) return null;
+
+        resolve(ingredients, buffer);
+
+        // Try each ingredient as a starting point, adding it to the skip-list.
+        // The skip-list is a packed long, where each 1 bit represents an index to skip
+        for (int i = 0; i < size; i++) {
+            Recipe r = find(buffer, size, 0, canHandle, i, 0, 1L << i);
+            if (r != null) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the ids of every interned ingredient matched by each input into the buffer. The ids for input {@code i}
+     * are stored from {@code candidateOffsets[i]} up to {@code candidateOffsets[i + 1]}.
+     *
+     * @param ingredients the ingredients to resolve, one list of alternatives per input
+     * @param buffer      the buffer to resolve into
+     */
+    private void resolve(@NotNull List<List<AbstractMapIngredient>> ingredients, @NotNull RecipeLookupBuffer buffer) {
+        int size = ingredients.size();
+        if (buffer.candidateOffsets.length < size + 1) {
+            buffer.candidateOffsets = new int[Math.max(size + 1, buffer.candidateOffsets.length * 2)];
+        }
+
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            buffer.candidateOffsets[i] = count;
+            List<AbstractMapIngredient> alternatives = ingredients.get(i);
+            for (int j = 0; j < alternatives.size(); j++) {
+                AbstractMapIngredient alternative = alternatives.get(j);
+                int[] ids = idsByHash.get(alternative.hashCode());
+                if (ids == null) continue;
+                boolean specialAlternative = alternative.isSpecialIngredient();
+                for (int id : ids) {
+                    // only match keys from the nodes the query would be looked up in,
+                    // and the query must be the receiver, matching the semantics of the hash map lookup it replaces
+                    if (special[id] == specialAlternative && alternative.equals(this.ingredients[id])) {
+                        if (count == buffer.candidateIds.length) {
+                            buffer.candidateIds = Arrays.copyOf(buffer.candidateIds, count * 2);
+                        }
+                        buffer.candidateIds[count++] = id;
+                    }
+                }
+            }
+        }
+        buffer.candidateOffsets[size] = count;
+    }
+
+    /**
+     * Recursively finds a recipe
+     *
+     * @param buffer    the buffer holding the resolved ingredient ids for each input
+     * @param size      the amount of inputs
+     * @param node      the current node of the index
+     * @param canHandle predicate to test found recipe.
+     * @param index     the index of the input to use
+     * @param count     how deep we are in recursion, < size
+     * @param skip      bitmap of inputs to skip, i.e. which inputs are already used in the recursion.
+     * @return a recipe
+     */
+    private @Nullable Recipe find(@NotNull RecipeLookupBuffer buffer, int size, int node,
+                                  @NotNull Predicate<Recipe> canHandle, int index, int count, long skip) {
+        // exhausted all the ingredients, and didn't find anything
+        if (count == size) return null;
+
+        int end = buffer.candidateOffsets[index + 1];
+        for (int c = buffer.candidateOffsets[index]; c < end; c++) {
+            int edge = findEdge(node, buffer.candidateIds[c]);
+            if (edge < 0) continue;
+
+            int target = edgeTargets[edge];
+            if (target < 0) {
+                // a recipe is present, return it immediately if it can be handled
+                Recipe recipe = recipes[~target];
+                if (canHandle.test(recipe)) {
+                    return recipe;
+                }
+            } else {
+                Recipe r = dive(buffer, size, target, canHandle, index, count, skip);
+                if (r != null) {
+                    return r;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Continues the search in a child node with every input which has not been used yet.
+     *
+     * @param buffer       the buffer holding the resolved ingredient ids for each input
+     * @param size         the amount of inputs
+     * @param node         the node to continue in
+     * @param canHandle    predicate to test found recipe.
+     * @param currentIndex the index of the input used to reach the node
+     * @param count        how deep we are in recursion, < size
+     * @param skip         bitmap of inputs to skip, i.e. which inputs are already used in the recursion.
+     * @return a recipe
+     */
+    private @Nullable Recipe dive(@NotNull RecipeLookupBuffer buffer, int size, int node,
+                                  @NotNull Predicate<Recipe> canHandle, int currentIndex, int count, long skip) {
+        // We loop around size if we reach the end.
+        // only end when all inputs are exhausted, or a recipe is found
+        int i = (currentIndex + 1) % size;
+        while (i != currentIndex) {
+            if ((skip & (1L << i)) == 0) {
+                Recipe found = find(buffer, size, node, canHandle, i, count + 1, skip | (1L << i));
+                if (found != null) {
+                    return found;
+                }
+            }
+            i = (i + 1) % size;
+        }
+        return null;
+    }
+
+    /**
+     * @param node the node to search
+     * @param id   the ingredient id to search for
+     * @return the index of the edge, or a negative value if the node has no edge for the ingredient
+     */
+    private int findEdge(int node, int id) {
+        int low = nodeOffsets[node];
+        int high = nodeOffsets[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int key = edgeKeys[mid];
+            if (key < id) {
+                low = mid + 1;
+            } else if (key > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param id the id of the ingredient
+     * @return the interned ingredient
+     */
+    public @NotNull AbstractMapIngredient getIngredient(int id) {
+        return ingredients[id];
+    }
+
+    /**
+     * @param id the id of the recipe
+     * @return the recipe
+     */
+    public @NotNull Recipe getRecipe(int id) {
+        return recipes[id];
+    }
+
+    /**
+     * @return the amount of distinct recipes in the index
+     */
+    public int getRecipeCount() {
+        return recipes.length;
+    }
+
+    /**
+     * @return the amount of distinct ingredients in the index
+     */
+    public int getIngredientCount() {
+        return ingredients.length;
+    }
+
+    /**
+     * @return the amount of nodes in the index
+     */
+    public int getNodeCount() {
+        return nodeOffsets.length - 1;
+    }
+}
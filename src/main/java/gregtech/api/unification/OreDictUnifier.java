@@ -24,6 +24,7 @@ import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import java.util.*;
 import java.util.function.Function;
@@ -40,6 +41,9 @@ public class OreDictUnifier {
     private static final Map<Item, ItemVariantMap.Mutable<Set<String>>> stackOreDictName = new Object2ObjectOpenHashMap<>();
     private static final Map<String, List<ItemStack>> oreDictNameStacks = new Object2ObjectOpenHashMap<>();
 
+    /** Incremented whenever an ore dictionary entry is registered or removed */
+    private static int registrationGeneration;
+
     @Nullable
     private static Comparator<ItemAndMetadata> stackComparator;
 
@@ -87,6 +91,7 @@ public class OreDictUnifier {
 
     @SubscribeEvent
     public static void onItemRegistration(OreRegisterEvent event) {
+        registrationGeneration++;
         String oreName = event.getName();
         // cache this registration by name
         ItemVariantMap.Mutable<Set<String>> entry = stackOreDictName.computeIfAbsent(event.getOre().getItem(),
@@ -159,6 +164,52 @@ public class OreDictUnifier {
         }
     }
 
+    /**
+     * Undo a registration made by {@link #onItemRegistration(OreRegisterEvent)}, so tests registering their own ore
+     * dictionary entries do not leave them behind for other tests.
+     *
+     * @param oreName   the ore dictionary name
+     * @param itemStack the registered item
+     */
+    @VisibleForTesting
+    public static void removeRegistration(@NotNull String oreName, @NotNull ItemStack itemStack) {
+        registrationGeneration++;
+        ItemVariantMap.Mutable<Set<String>> entry = stackOreDictName.get(itemStack.getItem());
+        if (entry != null) {
+            Set<String> names = entry.get(itemStack);
+            if (names != null && names.remove(oreName) && names.isEmpty()) {
+                entry.put(itemStack, null);
+                if (entry.isEmpty()) stackOreDictName.remove(itemStack.getItem());
+            }
+        }
+        List<ItemStack> stacks = oreDictNameStacks.get(oreName);
+        if (stacks != null) {
+            stacks.removeIf(stack -> stack.getItem() == itemStack.getItem() &&
+                    stack.getItemDamage() == itemStack.getItemDamage());
+            if (stacks.isEmpty()) oreDictNameStacks.remove(oreName);
+        }
+
+        ItemAndMetadata key = new ItemAndMetadata(itemStack);
+        UnificationEntry unificationEntry = stackUnificationInfo.get(key);
+        if (unificationEntry != null && oreName.equals(unificationEntry.toString())) {
+            stackUnificationInfo.remove(key);
+            List<ItemAndMetadata> items = stackUnificationItems.get(unificationEntry);
+            if (items != null) {
+                items.remove(key);
+                if (items.isEmpty()) stackUnificationItems.remove(unificationEntry);
+            }
+        }
+    }
+
+    /**
+     * Caches derived from the ore dictionary must be discarded when this value changes.
+     *
+     * @return a value which changes whenever an ore dictionary entry is registered or removed
+     */
+    public static int getRegistrationGeneration() {
+        return registrationGeneration;
+    }
+
     @NotNull
     public static Set<String> getOreDictionaryNames(@NotNull ItemStack itemStack) {
         if (itemStack.isEmpty()) return Collections.emptySet();
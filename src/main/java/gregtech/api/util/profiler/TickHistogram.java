@@ -0,0 +1,92 @@
+package gregtech.api.util.profiler;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative values, such as tick times in nanoseconds.
+ * <p>
+ * Values are recorded into buckets of exponentially growing width, so every value is kept with a relative precision of
+ * 1/8 while only a few hundred counts are stored, no matter how many values are recorded.
+ */
+public final class TickHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private int[] counts = new int[SUB_BUCKETS * 4];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * @param value the value to record, negative values are recorded as 0
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        int index = indexOf(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index]++;
+        count++;
+        total += value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * @return the amount of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the recorded values
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the largest recorded value
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean of the recorded values
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 1
+     * @return an upper bound of the value at the percentile, which is never larger than the largest recorded value
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(lowerBound(i + 1) - 1, max);
+            }
+        }
+        return max;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+}
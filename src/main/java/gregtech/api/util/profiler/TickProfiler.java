@@ -0,0 +1,358 @@
+package gregtech.api.util.profiler;
+
+import gregtech.api.GTValues;
+import gregtech.api.cover.CoverDefinition;
+import gregtech.api.util.GTLog;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import com.github.bsideup.jabel.Desugar;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Attributes the server tick time spent by MetaTileEntities, their traits and covers, and by pipes to their type, and
+ * to the dimension and chunk they are in.
+ * <p>
+ * Only a single profiling session can be active at once. Outside a session, the profiled code only checks
+ * {@link #isProfiling()}. Allocations are only measured for MetaTileEntities and pipes, and only if the JVM supports
+ * measuring the allocations of a thread.
+ */
+@EventBusSubscriber(modid = GTValues.MODID)
+public final class TickProfiler {
+
+    private static final com.sun.management.ThreadMXBean THREADS = createThreadBean();
+
+    private static final Comparator<Result> SLOWEST_FIRST = Comparator
+            .comparingLong((Result result) -> result.histogram().getTotal()).reversed();
+
+    private static TickProfiler active;
+
+    private final int duration;
+    private final Consumer<@NotNull TickProfiler> onFinish;
+    private final long startTime = System.nanoTime();
+    private long endTime;
+    private int ticks;
+
+    private final Map<Category, Map<Object, Entry>> sources = new EnumMap<>(Category.class);
+    private final Int2ObjectMap<Entry> dimensions = new Int2ObjectOpenHashMap<>();
+    private final Int2ObjectMap<Long2ObjectMap<Entry>> chunks = new Int2ObjectOpenHashMap<>();
+
+    private TickProfiler(int duration, @NotNull Consumer<@NotNull TickProfiler> onFinish) {
+        this.duration = duration;
+        this.onFinish = onFinish;
+        for (Category category : Category.values()) {
+            this.sources.put(category, new Object2ObjectOpenHashMap<>());
+        }
+    }
+
+    /**
+     * Start a profiling session
+     *
+     * @param duration the amount of ticks to profile for
+     * @param onFinish called with the profiler once the session is finished or stopped
+     * @return if the session was started, false if another session is active
+     */
+    public static boolean start(int duration, @NotNull Consumer<@NotNull TickProfiler> onFinish) {
+        if (active != null) return false;
+        active = new TickProfiler(duration, onFinish);
+        GTLog.logger.info("[Profiler] Started profiling for {} ticks", duration);
+        return true;
+    }
+
+    /**
+     * Stop the active profiling session
+     *
+     * @return if a session was stopped
+     */
+    public static boolean stop() {
+        TickProfiler profiler = active;
+        if (profiler == null) return false;
+        active = null;
+        profiler.endTime = System.nanoTime();
+        GTLog.logger.info("[Profiler] Finished profiling after {} ticks", profiler.ticks);
+        profiler.onFinish.accept(profiler);
+        return true;
+    }
+
+    /**
+     * @return if a profiling session is active
+     */
+    public static boolean isProfiling() {
+        return active != null;
+    }
+
+    /**
+     * @return the amount of bytes allocated by the current thread, or 0 if it cannot be measured
+     */
+    public static long getAllocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Record the time spent by a source in the active session
+     *
+     * @param category  the category of the source
+     * @param source    the type of the source, such as its class
+     * @param world     the world the source is in
+     * @param pos       the position of the source, or null if it has none
+     * @param time      the time spent, in nanoseconds
+     * @param allocated the amount of bytes allocated, ignored for nested categories
+     */
+    public static void record(@NotNull Category category, @NotNull Object source, @NotNull World world,
+                              @Nullable BlockPos pos, long time, long allocated) {
+        TickProfiler profiler = active;
+        if (profiler != null) {
+            profiler.add(category, source, world, pos, time, allocated);
+        }
+    }
+
+    private void add(@NotNull Category category, @NotNull Object source, @NotNull World world, @Nullable BlockPos pos,
+                     long time, long allocated) {
+        Map<Object, Entry> entries = sources.get(category);
+        Entry entry = entries.get(source);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(source, entry);
+        }
+        entry.histogram.record(time);
+        // nested sources are already part of the time of their holder
+        if (category.nested) return;
+        entry.allocated += allocated;
+
+        int dimension = world.provider.getDimension();
+        Entry dimensionEntry = dimensions.get(dimension);
+        if (dimensionEntry == null) {
+            dimensionEntry = new Entry();
+            dimensions.put(dimension, dimensionEntry);
+        }
+        dimensionEntry.tickTime += time;
+        dimensionEntry.allocated += allocated;
+
+        if (pos != null) {
+            Long2ObjectMap<Entry> dimensionChunks = chunks.get(dimension);
+            if (dimensionChunks == null) {
+                dimensionChunks = new Long2ObjectOpenHashMap<>();
+                chunks.put(dimension, dimensionChunks);
+            }
+            long chunk = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+            Entry chunkEntry = dimensionChunks.get(chunk);
+            if (chunkEntry == null) {
+                chunkEntry = new Entry();
+                dimensionChunks.put(chunk, chunkEntry);
+            }
+            chunkEntry.tickTime += time;
+            chunkEntry.allocated += allocated;
+        }
+    }
+
+    private void endTick() {
+        ticks++;
+        // dimensions and chunks record the total time of every tick, including ticks they took no time in
+        for (Entry entry : dimensions.values()) {
+            entry.endTick();
+        }
+        for (Long2ObjectMap<Entry> dimensionChunks : chunks.values()) {
+            for (Entry entry : dimensionChunks.values()) {
+                entry.endTick();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        TickProfiler profiler = active;
+        if (profiler != null && event.phase == TickEvent.Phase.END) {
+            profiler.endTick();
+            if (profiler.ticks >= profiler.duration) {
+                stop();
+            }
+        }
+    }
+
+    /**
+     * @return the amount of profiled ticks
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return the amount of seconds profiled for
+     */
+    public double getSeconds() {
+        return ((endTime == 0 ? System.nanoTime() : endTime) - startTime) / 1e9;
+    }
+
+    /**
+     * @param category the category
+     * @return the results of the sources of the category, with the slowest first
+     */
+    public @NotNull List<Result> getResults(@NotNull Category category) {
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<Object, Entry> entry : sources.get(category).entrySet()) {
+            results.add(createResult(category.getName(), getSourceName(entry.getKey()), entry.getValue(),
+                    !category.nested));
+        }
+        results.sort(SLOWEST_FIRST);
+        return results;
+    }
+
+    /**
+     * @return the results of the time spent per tick in each dimension, with the slowest first
+     */
+    public @NotNull List<Result> getDimensionResults() {
+        List<Result> results = new ArrayList<>();
+        for (Int2ObjectMap.Entry<Entry> entry : dimensions.int2ObjectEntrySet()) {
+            results.add(createResult("Dimension", String.valueOf(entry.getIntKey()), entry.getValue(), true));
+        }
+        results.sort(SLOWEST_FIRST);
+        return results;
+    }
+
+    /**
+     * @return the results of the time spent per tick in each chunk, with the slowest first
+     */
+    public @NotNull List<Result> getChunkResults() {
+        List<Result> results = new ArrayList<>();
+        for (Int2ObjectMap.Entry<Long2ObjectMap<Entry>> dimension : chunks.int2ObjectEntrySet()) {
+            for (Long2ObjectMap.Entry<Entry> entry : dimension.getValue().long2ObjectEntrySet()) {
+                long chunk = entry.getLongKey();
+                // the chunk coordinates are packed like ChunkPos#asLong
+                String name = dimension.getIntKey() + " [" + (int) chunk + " " + (int) (chunk >> 32) + "]";
+                results.add(createResult("Chunk", name, entry.getValue(), true));
+            }
+        }
+        results.sort(SLOWEST_FIRST);
+        return results;
+    }
+
+    /**
+     * Write every result to a csv file
+     *
+     * @param path the path of the file
+     * @throws IOException if the file could not be written
+     */
+    public void writeResults(@NotNull Path path) throws IOException {
+        try (FileWriter writer = new FileWriter(path.toFile())) {
+            writer.append("Type,Name,Samples,Total (ms),Mean (us),P50 (us),P99 (us),Max (us),Allocated (MB/s)\n");
+            List<Result> results = new ArrayList<>();
+            for (Category category : Category.values()) {
+                results.addAll(getResults(category));
+            }
+            results.addAll(getDimensionResults());
+            results.addAll(getChunkResults());
+            for (Result result : results) {
+                TickHistogram histogram = result.histogram();
+                writer.append(result.type()).append(',')
+                        .append(result.name()).append(',')
+                        .append(String.valueOf(histogram.getCount())).append(',')
+                        .append(String.valueOf(histogram.getTotal() / 1e6)).append(',')
+                        .append(String.valueOf(histogram.getMean() / 1e3)).append(',')
+                        .append(String.valueOf(histogram.getPercentile(0.5) / 1e3)).append(',')
+                        .append(String.valueOf(histogram.getPercentile(0.99) / 1e3)).append(',')
+                        .append(String.valueOf(histogram.getMax() / 1e3)).append(',');
+                if (result.allocationRate() >= 0) {
+                    writer.append(String.valueOf(result.allocationRate() / 1e6));
+                }
+                writer.append('\n');
+            }
+        }
+    }
+
+    private @NotNull Result createResult(@NotNull String type, @NotNull String name, @NotNull Entry entry,
+                                         boolean allocationTracked) {
+        double allocationRate = allocationTracked && THREADS != null ? entry.allocated / getSeconds() : -1;
+        return new Result(type, name, entry.histogram, allocationRate);
+    }
+
+    private static @NotNull String getSourceName(@NotNull Object source) {
+        if (source instanceof Class<?>clazz) return clazz.getName();
+        if (source instanceof CoverDefinition definition) return definition.getResourceLocation().toString();
+        return source.toString();
+    }
+
+    private static com.sun.management.ThreadMXBean createThreadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            try {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            } catch (UnsupportedOperationException | SecurityException e) {
+                GTLog.logger.warn("[Profiler] Allocations cannot be measured", e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The categories of profiled sources
+     */
+    public enum Category {
+
+        META_TILE_ENTITY("MetaTileEntity", false),
+        TRAIT("Trait", true),
+        COVER("Cover", true),
+        PIPE("Pipe", false);
+
+        private final String name;
+        /** If the time of sources in this category is part of the time of another source */
+        private final boolean nested;
+
+        Category(@NotNull String name, boolean nested) {
+            this.name = name;
+            this.nested = nested;
+        }
+
+        public @NotNull String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The result of a profiled source or area
+     *
+     * @param type           the type of the result
+     * @param name           the name of the source or area
+     * @param histogram      the histogram of the time spent, in nanoseconds
+     * @param allocationRate the bytes allocated per second, or -1 if it was not measured
+     */
+    @Desugar
+    public record Result(@NotNull String type, @NotNull String name, @NotNull TickHistogram histogram,
+                         double allocationRate) {}
+
+    private static final class Entry {
+
+        private final TickHistogram histogram = new TickHistogram();
+        private long allocated;
+        /** The time spent during the current tick, only used for areas */
+        private long tickTime;
+
+        private void endTick() {
+            histogram.record(tickTime);
+            tickTime = 0;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.google.common.cache.CacheBuilder;
 import it.unimi.dsi.fastutil.longs.*;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import org.apache.commons.lang3.tuple.MutablePair;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.Map.Entry;
@@ -175,7 +176,8 @@ public class CachedGridEntry implements GridEntryInfo, IBlockGeneratorAccess, IB
         ChunkDataEntry chunkDataEntry = dataByChunkPos.get(chunkId);
         GTWorldGenCapability capability = retrieveCapability(world, chunkX, chunkZ);
         capability.setFrom(masterEntry);
-        if (chunkDataEntry != null && chunkDataEntry.populateChunk(world)) {
+        ChunkOreCensus census = world.getChunk(chunkX, chunkZ).getCapability(ChunkOreCensus.CAPABILITY, null);
+        if (chunkDataEntry != null && chunkDataEntry.populateChunk(world, census)) {
             for (OreDepositDefinition definition : chunkDataEntry.generatedOres) {
                 IVeinPopulator veinPopulator = definition.getVeinPopulator();
                 if (veinPopulator instanceof VeinChunkPopulator) {
@@ -345,7 +347,7 @@ public class CachedGridEntry implements GridEntryInfo, IBlockGeneratorAccess, IB
             longList.add(blockIndex);
         }
 
-        public boolean populateChunk(World world) {
+        public boolean populateChunk(World world, @Nullable ChunkOreCensus census) {
             MutableBlockPos blockPos = new MutableBlockPos();
             boolean generatedAnything = false;
             for (Map.Entry<OreDepositDefinition, MutablePair<LongList, Integer>> entry : oreBlocks.entrySet()) {
@@ -379,6 +381,7 @@ public class CachedGridEntry implements GridEntryInfo, IBlockGeneratorAccess, IB
                     }
                     // set flags as 16 to avoid observer updates loading neighbour chunks
                     world.setBlockState(blockPos, newState, 16);
+                    if (census != null) census.setBlock(blockX, blockY, blockZ, newState);
                     generatedBlocks.add(Block.getStateId(newState));
                     generatedOreVein = true;
                     generatedAnything = true;
@@ -0,0 +1,372 @@
+package gregtech.api.worldgen.generator;
+
+import gregtech.api.unification.OreDictUnifier;
+import gregtech.api.unification.ore.OrePrefix;
+import gregtech.api.unification.ore.StoneType;
+import gregtech.api.unification.stack.MaterialStack;
+import gregtech.api.util.GTUtility;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.Capability.IStorage;
+import net.minecraftforge.common.capabilities.CapabilityInject;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.util.BlockSnapshot;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.common.util.INBTSerializable;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Per-chunk index of the ore blocks in a chunk, by their position and ore name.
+ * <p>
+ * A populated chunk is scanned when its ores are first requested, and the result is saved with the chunk. Afterwards,
+ * the census is kept up to date by ore generation, and by blocks placed by players. Removed ores, including ores broken
+ * by players, are detected when the ores are requested, by checking each known ore is still in place. The break event
+ * is not used for this, as it is fired before the block is removed, and the harvest may still fail afterwards. Ores
+ * added without an event, such as by pistons or commands, are picked up when the census is scanned again, which
+ * happens once it is older than {@link #RESCAN_INTERVAL}, when {@link #CENSUS_VERSION} changes, or after
+ * {@link #invalidate()}.
+ */
+@EventBusSubscriber
+public class ChunkOreCensus {
+
+    /** Version of the saved census, increase it to rescan every chunk when the way ores are detected changes */
+    private static final int CENSUS_VERSION = 1;
+    /** Ticks after which a census is scanned again */
+    private static final long RESCAN_INTERVAL = 24000;
+    /** Cached value of {@link #ORE_NAMES} for blocks which are not ores */
+    private static final Object NOT_AN_ORE = new Object();
+
+    /** Ore names by block state, or {@link #NOT_AN_ORE} */
+    private static final Reference2ObjectOpenHashMap<IBlockState, Object> ORE_NAMES = new Reference2ObjectOpenHashMap<>();
+    /** The ore dictionary generation {@link #ORE_NAMES} is valid for */
+    private static int oreNamesGeneration = -1;
+
+    private final List<String> names = new ArrayList<>();
+    private final Object2IntOpenHashMap<String> nameIds = new Object2IntOpenHashMap<>();
+    /** Index into {@link #names} by local position, see {@link #indexOf(int, int, int)} */
+    private final Int2IntOpenHashMap ores = new Int2IntOpenHashMap();
+    private boolean scanned;
+    /** The total world time of the last scan */
+    private long scanTime;
+
+    public ChunkOreCensus() {
+        this.nameIds.defaultReturnValue(-1);
+        this.ores.defaultReturnValue(-1);
+    }
+
+    public void readFromNBT(NBTTagCompound tagCompound) {
+        this.names.clear();
+        this.nameIds.clear();
+        this.ores.clear();
+        // censuses saved by an older version are scanned again
+        this.scanned = tagCompound.getBoolean("Scanned") && tagCompound.getInteger("Version") == CENSUS_VERSION;
+        if (!this.scanned) return;
+        this.scanTime = tagCompound.getLong("ScanTime");
+        NBTTagList names = tagCompound.getTagList("Names", Constants.NBT.TAG_STRING);
+        for (int i = 0; i < names.tagCount(); i++) {
+            getNameId(names.getStringTagAt(i));
+        }
+        for (int ore : tagCompound.getIntArray("Ores")) {
+            this.ores.put(ore >>> 16, ore & 0xFFFF);
+        }
+    }
+
+    public NBTTagCompound writeToNBT() {
+        NBTTagCompound tagCompound = new NBTTagCompound();
+        if (!this.scanned) return tagCompound;
+        tagCompound.setBoolean("Scanned", true);
+        tagCompound.setInteger("Version", CENSUS_VERSION);
+        tagCompound.setLong("ScanTime", this.scanTime);
+        // only write the names which are still used
+        Int2IntOpenHashMap writtenIds = new Int2IntOpenHashMap();
+        writtenIds.defaultReturnValue(-1);
+        NBTTagList names = new NBTTagList();
+        int[] ores = new int[this.ores.size()];
+        int i = 0;
+        for (Int2IntMap.Entry entry : this.ores.int2IntEntrySet()) {
+            int id = writtenIds.get(entry.getIntValue());
+            if (id == -1) {
+                id = names.tagCount();
+                writtenIds.put(entry.getIntValue(), id);
+                names.appendTag(new NBTTagString(this.names.get(entry.getIntValue())));
+            }
+            ores[i++] = entry.getIntKey() << 16 | id;
+        }
+        tagCompound.setTag("Names", names);
+        tagCompound.setIntArray("Ores", ores);
+        return tagCompound;
+    }
+
+    /**
+     * @return if the chunk was scanned, and the census contains every ore of the chunk
+     */
+    public boolean isScanned() {
+        return this.scanned;
+    }
+
+    /**
+     * Discard the census, so the chunk is scanned again the next time its ores are requested
+     */
+    public void invalidate() {
+        this.scanned = false;
+        this.ores.clear();
+        this.names.clear();
+        this.nameIds.clear();
+    }
+
+    /**
+     * Record the block at a position, if the census was scanned already
+     *
+     * @param x     the x coordinate within the chunk
+     * @param y     the y coordinate
+     * @param z     the z coordinate within the chunk
+     * @param state the new block at the position
+     * @return if the census was changed
+     */
+    public boolean setBlock(int x, int y, int z, @NotNull IBlockState state) {
+        if (!this.scanned) return false;
+        String name = getOreName(state);
+        int index = indexOf(x, y, z);
+        if (name == null) {
+            return this.ores.remove(index) != -1;
+        }
+        int id = getNameId(name);
+        return this.ores.put(index, id) != id;
+    }
+
+    private int getNameId(@NotNull String name) {
+        int id = this.nameIds.getInt(name);
+        if (id == -1) {
+            id = this.names.size();
+            this.names.add(name);
+            this.nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    private void scan(@NotNull Chunk chunk) {
+        invalidate();
+        for (ExtendedBlockStorage storage : chunk.getBlockStorageArray()) {
+            if (storage == Chunk.NULL_BLOCK_STORAGE || storage.isEmpty()) continue;
+            int baseY = storage.getYLocation();
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        String name = getOreName(storage.get(x, y, z));
+                        if (name != null) {
+                            this.ores.put(indexOf(x, baseY + y, z), getNameId(name));
+                        }
+                    }
+                }
+            }
+        }
+        this.scanned = true;
+        this.scanTime = chunk.getWorld().getTotalWorldTime();
+    }
+
+    /**
+     * Visit each ore of a chunk. The chunk is scanned first if it was not scanned yet, or if its census is outdated.
+     * The census of chunks which are not populated yet is not kept, as more ores may still be generated in them.
+     *
+     * @param chunk    the chunk
+     * @param consumer the consumer of the ores
+     */
+    public static void forEachOre(@NotNull Chunk chunk, @NotNull OreConsumer consumer) {
+        ChunkOreCensus census = chunk.getCapability(CAPABILITY, null);
+        boolean changed = false;
+        if (census == null || !chunk.isTerrainPopulated()) {
+            // scan the chunk without keeping the result
+            census = new ChunkOreCensus();
+            census.scan(chunk);
+        } else if (!census.scanned || chunk.getWorld().getTotalWorldTime() - census.scanTime >= RESCAN_INTERVAL) {
+            census.scan(chunk);
+            changed = true;
+        }
+
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        ObjectIterator<Int2IntMap.Entry> it = census.ores.int2IntEntrySet().iterator();
+        while (it.hasNext()) {
+            Int2IntMap.Entry entry = it.next();
+            int index = entry.getIntKey();
+            int x = index & 15, y = index >> 8, z = index >> 4 & 15;
+            // the ore may have been changed without an event, such as by machines or explosions
+            String name = getOreName(chunk.getBlockState(pos.setPos(x, y, z)));
+            if (name == null) {
+                it.remove();
+                changed = true;
+                continue;
+            }
+            if (!name.equals(census.names.get(entry.getIntValue()))) {
+                entry.setValue(census.getNameId(name));
+                changed = true;
+            }
+            consumer.accept(x, y, z, name);
+        }
+        if (changed) chunk.markDirty();
+    }
+
+    /**
+     * @param state the block
+     * @return the ore dictionary name the block is shown with in the prospector, or null if the block is not an ore
+     */
+    @Nullable
+    public static String getOreName(@NotNull IBlockState state) {
+        int generation = OreDictUnifier.getRegistrationGeneration();
+        if (generation != oreNamesGeneration) {
+            // ore dictionary entries were added since the names were cached
+            ORE_NAMES.clear();
+            oreNamesGeneration = generation;
+        }
+        Object name = ORE_NAMES.get(state);
+        if (name == null) {
+            name = computeOreName(state);
+            ORE_NAMES.put(state, name == null ? NOT_AN_ORE : name);
+        }
+        return name == NOT_AN_ORE ? null : (String) name;
+    }
+
+    @Nullable
+    private static String computeOreName(@NotNull IBlockState state) {
+        ItemStack itemBlock = GTUtility.toItem(state);
+        if (!GTUtility.isOre(itemBlock)) return null;
+        Set<String> oreDictNames = OreDictUnifier.getOreDictionaryNames(itemBlock);
+        String oreDictString = oreDictNames.isEmpty() ? "" : oreDictNames.iterator().next();
+        OrePrefix prefix = OreDictUnifier.getPrefix(itemBlock);
+        if (prefix != null) {
+            for (StoneType type : StoneType.STONE_TYPE_REGISTRY) {
+                if (type.processingPrefix == prefix && type.shouldBeDroppedAsItem) {
+                    return oreDictString;
+                } else if (type.processingPrefix == prefix) {
+                    MaterialStack materialStack = OreDictUnifier.getMaterial(itemBlock);
+                    if (materialStack != null) {
+                        return "ore" + oreDictString.replaceFirst(prefix.name(), "");
+                    }
+                }
+            }
+        }
+        // Probably other mod's ores
+        return oreDictString;
+    }
+
+    private static int indexOf(int x, int y, int z) {
+        return (y & 0xFF) << 8 | (z & 15) << 4 | x & 15;
+    }
+
+    private static void onBlockChanged(@NotNull World world, @NotNull BlockPos pos, @NotNull IBlockState state) {
+        if (world.isRemote || world.isOutsideBuildHeight(pos) || !world.isBlockLoaded(pos)) return;
+        Chunk chunk = world.getChunk(pos);
+        ChunkOreCensus census = chunk.getCapability(CAPABILITY, null);
+        if (census != null && census.setBlock(pos.getX(), pos.getY(), pos.getZ(), state)) {
+            chunk.markDirty();
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockPlace(BlockEvent.PlaceEvent event) {
+        if (event.isCanceled()) return;
+        if (event instanceof BlockEvent.MultiPlaceEvent multiPlaceEvent) {
+            for (BlockSnapshot snapshot : multiPlaceEvent.getReplacedBlockSnapshots()) {
+                onBlockChanged(event.getWorld(), snapshot.getPos(), snapshot.getCurrentBlock());
+            }
+        } else {
+            onBlockChanged(event.getWorld(), event.getPos(), event.getPlacedBlock());
+        }
+    }
+
+    @FunctionalInterface
+    public interface OreConsumer {
+
+        /**
+         * @param x    the x coordinate within the chunk
+         * @param y    the y coordinate
+         * @param z    the z coordinate within the chunk
+         * @param name the ore dictionary name of the ore, see {@link #getOreName(IBlockState)}
+         */
+        void accept(int x, int y, int z, @NotNull String name);
+    }
+
+    @CapabilityInject(ChunkOreCensus.class)
+    public static Capability<ChunkOreCensus> CAPABILITY;
+
+    private static final ResourceLocation CAPABILITY_ID = GTUtility.gregtechId("ore_census");
+
+    public static final Callable<ChunkOreCensus> FACTORY = ChunkOreCensus::new;
+
+    public static final IStorage<ChunkOreCensus> STORAGE = new IStorage<ChunkOreCensus>() {
+
+        @Override
+        public NBTBase writeNBT(Capability<ChunkOreCensus> capability, ChunkOreCensus instance, EnumFacing side) {
+            return instance.writeToNBT();
+        }
+
+        @Override
+        public void readNBT(Capability<ChunkOreCensus> capability, ChunkOreCensus instance, EnumFacing side,
+                            NBTBase nbt) {
+            instance.readFromNBT((NBTTagCompound) nbt);
+        }
+    };
+
+    private static class OreCensusCapabilityProvider implements ICapabilityProvider,
+                                                     INBTSerializable<NBTTagCompound> {
+
+        private final ChunkOreCensus capabilityInstance = new ChunkOreCensus();
+
+        @Override
+        public boolean hasCapability(@NotNull Capability<?> capability, @Nullable EnumFacing facing) {
+            return capability == CAPABILITY;
+        }
+
+        @Nullable
+        @Override
+        public <T> T getCapability(@NotNull Capability<T> capability, @Nullable EnumFacing facing) {
+            if (capability == CAPABILITY) {
+                return CAPABILITY.cast(capabilityInstance);
+            }
+            return null;
+        }
+
+        @Override
+        public NBTTagCompound serializeNBT() {
+            return capabilityInstance.writeToNBT();
+        }
+
+        @Override
+        public void deserializeNBT(NBTTagCompound nbt) {
+            capabilityInstance.readFromNBT(nbt);
+        }
+    }
+
+    @SubscribeEvent
+    public static void attachChunkCapabilities(AttachCapabilitiesEvent<Chunk> event) {
+        event.addCapability(CAPABILITY_ID, new OreCensusCapabilityProvider());
+    }
+}
@@ -9,8 +9,11 @@ import gregtech.api.block.machines.MachineItemBlock;
 import gregtech.api.items.metaitem.MetaItem;
 import gregtech.api.items.toolitem.IGTTool;
 import gregtech.api.metatileentity.registry.MTERegistry;
+import gregtech.api.pipenet.tickable.TickableWorldPipeNetEventHandler;
 import gregtech.api.recipes.GTRecipeInputCache;
 import gregtech.api.recipes.ModHandler;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.RecipeRegistrationPipeline;
 import gregtech.api.recipes.ingredients.GTRecipeOreInput;
 import gregtech.api.recipes.properties.impl.FusionEUToStartProperty;
 import gregtech.api.unification.material.Material;
@@ -39,6 +42,7 @@ import gregtech.common.pipelike.cable.BlockCable;
 import gregtech.common.pipelike.cable.ItemBlockCable;
 import gregtech.common.pipelike.fluidpipe.BlockFluidPipe;
 import gregtech.common.pipelike.fluidpipe.ItemBlockFluidPipe;
+import gregtech.common.pipelike.fluidpipe.net.WorldFluidPipeNet;
 import gregtech.common.pipelike.itempipe.BlockItemPipe;
 import gregtech.common.pipelike.itempipe.ItemBlockItemPipe;
 import gregtech.common.pipelike.laser.BlockLaserPipe;
@@ -379,6 +383,8 @@ public class CommonProxy {
 
         GTLog.logger.info("Registering recipes...");
 
+        // recipes registered until the late material handlers are done are compiled in parallel, if enabled
+        RecipeRegistrationPipeline.begin();
         GTRecipeManager.load();
     }
 
@@ -398,11 +404,14 @@ public class CommonProxy {
         GTLog.logger.info("Running late material handlers...");
         OrePrefix.runMaterialHandlers();
         GTRecipeManager.loadLatest();
+        RecipeRegistrationPipeline.finish();
 
         // On initial load we need to postpone cache flushing until FMLPostInitializationEvent
         // to account for post-init recipe registration
-        if (Loader.instance().hasReachedState(LoaderState.AVAILABLE))
+        if (Loader.instance().hasReachedState(LoaderState.AVAILABLE)) {
             GTRecipeInputCache.disableCache();
+            RecipeMap.freezeAll();
+        }
     }
 
     @SubscribeEvent
@@ -447,6 +456,7 @@ public class CommonProxy {
 
     public void onLoad() {
         GTDataFixers.init();
+        TickableWorldPipeNetEventHandler.registerTickablePipeNet(WorldFluidPipeNet::getWorldPipeNet);
     }
 
     public void onPostLoad() {
@@ -457,6 +467,7 @@ public class CommonProxy {
 
     public void onLoadComplete() {
         GTRecipeInputCache.disableCache();
+        RecipeMap.freezeAll();
 
         // If JEI and GS is not loaded, refresh ore dict ingredients
         // Not needed if JEI is loaded, as done in the JEI plugin (and this runs after that)
@@ -49,6 +49,18 @@ public class ConfigHolder {
                 "Default: false" })
         public boolean recipeProgressLowEnergy = false;
 
+        @Config.Comment({ "The amount of ticks of completions a Machine running an overclocked 1 tick recipe " +
+                "performs at once, after starting the same recipe repeatedly.",
+                "Inputs for these ticks are consumed at once, and outputs are produced once they have passed.",
+                "Decreases the cost of Machines running very short recipes. Values of 1 or less disable this.",
+                "Default: 1" })
+        @Config.RangeInt(min = 1, max = 100)
+        public int recipeBatchTicks = 1;
+
+        @Config.Comment({ "Whether idle Machines waiting for their inputs or outputs to change should stop ticking " +
+                "until they change.", "Decreases the cost of idle Machines.", "Default: false" })
+        public boolean sleepIdleMachines = false;
+
         @Config.Comment({
                 "Whether to require a Wrench, Wirecutter, or other GregTech tools to break machines, casings, wires, and more.",
                 "Default: false" })
@@ -76,6 +88,33 @@ public class ConfigHolder {
                 "unless placed directly onto another pipe or cable.", "Default: true" })
         public boolean gt6StylePipesCables = true;
 
+        @Config.Comment({ "Whether cables should count the amperage of all transfers through them once per tick, " +
+                "instead of after every transfer.",
+                "Energy is still sent along every route of a producer each tick, only the per-cable amperage " +
+                        "accounting is deferred.",
+                "Improves performance of power grids where many routes share the same cables.",
+                "Overloaded cables heat up once per tick instead of once per transfer.", "Default: false" })
+        public boolean batchedCableTransfers = false;
+
+        @Config.Comment({ "Whether cable networks should find their energy routes on a worker thread, " +
+                "instead of on the server thread.",
+                "Avoids lag spikes when large networks are loaded or changed.",
+                "Cables do not transfer energy from a source until its routes are found.", "Default: false" })
+        public boolean asyncPipeRoutes = false;
+
+        @Config.Comment({ "Whether fluid pipe networks should move fluid directly from the pipes it enters to the " +
+                "blocks it leaves through, instead of from pipe to pipe.",
+                "Greatly improves performance and throughput of long and large fluid pipe networks.",
+                "Pipes along the way still burn, leak, corrode and shatter from the fluid moved through them.",
+                "Default: false" })
+        public boolean netLevelFluidFlow = false;
+
+        @Config.Comment({ "Whether formed multiblocks should only check their structure when a block of it changes, " +
+                "instead of every second.",
+                "Greatly improves performance of bases with many formed multiblocks.",
+                "Unformed multiblocks are still checked every second.", "Default: false" })
+        public boolean eventDrivenStructureChecks = false;
+
         @Config.Comment({ "Minimum distance between Long Distance Item Pipe Endpoints", "Default: 50" })
         public int ldItemPipeMinDistance = 50;
 
@@ -369,6 +408,24 @@ public class ConfigHolder {
 
         @Config.Comment({ "Whether to give the terminal to new players on login", "Default: true" })
         public boolean spawnTerminal = true;
+
+        @Config.Comment({ "Whether recipes should be added to the recipe lookups of their recipe maps in parallel " +
+                "while recipes are registered.",
+                "Decreases loading time with many recipes. Recipe conflicts are still reported in registration order.",
+                "Default: false" })
+        public boolean parallelRecipeRegistration = false;
+
+        @Config.Comment({ "Whether the compiled recipe lookups of recipe maps should be stored on disk, and restored " +
+                "on the next start if the registered recipes and the mod list are unchanged.",
+                "Decreases loading time with many recipes. Snapshots are stored in config/gregtech/recipe_lookups.dat.",
+                "Default: false" })
+        public boolean recipeLookupSnapshots = false;
+
+        @Config.Comment({ "Whether machine and pipe updates should be sent to clients in a single binary packet per " +
+                "chunk at the end of each tick, instead of a tile entity update packet per block.",
+                "Superseded updates, like working state changes, are dropped before they are sent.",
+                "Only needs to be set on the server. Default: false" })
+        public boolean batchedTileEntitySync = false;
     }
 
     public static class ClientOptions {
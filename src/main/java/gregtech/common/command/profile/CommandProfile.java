@@ -0,0 +1,29 @@
+package gregtech.common.command.profile;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraftforge.server.command.CommandTreeBase;
+
+import org.jetbrains.annotations.NotNull;
+
+public class CommandProfile extends CommandTreeBase {
+
+    public CommandProfile() {
+        addSubcommand(new CommandProfileStart());
+        addSubcommand(new CommandProfileStop());
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 3;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return "profile";
+    }
+
+    @Override
+    public @NotNull String getUsage(@NotNull ICommandSender sender) {
+        return "gregtech.command.profile.usage";
+    }
+}
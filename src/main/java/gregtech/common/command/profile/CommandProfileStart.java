@@ -0,0 +1,102 @@
+package gregtech.common.command.profile;
+
+import gregtech.api.GTValues;
+import gregtech.api.util.GTLog;
+import gregtech.api.util.TextFormattingUtil;
+import gregtech.api.util.profiler.TickHistogram;
+import gregtech.api.util.profiler.TickProfiler;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.Style;
+import net.minecraft.util.text.TextComponentTranslation;
+import net.minecraft.util.text.TextFormatting;
+import net.minecraftforge.fml.common.Loader;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class CommandProfileStart extends CommandBase {
+
+    private static final int DEFAULT_SECONDS = 30;
+    private static final int MAX_SECONDS = 600;
+    private static final int REPORTED_SOURCES = 5;
+    private static final int REPORTED_CHUNKS = 3;
+
+    @Override
+    public @NotNull String getName() {
+        return "start";
+    }
+
+    @Override
+    public @NotNull String getUsage(@NotNull ICommandSender sender) {
+        return "gregtech.command.profile.start.usage";
+    }
+
+    @Override
+    public void execute(@NotNull MinecraftServer server, @NotNull ICommandSender sender,
+                        String @NotNull [] args) throws CommandException {
+        int seconds = DEFAULT_SECONDS;
+        if (args.length != 0) {
+            try {
+                seconds = Integer.parseInt(args[0]);
+                if (seconds <= 0 || seconds > MAX_SECONDS) throw new NumberFormatException();
+            } catch (NumberFormatException ignored) {
+                throw new WrongUsageException("gregtech.command.profile.start.usage");
+            }
+        }
+        if (!TickProfiler.start(seconds * 20, profiler -> report(sender, profiler))) {
+            throw new CommandException("gregtech.command.profile.already_running");
+        }
+        sender.sendMessage(new TextComponentTranslation("gregtech.command.profile.started", seconds)
+                .setStyle(new Style().setColor(TextFormatting.GREEN)));
+    }
+
+    private static void report(@NotNull ICommandSender sender, @NotNull TickProfiler profiler) {
+        sender.sendMessage(new TextComponentTranslation("gregtech.command.profile.finished",
+                profiler.getTicks(), TextFormattingUtil.formatNumbers(profiler.getSeconds()))
+                        .setStyle(new Style().setColor(TextFormatting.GREEN)));
+
+        List<TickProfiler.Result> sources = new ArrayList<>();
+        sources.addAll(profiler.getResults(TickProfiler.Category.META_TILE_ENTITY));
+        sources.addAll(profiler.getResults(TickProfiler.Category.PIPE));
+        sources.sort(Comparator.comparingLong((TickProfiler.Result result) -> result.histogram().getTotal())
+                .reversed());
+        for (int i = 0; i < sources.size() && i < REPORTED_SOURCES; i++) {
+            sender.sendMessage(createEntry(sources.get(i)));
+        }
+        List<TickProfiler.Result> chunks = profiler.getChunkResults();
+        for (int i = 0; i < chunks.size() && i < REPORTED_CHUNKS; i++) {
+            sender.sendMessage(createEntry(chunks.get(i)));
+        }
+
+        Path path = Loader.instance().getConfigDir().toPath().resolve(GTValues.MODID).resolve("profile-results.csv");
+        try {
+            profiler.writeResults(path);
+            GTLog.logger.info("[Profiler] Output saved to csv file 'profile-results.csv'");
+            sender.sendMessage(new TextComponentTranslation("gregtech.command.profile.written")
+                    .setStyle(new Style().setColor(TextFormatting.GREEN)));
+        } catch (IOException e) {
+            GTLog.logger.error("[Profiler] Failed to output to csv file 'profile-results.csv' in the config folder",
+                    e);
+        }
+    }
+
+    private static @NotNull TextComponentTranslation createEntry(@NotNull TickProfiler.Result result) {
+        TickHistogram histogram = result.histogram();
+        return new TextComponentTranslation("gregtech.command.profile.entry",
+                result.type(), result.name(),
+                TextFormattingUtil.formatNumbers(histogram.getTotal() / 1_000_000),
+                TextFormattingUtil.formatNumbers(histogram.getPercentile(0.5) / 1_000),
+                TextFormattingUtil.formatNumbers(histogram.getPercentile(0.99) / 1_000),
+                TextFormattingUtil.formatNumbers(histogram.getMax() / 1_000));
+    }
+}
@@ -0,0 +1,31 @@
+package gregtech.common.command.profile;
+
+import gregtech.api.util.profiler.TickProfiler;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+
+import org.jetbrains.annotations.NotNull;
+
+public class CommandProfileStop extends CommandBase {
+
+    @Override
+    public @NotNull String getName() {
+        return "stop";
+    }
+
+    @Override
+    public @NotNull String getUsage(@NotNull ICommandSender sender) {
+        return "gregtech.command.profile.stop.usage";
+    }
+
+    @Override
+    public void execute(@NotNull MinecraftServer server, @NotNull ICommandSender sender,
+                        String @NotNull [] args) throws CommandException {
+        if (!TickProfiler.stop()) {
+            throw new CommandException("gregtech.command.profile.not_running");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package gregtech.common.covers.filter;
 
+import gregtech.api.GTValues;
 import gregtech.api.cover.CoverWithUI;
 import gregtech.api.mui.GTGuiTextures;
 import gregtech.api.mui.GTGuis;
@@ -7,9 +8,9 @@ import gregtech.api.recipes.Recipe;
 import gregtech.api.recipes.RecipeMap;
 import gregtech.api.recipes.RecipeMaps;
 import gregtech.api.recipes.ingredients.GTRecipeInput;
-import gregtech.api.unification.stack.ItemAndMetadata;
 import gregtech.common.covers.filter.readers.SmartItemFilterReader;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.IStringSerializable;
 
@@ -22,10 +23,9 @@ import com.cleanroommc.modularui.value.sync.PanelSyncManager;
 import com.cleanroommc.modularui.widget.Widget;
 import com.cleanroommc.modularui.widgets.ToggleButton;
 import com.cleanroommc.modularui.widgets.layout.Flow;
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import org.jetbrains.annotations.NotNull;
-
-import java.util.Collections;
+import org.jetbrains.annotations.Nullable;
 
 public class SmartItemFilter extends BaseFilter {
 
@@ -46,27 +46,8 @@ public class SmartItemFilter extends BaseFilter {
 
     @Override
     public int getTransferLimit(ItemStack stack, int globalTransferLimit) {
-        ItemAndMetadata itemAndMetadata = new ItemAndMetadata(stack);
-        var filterMode = this.filterReader.getFilteringMode();
-        int cachedTransferRateValue = filterMode.transferStackSizesCache.getOrDefault(itemAndMetadata, -1);
-
-        if (cachedTransferRateValue == -1) {
-            ItemStack infinitelyBigStack = stack.copy();
-            infinitelyBigStack.setCount(Integer.MAX_VALUE);
-
-            Recipe recipe = filterMode.recipeMap.findRecipe(Long.MAX_VALUE,
-                    Collections.singletonList(infinitelyBigStack), Collections.emptyList());
-            if (recipe == null) {
-                filterMode.transferStackSizesCache.put(itemAndMetadata, 0);
-                cachedTransferRateValue = 0;
-            } else {
-                GTRecipeInput inputIngredient = recipe.getInputs().iterator().next();
-                filterMode.transferStackSizesCache.put(itemAndMetadata, inputIngredient.getAmount());
-                cachedTransferRateValue = inputIngredient.getAmount();
-            }
-        }
-
-        return cachedTransferRateValue;
+        return this.filterReader.getFilteringMode().getTransferLimit(Item.getIdFromItem(stack.getItem()),
+                stack.getMetadata());
     }
 
     @Override
@@ -131,27 +112,42 @@ public class SmartItemFilter extends BaseFilter {
         return true;
     }
 
-    private static class ItemAndMetadataAndStackSize {
-
-        public final ItemAndMetadata itemAndMetadata;
-        public final int transferStackSize;
-
-        public ItemAndMetadataAndStackSize(ItemAndMetadata itemAndMetadata, int transferStackSize) {
-            this.itemAndMetadata = itemAndMetadata;
-            this.transferStackSize = transferStackSize;
+    /**
+     * The amounts of items consumed by the recipes of a RecipeMap taking a single item as their only input. The table
+     * is immutable once built, and replaced once recipes are added to or removed from the RecipeMap.
+     */
+    private static final class TransferTable {
+
+        private final int revision;
+        private final Long2IntOpenHashMap amounts = new Long2IntOpenHashMap();
+
+        TransferTable(@NotNull RecipeMap<?> recipeMap) {
+            this.revision = recipeMap.getLookupRevision();
+            for (Recipe recipe : recipeMap.getRecipeList()) {
+                // the filter looks for recipes with the filtered item as their only input
+                if (recipe.getInputs().size() != 1 || !recipe.getFluidInputs().isEmpty()) continue;
+                GTRecipeInput input = recipe.getInputs().get(0);
+                for (ItemStack stack : input.getInputStacks()) {
+                    if (stack.isEmpty()) continue;
+                    long key = key(Item.getIdFromItem(stack.getItem()), stack.getMetadata());
+                    if (!this.amounts.containsKey(key)) {
+                        this.amounts.put(key, input.getAmount());
+                    }
+                }
+            }
+            this.amounts.trim();
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof ItemAndMetadataAndStackSize)) return false;
-            ItemAndMetadataAndStackSize that = (ItemAndMetadataAndStackSize) o;
-            return itemAndMetadata.equals(that.itemAndMetadata);
+        int get(int itemId, int metadata) {
+            int amount = this.amounts.get(key(itemId, metadata));
+            if (amount == 0 && metadata != GTValues.W) {
+                return this.amounts.get(key(itemId, GTValues.W));
+            }
+            return amount;
         }
 
-        @Override
-        public int hashCode() {
-            return itemAndMetadata.hashCode();
+        private static long key(int itemId, int metadata) {
+            return (long) itemId << 32 | (metadata & 0xFFFFFFFFL);
         }
     }
 
@@ -162,15 +158,31 @@ public class SmartItemFilter extends BaseFilter {
         SIFTER("cover.smart_item_filter.filtering_mode.sifter", RecipeMaps.SIFTER_RECIPES);
 
         public static final SmartFilteringMode[] VALUES = values();
-        private final Object2IntOpenHashMap<ItemAndMetadata> transferStackSizesCache = new Object2IntOpenHashMap<>();
         public final String localeName;
         public final RecipeMap<?> recipeMap;
+        @Nullable
+        private volatile TransferTable transferTable;
 
         SmartFilteringMode(String localeName, RecipeMap<?> recipeMap) {
             this.localeName = localeName;
             this.recipeMap = recipeMap;
         }
 
+        /**
+         * @param itemId   the id of the item
+         * @param metadata the metadata of the item
+         * @return the amount of the item consumed by a recipe of this mode, or 0 if there is no such recipe
+         */
+        public int getTransferLimit(int itemId, int metadata) {
+            TransferTable table = this.transferTable;
+            if (table == null || table.revision != this.recipeMap.getLookupRevision()) {
+                // built on first use, and rebuilt once recipes were reloaded
+                table = new TransferTable(this.recipeMap);
+                this.transferTable = table;
+            }
+            return table.get(itemId, metadata);
+        }
+
         @NotNull
         @Override
         public String getName() {
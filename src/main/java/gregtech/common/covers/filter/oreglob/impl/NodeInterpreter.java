@@ -95,7 +95,7 @@ class NodeInterpreter implements NodeVisitor {
     public void chars(int amount, boolean not) {
         if (not) {
             int state = computeMinInputState();
-            for (int i = state + amount; state < i; state++) {
+            for (int i = Math.min(state + amount, this.input.length() + 1); state < i; state++) {
                 this.outputStates.add(state);
             }
             for (state++; state <= this.input.length(); state++) {
@@ -119,7 +119,7 @@ class NodeInterpreter implements NodeVisitor {
             // less than n chars
             while (it.hasNext()) {
                 int state = it.nextInt();
-                for (int i = state; i < state + amount; i++) {
+                for (int i = state; i < state + amount && i <= this.input.length(); i++) {
                     this.outputStates.add(i);
                 }
             }
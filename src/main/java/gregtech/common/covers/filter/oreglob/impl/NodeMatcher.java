@@ -0,0 +1,348 @@
+package gregtech.common.covers.filter.oreglob.impl;
+
+import gregtech.common.covers.filter.oreglob.node.BranchType;
+import gregtech.common.covers.filter.oreglob.node.NodeVisitor;
+import gregtech.common.covers.filter.oreglob.node.OreGlobNode;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled form of node-based oreGlob.
+ * <p>
+ * The node tree is lowered into instructions once, which are evaluated with the same semantics as
+ * {@link NodeInterpreter}. Instead of hash sets, the set of states is stored as the bits of a single {@code long},
+ * so matching an input of up to {@link #MAX_INPUT_LENGTH} characters is an allocation-free loop over the
+ * instructions. Longer inputs are evaluated with {@link NodeInterpreter}.
+ * <p>
+ * Match results are cached per input. Matchers of the same expression are shared through
+ * {@link #get(String, boolean, OreGlobNode)}, so every filter using the expression shares the cached results.
+ */
+final class NodeMatcher {
+
+    /** Max length of inputs evaluated by the compiled instructions; states {@code 0} to {@code 63} fit in a long */
+    static final int MAX_INPUT_LENGTH = Long.SIZE - 1;
+    /** Max amount of match results cached per matcher */
+    private static final int MAX_CACHED_RESULTS = 8192;
+
+    /** Matchers by expression, dropped once no oreGlob instance references them */
+    private static final Cache<String, NodeMatcher> SHARED = CacheBuilder.newBuilder()
+            .weakValues()
+            .build();
+    private static final ThreadLocal<Evaluation> EVALUATION = ThreadLocal.withInitial(Evaluation::new);
+
+    private static final Instruction NOTHING = new Instruction() {
+
+        @Override
+        long apply(Evaluation e, long states) {
+            return 0;
+        }
+    };
+
+    private static final Instruction EMPTY = new Instruction() {
+
+        @Override
+        long apply(Evaluation e, long states) {
+            return states;
+        }
+    };
+
+    private final OreGlobNode root;
+    private final Instruction[] program;
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+
+    NodeMatcher(@NotNull OreGlobNode root) {
+        this.root = root;
+        this.program = compile(root);
+    }
+
+    /**
+     * Get the matcher shared by every oreGlob compiled from the expression.
+     *
+     * @param expression the expression
+     * @param ignoreCase whether the expression was compiled with case-insensitive matches by default
+     * @param root       root node compiled from the expression
+     * @return the shared matcher
+     */
+    @NotNull
+    static NodeMatcher get(@NotNull String expression, boolean ignoreCase, @NotNull OreGlobNode root) {
+        String key = (ignoreCase ? 'i' : 'c') + expression;
+        NodeMatcher matcher = SHARED.getIfPresent(key);
+        if (matcher == null) {
+            matcher = new NodeMatcher(root);
+            SHARED.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    boolean matches(@NotNull String input) {
+        Boolean cached = this.results.get(input);
+        if (cached != null) return cached;
+
+        boolean match = input.length() <= MAX_INPUT_LENGTH ? evaluate(input) :
+                new NodeInterpreter(input).evaluate(this.root).isMatch();
+        if (this.results.size() < MAX_CACHED_RESULTS) this.results.put(input, match);
+        return match;
+    }
+
+    private boolean evaluate(@NotNull String input) {
+        Evaluation e = EVALUATION.get();
+        e.reset(input);
+        try {
+            return (run(this.program, e, 1L) >>> input.length() & 1) != 0;
+        } finally {
+            e.reset(null);
+        }
+    }
+
+    /**
+     * Evaluate instructions of a node and each nodes after it.
+     *
+     * @param program instructions to evaluate
+     * @param e       the evaluation
+     * @param states  input states, which is never empty
+     * @return output states of the last evaluated instruction
+     */
+    private static long run(Instruction[] program, Evaluation e, long states) {
+        long out = 0;
+        for (Instruction instruction : program) {
+            e.lastInput = states;
+            out = instruction.apply(e, states);
+            if (out == 0) break; // If no output states are provided after visiting, the match is aborted
+            states = out;
+        }
+        return out;
+    }
+
+    private static Instruction[] compile(@Nullable OreGlobNode node) {
+        Compiler compiler = new Compiler();
+        while (node != null) {
+            node.visit(compiler);
+            node = node.getNext();
+        }
+        return compiler.instructions.toArray(new Instruction[0]);
+    }
+
+    /**
+     * Per-thread state of an evaluation.
+     */
+    private static final class Evaluation {
+
+        private String input;
+        private int length;
+        /**
+         * States {@link NodeInterpreter} would hold as its input states after the last instruction; negated groups
+         * compute their complement from the smallest of these states.
+         */
+        private long lastInput;
+
+        void reset(@Nullable String input) {
+            this.input = input;
+            this.length = input == null ? 0 : input.length();
+            this.lastInput = 0;
+        }
+
+        int min(long states) {
+            return states == 0 ? this.length : Long.numberOfTrailingZeros(states);
+        }
+
+        /**
+         * @return states from {@code from} to {@code to}, both inclusive, limited to the length of the input
+         */
+        long range(int from, int to) {
+            to = Math.min(to, this.length);
+            if (from > to) return 0;
+            long upper = to == Long.SIZE - 1 ? -1L : (1L << (to + 1)) - 1;
+            return upper & (-1L << from);
+        }
+
+        long all() {
+            return range(0, this.length);
+        }
+
+        /**
+         * Applies logical complement to output states.
+         *
+         * @param in  states the complement is computed from
+         * @param out output states
+         * @return negated output states
+         */
+        long negate(long in, long out) {
+            int min = min(in);
+            // If outputStates is a set of max states, then its complement set is nothing
+            if (Long.bitCount(out) >= this.length - min + 1) return 0;
+            this.lastInput = out;
+            return range(min, this.length) & ~out;
+        }
+    }
+
+    private abstract static class Instruction {
+
+        /**
+         * @param e      the evaluation
+         * @param states input states, which is never empty
+         * @return output states
+         */
+        abstract long apply(Evaluation e, long states);
+    }
+
+    private static final class Compiler implements NodeVisitor {
+
+        private final List<Instruction> instructions = new ArrayList<>();
+
+        @Override
+        public void match(String match, boolean ignoreCase, boolean not) {
+            int length = match.length();
+            this.instructions.add(new Instruction() {
+
+                @Override
+                long apply(Evaluation e, long states) {
+                    long out = 0;
+                    for (long s = states; s != 0; s &= s - 1) {
+                        int state = Long.numberOfTrailingZeros(s);
+                        if (e.input.regionMatches(ignoreCase, state, match, 0, length)) {
+                            out |= 1L << (state + length);
+                        }
+                    }
+                    return not ? e.negate(states, out) : out;
+                }
+            });
+        }
+
+        @Override
+        public void chars(int amount, boolean not) {
+            this.instructions.add(new Instruction() {
+
+                @Override
+                long apply(Evaluation e, long states) {
+                    long shifted = amount >= Long.SIZE ? 0 : states << amount;
+                    if (not) {
+                        int min = e.min(states);
+                        return e.range(min, min + amount - 1) | e.range(min + amount, e.length) & ~shifted;
+                    }
+                    return shifted & e.all();
+                }
+            });
+        }
+
+        @Override
+        public void charsOrMore(int amount, boolean not) {
+            this.instructions.add(new Instruction() {
+
+                @Override
+                long apply(Evaluation e, long states) {
+                    if (not) {
+                        // less than n chars
+                        long out = 0;
+                        for (long s = states; s != 0; s &= s - 1) {
+                            int state = Long.numberOfTrailingZeros(s);
+                            out |= e.range(state, state + amount - 1);
+                        }
+                        return out;
+                    }
+                    return e.range(e.min(states) + amount, e.length);
+                }
+            });
+        }
+
+        @Override
+        public void group(OreGlobNode node, boolean not) {
+            Instruction[] body = compile(node);
+            this.instructions.add(new Instruction() {
+
+                @Override
+                long apply(Evaluation e, long states) {
+                    long out = run(body, e, states);
+                    return not ? e.negate(e.lastInput, out) : out;
+                }
+            });
+        }
+
+        @Override
+        public void branch(BranchType type, List<OreGlobNode> nodes, boolean not) {
+            Instruction[][] branches = new Instruction[nodes.size()][];
+            for (int i = 0; i < branches.length; i++) {
+                branches[i] = compile(nodes.get(i));
+            }
+            this.instructions.add(new Instruction() {
+
+                @Override
+                long apply(Evaluation e, long states) {
+                    long out = 0;
+                    switch (type) {
+                        case OR -> {
+                            long max = e.range(e.min(states), e.length);
+                            for (Instruction[] branch : branches) {
+                                out |= run(branch, e, states);
+                                if (out == max) break; // Already max
+                            }
+                        }
+                        case AND -> {
+                            for (int i = 0; i < branches.length; i++) {
+                                long branchOut = run(branches[i], e, states);
+                                out = i == 0 ? branchOut : out & branchOut;
+                                if (out == 0) break; // Short circuit
+                            }
+                        }
+                        case XOR -> {
+                            for (Instruction[] branch : branches) {
+                                out ^= run(branch, e, states);
+                            }
+                        }
+                        default -> throw new IllegalStateException("Unknown BranchType '" + type + "'");
+                    }
+                    // each branch is evaluated separately, input states of the branch node are left as-is
+                    e.lastInput = states;
+                    return not ? e.negate(states, out) : out;
+                }
+            });
+        }
+
+        @Override
+        public void everything() {
+            this.instructions.add(new Instruction() {
+
+                @Override
+                long apply(Evaluation e, long states) {
+                    return e.range(e.min(states), e.length);
+                }
+            });
+        }
+
+        @Override
+        public void nothing() {
+            // Do not match anything!
+            this.instructions.add(NOTHING);
+        }
+
+        @Override
+        public void nonempty() {
+            this.instructions.add(new Instruction() {
+
+                @Override
+                long apply(Evaluation e, long states) {
+                    return e.range(e.min(states) + 1, e.length);
+                }
+            });
+        }
+
+        @Override
+        public void empty() {
+            // matches 0 chars; match every input state as-is
+            this.instructions.add(EMPTY);
+        }
+
+        @Override
+        public void error() {
+            // Do not match anything!
+            this.instructions.add(NOTHING);
+        }
+    }
+}
@@ -13,9 +13,15 @@ import org.jetbrains.annotations.NotNull;
 public final class NodeOreGlob extends OreGlob {
 
     private final OreGlobNode root;
+    private final NodeMatcher matcher;
 
     public NodeOreGlob(@NotNull OreGlobNode root) {
+        this(root, new NodeMatcher(root));
+    }
+
+    NodeOreGlob(@NotNull OreGlobNode root, @NotNull NodeMatcher matcher) {
         this.root = root;
+        this.matcher = matcher;
     }
 
     @VisibleForTesting
@@ -32,6 +38,6 @@ public final class NodeOreGlob extends OreGlob {
 
     @Override
     public boolean matches(@NotNull String input) {
-        return new NodeInterpreter(input).evaluate(this.root).isMatch();
+        return this.matcher.matches(input);
     }
 }
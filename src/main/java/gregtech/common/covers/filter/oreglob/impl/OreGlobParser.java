@@ -150,7 +150,8 @@ public final class OreGlobParser {
                 error(OreGlobMessages.compileErrorUnexpectedTokenAfterEOF(getTokenSection()));
             }
             if (!error) {
-                return new OreGlobCompileResult(new NodeOreGlob(expr), this.reports);
+                return new OreGlobCompileResult(
+                        new NodeOreGlob(expr, NodeMatcher.get(this.input, this.ignoreCase, expr)), this.reports);
             }
         }
         return new OreGlobCompileResult(ImpossibleOreGlob.getInstance(), this.reports);
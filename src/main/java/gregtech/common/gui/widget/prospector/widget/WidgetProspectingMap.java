@@ -3,14 +3,13 @@ package gregtech.common.gui.widget.prospector.widget;
 import gregtech.api.gui.IRenderContext;
 import gregtech.api.gui.Widget;
 import gregtech.api.unification.OreDictUnifier;
-import gregtech.api.unification.ore.OrePrefix;
-import gregtech.api.unification.ore.StoneType;
 import gregtech.api.unification.stack.MaterialStack;
 import gregtech.api.util.*;
 import gregtech.api.worldgen.bedrockFluids.BedrockFluidVeinHandler;
 import gregtech.api.worldgen.config.OreDepositDefinition;
 import gregtech.api.worldgen.config.WorldGenRegistry;
 import gregtech.api.worldgen.filler.FillerEntry;
+import gregtech.api.worldgen.generator.ChunkOreCensus;
 import gregtech.common.gui.widget.prospector.ProspectingTexture;
 import gregtech.common.gui.widget.prospector.ProspectorMode;
 import gregtech.core.network.packets.PacketProspecting;
@@ -125,47 +124,11 @@ public class WidgetProspectingMap extends Widget {
 
             switch (mode) {
                 case ORE:
-                    BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
-                    for (int x = 0; x < 16; x++) {
-                        for (int z = 0; z < 16; z++) {
-                            int ySize = chunk.getHeightValue(x, z);
-                            for (int y = 1; y < ySize; y++) {
-                                pos.setPos(x, y, z);
-                                IBlockState state = chunk.getBlockState(pos);
-                                ItemStack itemBlock = GTUtility.toItem(state);
-                                if (GTUtility.isOre(itemBlock)) {
-                                    boolean added = false;
-                                    String oreDictString = OreDictUnifier.getOreDictionaryNames(itemBlock).stream()
-                                            .findFirst()
-                                            .orElse("");
-                                    OrePrefix prefix = OreDictUnifier.getPrefix(itemBlock);
-                                    if (prefix != null) {
-                                        for (StoneType type : StoneType.STONE_TYPE_REGISTRY) {
-                                            if (type.processingPrefix == prefix && type.shouldBeDroppedAsItem) {
-                                                packet.addBlock(x, y, z, oreDictString);
-                                                added = true;
-                                                break;
-                                            } else if (type.processingPrefix == prefix) {
-                                                MaterialStack materialStack = OreDictUnifier.getMaterial(itemBlock);
-                                                if (materialStack != null) {
-                                                    String oreDict = "ore" +
-                                                            oreDictString.replaceFirst(prefix.name(), "");
-                                                    packet.addBlock(x, y, z, oreDict);
-                                                    added = true;
-                                                    break;
-                                                }
-                                            }
-                                        }
-                                    }
-                                    // Probably other mod's ores
-                                    if (!added) {
-                                        // Fallback
-                                        packet.addBlock(x, y, z, oreDictString);
-                                    }
-                                }
-                            }
+                    ChunkOreCensus.forEachOre(chunk, (x, y, z, oreDict) -> {
+                        if (y >= 1 && y < chunk.getHeightValue(x, z)) {
+                            packet.addBlock(x, y, z, oreDict);
                         }
-                    }
+                    });
                     break;
                 case FLUID:
                     BedrockFluidVeinHandler.FluidVeinWorldEntry fStack = BedrockFluidVeinHandler
@@ -317,6 +317,7 @@ public class MetaTileEntityProcessingArray extends RecipeMapMultiblockController
                 findMachineStack();
                 machineChanged = false;
                 previousRecipe = null;
+                invalidateRecipeSearchCache();
                 if (isDistinct()) {
                     invalidatedInputList.clear();
                 } else {
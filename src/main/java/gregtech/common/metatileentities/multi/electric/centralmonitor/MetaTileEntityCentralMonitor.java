@@ -127,9 +127,9 @@ public class MetaTileEntityCentralMonitor extends MultiblockWithDisplayBase impl
         }
         lastUpdate = energyNet.getLastUpdate();
         activeNodes.clear();
-        energyNet.getAllNodes().forEach((pos, node) -> {
+        energyNet.forEachNode((pos, node) -> {
             if (node.isActive) {
-                activeNodes.add(pos);
+                activeNodes.add(BlockPos.fromLong(pos));
             }
         });
     }
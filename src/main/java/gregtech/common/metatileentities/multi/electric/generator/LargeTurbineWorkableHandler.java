@@ -111,6 +111,12 @@ public class LargeTurbineWorkableHandler extends MultiblockFuelRecipeLogic {
         return super.checkPreviousRecipe() && canDoRecipeWithParallel(this.previousRecipe);
     }
 
+    @Override
+    protected boolean canCacheRecipeSearch() {
+        // the recipe search depends on the parallel amount, which is determined by the rotor
+        return false;
+    }
+
     @Override
     protected @Nullable Recipe findRecipe(long maxVoltage, IItemHandlerModifiable inputs,
                                           IMultipleTankHandler fluidInputs) {
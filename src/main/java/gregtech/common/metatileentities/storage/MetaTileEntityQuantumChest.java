@@ -158,6 +158,7 @@ public class MetaTileEntityQuantumChest extends MetaTileEntityQuantumStorage<IIt
                     NetworkUtils.writeItemStack(buf, this.virtualItemStack);
                 });
                 previousStack = virtualItemStack;
+                notifyContentsChanged();
             }
             if (previousStackSize != itemsStoredInside) {
                 writeCustomData(UPDATE_ITEM_COUNT, buf -> buf.writeLong(itemsStoredInside));
@@ -144,6 +144,16 @@ public abstract class MetaTileEntityQuantumStorage<T> extends MetaTileEntity imp
         return null;
     }
 
+    /**
+     * Notify the connected controller that the type of the contents of this storage changed
+     */
+    protected void notifyContentsChanged() {
+        // a controller which is not loaded indexes every storage once it loads
+        if (!isConnected() || !getWorld().isBlockLoaded(controllerPos, false)) return;
+        IQuantumController controller = getQuantumController();
+        if (controller != null) controller.onStorageContentsChanged(this);
+    }
+
     @Override
     public BlockPos getControllerPos() {
         return controllerPos;
@@ -9,7 +9,6 @@ import gregtech.api.capability.IQuantumController;
 import gregtech.api.capability.IQuantumStorage;
 import gregtech.api.capability.impl.EnergyContainerList;
 import gregtech.api.capability.impl.FluidTankList;
-import gregtech.api.capability.impl.ItemHandlerList;
 import gregtech.api.metatileentity.ITieredMetaTileEntity;
 import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.metatileentity.interfaces.IGregTechTileEntity;
@@ -458,6 +457,12 @@ public class MetaTileEntityQuantumStorageController extends MetaTileEntity imple
         tooltip.add(I18n.format("gregtech.machine.quantum_chest.tooltip"));
     }
 
+    @Override
+    public void onStorageContentsChanged(IQuantumStorage<?> storage) {
+        if (getWorld().isRemote) return;
+        handler.onStorageContentsChanged(storage);
+    }
+
     @Override
     public DualHandler getHandler() {
         return this.handler;
@@ -467,6 +472,8 @@ public class MetaTileEntityQuantumStorageController extends MetaTileEntity imple
 
         private static final IItemHandlerModifiable EMPTY_ITEM = new ItemStackHandler(0);
         private static final IMultipleTankHandler EMPTY_TANK = new FluidTankList(false);
+        private final QuantumControllerItemHandler itemHandler = new QuantumControllerItemHandler();
+        private final QuantumControllerFluidHandler fluidHandler = new QuantumControllerFluidHandler();
         private boolean dirty = true;
 
         public QuantumControllerHandler() {
@@ -478,6 +485,7 @@ public class MetaTileEntityQuantumStorageController extends MetaTileEntity imple
             itemDelegate = EMPTY_ITEM;
         }
 
+        // the handlers keep the index of storages which are still connected, so only changed storages are indexed
         private void rebuildCache() {
             List<IItemHandler> itemHandlerList = new ArrayList<>();
             List<IFluidTank> fluidTankList = new ArrayList<>();
@@ -490,12 +498,21 @@ public class MetaTileEntityQuantumStorageController extends MetaTileEntity imple
                 }
             }
 
-            // todo allow this "allowSameFluidFill" to be configured in this controller?
-            this.fluidDelegate = new FluidTankList(false, fluidTankList);
-            this.itemDelegate = new ItemHandlerList(itemHandlerList);
+            itemHandler.setHandlers(itemHandlerList);
+            fluidHandler.setTanks(fluidTankList);
+            this.fluidDelegate = fluidHandler;
+            this.itemDelegate = itemHandler;
             this.dirty = false;
         }
 
+        private void onStorageContentsChanged(IQuantumStorage<?> storage) {
+            if (dirty) return;
+            switch (storage.getType()) {
+                case ITEM -> itemHandler.update((IItemHandler) storage.getTypeValue());
+                case FLUID -> fluidHandler.update((IFluidTank) storage.getTypeValue());
+            }
+        }
+
         public void markDirty() {
             this.dirty = true;
         }
@@ -149,6 +149,7 @@ public class MetaTileEntityQuantumTank extends MetaTileEntityQuantumStorage<IFlu
     // should only be called on the server
     protected void updatePreviousFluid(FluidStack currentFluid) {
         previousFluid = currentFluid == null ? null : currentFluid.copy();
+        notifyContentsChanged();
         writeCustomData(UPDATE_FLUID, buf -> buf
                 .writeCompoundTag(currentFluid == null ? null : currentFluid.writeToNBT(new NBTTagCompound())));
     }
@@ -0,0 +1,227 @@
+package gregtech.common.metatileentities.storage;
+
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.util.FluidStackHashStrategy;
+
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.IFluidTank;
+import net.minecraftforge.fluids.capability.IFluidTankProperties;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The fluid handler of a quantum storage controller.
+ * <p>
+ * Filling and draining are routed through a {@link QuantumTypeIndex} to the tanks holding the fluid, instead of
+ * visiting every tank. Like a {@link FluidTankList} without same fluid fill, a fluid is only filled into an empty
+ * tank if no tank holds it yet. The index is validated against the tanks it routes to, so tanks changed from outside
+ * the network are re-indexed once they are accessed.
+ */
+final class QuantumControllerFluidHandler implements IMultipleTankHandler {
+
+    private static final FluidStackHashStrategy STRATEGY = FluidStackHashStrategy.comparingAllButAmount();
+
+    private final List<IFluidTank> tanks = new ArrayList<>();
+    private final Reference2IntOpenHashMap<IFluidTank> tankIndices = new Reference2IntOpenHashMap<>();
+    private final QuantumTypeIndex<FluidStack> index = new QuantumTypeIndex<>(STRATEGY);
+    private FluidTankList tankList = new FluidTankList(false);
+
+    QuantumControllerFluidHandler() {
+        tankIndices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Update the tanks of the network. Tanks which were already present keep their indexed contents, so only added
+     * tanks are inspected.
+     *
+     * @param newTanks the tanks of the network
+     */
+    void setTanks(@NotNull Collection<IFluidTank> newTanks) {
+        Set<IFluidTank> retained = new ReferenceOpenHashSet<>(newTanks);
+        for (int i = tanks.size() - 1; i >= 0; i--) {
+            if (!retained.contains(tanks.get(i))) {
+                removeTank(i);
+            }
+        }
+        for (IFluidTank tank : newTanks) {
+            if (!tankIndices.containsKey(tank)) {
+                tankIndices.put(tank, tanks.size());
+                tanks.add(tank);
+                index.add(getType(tank));
+            }
+        }
+        this.tankList = new FluidTankList(false, tanks);
+    }
+
+    /**
+     * Re-index the contents of a tank
+     *
+     * @param tank the tank
+     */
+    void update(@NotNull IFluidTank tank) {
+        int i = tankIndices.getInt(tank);
+        if (i != -1) update(i);
+    }
+
+    private void update(int tank) {
+        index.set(tank, getType(tanks.get(tank)));
+    }
+
+    private void removeTank(int tank) {
+        int last = tanks.size() - 1;
+        index.remove(tank);
+        tankIndices.removeInt(tanks.get(tank));
+        if (tank != last) {
+            IFluidTank moved = tanks.get(last);
+            tanks.set(tank, moved);
+            tankIndices.put(moved, tank);
+        }
+        tanks.remove(last);
+    }
+
+    /**
+     * @param tank the tank
+     * @return a copy of the contents of the tank, or null if it is empty
+     */
+    @Nullable
+    private static FluidStack getType(@NotNull IFluidTank tank) {
+        FluidStack fluid = tank.getFluid();
+        return fluid == null || fluid.amount <= 0 ? null : fluid.copy();
+    }
+
+    @NotNull
+    @Override
+    public List<ITankEntry> getFluidTanks() {
+        return tankList.getFluidTanks();
+    }
+
+    @Override
+    public int getTanks() {
+        return tankList.getTanks();
+    }
+
+    @NotNull
+    @Override
+    public ITankEntry getTankAt(int index) {
+        return tankList.getTankAt(index);
+    }
+
+    @Override
+    public IFluidTankProperties[] getTankProperties() {
+        return tankList.getTankProperties();
+    }
+
+    @Override
+    public boolean allowSameFluidFill() {
+        return false;
+    }
+
+    @Override
+    public int fill(FluidStack resource, boolean doFill) {
+        if (resource == null || resource.amount <= 0) {
+            return 0;
+        }
+        int totalInserted = 0;
+        boolean inputFluidCopied = false;
+        // presence of the fluid in any tank prevents filling empty tanks
+        boolean fluidPresent = false;
+
+        // tanks are only visited in ascending order, so re-indexing while iterating is fine
+        for (int i = index.next(resource, -1); i != -1; i = index.next(resource, i)) {
+            ITankEntry tank = tankList.getTankAt(i);
+            if (!resource.isFluidEqual(tank.getFluid())) {
+                // the tank no longer holds the fluid
+                update(i);
+                continue;
+            }
+            fluidPresent = true;
+            int inserted = tank.fill(resource, doFill);
+            if (inserted > 0) {
+                totalInserted += inserted;
+                if (resource.amount - inserted <= 0) {
+                    return totalInserted;
+                }
+                if (!inputFluidCopied) {
+                    inputFluidCopied = true;
+                    resource = resource.copy();
+                }
+                resource.amount -= inserted;
+            }
+        }
+        if (fluidPresent) return totalInserted;
+
+        // fill the first empty tank which accepts the fluid
+        for (int i = index.next(null, -1); i != -1; i = index.next(null, i)) {
+            ITankEntry tank = tankList.getTankAt(i);
+            if (tank.getFluidAmount() > 0) {
+                // the tank is no longer empty
+                update(i);
+                continue;
+            }
+            int inserted = tank.fill(resource, doFill);
+            if (inserted > 0) {
+                if (doFill) update(i);
+                return totalInserted + inserted;
+            }
+        }
+        return totalInserted;
+    }
+
+    @Nullable
+    @Override
+    public FluidStack drain(FluidStack resource, boolean doDrain) {
+        if (resource == null || resource.amount <= 0) {
+            return null;
+        }
+        int amountLeft = resource.amount;
+        FluidStack totalDrained = null;
+        for (int i = index.next(resource, -1); i != -1; i = index.next(resource, i)) {
+            ITankEntry tank = tankList.getTankAt(i);
+            if (!resource.isFluidEqual(tank.getFluid())) {
+                // the tank no longer holds the fluid
+                update(i);
+                continue;
+            }
+            FluidStack drain = tank.drain(amountLeft, doDrain);
+            if (drain != null) {
+                if (doDrain) update(i);
+                if (totalDrained == null) {
+                    totalDrained = drain;
+                } else {
+                    totalDrained.amount += drain.amount;
+                }
+                amountLeft -= drain.amount;
+                if (amountLeft <= 0) {
+                    return totalDrained;
+                }
+            }
+        }
+        return totalDrained;
+    }
+
+    @Nullable
+    @Override
+    public FluidStack drain(int maxDrain, boolean doDrain) {
+        if (maxDrain <= 0) {
+            return null;
+        }
+        FluidStack type;
+        while ((type = index.anyType()) != null) {
+            FluidStack drained = drain(new FluidStack(type, maxDrain), doDrain);
+            // stop if nothing could be drained from tanks which still hold the fluid
+            if (drained != null || type == index.anyType()) {
+                return drained;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,214 @@
+package gregtech.common.metatileentities.storage;
+
+import gregtech.api.util.ItemStackHashStrategy;
+
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The item handler of a quantum storage controller.
+ * <p>
+ * Insertion ignores the requested slot, and is routed through a {@link QuantumTypeIndex} to the storages already
+ * holding the item, and then to empty storages. Slot based access resolves the storage of a slot with an array
+ * lookup. The index is validated against the storages it routes to, so storages changed from outside the network
+ * are re-indexed once they are accessed.
+ */
+final class QuantumControllerItemHandler implements IItemHandlerModifiable {
+
+    private static final ItemStackHashStrategy STRATEGY = ItemStackHashStrategy.comparingAllButCount();
+
+    private final List<IItemHandler> handlers = new ArrayList<>();
+    private final Reference2IntOpenHashMap<IItemHandler> handlerIndices = new Reference2IntOpenHashMap<>();
+    private final QuantumTypeIndex<ItemStack> index = new QuantumTypeIndex<>(STRATEGY);
+
+    /** The handler of each slot */
+    private int[] slotHandlers = new int[0];
+    /** The first slot of each handler */
+    private int[] handlerOffsets = new int[0];
+
+    QuantumControllerItemHandler() {
+        handlerIndices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Update the handlers of the network. Handlers which were already present keep their indexed contents, so only
+     * added handlers are inspected.
+     *
+     * @param newHandlers the handlers of the network
+     */
+    void setHandlers(@NotNull Collection<IItemHandler> newHandlers) {
+        Set<IItemHandler> retained = new ReferenceOpenHashSet<>(newHandlers);
+        for (int i = handlers.size() - 1; i >= 0; i--) {
+            if (!retained.contains(handlers.get(i))) {
+                removeHandler(i);
+            }
+        }
+        for (IItemHandler handler : newHandlers) {
+            if (!handlerIndices.containsKey(handler)) {
+                handlerIndices.put(handler, handlers.size());
+                handlers.add(handler);
+                index.add(getType(handler));
+            }
+        }
+        rebuildSlots();
+    }
+
+    /**
+     * Re-index the contents of a handler
+     *
+     * @param handler the handler
+     */
+    void update(@NotNull IItemHandler handler) {
+        int i = handlerIndices.getInt(handler);
+        if (i != -1) update(i);
+    }
+
+    private void update(int handler) {
+        index.set(handler, getType(handlers.get(handler)));
+    }
+
+    private void removeHandler(int handler) {
+        int last = handlers.size() - 1;
+        index.remove(handler);
+        handlerIndices.removeInt(handlers.get(handler));
+        if (handler != last) {
+            IItemHandler moved = handlers.get(last);
+            handlers.set(handler, moved);
+            handlerIndices.put(moved, handler);
+        }
+        handlers.remove(last);
+    }
+
+    private void rebuildSlots() {
+        int slots = 0;
+        handlerOffsets = new int[handlers.size()];
+        for (int i = 0; i < handlers.size(); i++) {
+            handlerOffsets[i] = slots;
+            slots += handlers.get(i).getSlots();
+        }
+        slotHandlers = new int[slots];
+        for (int i = 0; i < handlers.size(); i++) {
+            int end = i + 1 < handlers.size() ? handlerOffsets[i + 1] : slots;
+            for (int slot = handlerOffsets[i]; slot < end; slot++) {
+                slotHandlers[slot] = i;
+            }
+        }
+    }
+
+    /**
+     * @param handler the handler
+     * @return the first non-empty stack of the handler, or null if it is empty
+     */
+    @Nullable
+    private static ItemStack getContents(@NotNull IItemHandler handler) {
+        for (int i = 0; i < handler.getSlots(); i++) {
+            ItemStack stack = handler.getStackInSlot(i);
+            if (!stack.isEmpty()) return stack;
+        }
+        return null;
+    }
+
+    /**
+     * @param handler the handler
+     * @return a single item of the contents of the handler, or null if it is empty
+     */
+    @Nullable
+    private static ItemStack getType(@NotNull IItemHandler handler) {
+        ItemStack contents = getContents(handler);
+        if (contents == null) return null;
+        ItemStack type = contents.copy();
+        type.setCount(1);
+        return type;
+    }
+
+    @Override
+    public int getSlots() {
+        return slotHandlers.length;
+    }
+
+    @NotNull
+    @Override
+    public ItemStack getStackInSlot(int slot) {
+        int handler = slotHandlers[slot];
+        return handlers.get(handler).getStackInSlot(slot - handlerOffsets[handler]);
+    }
+
+    @Override
+    public void setStackInSlot(int slot, @NotNull ItemStack stack) {
+        int handler = slotHandlers[slot];
+        if (handlers.get(handler) instanceof IItemHandlerModifiable modifiable) {
+            modifiable.setStackInSlot(slot - handlerOffsets[handler], stack);
+            update(handler);
+        }
+    }
+
+    @NotNull
+    @Override
+    public ItemStack insertItem(int slot, @NotNull ItemStack stack, boolean simulate) {
+        if (stack.isEmpty()) return stack;
+        ItemStack remainder = stack;
+
+        // storages are only visited in ascending order, so re-indexing while iterating is fine
+        for (int i = index.next(stack, -1); i != -1; i = index.next(stack, i)) {
+            ItemStack contents = getContents(handlers.get(i));
+            if (contents == null || !STRATEGY.equals(stack, contents)) {
+                // the storage no longer holds the item
+                update(i);
+                continue;
+            }
+            remainder = insertInto(i, remainder, simulate);
+            if (remainder.isEmpty()) return remainder;
+        }
+        for (int i = index.next(null, -1); i != -1; i = index.next(null, i)) {
+            if (getContents(handlers.get(i)) != null) {
+                // the storage is no longer empty
+                update(i);
+                continue;
+            }
+            remainder = insertInto(i, remainder, simulate);
+            if (remainder.isEmpty()) return remainder;
+        }
+        return remainder;
+    }
+
+    @NotNull
+    private ItemStack insertInto(int handler, @NotNull ItemStack stack, boolean simulate) {
+        IItemHandler itemHandler = handlers.get(handler);
+        ItemStack remainder = stack;
+        for (int slot = 0; slot < itemHandler.getSlots() && !remainder.isEmpty(); slot++) {
+            remainder = itemHandler.insertItem(slot, remainder, simulate);
+        }
+        if (!simulate && remainder != stack) {
+            update(handler);
+        }
+        return remainder;
+    }
+
+    @NotNull
+    @Override
+    public ItemStack extractItem(int slot, int amount, boolean simulate) {
+        int handler = slotHandlers[slot];
+        ItemStack extracted = handlers.get(handler).extractItem(slot - handlerOffsets[handler], amount, simulate);
+        if (!simulate && !extracted.isEmpty()) {
+            update(handler);
+        }
+        return extracted;
+    }
+
+    @Override
+    public int getSlotLimit(int slot) {
+        int handler = slotHandlers[slot];
+        return handlers.get(handler).getSlotLimit(slot - handlerOffsets[handler]);
+    }
+}
@@ -0,0 +1,150 @@
+package gregtech.common.metatileentities.storage;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.ints.IntBidirectionalIterator;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenCustomHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An index from the type of contents to the storages of a quantum storage network holding them, along with the set
+ * of empty storages.
+ * <p>
+ * Storages are identified by a dense index, which is owned by the handler using this index. Removing a storage moves
+ * the last storage into its place, so the owner must mirror {@link #remove(int)} on its own storage list.
+ *
+ * @param <K> the type of the contents, compared with the strategy of the index
+ */
+final class QuantumTypeIndex<K> {
+
+    private final Hash.Strategy<K> strategy;
+    private final Object2ObjectOpenCustomHashMap<K, IntSortedSet> storagesByType;
+    private final IntSortedSet emptyStorages = new IntRBTreeSet();
+    /** The type each storage is indexed under, or null if it is indexed as empty */
+    private final List<K> types = new ArrayList<>();
+
+    QuantumTypeIndex(@NotNull Hash.Strategy<K> strategy) {
+        this.strategy = strategy;
+        this.storagesByType = new Object2ObjectOpenCustomHashMap<>(strategy);
+    }
+
+    /**
+     * @return the amount of storages in the index
+     */
+    int size() {
+        return types.size();
+    }
+
+    /**
+     * Add a storage to the end of the index
+     *
+     * @param type the type of the contents of the storage, or null if it is empty
+     */
+    void add(@Nullable K type) {
+        types.add(null);
+        emptyStorages.add(types.size() - 1);
+        set(types.size() - 1, type);
+    }
+
+    /**
+     * Remove a storage, moving the last storage into its place
+     *
+     * @param storage the storage to remove
+     */
+    void remove(int storage) {
+        int last = types.size() - 1;
+        K lastType = types.get(last);
+        unlink(storage, types.get(storage));
+        if (storage != last) {
+            unlink(last, lastType);
+            link(storage, lastType);
+            types.set(storage, lastType);
+        }
+        types.remove(last);
+    }
+
+    /**
+     * Update the type a storage is indexed under
+     *
+     * @param storage the storage
+     * @param type    the type of the contents of the storage, or null if it is empty. Must not be modified afterwards.
+     */
+    void set(int storage, @Nullable K type) {
+        K oldType = types.get(storage);
+        if (oldType == null ? type == null : type != null && strategy.equals(oldType, type)) return;
+        unlink(storage, oldType);
+        link(storage, type);
+        types.set(storage, type);
+    }
+
+    /**
+     * @param storage the storage
+     * @return the type the storage is indexed under, or null if it is indexed as empty
+     */
+    @Nullable
+    K get(int storage) {
+        return types.get(storage);
+    }
+
+    /**
+     * Find the next storage holding a type. Storages are visited in ascending order, so this can be used to iterate
+     * while the index is being updated.
+     *
+     * @param type  the type to search for, or null to search for empty storages
+     * @param after the storage to start after, or -1 to start from the beginning
+     * @return the next storage, or -1 if there is none
+     */
+    int next(@Nullable K type, int after) {
+        IntSortedSet storages = type == null ? emptyStorages : storagesByType.get(type);
+        if (storages == null) return -1;
+        IntBidirectionalIterator iterator = after < 0 ? storages.iterator() : storages.iterator(after);
+        return iterator.hasNext() ? iterator.nextInt() : -1;
+    }
+
+    /**
+     * @return any type held by a storage, or null if every storage is empty
+     */
+    @Nullable
+    K anyType() {
+        Iterator<K> iterator = storagesByType.keySet().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    void clear() {
+        storagesByType.clear();
+        emptyStorages.clear();
+        types.clear();
+    }
+
+    private void link(int storage, @Nullable K type) {
+        if (type == null) {
+            emptyStorages.add(storage);
+            return;
+        }
+        IntSortedSet storages = storagesByType.get(type);
+        if (storages == null) {
+            storages = new IntRBTreeSet();
+            storagesByType.put(type, storages);
+        }
+        storages.add(storage);
+    }
+
+    private void unlink(int storage, @Nullable K type) {
+        if (type == null) {
+            emptyStorages.remove(storage);
+            return;
+        }
+        IntSortedSet storages = storagesByType.get(type);
+        if (storages == null) return;
+        storages.remove(storage);
+        if (storages.isEmpty()) {
+            storagesByType.remove(type);
+        }
+    }
+}
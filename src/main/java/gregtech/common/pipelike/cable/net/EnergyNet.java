@@ -1,28 +1,71 @@
 package gregtech.common.pipelike.cable.net;
 
+import gregtech.api.capability.GregtechCapabilities;
 import gregtech.api.pipenet.Node;
 import gregtech.api.pipenet.PipeNet;
+import gregtech.api.pipenet.PipeNetRouteService;
+import gregtech.api.pipenet.PipeNetTopology;
 import gregtech.api.pipenet.WorldPipeNet;
 import gregtech.api.unification.material.properties.WireProperties;
+import gregtech.api.util.GTLog;
+import gregtech.api.util.TaskScheduler;
+import gregtech.common.ConfigHolder;
+import gregtech.common.pipelike.cable.tile.TileEntityCable;
 
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class EnergyNet extends PipeNet<WireProperties> {
 
+    /** Ticks until routes are searched again, if a cable of the routes was not loaded */
+    private static final int RETRY_DELAY = 20;
+
     private long lastEnergyFluxPerSec;
     private long energyFluxPerSec;
     private long lastTime;
 
     private final Map<BlockPos, List<EnergyRoutePath>> NET_DATA = new Object2ObjectOpenHashMap<>();
+    // the chunks each cached source has routes through, to find the routes affected by a pipe being removed
+    private final Map<BlockPos, LongSet> routeChunks = new Object2ObjectOpenHashMap<>();
+
+    // transfers made this tick in batched mode, settled once at the start of the next tick
+    private final Reference2LongOpenHashMap<EnergyRoutePath> pendingAmperage = new Reference2LongOpenHashMap<>();
+    private final Reference2LongOpenHashMap<EnergyRoutePath> pendingVoltage = new Reference2LongOpenHashMap<>();
+    private final Reference2LongOpenHashMap<TileEntityCable> cableAmperage = new Reference2LongOpenHashMap<>();
+    private final Reference2LongOpenHashMap<TileEntityCable> cableVoltage = new Reference2LongOpenHashMap<>();
+    private boolean settleScheduled;
+
+    // routes being found off the server thread
+    private final Map<BlockPos, CompletableFuture<PipeNetTopology<WireProperties>.Paths>> pendingPaths =
+            new Object2ObjectOpenHashMap<>();
+    // the last routes of each source, used until its new routes are found
+    private final Map<BlockPos, List<EnergyRoutePath>> staleNetData = new Object2ObjectOpenHashMap<>();
+    // the world time before which the routes of a source are not searched again, after a search failed
+    private final Object2LongOpenHashMap<BlockPos> retryTimes = new Object2LongOpenHashMap<>();
 
     protected EnergyNet(WorldPipeNet<WireProperties, EnergyNet> world) {
         super(world);
@@ -31,17 +74,183 @@ public class EnergyNet extends PipeNet<WireProperties> {
     public List<EnergyRoutePath> getNetData(BlockPos pipePos) {
         List<EnergyRoutePath> data = NET_DATA.get(pipePos);
         if (data == null) {
-            data = EnergyNetWalker.createNetData(getWorldData(), pipePos);
-            if (data == null) {
-                // walker failed, don't cache so it tries again on next insertion
-                return Collections.emptyList();
+            World world = getWorldData();
+            if (world != null && !world.isRemote && PipeNetRouteService.isEnabled()) {
+                data = findNetDataAsync(world, pipePos);
+                // transfer through the last valid routes until the new routes are found
+                if (data == null) return getStaleNetData(pipePos);
+            } else {
+                data = createNetData(world, world == null ? null : getTopology().findPaths(pipePos));
+                if (data == null) {
+                    data = EnergyNetWalker.createNetData(world, pipePos);
+                }
+                if (data == null) {
+                    // walker failed, don't cache so it tries again on next insertion
+                    return Collections.emptyList();
+                }
             }
             data.sort(Comparator.comparingInt(EnergyRoutePath::getDistance));
             NET_DATA.put(pipePos, data);
+            staleNetData.remove(pipePos);
+
+            LongSet chunks = new LongOpenHashSet();
+            chunks.add(ChunkPos.asLong(pipePos.getX() >> 4, pipePos.getZ() >> 4));
+            for (EnergyRoutePath path : data) {
+                addRouteChunks(chunks, path);
+            }
+            routeChunks.put(pipePos, chunks);
+        }
+        return data;
+    }
+
+    /**
+     * Finds the routes from a source on the workers of {@link PipeNetRouteService}.
+     *
+     * @param world   the world
+     * @param pipePos the position of the source cable
+     * @return the routes, or null if they are not found yet
+     */
+    private @Nullable List<EnergyRoutePath> findNetDataAsync(World world, BlockPos pipePos) {
+        CompletableFuture<PipeNetTopology<WireProperties>.Paths> future = pendingPaths.get(pipePos);
+        if (future == null) {
+            if (world.getTotalWorldTime() < retryTimes.getLong(pipePos)) return null;
+            pendingPaths.put(pipePos, getTopologyAsync().thenApplyAsync(
+                    topology -> topology.findPaths(pipePos), PipeNetRouteService.getExecutor()));
+            return null;
+        }
+        if (!future.isDone()) return null;
+        pendingPaths.remove(pipePos);
+
+        PipeNetTopology<WireProperties>.Paths paths;
+        try {
+            paths = future.join();
+        } catch (CompletionException e) {
+            GTLog.logger.error("Failed to find energy routes from {}", pipePos, e.getCause());
+            paths = null;
+        }
+        // the net changed while the routes were found, so find them again on next insertion
+        if (paths != null && !isTopologyCurrent(paths.getTopology())) return null;
+        List<EnergyRoutePath> data = createNetData(world, paths);
+        if (data == null) {
+            // a cable of the routes is not loaded, so search again after a while, instead of walking the net here
+            retryTimes.put(pipePos, world.getTotalWorldTime() + RETRY_DELAY);
+            return null;
         }
+        retryTimes.removeLong(pipePos);
         return data;
     }
 
+    /**
+     * @param pipePos the position of the source cable
+     * @return the last routes of the source, without the routes which are no longer intact
+     */
+    private List<EnergyRoutePath> getStaleNetData(BlockPos pipePos) {
+        List<EnergyRoutePath> data = staleNetData.get(pipePos);
+        if (data == null) return Collections.emptyList();
+        List<EnergyRoutePath> intact = null;
+        for (int i = 0; i < data.size(); i++) {
+            EnergyRoutePath path = data.get(i);
+            if (isRouteIntact(path)) {
+                if (intact != null) intact.add(path);
+            } else if (intact == null) {
+                intact = new ArrayList<>(data.subList(0, i));
+            }
+        }
+        if (intact == null) return data;
+        // the list may be iterated by an ongoing transfer, so it is replaced instead of modified
+        staleNetData.put(pipePos, intact);
+        return intact;
+    }
+
+    private boolean isRouteIntact(EnergyRoutePath path) {
+        for (TileEntityCable cable : path.getPath()) {
+            if (cable.isInvalid() || !containsNode(cable.getPipePos())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Discards the routes of a source, but keeps using them until its new routes are found
+     *
+     * @param source the position of the source cable
+     * @param data   the routes of the source
+     */
+    private void retireNetData(BlockPos source, List<EnergyRoutePath> data) {
+        if (PipeNetRouteService.isEnabled()) {
+            staleNetData.put(source, data);
+        }
+    }
+
+    /**
+     * Finds the routes from a source over the compressed topology of the net, so only the cables at junctions and
+     * next to endpoints are checked for neighbours, instead of every cable.
+     *
+     * @param world the world
+     * @param paths the paths from the source cable
+     * @return the routes, or null if the net has to be walked instead
+     */
+    private @Nullable List<EnergyRoutePath> createNetData(@Nullable World world,
+                                                          @Nullable PipeNetTopology<WireProperties>.Paths paths) {
+        if (world == null || paths == null) return null;
+        PipeNetTopology<WireProperties> topology = paths.getTopology();
+
+        // routes share most of their cables, so each is only looked up once
+        Long2ObjectOpenHashMap<TileEntityCable> cables = new Long2ObjectOpenHashMap<>();
+        List<EnergyRoutePath> routes = new ArrayList<>();
+        for (int vertex = 0; vertex < topology.getVertexCount(); vertex++) {
+            if (!paths.isReached(vertex)) continue;
+            TileEntityCable cable = getLoadedCable(world, topology.getVertexPos(vertex), cables);
+            if (cable == null) return null;
+
+            TileEntityCable[] path = null;
+            for (EnumFacing facing : EnumFacing.VALUES) {
+                // sides connected to other cables of the net are passed through, not inserted into
+                if (!cable.isConnected(facing) || topology.isConnected(vertex, facing)) continue;
+                TileEntity tile = cable.getNeighbor(facing);
+                if (tile == null || tile instanceof TileEntityCable other && other.isConnected(facing.getOpposite()) ||
+                        tile.getCapability(GregtechCapabilities.CAPABILITY_ENERGY_CONTAINER,
+                                facing.getOpposite()) == null) {
+                    continue;
+                }
+
+                if (path == null) {
+                    long[] positions = paths.getPath(vertex);
+                    path = new TileEntityCable[positions.length];
+                    for (int i = 0; i < positions.length; i++) {
+                        path[i] = getLoadedCable(world, positions[i], cables);
+                        if (path[i] == null) return null;
+                    }
+                }
+                routes.add(new EnergyRoutePath(facing, path, path.length, paths.getCost(vertex)));
+            }
+        }
+        return routes;
+    }
+
+    private static @Nullable TileEntityCable getLoadedCable(World world, long pos,
+                                                           Long2ObjectOpenHashMap<TileEntityCable> cables) {
+        TileEntityCable cable = cables.get(pos);
+        if (cable == null) {
+            BlockPos blockPos = BlockPos.fromLong(pos);
+            // do not load chunks to find routes
+            if (!world.isBlockLoaded(blockPos)) return null;
+            if (!(world.getTileEntity(blockPos) instanceof TileEntityCable tile)) return null;
+            cable = tile;
+            cables.put(pos, cable);
+        }
+        return cable;
+    }
+
+    @Override
+    protected long getNodeCost(WireProperties nodeData) {
+        return nodeData.getLossPerBlock();
+    }
+
+    @Override
+    protected long getNodeCapacity(WireProperties nodeData) {
+        return nodeData.getVoltage();
+    }
+
     public long getEnergyFluxPerSec() {
         World world = getWorldData();
         if (world != null && !world.isRemote && (world.getTotalWorldTime() - lastTime) >= 20) {
@@ -60,27 +269,271 @@ public class EnergyNet extends PipeNet<WireProperties> {
         energyFluxPerSec = 0;
     }
 
+    /**
+     * @return if the amperage of transfers should be counted on the cables once per tick, instead of after each
+     *         transfer. Every transfer still offers energy along each of its routes.
+     */
+    public boolean isBatchingTransfers() {
+        return ConfigHolder.machines.batchedCableTransfers;
+    }
+
+    /**
+     * Records a transfer through a route, to be settled with all other transfers of the tick.
+     *
+     * @param path    the route the energy was sent through
+     * @param amps    the amperage sent
+     * @param voltage the voltage the energy was sent with
+     */
+    public void depositTransfer(EnergyRoutePath path, long amps, long voltage) {
+        World world = getWorldData();
+        if (world == null || world.isRemote) {
+            incrementAmperage(path, amps, voltage);
+            return;
+        }
+
+        pendingAmperage.addTo(path, amps);
+        if (voltage > pendingVoltage.getLong(path)) {
+            pendingVoltage.put(path, voltage);
+        }
+        if (!settleScheduled) {
+            // the scheduler runs before the world time advances, so the amperage is counted for the right tick
+            TaskScheduler.scheduleTask(world, this::settleTransfers);
+            settleScheduled = true;
+        }
+    }
+
+    /**
+     * Applies the amperage of all transfers made in the last tick to the cables. Every cable is only incremented once,
+     * with the sum of the amperage of all routes through it.
+     *
+     * @return false, so the task is only run once
+     */
+    private boolean settleTransfers() {
+        settleScheduled = false;
+        for (Reference2LongMap.Entry<EnergyRoutePath> entry : pendingAmperage.reference2LongEntrySet()) {
+            EnergyRoutePath path = entry.getKey();
+            long amps = entry.getLongValue();
+            long voltageTraveled = pendingVoltage.getLong(path);
+            for (TileEntityCable cable : path.getPath()) {
+                voltageTraveled -= cable.getNodeData().getLossPerBlock();
+                if (voltageTraveled <= 0) break;
+
+                if (!cable.isInvalid()) {
+                    cableAmperage.addTo(cable, amps);
+                    if (voltageTraveled > cableVoltage.getLong(cable)) {
+                        cableVoltage.put(cable, voltageTraveled);
+                    }
+                }
+            }
+        }
+        for (Reference2LongMap.Entry<TileEntityCable> entry : cableAmperage.reference2LongEntrySet()) {
+            entry.getKey().incrementAmperage(entry.getLongValue(), cableVoltage.getLong(entry.getKey()));
+        }
+
+        pendingAmperage.clear();
+        pendingVoltage.clear();
+        cableAmperage.clear();
+        cableVoltage.clear();
+        return false;
+    }
+
+    /**
+     * Increments the amperage of every cable along a route.
+     *
+     * @param path    the route the energy was sent through
+     * @param amps    the amperage sent
+     * @param voltage the voltage the energy was sent with
+     */
+    static void incrementAmperage(EnergyRoutePath path, long amps, long voltage) {
+        long voltageTraveled = voltage;
+        for (TileEntityCable cable : path.getPath()) {
+            voltageTraveled -= cable.getNodeData().getLossPerBlock();
+            if (voltageTraveled <= 0) break;
+
+            if (!cable.isInvalid()) {
+                cable.incrementAmperage(amps, voltageTraveled);
+            }
+        }
+    }
+
+    /**
+     * Updates the routes to the block at the position, instead of discarding all routes. Only routes to endpoints
+     * next to the position are changed, and routes to a new endpoint are found with a single walk from it.
+     */
     @Override
     public void onNeighbourUpdate(BlockPos fromPos) {
+        if (NET_DATA.isEmpty()) return;
+        World world = getWorldData();
+        if (world == null) return;
+
+        TileEntity tile = world.getTileEntity(fromPos);
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            BlockPos pipePos = fromPos.offset(facing);
+            if (!containsNode(pipePos)) continue;
+            if (!(world.getTileEntity(pipePos) instanceof TileEntityCable cable)) continue;
+
+            // same conditions as the walker, where cables connected to each other are walked through instead
+            EnumFacing side = facing.getOpposite();
+            boolean isEndpoint = tile != null && cable.isConnected(side) &&
+                    !(tile instanceof TileEntityCable other && other.isConnected(facing) &&
+                            !other.isFaceBlocked(facing)) &&
+                    tile.getCapability(GregtechCapabilities.CAPABILITY_ENERGY_CONTAINER, facing) != null;
+            updateEndpoint(world, cable, side, isEndpoint);
+        }
+    }
+
+    /**
+     * Adds or removes the route to an endpoint in every cached route list.
+     *
+     * @param world      the world
+     * @param cable      the cable next to the endpoint
+     * @param side       the side of the cable the endpoint is on
+     * @param isEndpoint if there is an endpoint on the side
+     */
+    private void updateEndpoint(World world, TileEntityCable cable, EnumFacing side, boolean isEndpoint) {
+        Set<BlockPos> missing = null;
+        for (Map.Entry<BlockPos, List<EnergyRoutePath>> entry : NET_DATA.entrySet()) {
+            List<EnergyRoutePath> data = entry.getValue();
+            int index = indexOfRoute(data, cable, side);
+            if (isEndpoint) {
+                if (index == -1) {
+                    if (missing == null) missing = new ObjectOpenHashSet<>();
+                    missing.add(entry.getKey());
+                }
+            } else if (index != -1) {
+                // the list may be iterated by an ongoing transfer, so it is replaced instead of modified
+                List<EnergyRoutePath> copy = new ArrayList<>(data);
+                copy.remove(index);
+                entry.setValue(copy);
+            }
+        }
+        if (missing == null) return;
+
+        Map<BlockPos, EnergyRoutePath> routes = EnergyNetWalker.createRoutesTo(world, cable.getPipePos(), side,
+                missing);
+        for (BlockPos source : missing) {
+            EnergyRoutePath route = routes == null ? null : routes.get(source);
+            if (route == null) {
+                // couldn't find the route, so recompute all routes of the source on next insertion
+                retireNetData(source, NET_DATA.remove(source));
+                routeChunks.remove(source);
+                continue;
+            }
+
+            List<EnergyRoutePath> data = NET_DATA.get(source);
+            List<EnergyRoutePath> copy = new ArrayList<>(data.size() + 1);
+            copy.addAll(data);
+            // keep the list sorted by distance, after the routes with the same distance
+            int index = 0;
+            while (index < copy.size() && copy.get(index).getDistance() <= route.getDistance()) {
+                index++;
+            }
+            copy.add(index, route);
+            NET_DATA.put(source, copy);
+            addRouteChunks(routeChunks.get(source), route);
+        }
+    }
+
+    private static int indexOfRoute(List<EnergyRoutePath> data, TileEntityCable cable, EnumFacing side) {
+        for (int i = 0; i < data.size(); i++) {
+            EnergyRoutePath path = data.get(i);
+            if (path.getTargetPipe() == cable && path.getTargetFacing() == side) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void addRouteChunks(LongSet chunks, EnergyRoutePath path) {
+        for (TileEntityCable cable : path.getPath()) {
+            BlockPos pos = cable.getPipePos();
+            chunks.add(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        }
+    }
+
+    /**
+     * Discards the routes of every source with a route through the position.
+     *
+     * @param pipePos the position of the pipe
+     */
+    private void invalidateRoutesThrough(BlockPos pipePos) {
+        if (NET_DATA.isEmpty()) return;
+        long chunk = ChunkPos.asLong(pipePos.getX() >> 4, pipePos.getZ() >> 4);
+        Iterator<Map.Entry<BlockPos, List<EnergyRoutePath>>> iterator = NET_DATA.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<BlockPos, List<EnergyRoutePath>> entry = iterator.next();
+            LongSet chunks = routeChunks.get(entry.getKey());
+            // only sources in the chunk or with routes through it have to be checked in detail
+            if (chunks != null && !chunks.contains(chunk)) continue;
+            if (chunks == null || pipePos.equals(entry.getKey()) || hasRouteThrough(entry.getValue(), pipePos)) {
+                retireNetData(entry.getKey(), entry.getValue());
+                iterator.remove();
+                routeChunks.remove(entry.getKey());
+            }
+        }
+    }
+
+    private static boolean hasRouteThrough(List<EnergyRoutePath> data, BlockPos pipePos) {
+        for (EnergyRoutePath path : data) {
+            for (TileEntityCable cable : path.getPath()) {
+                if (pipePos.equals(cable.getPipePos())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void clearNetData() {
+        for (Map.Entry<BlockPos, List<EnergyRoutePath>> entry : NET_DATA.entrySet()) {
+            retireNetData(entry.getKey(), entry.getValue());
+        }
         NET_DATA.clear();
+        // sources moved to another net never ask this net for their routes again
+        staleNetData.keySet().removeIf(pos -> !containsNode(pos));
+        routeChunks.clear();
+        pendingPaths.clear();
+        retryTimes.clear();
     }
 
     @Override
     public void onPipeConnectionsUpdate() {
-        NET_DATA.clear();
+        // connections may open shorter paths for any source, so all routes have to be found again
+        clearNetData();
     }
 
     @Override
     public void onChunkUnload() {
-        NET_DATA.clear();
+        clearNetData();
+        staleNetData.clear();
+    }
+
+    @Override
+    public void onChunkUnload(BlockPos pipePos) {
+        // the unloaded cable can no longer be used by any route
+        invalidateRoutesThrough(pipePos);
+    }
+
+    @Override
+    protected void addNode(BlockPos nodePos, Node<WireProperties> node) {
+        super.addNode(nodePos, node);
+        // a new cable may shorten paths or reach new endpoints for any source
+        clearNetData();
+    }
+
+    @Override
+    protected Node<WireProperties> removeNodeWithoutRebuilding(BlockPos nodePos) {
+        // removing a cable cannot shorten any path, so only routes through it are affected
+        invalidateRoutesThrough(nodePos);
+        return super.removeNodeWithoutRebuilding(nodePos);
     }
 
     @Override
     protected void transferNodeData(Map<BlockPos, Node<WireProperties>> transferredNodes,
                                     PipeNet<WireProperties> parentNet) {
         super.transferNodeData(transferredNodes, parentNet);
-        NET_DATA.clear();
-        ((EnergyNet) parentNet).NET_DATA.clear();
+        clearNetData();
+        ((EnergyNet) parentNet).clearNetData();
     }
 
     @Override
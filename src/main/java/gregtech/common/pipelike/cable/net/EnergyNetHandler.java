@@ -78,21 +78,23 @@ public class EnergyNetHandler implements IEnergyContainer {
 
             long pathVoltage = voltage - path.getMaxLoss();
             boolean cableBroken = false;
-            for (TileEntityCable cable : path.getPath()) {
-                if (cable.getMaxVoltage() < voltage) {
-                    int heat = (int) (Math.log(
-                            GTUtility.getTierByVoltage(voltage) - GTUtility.getTierByVoltage(cable.getMaxVoltage())) *
-                            45 + 36.5);
-                    cable.applyHeat(heat);
-
-                    cableBroken = cable.isInvalid();
-                    if (cableBroken) {
-                        // a cable burned away (or insulation melted)
-                        break;
+            // only walk the path if one of its cables is overvolted
+            if (path.getMinVoltage() < voltage) {
+                for (TileEntityCable cable : path.getPath()) {
+                    if (cable.getMaxVoltage() < voltage) {
+                        int heat = (int) (Math.log(GTUtility.getTierByVoltage(voltage) -
+                                GTUtility.getTierByVoltage(cable.getMaxVoltage())) * 45 + 36.5);
+                        cable.applyHeat(heat);
+
+                        cableBroken = cable.isInvalid();
+                        if (cableBroken) {
+                            // a cable burned away (or insulation melted)
+                            break;
+                        }
+
+                        // limit transfer to cables max and void rest
+                        pathVoltage = Math.min(cable.getMaxVoltage(), pathVoltage);
                     }
-
-                    // limit transfer to cables max and void rest
-                    pathVoltage = Math.min(cable.getMaxVoltage(), pathVoltage);
                 }
             }
 
@@ -104,14 +106,10 @@ public class EnergyNetHandler implements IEnergyContainer {
             if (amps == 0) continue;
 
             amperesUsed += amps;
-            long voltageTraveled = voltage;
-            for (TileEntityCable cable : path.getPath()) {
-                voltageTraveled -= cable.getNodeData().getLossPerBlock();
-                if (voltageTraveled <= 0) break;
-
-                if (!cable.isInvalid()) {
-                    cable.incrementAmperage(amps, voltageTraveled);
-                }
+            if (net.isBatchingTransfers()) {
+                net.depositTransfer(path, amps, voltage);
+            } else {
+                EnergyNet.incrementAmperage(path, amps, voltage);
             }
 
             if (amperage == amperesUsed) break;
@@ -10,11 +10,14 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import org.apache.commons.lang3.ArrayUtils;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class EnergyNetWalker extends PipeNetWalker<TileEntityCable> {
 
@@ -27,10 +30,41 @@ public class EnergyNetWalker extends PipeNetWalker<TileEntityCable> {
         return walker.isFailed() ? null : walker.routes;
     }
 
+    /**
+     * Creates the routes from each of the source pipes to a single destination, by walking once from the destination
+     * instead of once from every source. The paths are shortest paths, like the ones found by
+     * {@link #createNetData(World, BlockPos)}, and are ordered from the source to the destination.
+     *
+     * @param world       the world
+     * @param destPipe    the pipe next to the destination
+     * @param destFacing  the side of the pipe the destination is on
+     * @param sourcePipes the positions of the pipes to find routes from
+     * @return the routes by the position of their source pipe, or null if the walker failed. Sources which could not
+     *         be reached have no route.
+     */
+    public static @Nullable Map<BlockPos, EnergyRoutePath> createRoutesTo(World world, BlockPos destPipe,
+                                                                         EnumFacing destFacing,
+                                                                         Set<BlockPos> sourcePipes) {
+        if (!(world.getTileEntity(destPipe) instanceof TileEntityCable)) {
+            return null;
+        }
+        EnergyNetWalker walker = new EnergyNetWalker(world, destPipe, 1, null);
+        walker.destFacing = destFacing;
+        walker.sourcePipes = sourcePipes;
+        walker.foundRoutes = new Object2ObjectOpenHashMap<>(sourcePipes.size());
+        walker.traversePipeNet();
+        return walker.isFailed() ? null : walker.foundRoutes;
+    }
+
     private final List<EnergyRoutePath> routes;
     private TileEntityCable[] pipes = {};
     private int loss;
 
+    // only used when walking from a destination to its sources
+    private EnumFacing destFacing;
+    private Set<BlockPos> sourcePipes;
+    private Map<BlockPos, EnergyRoutePath> foundRoutes;
+
     protected EnergyNetWalker(World world, BlockPos sourcePipe, int walkedBlocks, List<EnergyRoutePath> routes) {
         super(world, sourcePipe, walkedBlocks);
         this.routes = routes;
@@ -42,6 +76,9 @@ public class EnergyNetWalker extends PipeNetWalker<TileEntityCable> {
         EnergyNetWalker walker = new EnergyNetWalker(world, nextPos, walkedBlocks, routes);
         walker.loss = loss;
         walker.pipes = pipes;
+        walker.destFacing = destFacing;
+        walker.sourcePipes = sourcePipes;
+        walker.foundRoutes = foundRoutes;
         return walker;
     }
 
@@ -49,6 +86,16 @@ public class EnergyNetWalker extends PipeNetWalker<TileEntityCable> {
     protected void checkPipe(TileEntityCable pipeTile, BlockPos pos) {
         pipes = ArrayUtils.add(pipes, pipeTile);
         loss += pipeTile.getNodeData().getLossPerBlock();
+
+        if (sourcePipes != null && sourcePipes.contains(pos)) {
+            // the walk started at the destination, so the path has to be reversed
+            TileEntityCable[] path = pipes.clone();
+            ArrayUtils.reverse(path);
+            foundRoutes.put(pipeTile.getPipePos(), new EnergyRoutePath(destFacing, path, path.length, loss));
+            if (foundRoutes.size() == sourcePipes.size()) {
+                stop();
+            }
+        }
     }
 
     @Override
@@ -57,7 +104,7 @@ public class EnergyNetWalker extends PipeNetWalker<TileEntityCable> {
         // assert that the last added pipe is the current pipe
         if (pipeTile != pipes[pipes.length - 1]) throw new IllegalStateException(
                 "The current pipe is not the last added pipe. Something went seriously wrong!");
-        if (neighbourTile != null) {
+        if (routes != null && neighbourTile != null) {
             IEnergyContainer container = neighbourTile.getCapability(GregtechCapabilities.CAPABILITY_ENERGY_CONTAINER,
                     faceToNeighbour.getOpposite());
             if (container != null) {
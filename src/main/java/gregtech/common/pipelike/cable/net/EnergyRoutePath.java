@@ -16,6 +16,7 @@ public class EnergyRoutePath implements IRoutePath<TileEntityCable> {
     private final int distance;
     private final TileEntityCable[] path;
     private final long maxLoss;
+    private final long minVoltage;
 
     public EnergyRoutePath(EnumFacing destFacing, TileEntityCable[] path, int distance, long maxLoss) {
         this.targetPipe = path[path.length - 1];
@@ -23,6 +24,12 @@ public class EnergyRoutePath implements IRoutePath<TileEntityCable> {
         this.path = path;
         this.distance = distance;
         this.maxLoss = maxLoss;
+
+        long minVoltage = Long.MAX_VALUE;
+        for (TileEntityCable cable : path) {
+            minVoltage = Math.min(minVoltage, cable.getMaxVoltage());
+        }
+        this.minVoltage = minVoltage;
     }
 
     @Override
@@ -44,6 +51,13 @@ public class EnergyRoutePath implements IRoutePath<TileEntityCable> {
         return maxLoss;
     }
 
+    /**
+     * @return the lowest max voltage of the cables in the path
+     */
+    public long getMinVoltage() {
+        return minVoltage;
+    }
+
     public TileEntityCable[] getPath() {
         return path;
     }
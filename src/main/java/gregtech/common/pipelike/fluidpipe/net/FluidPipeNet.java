@@ -1,17 +1,241 @@
 package gregtech.common.pipelike.fluidpipe.net;
 
+import gregtech.api.pipenet.Node;
 import gregtech.api.pipenet.PipeNet;
+import gregtech.api.pipenet.PipeNetTopology;
 import gregtech.api.pipenet.WorldPipeNet;
 import gregtech.api.unification.material.properties.FluidPipeProperties;
+import gregtech.common.ConfigHolder;
+import gregtech.common.pipelike.fluidpipe.tile.TileEntityFluidPipe;
+import gregtech.common.pipelike.fluidpipe.tile.TileEntityFluidPipeTickable;
 
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ITickable;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
+import net.minecraftforge.fluids.capability.IFluidHandler;
 
-public class FluidPipeNet extends PipeNet<FluidPipeProperties> {
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class FluidPipeNet extends PipeNet<FluidPipeProperties> implements ITickable {
+
+    // pipes which may contain fluid for the net to move
+    private final LongSet filledPipes = new LongOpenHashSet();
+    // the amount of fluid moved through each pipe during the current update
+    private final Long2IntOpenHashMap transferred = new Long2IntOpenHashMap();
+    private final Long2ObjectOpenHashMap<Routes> routesBySource = new Long2ObjectOpenHashMap<>();
+    private PipeNetTopology<FluidPipeProperties> routeTopology;
 
     public FluidPipeNet(WorldPipeNet<FluidPipeProperties, FluidPipeNet> world) {
         super(world);
     }
 
+    /**
+     * Mark a pipe as containing fluid, so it is moved by the net when
+     * {@link ConfigHolder.MachineOptions#netLevelFluidFlow net level flow} is enabled.
+     *
+     * @param pipePos the position of the pipe
+     */
+    public void onPipeFilled(@NotNull BlockPos pipePos) {
+        filledPipes.add(pipePos.toLong());
+    }
+
+    /**
+     * Moves the fluid of every filled pipe directly to the blocks next to the net, closest first. The fluid moved
+     * through each pipe is limited by its throughput, shared between all paths using the pipe.
+     */
+    @Override
+    public void update() {
+        if (!ConfigHolder.machines.netLevelFluidFlow || filledPipes.isEmpty()) return;
+        World world = getWorldData();
+        if (world == null) return;
+
+        PipeNetTopology<FluidPipeProperties> topology = getTopology();
+        if (topology != routeTopology) {
+            routesBySource.clear();
+            routeTopology = topology;
+        }
+        transferred.clear();
+
+        // pipes destroyed by the fluid may split the net and move filled pipes to other nets, so iterate a copy
+        for (long packed : filledPipes.toLongArray()) {
+            if (!filledPipes.contains(packed)) continue;
+            BlockPos pos = BlockPos.fromLong(packed);
+            if (!containsNode(pos) || !world.isBlockLoaded(pos) ||
+                    !(world.getTileEntity(pos) instanceof TileEntityFluidPipeTickable pipe)) {
+                filledPipes.remove(packed);
+                continue;
+            }
+            if (!distributeFluid(world, topology, pipe)) {
+                // the net was removed, its remaining pipes now belong to other nets
+                if (!isValid()) return;
+                // the destroyed pipes are no longer nodes, so continue with routes found from the new topology
+                topology = getTopology();
+                routesBySource.clear();
+                routeTopology = topology;
+            }
+            if (!pipe.hasFluid()) {
+                filledPipes.remove(packed);
+            }
+        }
+    }
+
+    /**
+     * @return false if pipes were destroyed while moving the fluid
+     */
+    private boolean distributeFluid(@NotNull World world, @NotNull PipeNetTopology<FluidPipeProperties> topology,
+                                    @NotNull TileEntityFluidPipeTickable source) {
+        Routes routes = getRoutes(topology, source.getPipePos());
+        if (routes == null) return true;
+
+        IFluidHandler sourceTanks = source.getTankList();
+        for (FluidTank tank : source.getFluidTanks()) {
+            if (tank.getFluid() == null) continue;
+            if (tank.getFluidAmount() <= 0) {
+                tank.setFluid(null);
+                continue;
+            }
+            // the stack of the tank is modified when draining
+            FluidStack fluid = tank.getFluid().copy();
+
+            for (int i = 0; i < routes.vertices.length && tank.getFluidAmount() > 0; i++) {
+                BlockPos[] path = routes.getPath(i);
+                int available = getAvailableThroughput(world, path, routes.getThroughputs(i));
+                if (available <= 0) continue;
+
+                int vertex = routes.vertices[i];
+                BlockPos vertexPos = path[path.length - 1];
+                if (!(world.getTileEntity(vertexPos) instanceof TileEntityFluidPipeTickable pipe)) continue;
+
+                for (EnumFacing facing : EnumFacing.VALUES) {
+                    if (available <= 0 || tank.getFluidAmount() <= 0) break;
+                    if (topology.isConnected(vertex, facing) || !pipe.isConnected(facing)) continue;
+                    // do not push fluid back to where it was inserted from
+                    if (pipe == source && (source.lastReceivedFrom & 1 << facing.getIndex()) != 0) continue;
+
+                    BlockPos neighborPos = vertexPos.offset(facing);
+                    if (containsNode(neighborPos) || !world.isBlockLoaded(neighborPos)) continue;
+                    TileEntity neighbor = world.getTileEntity(neighborPos);
+                    if (neighbor == null) continue;
+                    IFluidHandler handler = neighbor.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY,
+                            facing.getOpposite());
+                    if (handler == null) continue;
+                    IFluidHandler output = pipe.getOutputTank(facing, neighbor, sourceTanks);
+                    if (output == null) continue;
+
+                    FluidStack drainable = output.drain(new FluidStack(fluid, Math.min(available,
+                            tank.getFluidAmount())), false);
+                    if (drainable == null || drainable.amount <= 0) continue;
+                    int accepted = handler.fill(drainable, false);
+                    if (accepted <= 0) continue;
+
+                    FluidStack moved = new FluidStack(drainable, accepted);
+                    boolean changed = applyFluidEffects(world, path, moved);
+                    int inserted = moved.amount > 0 ? handler.fill(moved, true) : 0;
+                    // fluid voided by the pipes along the way is lost as well
+                    int drained = accepted - moved.amount + inserted;
+                    if (drained > 0) {
+                        output.drain(new FluidStack(drainable, drained), true);
+                    }
+                    for (BlockPos pos : path) {
+                        transferred.addTo(pos.toLong(), accepted);
+                    }
+                    available -= accepted;
+                    if (changed) {
+                        source.lastReceivedFrom = 0;
+                        return false;
+                    }
+                }
+            }
+        }
+        source.lastReceivedFrom = 0;
+        return true;
+    }
+
+    /**
+     * @return the amount of fluid which can still be moved along the path this update, or 0 if it is not loaded
+     */
+    private int getAvailableThroughput(@NotNull World world, @NotNull BlockPos @NotNull [] path,
+                                       int @NotNull [] throughputs) {
+        int available = Integer.MAX_VALUE;
+        for (int i = 0; i < path.length; i++) {
+            if (!world.isBlockLoaded(path[i])) return 0;
+            available = Math.min(available, throughputs[i] - transferred.get(path[i].toLong()));
+        }
+        return available;
+    }
+
+    /**
+     * Apply the effects of a fluid to every pipe it is moved through, except the one it was inserted into.
+     *
+     * @return if the net changed because a pipe was destroyed
+     */
+    private boolean applyFluidEffects(@NotNull World world, @NotNull BlockPos @NotNull [] path,
+                                      @NotNull FluidStack stack) {
+        for (int i = 1; i < path.length && stack.amount > 0; i++) {
+            if (world.getTileEntity(path[i]) instanceof TileEntityFluidPipeTickable pipe) {
+                pipe.checkAndDestroy(stack);
+            }
+        }
+        return !isValid() || !isTopologyCurrent(routeTopology);
+    }
+
+    private @Nullable Routes getRoutes(@NotNull PipeNetTopology<FluidPipeProperties> topology,
+                                       @NotNull BlockPos source) {
+        Routes routes = routesBySource.get(source.toLong());
+        if (routes == null) {
+            PipeNetTopology<FluidPipeProperties>.Paths paths = topology.findPaths(source);
+            if (paths == null) return null;
+
+            // pack the distance above the vertex, so sorting orders the vertices by distance
+            LongArrayList reached = new LongArrayList();
+            for (int vertex = 0; vertex < topology.getVertexCount(); vertex++) {
+                if (paths.isReached(vertex)) {
+                    reached.add(((long) paths.getDistance(vertex) << 32) | vertex);
+                }
+            }
+            long[] sorted = reached.toLongArray();
+            Arrays.sort(sorted);
+            int[] vertices = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                vertices[i] = (int) sorted[i];
+            }
+            routes = new Routes(paths, vertices);
+            routesBySource.put(source.toLong(), routes);
+        }
+        return routes;
+    }
+
+    @Override
+    protected void transferNodeData(Map<BlockPos, Node<FluidPipeProperties>> transferredNodes,
+                                    PipeNet<FluidPipeProperties> parentNet) {
+        super.transferNodeData(transferredNodes, parentNet);
+        // the fluid of the transferred pipes is moved by this net from now on
+        LongIterator iterator = ((FluidPipeNet) parentNet).filledPipes.iterator();
+        while (iterator.hasNext()) {
+            long pos = iterator.nextLong();
+            if (containsNode(BlockPos.fromLong(pos))) {
+                filledPipes.add(pos);
+                iterator.remove();
+            }
+        }
+    }
+
     @Override
     protected void writeNodeData(FluidPipeProperties nodeData, NBTTagCompound tagCompound) {
         tagCompound.setInteger("max_temperature", nodeData.getMaxFluidTemperature());
@@ -35,4 +259,44 @@ public class FluidPipeNet extends PipeNet<FluidPipeProperties> {
         return new FluidPipeProperties(maxTemperature, throughput, gasProof, acidProof, cryoProof, plasmaProof,
                 channels);
     }
+
+    /**
+     * The paths from a filled pipe to every vertex of the net, ordered by distance. The nodes of each path are only
+     * looked up once a fluid is moved along it.
+     */
+    private final class Routes {
+
+        private final PipeNetTopology<FluidPipeProperties>.Paths paths;
+        private final int[] vertices;
+        private final BlockPos[][] nodePaths;
+        private final int[][] throughputs;
+
+        private Routes(@NotNull PipeNetTopology<FluidPipeProperties>.Paths paths, int @NotNull [] vertices) {
+            this.paths = paths;
+            this.vertices = vertices;
+            this.nodePaths = new BlockPos[vertices.length][];
+            this.throughputs = new int[vertices.length][];
+        }
+
+        private @NotNull BlockPos @NotNull [] getPath(int index) {
+            if (nodePaths[index] == null) {
+                long[] path = paths.getPath(vertices[index]);
+                BlockPos[] nodes = new BlockPos[path.length];
+                int[] nodeThroughputs = new int[path.length];
+                for (int i = 0; i < path.length; i++) {
+                    nodes[i] = BlockPos.fromLong(path[i]);
+                    // the net moves fluid once every pipe update, so the same amount a pipe would move
+                    nodeThroughputs[i] = getNodeAt(nodes[i]).data.getThroughput() * TileEntityFluidPipe.FREQUENCY;
+                }
+                nodePaths[index] = nodes;
+                throughputs[index] = nodeThroughputs;
+            }
+            return nodePaths[index];
+        }
+
+        private int @NotNull [] getThroughputs(int index) {
+            getPath(index);
+            return throughputs[index];
+        }
+    }
 }
@@ -1,11 +1,12 @@
 package gregtech.common.pipelike.fluidpipe.net;
 
-import gregtech.api.pipenet.WorldPipeNet;
+import gregtech.api.pipenet.tickable.TickableWorldPipeNet;
 import gregtech.api.unification.material.properties.FluidPipeProperties;
+import gregtech.common.pipelike.fluidpipe.tile.TileEntityFluidPipe;
 
 import net.minecraft.world.World;
 
-public class WorldFluidPipeNet extends WorldPipeNet<FluidPipeProperties, FluidPipeNet> {
+public class WorldFluidPipeNet extends TickableWorldPipeNet<FluidPipeProperties, FluidPipeNet> {
 
     private static final String DATA_ID_BASE = "gregtech.fluid_pipe_net";
 
@@ -24,6 +25,11 @@ public class WorldFluidPipeNet extends WorldPipeNet<FluidPipeProperties, FluidPi
         super(name);
     }
 
+    @Override
+    protected int getUpdateRate() {
+        return TileEntityFluidPipe.FREQUENCY;
+    }
+
     @Override
     protected FluidPipeNet createNetInstance() {
         return new FluidPipeNet(this);
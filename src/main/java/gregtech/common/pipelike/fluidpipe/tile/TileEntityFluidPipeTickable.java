@@ -12,7 +12,10 @@ import gregtech.api.metatileentity.IDataInfoProvider;
 import gregtech.api.unification.material.properties.FluidPipeProperties;
 import gregtech.api.util.EntityDamageUtil;
 import gregtech.api.util.TextFormattingUtil;
+import gregtech.api.util.profiler.TickProfiler;
+import gregtech.common.ConfigHolder;
 import gregtech.common.covers.CoverPump;
+import gregtech.common.pipelike.fluidpipe.net.FluidPipeNet;
 import gregtech.common.pipelike.fluidpipe.net.PipeTankList;
 
 import net.minecraft.entity.EntityLivingBase;
@@ -73,32 +76,45 @@ public class TileEntityFluidPipeTickable extends TileEntityFluidPipe implements
     public void update() {
         timer++;
         getCoverableImplementation().update();
-        if (!world.isRemote && getOffsetTimer() % FREQUENCY == 0) {
-            lastReceivedFrom &= 63;
-            if (lastReceivedFrom == 63) {
-                lastReceivedFrom = 0;
+        // with net level flow, the fluid is moved by the net instead
+        if (!world.isRemote && !ConfigHolder.machines.netLevelFluidFlow && getOffsetTimer() % FREQUENCY == 0) {
+            if (TickProfiler.isProfiling()) {
+                long allocated = TickProfiler.getAllocatedBytes();
+                long time = System.nanoTime();
+                distributeFluids();
+                TickProfiler.record(TickProfiler.Category.PIPE, getClass(), world, getPos(),
+                        System.nanoTime() - time, TickProfiler.getAllocatedBytes() - allocated);
+            } else {
+                distributeFluids();
             }
+        }
+    }
 
-            boolean shouldDistribute = (oldLastReceivedFrom == lastReceivedFrom);
-            int tanks = getNodeData().getTanks();
-            for (int i = 0, j = GTValues.RNG.nextInt(tanks); i < tanks; i++) {
-                int index = (i + j) % tanks;
-                FluidTank tank = getFluidTanks()[index];
-                FluidStack fluid = tank.getFluid();
-                if (fluid == null)
-                    continue;
-                if (fluid.amount <= 0) {
-                    tank.setFluid(null);
-                    continue;
-                }
+    private void distributeFluids() {
+        lastReceivedFrom &= 63;
+        if (lastReceivedFrom == 63) {
+            lastReceivedFrom = 0;
+        }
 
-                if (shouldDistribute) {
-                    distributeFluid(index, tank, fluid);
-                    lastReceivedFrom = 0;
-                }
+        boolean shouldDistribute = (oldLastReceivedFrom == lastReceivedFrom);
+        int tanks = getNodeData().getTanks();
+        for (int i = 0, j = GTValues.RNG.nextInt(tanks); i < tanks; i++) {
+            int index = (i + j) % tanks;
+            FluidTank tank = getFluidTanks()[index];
+            FluidStack fluid = tank.getFluid();
+            if (fluid == null)
+                continue;
+            if (fluid.amount <= 0) {
+                tank.setFluid(null);
+                continue;
+            }
+
+            if (shouldDistribute) {
+                distributeFluid(index, tank, fluid);
+                lastReceivedFrom = 0;
             }
-            oldLastReceivedFrom = lastReceivedFrom;
         }
+        oldLastReceivedFrom = lastReceivedFrom;
     }
 
     @Override
@@ -129,22 +145,8 @@ public class TileEntityFluidPipeTickable extends TileEntityFluidPipe implements
                     facing.getOpposite());
             if (fluidHandler == null) continue;
 
-            IFluidHandler pipeTank = tank;
-            Cover cover = getCoverableImplementation().getCoverAtSide(facing);
-
-            // pipeTank should only be determined by the cover attached to the actual pipe
-            if (cover != null) {
-                pipeTank = cover.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, pipeTank);
-                // Shutter covers return null capability when active, so check here to prevent NPE
-                if (pipeTank == null || checkForPumpCover(cover)) continue;
-            } else {
-                CoverableView coverable = neighbor.getCapability(GregtechTileCapabilities.CAPABILITY_COVER_HOLDER,
-                        facing.getOpposite());
-                if (coverable != null) {
-                    cover = coverable.getCoverAtSide(facing.getOpposite());
-                    if (checkForPumpCover(cover)) continue;
-                }
-            }
+            IFluidHandler pipeTank = getOutputTank(facing, neighbor, tank);
+            if (pipeTank == null) continue;
 
             FluidStack drainable = pipeTank.drain(maxFluid, false);
             if (drainable == null || drainable.amount <= 0) {
@@ -195,6 +197,34 @@ public class TileEntityFluidPipeTickable extends TileEntityFluidPipe implements
         }
     }
 
+    /**
+     * Get the tank fluid leaving this pipe through a side has to be drained from, respecting the covers on the side.
+     *
+     * @param facing   the side the fluid leaves through
+     * @param neighbor the tile entity on the side
+     * @param tank     the tank holding the fluid
+     * @return the tank to drain from, or null if fluid can not leave through the side
+     */
+    @Nullable
+    public IFluidHandler getOutputTank(@NotNull EnumFacing facing, @NotNull TileEntity neighbor,
+                                       @NotNull IFluidHandler tank) {
+        Cover cover = getCoverableImplementation().getCoverAtSide(facing);
+
+        // pipeTank should only be determined by the cover attached to the actual pipe
+        if (cover != null) {
+            IFluidHandler pipeTank = cover.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, tank);
+            // Shutter covers return null capability when active, so check here to prevent NPE
+            if (pipeTank == null || checkForPumpCover(cover)) return null;
+            return pipeTank;
+        }
+        CoverableView coverable = neighbor.getCapability(GregtechTileCapabilities.CAPABILITY_COVER_HOLDER,
+                facing.getOpposite());
+        if (coverable != null && checkForPumpCover(coverable.getCoverAtSide(facing.getOpposite()))) {
+            return null;
+        }
+        return tank;
+    }
+
     private boolean checkForPumpCover(@Nullable Cover cover) {
         if (cover instanceof CoverPump coverPump) {
             int pipeThroughput = getNodeData().getThroughput() * 20;
@@ -360,6 +390,37 @@ public class TileEntityFluidPipeTickable extends TileEntityFluidPipe implements
         if (facing != null) {
             lastReceivedFrom |= (1 << facing.getIndex());
         }
+        if (ConfigHolder.machines.netLevelFluidFlow) {
+            notifyFilled();
+        }
+    }
+
+    private void notifyFilled() {
+        FluidPipeNet net = getFluidPipeNet();
+        if (net != null) {
+            net.onPipeFilled(getPipePos());
+        }
+    }
+
+    /**
+     * @return if any tank of this pipe contains fluid
+     */
+    public boolean hasFluid() {
+        for (FluidTank tank : getFluidTanks()) {
+            if (tank.getFluidAmount() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        // fluid loaded with the pipe has to be moved by the net as well
+        if (ConfigHolder.machines.netLevelFluidFlow && !world.isRemote && hasFluid()) {
+            notifyFilled();
+        }
     }
 
     public FluidStack getContainedFluid(int channel) {
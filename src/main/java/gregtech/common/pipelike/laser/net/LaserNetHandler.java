@@ -1,10 +1,12 @@
 package gregtech.common.pipelike.laser.net;
 
 import gregtech.api.capability.ILaserContainer;
+import gregtech.api.pipenet.PipeNet;
 import gregtech.common.pipelike.laser.tile.TileEntityLaserPipe;
 
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -26,11 +28,13 @@ public class LaserNetHandler implements ILaserContainer {
     }
 
     private void setPipesActive() {
-        for (BlockPos pos : net.getAllNodes().keySet()) {
-            if (pipe.getWorld().getTileEntity(pos) instanceof TileEntityLaserPipe laserPipe) {
+        World world = pipe.getWorld();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        net.forEachNode((nodePos, node) -> {
+            if (world.getTileEntity(PipeNet.setPos(pos, nodePos)) instanceof TileEntityLaserPipe laserPipe) {
                 laserPipe.setActive(true, 100);
             }
-        }
+        });
     }
 
     @Nullable
@@ -3,6 +3,7 @@ package gregtech.common.pipelike.optical.net;
 import gregtech.api.capability.IDataAccessHatch;
 import gregtech.api.capability.IOpticalComputationProvider;
 import gregtech.api.capability.IOpticalDataAccessHatch;
+import gregtech.api.pipenet.PipeNet;
 import gregtech.api.recipes.Recipe;
 import gregtech.common.pipelike.optical.tile.TileEntityOpticalPipe;
 
@@ -68,11 +69,12 @@ public class OpticalNetHandler implements IDataAccessHatch, IOpticalComputationP
     }
 
     private void setPipesActive() {
-        for (BlockPos pos : net.getAllNodes().keySet()) {
-            if (world.getTileEntity(pos) instanceof TileEntityOpticalPipe opticalPipe) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        net.forEachNode((nodePos, node) -> {
+            if (world.getTileEntity(PipeNet.setPos(pos, nodePos)) instanceof TileEntityOpticalPipe opticalPipe) {
                 opticalPipe.setActive(true, 100);
             }
-        }
+        });
     }
 
     private boolean isNetInvalidForTraversal() {
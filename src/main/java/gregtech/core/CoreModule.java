@@ -45,6 +45,7 @@ import gregtech.common.command.CommandHand;
 import gregtech.common.command.CommandRecipeCheck;
 import gregtech.common.command.CommandShaders;
 import gregtech.common.command.benchmark.CommandBenchmark;
+import gregtech.common.command.profile.CommandProfile;
 import gregtech.common.command.worldgen.CommandWorldgen;
 import gregtech.common.covers.CoverBehaviors;
 import gregtech.common.covers.filter.oreglob.impl.OreGlobParser;
@@ -66,6 +67,7 @@ import gregtech.core.network.packets.PacketNotifyCapeChange;
 import gregtech.core.network.packets.PacketPluginSynced;
 import gregtech.core.network.packets.PacketRecoverMTE;
 import gregtech.core.network.packets.PacketReloadShaders;
+import gregtech.core.network.packets.PacketSyncedTileEntityData;
 import gregtech.core.network.packets.PacketToolbeltSelectionChange;
 import gregtech.core.network.packets.PacketUIClientAction;
 import gregtech.core.network.packets.PacketUIOpen;
@@ -250,6 +252,7 @@ public class CoreModule implements IGregTechModule {
         GregTechAPI.networkHandler.registerPacket(PacketClipboardNBTUpdate.class);
         GregTechAPI.networkHandler.registerPacket(PacketToolbeltSelectionChange.Server.class);
         GregTechAPI.networkHandler.registerPacket(PacketToolbeltSelectionChange.Client.class);
+        GregTechAPI.networkHandler.registerPacket(PacketSyncedTileEntityData.class);
     }
 
     @Override
@@ -326,6 +329,7 @@ public class CoreModule implements IGregTechModule {
         GregTechAPI.commandManager.addCommand(new CommandShaders());
         GregTechAPI.commandManager.addCommand(new CommandDataFix());
         GregTechAPI.commandManager.addCommand(new CommandBenchmark());
+        GregTechAPI.commandManager.addCommand(new CommandProfile());
         CapesRegistry.load();
 
         if (Mods.BetterQuestingUnofficial.isModLoaded()) {
@@ -0,0 +1,61 @@
+package gregtech.core.network.packets;
+
+import gregtech.api.metatileentity.SyncedTileEntityBase;
+import gregtech.api.network.IClientExecutor;
+import gregtech.api.network.IPacket;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.network.NetHandlerPlayClient;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import io.netty.buffer.Unpooled;
+
+/**
+ * The custom data written by the tile entities of a chunk during a tick
+ *
+ * @see gregtech.api.metatileentity.SyncedTileEntityBatcher
+ */
+public class PacketSyncedTileEntityData implements IPacket, IClientExecutor {
+
+    private byte[] data;
+
+    @SuppressWarnings("unused")
+    public PacketSyncedTileEntityData() {}
+
+    public PacketSyncedTileEntityData(byte[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public void encode(PacketBuffer buf) {
+        buf.writeByteArray(data);
+    }
+
+    @Override
+    public void decode(PacketBuffer buf) {
+        this.data = buf.readByteArray();
+    }
+
+    @SideOnly(Side.CLIENT)
+    @Override
+    public void executeClient(NetHandlerPlayClient handler) {
+        World world = Minecraft.getMinecraft().world;
+        if (world == null) return;
+        PacketBuffer buf = new PacketBuffer(Unpooled.wrappedBuffer(data));
+        int count = buf.readVarInt();
+        for (int i = 0; i < count; i++) {
+            BlockPos pos = buf.readBlockPos();
+            TileEntity tileEntity = world.isBlockLoaded(pos) ? world.getTileEntity(pos) : null;
+            if (tileEntity instanceof SyncedTileEntityBase syncedTileEntity) {
+                syncedTileEntity.receiveBatchedData(buf);
+            } else {
+                SyncedTileEntityBase.skipBatchedData(buf);
+            }
+        }
+    }
+}
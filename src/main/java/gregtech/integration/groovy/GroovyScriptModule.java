@@ -10,6 +10,7 @@ import gregtech.api.metatileentity.registry.MTERegistry;
 import gregtech.api.modules.GregTechModule;
 import gregtech.api.recipes.RecipeBuilder;
 import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.RecipeRegistrationPipeline;
 import gregtech.api.recipes.ingredients.GTRecipeOreInput;
 import gregtech.api.unification.Element;
 import gregtech.api.unification.Elements;
@@ -91,9 +92,19 @@ public class GroovyScriptModule extends IntegrationSubmodule implements GroovyPl
         GroovyScriptModule.loadMetaItemBracketHandler();
     }
 
+    @SubscribeEvent
+    @Optional.Method(modid = Mods.Names.GROOVY_SCRIPT)
+    public static void beforeScriptLoad(ScriptRunEvent.Pre event) {
+        RecipeRegistrationPipeline.begin();
+    }
+
     @SubscribeEvent
     @Optional.Method(modid = Mods.Names.GROOVY_SCRIPT)
     public static void afterScriptLoad(ScriptRunEvent.Post event) {
+        RecipeRegistrationPipeline.finish();
+        // scripts may have added or removed recipes, which discards the compiled lookups
+        RecipeMap.freezeAll();
+
         // Not Needed if JEI Module is enabled, unless we are on server (JEI Plugin Register doesn't take place)
         if (!GregTechAPI.moduleManager.isModuleEnabled(GregTechModules.MODULE_JEI) ||
                 FMLCommonHandler.instance().getSide().isServer())
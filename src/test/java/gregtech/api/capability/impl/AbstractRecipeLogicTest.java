@@ -1,6 +1,7 @@
 package gregtech.api.capability.impl;
 
 import gregtech.Bootstrap;
+import gregtech.api.capability.IMultipleTankHandler;
 import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.metatileentity.MetaTileEntityHolder;
 import gregtech.api.metatileentity.SimpleMachineMetaTileEntity;
@@ -10,11 +11,13 @@ import gregtech.api.recipes.RecipeMapBuilder;
 import gregtech.api.recipes.builders.SimpleRecipeBuilder;
 import gregtech.api.util.GTUtility;
 import gregtech.api.util.world.DummyWorld;
+import gregtech.common.ConfigHolder;
 import gregtech.common.metatileentities.MetaTileEntities;
 
 import net.minecraft.init.Blocks;
 import net.minecraft.item.ItemStack;
 import net.minecraft.world.World;
+import net.minecraftforge.items.IItemHandlerModifiable;
 
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.BeforeAll;
@@ -111,6 +114,82 @@ public class AbstractRecipeLogicTest {
         MatcherAssert.assertThat(arl.maxProgressTime, is((int) Math.round(initialDuration * 0.2)));
     }
 
+    @Test
+    public void batchedCompletions() {
+        AbstractRecipeLogic arl = createTestLogic(30, 1);
+        ConfigHolder.machines.recipeBatchTicks = 4;
+        try {
+            queryTestRecipe(arl);
+            MatcherAssert.assertThat(arl.getInputInventory().getStackInSlot(0).getCount(), is(15));
+
+            // the recipe is started 8 more times one by one, and the last start batches the next 4 completions
+            for (int i = 0; i < 8; i++) {
+                arl.update();
+            }
+            MatcherAssert.assertThat(arl.getOutputInventory().getStackInSlot(0).getCount(), is(8));
+            MatcherAssert.assertThat(arl.getInputInventory().getStackInSlot(0).getCount(), is(4));
+            MatcherAssert.assertThat(arl.maxProgressTime, is(4));
+            MatcherAssert.assertThat(arl.recipeEUt, is(30L));
+
+            for (int i = 0; i < 4; i++) {
+                arl.update();
+            }
+            MatcherAssert.assertThat(arl.getOutputInventory().getStackInSlot(0).getCount(), is(12));
+        } finally {
+            ConfigHolder.machines.recipeBatchTicks = 1;
+        }
+    }
+
+    @Test
+    public void recipeSearchCacheHits() {
+        TestRecipeLogic arl = (TestRecipeLogic) createTestLogic(30, 100);
+        arl.getRecipeMap().recipeBuilder()
+                .inputs(new ItemStack(Blocks.SAND))
+                .outputs(new ItemStack(Blocks.GLASS))
+                .EUt(30).duration(100)
+                .buildAndRegister();
+        IItemHandlerModifiable inputs = arl.getInputInventory();
+        IMultipleTankHandler fluids = arl.getInputTank();
+
+        inputs.insertItem(0, new ItemStack(Blocks.COBBLESTONE, 16), false);
+        Recipe cobblestone = arl.findRecipeCached(32, inputs, fluids);
+        MatcherAssert.assertThat(cobblestone, notNullValue());
+        MatcherAssert.assertThat(arl.searches, is(1));
+
+        // a notification which did not change the inputs
+        arl.getMetaTileEntity().addNotifiedInput(inputs);
+        MatcherAssert.assertThat(arl.findRecipeCached(32, inputs, fluids), is(cobblestone));
+        MatcherAssert.assertThat(arl.searches, is(1));
+
+        // other amounts of the same inputs
+        inputs.extractItem(0, 5, false);
+        MatcherAssert.assertThat(arl.findRecipeCached(32, inputs, fluids), is(cobblestone));
+        MatcherAssert.assertThat(arl.searches, is(1));
+
+        // alternating between inputs only searches each of them once
+        inputs.setStackInSlot(0, new ItemStack(Blocks.SAND, 3));
+        Recipe sand = arl.findRecipeCached(32, inputs, fluids);
+        MatcherAssert.assertThat(sand, notNullValue());
+        MatcherAssert.assertThat(sand, not(cobblestone));
+        MatcherAssert.assertThat(arl.searches, is(2));
+        inputs.setStackInSlot(0, new ItemStack(Blocks.COBBLESTONE, 7));
+        MatcherAssert.assertThat(arl.findRecipeCached(32, inputs, fluids), is(cobblestone));
+        inputs.setStackInSlot(0, new ItemStack(Blocks.SAND, 9));
+        MatcherAssert.assertThat(arl.findRecipeCached(32, inputs, fluids), is(sand));
+        MatcherAssert.assertThat(arl.searches, is(2));
+
+        // searches without a result are only remembered for the exact inputs
+        inputs.setStackInSlot(0, new ItemStack(Blocks.DIRT));
+        MatcherAssert.assertThat(arl.findRecipeCached(32, inputs, fluids), nullValue());
+        MatcherAssert.assertThat(arl.searches, is(3));
+        arl.getMetaTileEntity().addNotifiedInput(inputs);
+        MatcherAssert.assertThat(arl.findRecipeCached(32, inputs, fluids), nullValue());
+        MatcherAssert.assertThat(arl.searches, is(3));
+        inputs.insertItem(0, new ItemStack(Blocks.DIRT), false);
+        MatcherAssert.assertThat(arl.findRecipeCached(32, inputs, fluids), nullValue());
+        MatcherAssert.assertThat(arl.searches, is(4));
+    }
+
     private static int TEST_ID = 190;
 
     private static AbstractRecipeLogic createTestLogic(int testRecipeEUt, int testRecipeDuration) {
@@ -141,39 +220,54 @@ public class AbstractRecipeLogicTest {
 
         TEST_ID++;
 
-        AbstractRecipeLogic arl = new AbstractRecipeLogic(atte, map) {
-
-            @Override
-            protected long getEnergyInputPerSecond() {
-                return Long.MAX_VALUE;
-            }
-
-            @Override
-            protected long getEnergyStored() {
-                return Long.MAX_VALUE;
-            }
-
-            @Override
-            protected long getEnergyCapacity() {
-                return Long.MAX_VALUE;
-            }
-
-            @Override
-            protected boolean drawEnergy(long recipeEUt, boolean simulate) {
-                return true;
-            }
-
-            @Override
-            public long getMaxVoltage() {
-                return 32;
-            }
-        };
+        AbstractRecipeLogic arl = new TestRecipeLogic(atte, map);
 
         arl.isOutputsFull = false;
         arl.invalidInputsForRecipes = false;
         return arl;
     }
 
+    private static class TestRecipeLogic extends AbstractRecipeLogic {
+
+        private int searches;
+
+        public TestRecipeLogic(MetaTileEntity tileEntity, RecipeMap<?> recipeMap) {
+            super(tileEntity, recipeMap);
+        }
+
+        @Override
+        protected Recipe findRecipe(long maxVoltage, IItemHandlerModifiable inputs,
+                                    IMultipleTankHandler fluidInputs) {
+            searches++;
+            return super.findRecipe(maxVoltage, inputs, fluidInputs);
+        }
+
+        @Override
+        protected long getEnergyInputPerSecond() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        protected long getEnergyStored() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        protected long getEnergyCapacity() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        protected boolean drawEnergy(long recipeEUt, boolean simulate) {
+            return true;
+        }
+
+        @Override
+        public long getMaxVoltage() {
+            return 32;
+        }
+    }
+
     private static void queryTestRecipe(AbstractRecipeLogic arl) {
         // put an item in the inventory that will trigger recipe recheck
         arl.getInputInventory().insertItem(0, new ItemStack(Blocks.COBBLESTONE, 16), false);
@@ -0,0 +1,79 @@
+package gregtech.api.capability.impl;
+
+import gregtech.Bootstrap;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.metatileentity.MetaTileEntityHolder;
+import gregtech.api.metatileentity.interfaces.IGregTechTileEntity;
+import gregtech.api.util.world.DummyWorld;
+
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static gregtech.api.GTValues.*;
+import static org.hamcrest.CoreMatchers.is;
+
+public class EnergyContainerHandlerTest {
+
+    private static final long AMPS = 2;
+
+    @BeforeAll
+    public static void bootstrap() {
+        Bootstrap.perform();
+    }
+
+    @Test
+    public void amperageIsLimitedPerTick() {
+        World world = new DummyWorld();
+        world.setTotalWorldTime(100);
+        EnergyContainerHandler container = createContainer(world);
+
+        // energy accepted before the update of the machine
+        MatcherAssert.assertThat(container.acceptEnergyFromNetwork(null, V[LV], 1), is(1L));
+        container.update();
+        // and after it, in the same tick, share the same budget
+        MatcherAssert.assertThat(container.acceptEnergyFromNetwork(null, V[LV], AMPS), is(AMPS - 1));
+        MatcherAssert.assertThat(container.acceptEnergyFromNetwork(null, V[LV], AMPS), is(0L));
+
+        // the budget is reset on the next tick, even without an update
+        world.setTotalWorldTime(101);
+        MatcherAssert.assertThat(container.acceptEnergyFromNetwork(null, V[LV], AMPS), is(AMPS));
+        container.update();
+        MatcherAssert.assertThat(container.acceptEnergyFromNetwork(null, V[LV], AMPS), is(0L));
+    }
+
+    @Test
+    public void inputPerSecondWithoutUpdates() {
+        World world = new DummyWorld();
+        world.setTotalWorldTime(100);
+        EnergyContainerHandler container = createContainer(world);
+
+        // a machine which is asleep is not updated, but energy is still accepted
+        for (int tick = 0; tick < 20; tick++) {
+            world.setTotalWorldTime(100 + tick);
+            container.acceptEnergyFromNetwork(null, V[LV], 1);
+        }
+        world.setTotalWorldTime(120);
+        MatcherAssert.assertThat(container.getInputPerSec(), is(20 * V[LV]));
+
+        // nothing was accepted during the last full second
+        world.setTotalWorldTime(160);
+        MatcherAssert.assertThat(container.getInputPerSec(), is(0L));
+    }
+
+    private static EnergyContainerHandler createContainer(World world) {
+        MetaTileEntity sample = new MetaTileEntity(new ResourceLocation(MODID, "energy_container_test")) {
+
+            @Override
+            public MetaTileEntity createMetaTileEntity(IGregTechTileEntity tileEntity) {
+                return this;
+            }
+        };
+        MetaTileEntity mte = new MetaTileEntityHolder().setMetaTileEntity(sample);
+        ((MetaTileEntityHolder) mte.getHolder()).setWorld(world);
+        return EnergyContainerHandler.receiverContainer(mte, V[LV] * 64L * AMPS, V[LV], AMPS);
+    }
+}
@@ -0,0 +1,127 @@
+package gregtech.api.capability.impl.miner;
+
+import gregtech.Bootstrap;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.metatileentity.MetaTileEntityHolder;
+import gregtech.api.unification.OreDictUnifier;
+import gregtech.api.util.world.DummyWorld;
+import gregtech.common.metatileentities.electric.MetaTileEntityMiner;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.oredict.OreDictionary;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static gregtech.api.util.GTUtility.gregtechId;
+import static org.hamcrest.CoreMatchers.is;
+
+public class MinerLogicTest {
+
+    private static final BlockPos MINER_POS = new BlockPos(8, 10, 8);
+    private static final int RADIUS = 2;
+    /** The amount of rows in the mining area, each of which fits into a single chunk */
+    private static final int ROWS = (MINER_POS.getY() - 1) * (RADIUS * 2 + 1);
+
+    /** Ore dictionary entries registered by the tests, removed again once they are done */
+    private static final List<OreDictionary.OreRegisterEvent> REGISTRATIONS = new ArrayList<>();
+
+    @BeforeAll
+    public static void bootstrap() {
+        Bootstrap.perform();
+        registerOre("oreIron", new ItemStack(Blocks.IRON_ORE));
+    }
+
+    @AfterAll
+    public static void removeRegistrations() {
+        for (OreDictionary.OreRegisterEvent event : REGISTRATIONS) {
+            OreDictUnifier.removeRegistration(event.getName(), event.getOre());
+        }
+        REGISTRATIONS.clear();
+    }
+
+    @Test
+    public void scanFindsOres() {
+        World world = new DummyWorld();
+        BlockPos first = new BlockPos(7, 5, 8);
+        BlockPos second = new BlockPos(10, 2, 10);
+        world.setBlockState(first, Blocks.IRON_ORE.getDefaultState());
+        world.setBlockState(second, Blocks.IRON_ORE.getDefaultState());
+        world.setBlockState(new BlockPos(8, 4, 8), Blocks.STONE.getDefaultState());
+        // outside of the mining area
+        world.setBlockState(new BlockPos(11, 5, 8), Blocks.IRON_ORE.getDefaultState());
+
+        MinerLogic logic = createLogic(world);
+        logic.scanBlocksToMine(TimeUnit.SECONDS.toNanos(10));
+        MatcherAssert.assertThat(logic.isScanInterrupted(), is(false));
+
+        LongArrayFIFOQueue blocks = logic.getBlocksToMine();
+        MatcherAssert.assertThat(blocks.size(), is(2));
+        MatcherAssert.assertThat(BlockPos.fromLong(blocks.dequeueLong()), is(first));
+        MatcherAssert.assertThat(BlockPos.fromLong(blocks.dequeueLong()), is(second));
+    }
+
+    @Test
+    public void scanContinuesAfterRunningOutOfTime() {
+        World world = new DummyWorld();
+        BlockPos ore = new BlockPos(10, 2, 10);
+        world.setBlockState(ore, Blocks.IRON_ORE.getDefaultState());
+
+        // without any time, each scan only checks a single row
+        MinerLogic logic = createLogic(world);
+        int scans = 0;
+        do {
+            logic.scanBlocksToMine(0);
+            scans++;
+        } while (logic.isScanInterrupted());
+
+        // one scan per row, and a last one finding the end of the area
+        MatcherAssert.assertThat(scans, is(ROWS + 1));
+        MatcherAssert.assertThat(logic.getBlocksToMine().size(), is(1));
+        MatcherAssert.assertThat(BlockPos.fromLong(logic.getBlocksToMine().firstLong()), is(ore));
+    }
+
+    @Test
+    public void oreDictionaryChangesAreSeen() {
+        World world = new DummyWorld();
+        BlockPos ore = new BlockPos(8, 3, 8);
+        world.setBlockState(ore, Blocks.LAPIS_ORE.getDefaultState());
+
+        MinerLogic logic = createLogic(world);
+        logic.scanBlocksToMine(TimeUnit.SECONDS.toNanos(10));
+        MatcherAssert.assertThat(logic.getBlocksToMine().isEmpty(), is(true));
+
+        registerOre("oreLapis", new ItemStack(Blocks.LAPIS_ORE));
+        logic.initPos(MINER_POS, RADIUS);
+        logic.scanBlocksToMine(TimeUnit.SECONDS.toNanos(10));
+        MatcherAssert.assertThat(logic.getBlocksToMine().size(), is(1));
+    }
+
+    private static void registerOre(String name, ItemStack stack) {
+        OreDictionary.OreRegisterEvent event = new OreDictionary.OreRegisterEvent(name, stack);
+        OreDictUnifier.onItemRegistration(event);
+        REGISTRATIONS.add(event);
+    }
+
+    private static MinerLogic createLogic(World world) {
+        MetaTileEntity miner = new MetaTileEntityHolder().setMetaTileEntity(
+                new MetaTileEntityMiner(gregtechId("miner.test"), 1, 1, RADIUS, 0));
+        MetaTileEntityHolder holder = (MetaTileEntityHolder) miner.getHolder();
+        holder.setWorld(world);
+        holder.setPos(MINER_POS);
+
+        MinerLogic logic = new MinerLogic(miner, 0, 1, RADIUS, null);
+        logic.initPos(MINER_POS, RADIUS);
+        return logic;
+    }
+}
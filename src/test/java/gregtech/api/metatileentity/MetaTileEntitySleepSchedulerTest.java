@@ -0,0 +1,92 @@
+package gregtech.api.metatileentity;
+
+import gregtech.Bootstrap;
+import gregtech.api.capability.GregtechCapabilities;
+import gregtech.api.capability.IEnergyContainer;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.RecipeMapBuilder;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import gregtech.api.util.GTUtility;
+import gregtech.api.util.world.DummyWorld;
+import gregtech.common.metatileentities.MetaTileEntities;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+
+public class MetaTileEntitySleepSchedulerTest {
+
+    private static int TEST_ID = 290;
+
+    @BeforeAll
+    public static void bootstrap() {
+        Bootstrap.perform();
+    }
+
+    @Test
+    public void wakesOnInventoryChange() {
+        MetaTileEntityHolder holder = createSleepingHolder();
+        World world = holder.getWorld();
+
+        holder.getMetaTileEntity().getImportItems().insertItem(0, new ItemStack(Blocks.COBBLESTONE), false);
+        tick(world);
+        MatcherAssert.assertThat(world.tickableTileEntities.contains(holder), is(true));
+    }
+
+    @Test
+    public void wakesOnEnergyChange() {
+        MetaTileEntityHolder holder = createSleepingHolder();
+        World world = holder.getWorld();
+
+        IEnergyContainer container = holder.getMetaTileEntity()
+                .getCapability(GregtechCapabilities.CAPABILITY_ENERGY_CONTAINER, null);
+        container.acceptEnergyFromNetwork(null, 32, 1);
+        tick(world);
+        MatcherAssert.assertThat(world.tickableTileEntities.contains(holder), is(true));
+    }
+
+    @Test
+    public void staysAsleepWithoutChanges() {
+        MetaTileEntityHolder holder = createSleepingHolder();
+        World world = holder.getWorld();
+
+        tick(world);
+        MatcherAssert.assertThat(world.tickableTileEntities.contains(holder), is(false));
+    }
+
+    private static MetaTileEntityHolder createSleepingHolder() {
+        World world = DummyWorld.INSTANCE;
+        RecipeMap<SimpleRecipeBuilder> map = new RecipeMapBuilder<>("test_sleeper_" + TEST_ID,
+                new SimpleRecipeBuilder().EUt(30))
+                        .itemInputs(1)
+                        .itemOutputs(1)
+                        .build();
+        MetaTileEntity mte = MetaTileEntities.registerMetaTileEntity(TEST_ID,
+                new SimpleMachineMetaTileEntity(GTUtility.gregtechId("sleeper.lv_" + TEST_ID), map, null, 1,
+                        false));
+        TEST_ID++;
+
+        MetaTileEntityHolder holder = (MetaTileEntityHolder) new MetaTileEntityHolder().setMetaTileEntity(mte)
+                .getHolder();
+        holder.setWorld(world);
+        world.tickableTileEntities.add(holder);
+
+        MetaTileEntitySleepScheduler.sleep(holder, Integer.MAX_VALUE);
+        tick(world);
+        MatcherAssert.assertThat(world.tickableTileEntities.contains(holder), is(false));
+        return holder;
+    }
+
+    private static void tick(World world) {
+        MetaTileEntitySleepScheduler
+                .onWorldTick(new TickEvent.WorldTickEvent(Side.SERVER, TickEvent.Phase.END, world));
+    }
+}
@@ -0,0 +1,44 @@
+package gregtech.api.metatileentity;
+
+import net.minecraft.network.PacketBuffer;
+
+import io.netty.buffer.Unpooled;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+
+public class SyncedTileEntityBatcherTest {
+
+    @Test
+    public void testCoalescing() {
+        SyncedTileEntityBatcher.PendingData data = new SyncedTileEntityBatcher.PendingData();
+        data.add(1, 0, buf -> buf.writeBoolean(true));
+        data.add(2, SyncedTileEntityBatcher.NO_KEY, buf -> buf.writeVarInt(5));
+        data.add(2, SyncedTileEntityBatcher.NO_KEY, buf -> buf.writeVarInt(6));
+        data.add(1, 0, buf -> buf.writeBoolean(false));
+        data.add(1, 1, buf -> buf.writeBoolean(true));
+
+        PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+        data.writeTo(buf);
+        data.release();
+
+        // the first entry of key 0 is replaced, data without a key is always kept
+        MatcherAssert.assertThat(buf.readVarInt(), is(4));
+        assertEntry(buf, 2, 5);
+        assertEntry(buf, 2, 6);
+        MatcherAssert.assertThat(buf.readVarInt(), is(1));
+        MatcherAssert.assertThat(buf.readVarInt(), is(1));
+        MatcherAssert.assertThat(buf.readBoolean(), is(false));
+        MatcherAssert.assertThat(buf.readVarInt(), is(1));
+        MatcherAssert.assertThat(buf.readVarInt(), is(1));
+        MatcherAssert.assertThat(buf.readBoolean(), is(true));
+        MatcherAssert.assertThat(buf.readableBytes(), is(0));
+    }
+
+    private static void assertEntry(PacketBuffer buf, int discriminator, int value) {
+        MatcherAssert.assertThat(buf.readVarInt(), is(discriminator));
+        MatcherAssert.assertThat(buf.readVarInt(), is(1));
+        MatcherAssert.assertThat(buf.readVarInt(), is(value));
+    }
+}
@@ -0,0 +1,151 @@
+package gregtech.api.metatileentity.multiblock;
+
+import gregtech.Bootstrap;
+import gregtech.api.util.world.DummyWorld;
+import gregtech.common.metatileentities.multi.electric.MetaTileEntityElectricBlastFurnace;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static gregtech.api.util.GTUtility.gregtechId;
+import static org.hamcrest.CoreMatchers.*;
+
+public class MultiblockStructureIndexTest {
+
+    private static final BlockPos A = new BlockPos(1, 5, 1);
+    private static final BlockPos B = new BlockPos(2, 5, 1);
+    private static final BlockPos OTHER_CHUNK = new BlockPos(40, 5, 1);
+    private static final BlockPos OUTSIDE = new BlockPos(3, 5, 1);
+
+    private World world;
+    private MultiblockStructureIndex index;
+
+    @BeforeAll
+    public static void bootstrap() {
+        Bootstrap.perform();
+    }
+
+    @BeforeEach
+    public void loadWorld() {
+        world = new DummyWorld();
+        MultiblockStructureIndex.onWorldLoad(new WorldEvent.Load(world));
+        index = MultiblockStructureIndex.get(world);
+        MatcherAssert.assertThat(index, notNullValue());
+    }
+
+    @AfterEach
+    public void unloadWorld() {
+        MultiblockStructureIndex.onWorldUnload(new WorldEvent.Unload(world));
+        MatcherAssert.assertThat(MultiblockStructureIndex.get(world), nullValue());
+    }
+
+    @Test
+    public void notifiesOnlyForStructureBlocks() {
+        TestController controller = new TestController();
+        index.add(controller, positions(A, B));
+
+        changeBlock(A);
+        MatcherAssert.assertThat(controller.changes, is(1));
+        changeBlock(OUTSIDE);
+        MatcherAssert.assertThat(controller.changes, is(1));
+
+        // changes without a new block state, like a machine being rotated
+        MultiblockStructureIndex.onBlockChanged(world, B);
+        MatcherAssert.assertThat(controller.changes, is(2));
+    }
+
+    @Test
+    public void sharedBlocksNotifyEveryController() {
+        TestController first = new TestController();
+        TestController second = new TestController();
+        index.add(first, positions(A, B));
+        index.add(second, positions(B, OUTSIDE));
+
+        changeBlock(B);
+        MatcherAssert.assertThat(first.changes, is(1));
+        MatcherAssert.assertThat(second.changes, is(1));
+
+        changeBlock(A);
+        MatcherAssert.assertThat(first.changes, is(2));
+        MatcherAssert.assertThat(second.changes, is(1));
+    }
+
+    @Test
+    public void addingReplacesTheStructure() {
+        TestController controller = new TestController();
+        index.add(controller, positions(A));
+        index.add(controller, positions(B));
+
+        changeBlock(A);
+        MatcherAssert.assertThat(controller.changes, is(0));
+        changeBlock(B);
+        MatcherAssert.assertThat(controller.changes, is(1));
+    }
+
+    @Test
+    public void removedStructuresAreNotNotified() {
+        TestController controller = new TestController();
+        index.add(controller, positions(A, OTHER_CHUNK));
+        index.remove(controller);
+
+        changeBlock(A);
+        unloadChunk(OTHER_CHUNK);
+        MatcherAssert.assertThat(controller.changes, is(0));
+    }
+
+    @Test
+    public void notifiesOnChunkUnload() {
+        TestController controller = new TestController();
+        index.add(controller, positions(A, OTHER_CHUNK));
+
+        unloadChunk(new BlockPos(20, 5, 1));
+        MatcherAssert.assertThat(controller.changes, is(0));
+        unloadChunk(OTHER_CHUNK);
+        MatcherAssert.assertThat(controller.changes, is(1));
+    }
+
+    private void changeBlock(BlockPos pos) {
+        // the dummy world does not notify its listeners
+        index.notifyBlockUpdate(world, pos, Blocks.AIR.getDefaultState(), Blocks.STONE.getDefaultState(), 3);
+    }
+
+    private void unloadChunk(BlockPos pos) {
+        MultiblockStructureIndex.onChunkUnload(new ChunkEvent.Unload(world.getChunk(pos)));
+    }
+
+    private static LongOpenHashSet positions(BlockPos... positions) {
+        LongOpenHashSet set = new LongOpenHashSet();
+        for (BlockPos pos : positions) {
+            set.add(pos.toLong());
+        }
+        return set;
+    }
+
+    private static class TestController extends MetaTileEntityElectricBlastFurnace {
+
+        private int changes;
+
+        public TestController() {
+            super(gregtechId("electric_blast_furnace"));
+        }
+
+        @Override
+        public void reinitializeStructurePattern() {}
+
+        @Override
+        void onStructureChanged() {
+            changes++;
+            super.onStructureChanged();
+        }
+    }
+}
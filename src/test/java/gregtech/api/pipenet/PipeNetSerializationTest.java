@@ -0,0 +1,109 @@
+package gregtech.api.pipenet;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PipeNetSerializationTest {
+
+    private static final WorldPipeNet<Integer, TestPipeNet> WORLD = new WorldPipeNet<>("test_pipe_net") {
+
+        @Override
+        protected TestPipeNet createNetInstance() {
+            return new TestPipeNet(this);
+        }
+    };
+
+    @Test
+    public void packedRoundTrip() {
+        TestPipeNet net = createTestNet();
+
+        TestPipeNet read = WORLD.createNetInstance();
+        read.deserializeNBT(net.serializeNBT());
+        assertSameNodes(net, read);
+    }
+
+    @Test
+    public void legacyFormatIsRead() {
+        TestPipeNet net = createTestNet();
+        NBTTagCompound legacy = new NBTTagCompound();
+        legacy.setTag("Nodes", net.serializeAllNodeList(net.getAllNodes()));
+
+        TestPipeNet read = WORLD.createNetInstance();
+        read.deserializeNBT(legacy);
+        assertSameNodes(net, read);
+        assertThat(read.serializeNBT().getCompoundTag("Nodes").hasKey("Version"), is(true));
+    }
+
+    @Test
+    public void unknownVersionIsKept() {
+        NBTTagCompound saved = createTestNet().serializeNBT();
+        saved.getCompoundTag("Nodes").setInteger("Version", Integer.MAX_VALUE);
+
+        TestPipeNet read = WORLD.createNetInstance();
+        read.deserializeNBT(saved);
+        assertThat(read.getAllNodes().isEmpty(), is(true));
+        assertThat(read.serializeNBT(), is(saved));
+    }
+
+    @Test
+    public void forEachNodeVisitsPackedPositions() {
+        TestPipeNet net = createTestNet();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int[] visited = new int[1];
+        net.forEachNode((packed, node) -> {
+            PipeNet.setPos(pos, packed);
+            assertThat(pos.toLong(), is(packed));
+            assertThat(net.getNodeAt(pos), is(node));
+            visited[0]++;
+        });
+        assertThat(visited[0], is(net.getAllNodes().size()));
+    }
+
+    private static TestPipeNet createTestNet() {
+        TestPipeNet net = WORLD.createNetInstance();
+        net.addNodeSilently(new BlockPos(0, 64, 0), new Node<>(1, 0b000011, Node.DEFAULT_MARK, true));
+        net.addNodeSilently(new BlockPos(1, 64, 0), new Node<>(1, 0b111111, 5, false));
+        net.addNodeSilently(new BlockPos(-5, 3, 1000), new Node<>(2, 0b110000, 7, false));
+        net.addNodeSilently(new BlockPos(-30000000, 0, 30000000), new Node<>(3, 0, -3, true));
+        net.addNodeSilently(new BlockPos(30000000, 255, -30000000), new Node<>(2, 0b001100, 0, true));
+        return net;
+    }
+
+    private static void assertSameNodes(TestPipeNet expected, TestPipeNet actual) {
+        assertThat(actual.getAllNodes().size(), is(expected.getAllNodes().size()));
+        for (Map.Entry<BlockPos, Node<Integer>> entry : expected.getAllNodes().entrySet()) {
+            Node<Integer> node = actual.getNodeAt(entry.getKey());
+            assertThat(node, notNullValue());
+            assertThat(node.data, is(entry.getValue().data));
+            assertThat(node.openConnections, is(entry.getValue().openConnections));
+            assertThat(node.mark, is(entry.getValue().mark));
+            assertThat(node.isActive, is(entry.getValue().isActive));
+        }
+        assertThat(actual.getContainedChunks(), is(expected.getContainedChunks()));
+    }
+
+    private static class TestPipeNet extends PipeNet<Integer> {
+
+        public TestPipeNet(WorldPipeNet<Integer, ? extends PipeNet<Integer>> world) {
+            super(world);
+        }
+
+        @Override
+        protected void writeNodeData(Integer nodeData, NBTTagCompound tagCompound) {
+            tagCompound.setInteger("value", nodeData);
+        }
+
+        @Override
+        protected Integer readNodeData(NBTTagCompound tagCompound) {
+            return tagCompound.getInteger("value");
+        }
+    }
+}
@@ -2,16 +2,21 @@ package gregtech.api.recipes;
 
 import gregtech.Bootstrap;
 import gregtech.api.GTValues;
+import gregtech.api.capability.impl.FluidTankList;
 import gregtech.api.recipes.builders.SimpleRecipeBuilder;
 import gregtech.api.recipes.map.AbstractMapIngredient;
 import gregtech.api.recipes.map.MapFluidIngredient;
 import gregtech.api.recipes.map.MapItemStackIngredient;
 import gregtech.api.recipes.map.MapOreDictIngredient;
+import gregtech.common.ConfigHolder;
 
 import net.minecraft.init.Blocks;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.fluids.FluidRegistry;
 import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.ItemStackHandler;
 import net.minecraftforge.oredict.OreDictionary;
 
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
@@ -22,8 +27,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static gregtech.api.unification.material.Materials.*;
 import static org.hamcrest.CoreMatchers.*;
@@ -274,4 +281,138 @@ public class RecipeMapTest {
             MatcherAssert.assertThat(recipe, notNullValue());
         }
     }
+
+    @Test
+    public void frozenLookup() {
+        map.freeze();
+        MatcherAssert.assertThat(map.isFrozen(), is(true));
+
+        Recipe r = map.findRecipe(1, Collections.singletonList(new ItemStack(Blocks.COBBLESTONE)),
+                Collections.singletonList(null));
+        MatcherAssert.assertThat(r, notNullValue());
+
+        Recipe r2 = map.findRecipe(30,
+                Collections.singletonList(ItemStack.EMPTY),
+                Arrays.asList(
+                        NitrogenDioxide.getFluid(1000),
+                        Epichlorohydrin.getFluid(144),
+                        Naphtha.getFluid(3000)));
+        MatcherAssert.assertThat(r2, notNullValue());
+
+        MatcherAssert.assertThat(map.findRecipe(30,
+                Collections.singletonList(new ItemStack(Blocks.DIRT)),
+                Collections.singletonList(Naphtha.getFluid(3000))),
+                nullValue());
+
+        // modifying the map discards the compiled lookup
+        assert map.removeRecipe(r2);
+        MatcherAssert.assertThat(map.isFrozen(), is(false));
+        MatcherAssert.assertThat(map.findRecipe(30,
+                Collections.singletonList(ItemStack.EMPTY),
+                Arrays.asList(
+                        Epichlorohydrin.getFluid(144),
+                        Naphtha.getFluid(3000),
+                        NitrogenDioxide.getFluid(1000))),
+                nullValue());
+    }
+
+    @Test
+    public void frozenLookupFromHandlers() {
+        map.freeze();
+
+        ItemStackHandler items = new ItemStackHandler(2);
+        FluidTankList fluids = new FluidTankList(false, new FluidTank(16000), new FluidTank(16000),
+                new FluidTank(16000));
+        fluids.getTankAt(0).fill(Naphtha.getFluid(3000), true);
+        fluids.getTankAt(1).fill(NitrogenDioxide.getFluid(1000), true);
+        fluids.getTankAt(2).fill(Epichlorohydrin.getFluid(144), true);
+
+        Recipe r = map.findRecipe(30, items, fluids);
+        MatcherAssert.assertThat(r, notNullValue());
+
+        // searching again reuses the same buffers, and must not see the previous inputs
+        fluids.getTankAt(2).drain(144, true);
+        MatcherAssert.assertThat(map.findRecipe(30, items, fluids), nullValue());
+
+        items.setStackInSlot(1, new ItemStack(Blocks.COBBLESTONE));
+        MatcherAssert.assertThat(map.findRecipe(1, items, fluids), notNullValue());
+
+        // matching does not consume the inputs
+        MatcherAssert.assertThat(r.matches(false, items, fluids), is(false));
+        MatcherAssert.assertThat(fluids.getTankAt(0).getFluidAmount(), is(3000));
+    }
+
+    @Test
+    public void pipelinedRegistration() {
+        RecipeMap<SimpleRecipeBuilder> other = new RecipeMapBuilder<>("test_pipeline_" + mapId++,
+                new SimpleRecipeBuilder())
+                .itemInputs(1)
+                .itemOutputs(1)
+                .build();
+
+        ConfigHolder.misc.parallelRecipeRegistration = true;
+        try {
+            RecipeRegistrationPipeline.begin();
+            for (int i = 0; i < 2; i++) {
+                // the second recipe conflicts with the first one
+                map.recipeBuilder()
+                        .inputs(new ItemStack(Blocks.DIRT))
+                        .outputs(new ItemStack(Blocks.STONE))
+                        .EUt(1).duration(1)
+                        .buildAndRegister();
+            }
+            other.recipeBuilder()
+                    .inputs(new ItemStack(Blocks.DIRT))
+                    .outputs(new ItemStack(Blocks.COBBLESTONE))
+                    .EUt(1).duration(1)
+                    .buildAndRegister();
+
+            // reading a map compiles its queued recipes immediately
+            MatcherAssert.assertThat(other.getRecipeList().size(), is(1));
+            RecipeRegistrationPipeline.finish();
+        } finally {
+            ConfigHolder.misc.parallelRecipeRegistration = false;
+        }
+
+        MatcherAssert.assertThat(map.getRecipeList().size(), is(4));
+        Recipe r = map.findRecipe(1, Collections.singletonList(new ItemStack(Blocks.DIRT)),
+                Collections.singletonList(null));
+        MatcherAssert.assertThat(r, notNullValue());
+        MatcherAssert.assertThat(r.getOutputs().get(0).getItem(), is(new ItemStack(Blocks.STONE).getItem()));
+    }
+
+    @Test
+    public void restoreLookupSnapshot() {
+        List<Recipe> recipes = new ArrayList<>(map.getRecipeList());
+        NBTTagCompound snapshot = map.writeLookupSnapshot(recipes);
+        MatcherAssert.assertThat(snapshot, notNullValue());
+
+        RecipeMap<SimpleRecipeBuilder> restored = new RecipeMapBuilder<>("test_snapshot_" + mapId++,
+                new SimpleRecipeBuilder().EUt(30))
+                .itemInputs(2)
+                .itemOutputs(2)
+                .fluidInputs(3)
+                .fluidOutputs(2)
+                .build();
+        int[] accepted = new int[recipes.size()];
+        Arrays.setAll(accepted, i -> i);
+        restored.restoreLookupSnapshot(recipes, accepted, snapshot);
+
+        MatcherAssert.assertThat(restored.isFrozen(), is(true));
+        MatcherAssert.assertThat(restored.getRecipeList().size(), is(recipes.size()));
+        Recipe r = restored.findRecipe(1, Collections.singletonList(new ItemStack(Blocks.STONE)),
+                Collections.singletonList(new FluidStack(FluidRegistry.WATER, 1)));
+        MatcherAssert.assertThat(r, notNullValue());
+
+        // modifying the map builds its ingredient tree from the restored recipes
+        restored.recipeBuilder()
+                .inputs(new ItemStack(Blocks.DIRT))
+                .outputs(new ItemStack(Blocks.STONE))
+                .EUt(1).duration(1)
+                .buildAndRegister();
+        MatcherAssert.assertThat(restored.isFrozen(), is(false));
+        MatcherAssert.assertThat(restored.getRecipeList().size(), is(recipes.size() + 1));
+        MatcherAssert.assertThat(restored.findRecipe(1, Collections.singletonList(new ItemStack(Blocks.STONE)),
+                Collections.singletonList(new FluidStack(FluidRegistry.WATER, 1))), is(r));
+    }
 }
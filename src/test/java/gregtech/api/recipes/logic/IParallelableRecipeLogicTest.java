@@ -4,6 +4,7 @@ import gregtech.Bootstrap;
 import gregtech.api.capability.IMultipleTankHandler;
 import gregtech.api.capability.impl.FluidTankList;
 import gregtech.api.capability.impl.MultiblockRecipeLogic;
+import gregtech.api.metatileentity.IVoidable;
 import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.metatileentity.MetaTileEntityHolder;
 import gregtech.api.metatileentity.multiblock.MultiblockControllerBase;
@@ -29,6 +30,7 @@ import net.minecraft.init.Items;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.World;
+import net.minecraftforge.items.IItemHandlerModifiable;
 
 import org.hamcrest.MatcherAssert;
 import org.jetbrains.annotations.NotNull;
@@ -572,6 +574,11 @@ public class IParallelableRecipeLogicTest {
 
         MatcherAssert.assertThat(hashStrategy.equals(new ItemStack(Blocks.STONE, 4), outputRecipe.getOutputs().get(0)),
                 is(true));
+
+        // Check that the recipe consumes the multiplied inputs
+        MatcherAssert.assertThat(outputRecipe.matches(true, importItemBus.getImportItems(),
+                importFluidBus.getImportFluids()), is(true));
+        MatcherAssert.assertThat(importItemBus.getImportItems().getStackInSlot(0).getCount(), is(12));
     }
 
     // An end-to-end test for finding parallel recipes
@@ -816,6 +823,84 @@ public class IParallelableRecipeLogicTest {
                 is(true));
     }
 
+    @Test
+    public void applyParallelBonus_SeesParallel() {
+        MetaTileEntityElectricBlastFurnace EBF = initEBF(522);
+        RecipeMap<BlastRecipeBuilder> map = createBlastMap();
+        Recipe recipe = createCobblestoneRecipe(map);
+
+        int[] bonusParallel = { -1 };
+        IParallelableRecipeLogic logic = new ParallelableTestLogic(EBF, map, ParallelLogicType.MULTIPLY) {
+
+            @Override
+            public void applyParallelBonus(@NotNull RecipeBuilder<?> builder) {
+                bonusParallel[0] = builder.getParallel();
+            }
+        };
+
+        importItemBus.getImportItems().insertItem(0, new ItemStack(Blocks.COBBLESTONE, 16), false);
+        Recipe outputRecipe = logic.findParallelRecipe(recipe, importItemBus.getImportItems(),
+                importFluidBus.getImportFluids(), exportItemBus.getExportItems(),
+                exportFluidBus.getExportFluids(), 128, 4);
+
+        MatcherAssert.assertThat(outputRecipe, notNullValue());
+        MatcherAssert.assertThat(bonusParallel[0], is(4));
+    }
+
+    @Test
+    public void findParallelRecipe_CustomMultipliedRecipe() {
+        MetaTileEntityElectricBlastFurnace EBF = initEBF(523);
+        RecipeMap<BlastRecipeBuilder> map = createBlastMap();
+        Recipe recipe = createCobblestoneRecipe(map);
+
+        int[] calls = { 0 };
+        IParallelableRecipeLogic logic = new ParallelableTestLogic(EBF, map, ParallelLogicType.MULTIPLY) {
+
+            @Override
+            public RecipeBuilder<?> findMultipliedParallelRecipe(@NotNull RecipeMap<?> recipeMap,
+                                                                 @NotNull Recipe currentRecipe,
+                                                                 @NotNull IItemHandlerModifiable inputs,
+                                                                 @NotNull IMultipleTankHandler fluidInputs,
+                                                                 @NotNull IItemHandlerModifiable outputs,
+                                                                 @NotNull IMultipleTankHandler fluidOutputs,
+                                                                 int parallelLimit, long maxVoltage,
+                                                                 @NotNull IVoidable voidable) {
+                calls[0]++;
+                // only ever run two recipes at once
+                return super.findMultipliedParallelRecipe(recipeMap, currentRecipe, inputs, fluidInputs, outputs,
+                        fluidOutputs, 2, maxVoltage, voidable);
+            }
+        };
+
+        importItemBus.getImportItems().insertItem(0, new ItemStack(Blocks.COBBLESTONE, 16), false);
+        Recipe outputRecipe = logic.findParallelRecipe(recipe, importItemBus.getImportItems(),
+                importFluidBus.getImportFluids(), exportItemBus.getExportItems(),
+                exportFluidBus.getExportFluids(), 128, 4);
+
+        MatcherAssert.assertThat(calls[0], is(1));
+        MatcherAssert.assertThat(outputRecipe.getEUt(), is(60L));
+        MatcherAssert.assertThat(hashStrategy.equals(new ItemStack(Blocks.STONE, 2), outputRecipe.getOutputs().get(0)),
+                is(true));
+    }
+
+    private static RecipeMap<BlastRecipeBuilder> createBlastMap() {
+        return new RecipeMapBuilder<>("electric_blast_furnace", new BlastRecipeBuilder())
+                .itemInputs(3)
+                .itemOutputs(2)
+                .fluidInputs(1)
+                .fluidOutputs(1)
+                .build();
+    }
+
+    private static Recipe createCobblestoneRecipe(RecipeMap<BlastRecipeBuilder> map) {
+        return map.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE))
+                .outputs(new ItemStack(Blocks.STONE))
+                .blastFurnaceTemp(1000)
+                .EUt(30).duration(100)
+                .build().getResult();
+    }
+
     private static class ParallelableTestLogic implements IParallelableRecipeLogic {
 
         private final MetaTileEntity metaTileEntity;
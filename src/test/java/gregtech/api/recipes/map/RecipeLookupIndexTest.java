@@ -0,0 +1,111 @@
+package gregtech.api.recipes.map;
+
+import gregtech.Bootstrap;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.RecipeMapBuilder;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class RecipeLookupIndexTest {
+
+    private static RecipeMap<SimpleRecipeBuilder> map;
+
+    @BeforeAll
+    public static void bootstrap() {
+        Bootstrap.perform();
+        map = new RecipeMapBuilder<>("test_lookup_index", new SimpleRecipeBuilder().EUt(30))
+                .itemInputs(1)
+                .itemOutputs(1)
+                .build();
+    }
+
+    @Test
+    public void specialAndNormalNodesStaySeparate() {
+        Recipe special = createRecipe(Blocks.STONE);
+        Recipe normal = createRecipe(Blocks.DIRT);
+
+        Branch root = new Branch();
+        root.getSpecialNodes().put(new TestIngredient(1, true), Either.left(special));
+        root.getNodes().put(new TestIngredient(2, false), Either.left(normal));
+        RecipeLookupIndex index = RecipeLookupIndex.compile(root);
+
+        // the ingredients are equal regardless of their kind, but are only looked up in the nodes of their kind
+        MatcherAssert.assertThat(find(index, new TestIngredient(1, true)), is(special));
+        MatcherAssert.assertThat(find(index, new TestIngredient(1, false)), nullValue());
+        MatcherAssert.assertThat(find(index, new TestIngredient(2, false)), is(normal));
+        MatcherAssert.assertThat(find(index, new TestIngredient(2, true)), nullValue());
+    }
+
+    @Test
+    public void sameKeyInBothNodes() {
+        Recipe special = createRecipe(Blocks.STONE);
+        Recipe normal = createRecipe(Blocks.DIRT);
+
+        Branch root = new Branch();
+        root.getSpecialNodes().put(new TestIngredient(1, true), Either.left(special));
+        root.getNodes().put(new TestIngredient(1, false), Either.left(normal));
+        RecipeLookupIndex index = RecipeLookupIndex.compile(root);
+
+        MatcherAssert.assertThat(find(index, new TestIngredient(1, true)), is(special));
+        MatcherAssert.assertThat(find(index, new TestIngredient(1, false)), is(normal));
+    }
+
+    private static Recipe find(RecipeLookupIndex index, AbstractMapIngredient ingredient) {
+        List<List<AbstractMapIngredient>> ingredients = Collections
+                .singletonList(Collections.singletonList(ingredient));
+        RecipeLookupBuffer buffer = RecipeLookupBuffer.acquireSearch();
+        try {
+            return index.find(ingredients, recipe -> true, buffer);
+        } finally {
+            buffer.releaseSearch();
+        }
+    }
+
+    private static Recipe createRecipe(Block output) {
+        return map.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE))
+                .outputs(new ItemStack(output))
+                .EUt(1).duration(1)
+                .build().getResult();
+    }
+
+    private static class TestIngredient extends AbstractMapIngredient {
+
+        private final int value;
+        private final boolean special;
+
+        private TestIngredient(int value, boolean special) {
+            this.value = value;
+            this.special = special;
+        }
+
+        @Override
+        protected int hash() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            // deliberately ignores the kind of the ingredient
+            return super.equals(obj) && this.value == ((TestIngredient) obj).value;
+        }
+
+        @Override
+        public boolean isSpecialIngredient() {
+            return special;
+        }
+    }
+}
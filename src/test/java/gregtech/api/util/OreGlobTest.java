@@ -14,6 +14,8 @@ import org.hamcrest.TypeSafeMatcher;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+
 import static gregtech.common.covers.filter.oreglob.node.OreGlobNodes.*;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -240,6 +242,19 @@ public class OreGlobTest {
         expr = compile("!()");
         assertMatch(expr, "a", true);
         assertMatch(expr, "", false);
+
+        // inputs of 63 characters or less are evaluated by the compiled form, longer inputs by the interpreter
+        String input = "dust" + String.join("", Collections.nCopies(12, "Tiny")) + "Iron" + "123";
+        expr = compile("dust*Iron ???");
+        assertMatch(expr, input, true);
+        assertMatch(expr, input + "4", false);
+        assertMatch(expr, "dust" + String.join("", Collections.nCopies(40, "Tiny")) + "Iron" + "123", true);
+        assertMatch(expr, input.substring(1), false);
+
+        expr = compile("!??");
+        assertMatch(expr, "", true);
+        assertMatch(expr, "ab", false);
+        assertMatch(expr, "abc", true);
     }
 
     @Test
@@ -0,0 +1,48 @@
+package gregtech.api.util.profiler;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class TickHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = TickHistogram.indexOf(value);
+            MatcherAssert.assertThat(value, allOf(greaterThanOrEqualTo(TickHistogram.lowerBound(index)),
+                    lessThan(TickHistogram.lowerBound(index + 1))));
+        }
+        MatcherAssert.assertThat(TickHistogram.indexOf(Long.MAX_VALUE) >= 0, is(true));
+    }
+
+    @Test
+    public void testPercentiles() {
+        TickHistogram histogram = new TickHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        MatcherAssert.assertThat(histogram.getCount(), is(1000L));
+        MatcherAssert.assertThat(histogram.getMax(), is(1_000_000L));
+        MatcherAssert.assertThat(histogram.getTotal(), is(500_500_000L));
+        MatcherAssert.assertThat(histogram.getPercentile(0.5),
+                allOf(greaterThanOrEqualTo(500_000L), lessThanOrEqualTo(562_500L)));
+        MatcherAssert.assertThat(histogram.getPercentile(0.99),
+                allOf(greaterThanOrEqualTo(990_000L), lessThanOrEqualTo(1_000_000L)));
+        MatcherAssert.assertThat(histogram.getPercentile(1), is(1_000_000L));
+    }
+
+    @Test
+    public void testEmpty() {
+        TickHistogram histogram = new TickHistogram();
+        MatcherAssert.assertThat(histogram.getPercentile(0.5), is(0L));
+        histogram.record(-5);
+        MatcherAssert.assertThat(histogram.getMax(), is(0L));
+    }
+}
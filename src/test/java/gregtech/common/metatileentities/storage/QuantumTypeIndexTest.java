@@ -0,0 +1,111 @@
+package gregtech.common.metatileentities.storage;
+
+import it.unimi.dsi.fastutil.Hash;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class QuantumTypeIndexTest {
+
+    /** Compares types ignoring case, to check the index uses its strategy instead of equals */
+    private static final Hash.Strategy<String> IGNORE_CASE = new Hash.Strategy<String>() {
+
+        @Override
+        public int hashCode(String o) {
+            return o == null ? 0 : o.toLowerCase(Locale.ROOT).hashCode();
+        }
+
+        @Override
+        public boolean equals(String a, String b) {
+            return a == null ? b == null : a.equalsIgnoreCase(b);
+        }
+    };
+
+    @Test
+    public void Test_Next() {
+        QuantumTypeIndex<String> index = createIndex("iron", null, "gold", "iron", null);
+
+        assertThat(index.size(), is(5));
+        assertThat(index.next("iron", -1), is(0));
+        assertThat(index.next("iron", 0), is(3));
+        assertThat(index.next("iron", 3), is(-1));
+        assertThat(index.next("IRON", -1), is(0));
+        assertThat(index.next("gold", -1), is(2));
+        assertThat(index.next("copper", -1), is(-1));
+
+        // empty storages
+        assertThat(index.next(null, -1), is(1));
+        assertThat(index.next(null, 1), is(4));
+        assertThat(index.next(null, 4), is(-1));
+    }
+
+    @Test
+    public void Test_Set() {
+        QuantumTypeIndex<String> index = createIndex("iron", null, "gold");
+
+        index.set(1, "gold");
+        assertThat(index.next(null, -1), is(-1));
+        assertThat(index.next("gold", -1), is(1));
+        assertThat(index.next("gold", 1), is(2));
+
+        index.set(0, null);
+        assertThat(index.get(0), nullValue());
+        assertThat(index.next("iron", -1), is(-1));
+        assertThat(index.next(null, -1), is(0));
+
+        // types equal by the strategy keep the instance they were indexed with
+        index.set(2, "GOLD");
+        assertThat(index.get(2), is("gold"));
+    }
+
+    @Test
+    public void Test_Remove() {
+        QuantumTypeIndex<String> index = createIndex("iron", null, "gold", "copper");
+
+        // the last storage is moved into the place of the removed one
+        index.remove(1);
+        assertThat(index.size(), is(3));
+        assertThat(index.get(1), is("copper"));
+        assertThat(index.next("copper", -1), is(1));
+        assertThat(index.next(null, -1), is(-1));
+
+        index.remove(2);
+        assertThat(index.size(), is(2));
+        assertThat(index.next("gold", -1), is(-1));
+        assertThat(index.anyType() != null, is(true));
+
+        index.remove(0);
+        index.remove(0);
+        assertThat(index.size(), is(0));
+        assertThat(index.anyType(), nullValue());
+    }
+
+    @Test
+    public void Test_Iterate_While_Updating() {
+        QuantumTypeIndex<String> index = createIndex("iron", "iron", "gold", "iron");
+
+        // empty every storage holding iron, as extracting from them would
+        int visited = 0;
+        for (int storage = index.next("iron", -1); storage != -1; storage = index.next("iron", storage)) {
+            index.set(storage, null);
+            visited++;
+        }
+        assertThat(visited, is(3));
+        assertThat(index.next("iron", -1), is(-1));
+        assertThat(index.next(null, -1), is(0));
+        assertThat(index.next(null, 1), is(3));
+        assertThat(index.anyType(), is("gold"));
+    }
+
+    private static QuantumTypeIndex<String> createIndex(String... types) {
+        QuantumTypeIndex<String> index = new QuantumTypeIndex<>(IGNORE_CASE);
+        for (String type : types) {
+            index.add(type);
+        }
+        return index;
+    }
+}